@@ -1,9 +1,26 @@
 package com.exam.eventhub.auth.repository;
 
 import com.exam.eventhub.auth.model.PersistentLogin;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface PersistentLoginRepository extends JpaRepository <PersistentLogin, String>{
+
+    @Query("SELECT p.series FROM PersistentLogin p WHERE p.lastUsed < :cutoff AND p.series > :after ORDER BY p.series")
+    List<String> findSeriesLastUsedBefore(@Param("cutoff") LocalDateTime cutoff,
+                                          @Param("after") String after,
+                                          Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM PersistentLogin p WHERE p.series IN :series AND p.lastUsed < :cutoff")
+    int deleteLastUsedBefore(@Param("series") Collection<String> series, @Param("cutoff") LocalDateTime cutoff);
 }
@@ -0,0 +1,69 @@
+package com.exam.eventhub.auth.service;
+
+import com.exam.eventhub.auth.repository.PersistentLoginRepository;
+import com.exam.eventhub.retention.service.RetentionPolicy;
+import com.exam.eventhub.retention.service.RetentionTarget;
+import com.exam.eventhub.security.CachingPersistentTokenRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Remember-me logins that have not been used for a while. Spring Security already rejects them once their
+ * validity is over, this only keeps {@code persistent_logins} from growing with every login ever made. Deleted
+ * series are dropped from the token cache as well.
+ */
+@Component
+public class RememberMeTokenRetention implements RetentionTarget<String> {
+
+    private final PersistentLoginRepository persistentLoginRepository;
+    private final CachingPersistentTokenRepository tokenRepository;
+    private final RetentionPolicy policy;
+
+    public RememberMeTokenRetention(PersistentLoginRepository persistentLoginRepository,
+                                    CachingPersistentTokenRepository tokenRepository,
+                                    @Value("${eventhub.retention.remember-me-tokens.enabled:true}") boolean enabled,
+                                    @Value("${eventhub.retention.remember-me-tokens.retention-days:30}") long retentionDays,
+                                    @Value("${eventhub.retention.remember-me-tokens.chunk-size:1000}") int chunkSize,
+                                    @Value("${eventhub.retention.remember-me-tokens.pause-ms:100}") long pauseMs,
+                                    @Value("${eventhub.retention.remember-me-tokens.time-budget-seconds:60}") long timeBudgetSeconds) {
+        this.persistentLoginRepository = persistentLoginRepository;
+        this.tokenRepository = tokenRepository;
+        this.policy = RetentionPolicy.of(enabled, retentionDays, chunkSize, pauseMs, timeBudgetSeconds);
+    }
+
+    @Override
+    public String name() {
+        return "remember-me-tokens";
+    }
+
+    @Override
+    public RetentionPolicy policy() {
+        return policy;
+    }
+
+    @Override
+    public String start() {
+        return "";
+    }
+
+    @Override
+    public String parseId(String value) {
+        return value;
+    }
+
+    @Override
+    public List<String> findExpiredIds(LocalDateTime cutoff, String after, int limit) {
+        return persistentLoginRepository.findSeriesLastUsedBefore(cutoff, after, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public int purge(List<String> ids, LocalDateTime cutoff) {
+        int deleted = persistentLoginRepository.deleteLastUsedBefore(ids, cutoff);
+        tokenRepository.evict(ids);
+        return deleted;
+    }
+}
@@ -66,6 +66,11 @@ public class Booking {
 
     private UUID paymentId;
 
+    /**
+     * Set while a charge for this booking may be in flight in payment-service, cleared once its outcome is known.
+     */
+    private LocalDateTime paymentRequestedAt;
+
     @UpdateTimestamp
     private LocalDateTime paymentCompletedAt;
 }
\ No newline at end of file
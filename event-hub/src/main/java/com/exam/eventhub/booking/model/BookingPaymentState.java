@@ -0,0 +1,12 @@
+package com.exam.eventhub.booking.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * The payment-related columns of a booking, read without loading the entity and its associations.
+ */
+public record BookingPaymentState(UUID id, BookingStatus status, UUID paymentId, BigDecimal totalAmount,
+                                  LocalDateTime bookingDate, LocalDateTime paymentCompletedAt) {
+}
@@ -1,13 +1,17 @@
 package com.exam.eventhub.booking.repository;
 
 import com.exam.eventhub.booking.model.Booking;
+import com.exam.eventhub.booking.model.BookingPaymentState;
 import com.exam.eventhub.booking.model.BookingStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -23,9 +27,104 @@ public interface BookingRepository extends JpaRepository<Booking, UUID> {
 
     boolean existsByUserUsernameAndEventId(String username, UUID eventId);
 
-    @Query("SELECT b FROM Booking b WHERE b.status = :status AND b.bookingDate < :expirationDate")
+    @Query("SELECT b FROM Booking b WHERE b.status = :status AND b.bookingDate < :expirationDate AND b.paymentRequestedAt IS NULL")
     List<Booking> findExpiredPendingBookings(
             @Param("status") BookingStatus status,
             @Param("expirationDate") LocalDateTime expirationDate
     );
-}
\ No newline at end of file
+
+    int countByEventIdAndStatusIn(UUID eventId, Collection<BookingStatus> statuses);
+
+    @Query("""
+            SELECT b FROM Booking b
+            JOIN FETCH b.user
+            WHERE b.event.id = :eventId AND b.status IN :statuses AND b.id > :after
+            ORDER BY b.id""")
+    List<Booking> findByEventIdAndStatusInAfter(@Param("eventId") UUID eventId,
+                                                @Param("statuses") Collection<BookingStatus> statuses,
+                                                @Param("after") UUID after,
+                                                Pageable pageable);
+
+    @Modifying
+    @Query("""
+            UPDATE Booking b SET b.status = :to, b.cancelledAt = :now, b.cancellationReason = :reason
+            WHERE b.id IN :ids AND b.status IN :from AND b.paymentId IS NULL AND b.paymentRequestedAt IS NULL""")
+    int cancelUnpaid(@Param("ids") Collection<UUID> ids,
+                     @Param("from") Collection<BookingStatus> from,
+                     @Param("to") BookingStatus to,
+                     @Param("now") LocalDateTime now,
+                     @Param("reason") String reason);
+
+    @Modifying
+    @Query("""
+            UPDATE Booking b SET b.status = :to, b.cancelledAt = :now, b.cancellationReason = :reason
+            WHERE b.id IN :ids AND b.status IN :from AND b.paymentId IS NOT NULL""")
+    int markRefunded(@Param("ids") Collection<UUID> ids,
+                     @Param("from") Collection<BookingStatus> from,
+                     @Param("to") BookingStatus to,
+                     @Param("now") LocalDateTime now,
+                     @Param("reason") String reason);
+
+    @Query("""
+            SELECT b.id FROM Booking b
+            WHERE b.status = :status AND b.paymentId IS NULL AND b.cancelledAt < :cutoff AND b.id > :after
+            ORDER BY b.id""")
+    List<UUID> findUnpaidIdsCancelledBefore(@Param("status") BookingStatus status,
+                                            @Param("cutoff") LocalDateTime cutoff,
+                                            @Param("after") UUID after,
+                                            Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM Booking b WHERE b.id IN :ids AND b.status = :status AND b.paymentId IS NULL AND b.cancelledAt < :cutoff")
+    int deleteUnpaidCancelledBefore(@Param("ids") Collection<UUID> ids,
+                                    @Param("status") BookingStatus status,
+                                    @Param("cutoff") LocalDateTime cutoff);
+
+    @Query("""
+            SELECT new com.exam.eventhub.booking.model.BookingPaymentState(
+                b.id, b.status, b.paymentId, b.totalAmount, b.bookingDate, b.paymentCompletedAt)
+            FROM Booking b
+            WHERE (b.paymentId IS NOT NULL OR b.status IN :statuses) AND b.id > :after
+            ORDER BY b.id""")
+    List<BookingPaymentState> findPaymentStatesAfter(@Param("statuses") Collection<BookingStatus> statuses,
+                                                     @Param("after") UUID after,
+                                                     Pageable pageable);
+
+    @Modifying
+    @Query("""
+            UPDATE Booking b SET b.status = :to, b.paymentId = :paymentId, b.paymentCompletedAt = :now, b.paymentRequestedAt = NULL
+            WHERE b.id = :id AND b.status = :from AND (b.paymentId IS NULL OR b.paymentId = :paymentId)""")
+    int attachPayment(@Param("id") UUID id,
+                      @Param("paymentId") UUID paymentId,
+                      @Param("from") BookingStatus from,
+                      @Param("to") BookingStatus to,
+                      @Param("now") LocalDateTime now);
+
+    /**
+     * Marks that a charge is about to be requested, unless the booking left {@code status} or was paid meanwhile.
+     */
+    @Modifying
+    @Query("""
+            UPDATE Booking b SET b.paymentRequestedAt = :now
+            WHERE b.id = :id AND b.status = :status AND b.paymentId IS NULL""")
+    int markPaymentRequested(@Param("id") UUID id,
+                             @Param("status") BookingStatus status,
+                             @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("""
+            UPDATE Booking b SET b.paymentRequestedAt = NULL
+            WHERE b.id = :id AND b.status = :status AND b.paymentRequestedAt <= :requestedBefore""")
+    int clearPaymentRequested(@Param("id") UUID id,
+                              @Param("status") BookingStatus status,
+                              @Param("requestedBefore") LocalDateTime requestedBefore);
+
+    @Query("""
+            SELECT b.id FROM Booking b
+            WHERE b.status = :status AND b.paymentId IS NULL AND b.paymentRequestedAt < :requestedBefore AND b.id > :after
+            ORDER BY b.id""")
+    List<UUID> findPaymentRequestedIdsBefore(@Param("status") BookingStatus status,
+                                             @Param("requestedBefore") LocalDateTime requestedBefore,
+                                             @Param("after") UUID after,
+                                             Pageable pageable);
+}
@@ -0,0 +1,139 @@
+package com.exam.eventhub.booking.service;
+
+import com.exam.eventhub.booking.model.Booking;
+import com.exam.eventhub.booking.model.BookingStatus;
+import com.exam.eventhub.booking.repository.BookingRepository;
+import com.exam.eventhub.exception.PaymentProcessingException;
+import com.exam.eventhub.exception.PaymentServiceUnavailableException;
+import com.exam.eventhub.notification.model.NotificationTemplate;
+import com.exam.eventhub.notification.service.NotificationService;
+import com.exam.eventhub.payment.client.dto.PaymentResponse;
+import com.exam.eventhub.payment.service.PaymentService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Settles bookings whose charge was requested but whose outcome {@link BookingService#markAsPaid} never saw, because
+ * the wait for it timed out or payment-service stopped answering. Such a booking stays PENDING with
+ * {@code paymentRequestedAt} set, which keeps it away from the auto-cancel job. Once the mark is older than
+ * {@code recheck-after-seconds} payment-service is asked for the payment of the booking:
+ * <ul>
+ *     <li>SUCCESS - the booking is confirmed and the user notified, in one transaction;</li>
+ *     <li>FAILED, REFUNDED or no payment at all - the mark is cleared and the booking expires as usual;</li>
+ *     <li>PENDING, or payment-service unavailable - the booking is left for the next run.</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+public class BookingPaymentConfirmationService {
+
+    private static final UUID START = new UUID(0, 0);
+
+    private final BookingRepository bookingRepository;
+    private final PaymentService paymentService;
+    private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration recheckAfter;
+    private final int batchSize;
+
+    public BookingPaymentConfirmationService(BookingRepository bookingRepository,
+                                             PaymentService paymentService,
+                                             NotificationService notificationService,
+                                             PlatformTransactionManager transactionManager,
+                                             @Value("${eventhub.payment.confirmation.recheck-after-seconds:60}") long recheckAfterSeconds,
+                                             @Value("${eventhub.payment.confirmation.recheck-batch-size:200}") int batchSize) {
+        this.bookingRepository = bookingRepository;
+        this.paymentService = paymentService;
+        this.notificationService = notificationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.recheckAfter = Duration.ofSeconds(recheckAfterSeconds);
+        this.batchSize = Math.max(batchSize, 1);
+    }
+
+    /**
+     * @return number of bookings confirmed
+     */
+    public int run() {
+        LocalDateTime requestedBefore = LocalDateTime.now().minus(recheckAfter);
+        UUID after = START;
+        int confirmed = 0;
+
+        while (true) {
+            List<UUID> ids = bookingRepository.findPaymentRequestedIdsBefore(BookingStatus.PENDING, requestedBefore, after,
+                    PageRequest.of(0, batchSize));
+
+            for (UUID bookingId : ids) {
+                try {
+                    if (settle(bookingId, requestedBefore)) {
+                        confirmed++;
+                    }
+                } catch (PaymentServiceUnavailableException e) {
+                    log.warn("Payment service unavailable, {} bookings confirmed before stopping", confirmed);
+                    return confirmed;
+                }
+            }
+
+            if (ids.size() < batchSize) {
+                break;
+            }
+
+            after = ids.get(ids.size() - 1);
+        }
+
+        if (confirmed > 0) {
+            log.info("Confirmed {} bookings whose payment finished after the wait for it", confirmed);
+        }
+
+        return confirmed;
+    }
+
+    private boolean settle(UUID bookingId, LocalDateTime requestedBefore) {
+        Optional<PaymentResponse> payment;
+        try {
+            payment = paymentService.getPaymentByBookingId(bookingId);
+        } catch (PaymentProcessingException e) {
+            log.warn("Payment of booking {} not checked: {}", bookingId, e.getMessage());
+            return false;
+        }
+
+        String status = payment.map(PaymentResponse::getStatus).orElse(null);
+
+        if ("PENDING".equalsIgnoreCase(status)) {
+            return false;
+        }
+
+        if (!"SUCCESS".equalsIgnoreCase(status)) {
+            log.info("Booking {} was not charged (payment status {}), it can expire", bookingId, status);
+            transactionTemplate.executeWithoutResult(tx ->
+                    bookingRepository.clearPaymentRequested(bookingId, BookingStatus.PENDING, requestedBefore));
+            return false;
+        }
+
+        UUID paymentId = payment.get().getPaymentId();
+
+        return Boolean.TRUE.equals(transactionTemplate.execute(tx -> {
+            if (bookingRepository.attachPayment(bookingId, paymentId, BookingStatus.PENDING, BookingStatus.CONFIRMED,
+                    LocalDateTime.now()) == 0) {
+                log.warn("Booking {} was charged by payment {} but is no longer pending", bookingId, paymentId);
+                return false;
+            }
+
+            Booking booking = bookingRepository.findById(bookingId).orElseThrow();
+            notificationService.enqueueIfEnabled(booking.getUser(), NotificationTemplate.PAYMENT_SUCCESSFUL,
+                    booking.getEvent().getTitle());
+
+            log.info("Booking {} confirmed with payment {}", bookingId, paymentId);
+            return true;
+        }));
+    }
+}
@@ -4,20 +4,24 @@ import com.exam.eventhub.booking.model.Booking;
 import com.exam.eventhub.booking.model.BookingStatus;
 import com.exam.eventhub.booking.repository.BookingRepository;
 import com.exam.eventhub.event.model.Event;
+import com.exam.eventhub.event.model.EventStatus;
 import com.exam.eventhub.event.service.EventService;
 import com.exam.eventhub.exception.*;
+import com.exam.eventhub.notification.model.NotificationTemplate;
 import com.exam.eventhub.notification.service.NotificationService;
 import com.exam.eventhub.payment.client.dto.PaymentResponse;
 import com.exam.eventhub.payment.service.PaymentService;
 import com.exam.eventhub.user.model.User;
 import com.exam.eventhub.user.service.UserService;
 import com.exam.eventhub.web.dto.BookingCreateRequest;
-import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -28,7 +32,6 @@ import static com.exam.eventhub.common.Constants.ID_NOT_FOUND;
 
 @Slf4j
 @Service
-@AllArgsConstructor
 public class BookingService {
 
     private static final String ENTITY_NAME = "Booking";
@@ -40,6 +43,21 @@ public class BookingService {
     private final EventService eventService;
     private final NotificationService notificationService;
     private final PaymentService paymentService;
+    private final TransactionTemplate transactionTemplate;
+
+    public BookingService(BookingRepository bookingRepository,
+                          UserService userService,
+                          EventService eventService,
+                          NotificationService notificationService,
+                          PaymentService paymentService,
+                          PlatformTransactionManager transactionManager) {
+        this.bookingRepository = bookingRepository;
+        this.userService = userService;
+        this.eventService = eventService;
+        this.notificationService = notificationService;
+        this.paymentService = paymentService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
 
     @Transactional
     public Booking add(BookingCreateRequest bookingCreateRequest, String username) {
@@ -47,6 +65,10 @@ public class BookingService {
         User user = userService.getByUsername(username);
         Event event = eventService.getById(bookingCreateRequest.getEventId());
 
+        if (event.getStatus() == EventStatus.CANCELLED) {
+            throw new IllegalStateException("This event has been cancelled");
+        }
+
         if (event.getAvailableTickets() < bookingCreateRequest.getNumberOfTickets()) {
             throw new IllegalStateException("Not enough tickets available for this event");
         }
@@ -134,8 +156,14 @@ public class BookingService {
         eventService.saveEvent(event);
     }
 
+    /**
+     * Refunds the payment of a booking. payment-service is called outside of any transaction, so no pooled connection
+     * waits for it; the booking is then marked REFUNDED and the notification written to the outbox in one short
+     * transaction. If that commit fails, calling this again is safe: payment-service returns an already refunded
+     * payment unchanged.
+     */
     public void refundBooking(UUID bookingId) {
-        Booking booking = getById(bookingId);
+        Booking booking = getWithParticipants(bookingId);
         User user = booking.getUser();
         Event event = booking.getEvent();
 
@@ -153,14 +181,15 @@ public class BookingService {
         } catch (PaymentProcessingException | PaymentServiceUnavailableException e) {
             log.error("Refund failed for booking {}: {}", bookingId, e.getMessage());
 
-            sendRefundFailedNotification(user, event);
+            transactionTemplate.executeWithoutResult(status -> sendRefundFailedNotification(user, event));
 
             throw new IllegalStateException("Refund processing failed. Please contact support.");
         }
 
-        updateBookingStatusToRefunded(bookingId);
-
-        sendRefundSuccessNotification(user, event);
+        transactionTemplate.executeWithoutResult(status -> {
+            updateBookingStatusToRefunded(bookingId);
+            sendRefundSuccessNotification(user, event);
+        });
 
         log.info("Refund processed successfully for booking {}", bookingId);
     }
@@ -175,8 +204,15 @@ public class BookingService {
         return this.bookingRepository.countByEventId(id);
     }
 
+    /**
+     * Charges a booking. As with {@link #refundBooking(UUID)}, the charge (and the wait for its outcome) runs outside
+     * of any transaction; confirming the booking and writing the notification to the outbox is one short transaction.
+     * The booking is marked as having a charge in flight first. If the outcome is not known here (the wait timed out,
+     * or payment-service stopped answering) the mark stays, so the booking is not auto-cancelled, and
+     * {@link BookingPaymentConfirmationService} settles it later.
+     */
     public void markAsPaid(UUID bookingId, String username) {
-        Booking booking = getById(bookingId);
+        Booking booking = getWithParticipants(bookingId);
 
         if (!booking.getUser().getUsername().equals(username)) {
             throw new UnauthorizedException("You are not authorized to pay for this booking");
@@ -192,16 +228,27 @@ public class BookingService {
             throw new BookingAlreadyConfirmedException("This booking is already confirmed");
         }
 
+        if (booking.getStatus() == BookingStatus.CANCELLED) {
+            throw new IllegalStateException("This booking has been cancelled");
+        }
+
         User user = booking.getUser();
         Event event = booking.getEvent();
         BigDecimal amount = booking.getTotalAmount();
 
+        Integer marked = transactionTemplate.execute(status ->
+                bookingRepository.markPaymentRequested(bookingId, BookingStatus.PENDING, LocalDateTime.now()));
+
+        if (marked == null || marked == 0) {
+            throw new IllegalStateException("This booking can no longer be paid");
+        }
+
         PaymentResponse paymentResponse;
         try {
             paymentResponse = paymentService.processPayment(bookingId, user.getId(), amount);
         } catch (PaymentProcessingException e) {
             log.error("Payment processing failed for booking {}: {}", bookingId, e.getMessage());
-            sendPaymentFailedNotification(user, event);
+            transactionTemplate.executeWithoutResult(status -> sendPaymentFailedNotification(user, event));
             throw new PaymentProcessingException("Payment processing failed. Please try again.");
 
         } catch (PaymentServiceUnavailableException e) {
@@ -209,8 +256,10 @@ public class BookingService {
             throw new PaymentProcessingException("Payment service is temporarily unavailable. Please try again later.");
         }
 
-        confirmBookingAfterPayment(bookingId, paymentResponse.getPaymentId());
-        sendPaymentSuccessNotification(user, event);
+        transactionTemplate.executeWithoutResult(status -> {
+            confirmBookingAfterPayment(bookingId, paymentResponse.getPaymentId());
+            sendPaymentSuccessNotification(user, event);
+        });
 
         log.info("Payment confirmed for booking {} by user {}", bookingId, username);
     }
@@ -229,15 +278,41 @@ public class BookingService {
         this.bookingRepository.save(booking);
     }
 
+    /**
+     * Cancels a booking that was never paid. A booking that was paid or got a charge requested since it was selected
+     * is left alone.
+     *
+     * @return whether the booking was cancelled
+     */
     @Transactional
-    public void autoCancelBooking(UUID bookingId, String reason) {
+    public boolean autoCancelBooking(UUID bookingId, String reason) {
         Booking booking = getById(bookingId);
+
+        if (booking.getStatus() != BookingStatus.PENDING || booking.getPaymentRequestedAt() != null) {
+            log.info("Booking {} is no longer awaiting payment, not auto-cancelling it", bookingId);
+            return false;
+        }
+
         cancelBookingInternal(booking, reason);
         bookingRepository.save(booking);
 
         Event event = booking.getEvent();
         event.setAvailableTickets(event.getAvailableTickets() + booking.getNumberOfTickets());
         eventService.saveEvent(event);
+
+        return true;
+    }
+
+    /**
+     * Loads the booking with its user and event in a short transaction, so they can still be read after it ended.
+     */
+    private Booking getWithParticipants(UUID bookingId) {
+        return transactionTemplate.execute(status -> {
+            Booking booking = getById(bookingId);
+            Hibernate.initialize(booking.getUser());
+            Hibernate.initialize(booking.getEvent());
+            return booking;
+        });
     }
 
     private boolean canBeCancelled(Booking booking) {
@@ -253,60 +328,32 @@ public class BookingService {
 
     private void confirmBooking(Booking booking, UUID paymentId) {
         booking.setPaymentId(paymentId);
+        booking.setPaymentRequestedAt(null);
         booking.setStatus(BookingStatus.CONFIRMED);
         booking.setPaymentCompletedAt(LocalDateTime.now());
     }
 
     private void sendRefundSuccessNotification(User user, Event event) {
         if (user.isNotificationsEnabled()) {
-            try {
-                notificationService.sendIfEnabled(user,
-                        "Refund Processed",
-                        "Your payment for event '" + event.getTitle() + "' has been refunded successfully."
-                );
-            } catch (Exception e) {
-                log.warn("Failed to send refund success notification for user {}: {}", user.getUsername(), e.getMessage());
-            }
+            notificationService.enqueueIfEnabled(user, NotificationTemplate.REFUND_PROCESSED, event.getTitle());
         }
     }
 
     private void sendRefundFailedNotification(User user, Event event) {
         if (user.isNotificationsEnabled()) {
-            try {
-                notificationService.sendIfEnabled(user,
-                        "Refund Failed",
-                        "We were unable to process your refund for event '" + event.getTitle() + "'. Please contact support."
-                );
-            } catch (Exception e) {
-                log.warn("Failed to send refund failed notification for user {}: {}", user.getUsername(), e.getMessage());
-            }
+            notificationService.enqueueIfEnabled(user, NotificationTemplate.REFUND_FAILED, event.getTitle());
         }
     }
 
     private void sendPaymentSuccessNotification(User user, Event event) {
         if (user.isNotificationsEnabled()) {
-            try {
-                notificationService.sendIfEnabled(user,
-                        "Payment Successful",
-                        "Your payment for \"" + event.getTitle() + "\" was successful! Enjoy the event 🎉"
-                );
-            } catch (Exception e) {
-                log.warn("Failed to send payment success notification for user {}: {}", user.getUsername(), e.getMessage());
-            }
+            notificationService.enqueueIfEnabled(user, NotificationTemplate.PAYMENT_SUCCESSFUL, event.getTitle());
         }
     }
 
     private void sendPaymentFailedNotification(User user, Event event) {
         if (user.isNotificationsEnabled()) {
-            try {
-                notificationService.sendIfEnabled(user,
-                        "Payment Failed",
-                        "Your payment for \"" + event.getTitle() + "\" was not successful. Please try again."
-                );
-            } catch (Exception e) {
-                log.warn("Failed to send payment failed notification for user {}: {}", user.getUsername(), e.getMessage());
-            }
+            notificationService.enqueueIfEnabled(user, NotificationTemplate.PAYMENT_FAILED, event.getTitle());
         }
     }
-
 }
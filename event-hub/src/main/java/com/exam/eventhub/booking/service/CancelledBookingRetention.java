@@ -0,0 +1,64 @@
+package com.exam.eventhub.booking.service;
+
+import com.exam.eventhub.booking.model.BookingStatus;
+import com.exam.eventhub.booking.repository.BookingRepository;
+import com.exam.eventhub.retention.service.RetentionPolicy;
+import com.exam.eventhub.retention.service.RetentionTarget;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Bookings that were cancelled before anything was paid, mostly the ones auto-cancelled after the payment timeout.
+ * Bookings with a payment are kept, payment-service still refers to them.
+ */
+@Component
+public class CancelledBookingRetention implements RetentionTarget<UUID> {
+
+    private final BookingRepository bookingRepository;
+    private final RetentionPolicy policy;
+
+    public CancelledBookingRetention(BookingRepository bookingRepository,
+                                     @Value("${eventhub.retention.cancelled-bookings.enabled:true}") boolean enabled,
+                                     @Value("${eventhub.retention.cancelled-bookings.retention-days:90}") long retentionDays,
+                                     @Value("${eventhub.retention.cancelled-bookings.chunk-size:500}") int chunkSize,
+                                     @Value("${eventhub.retention.cancelled-bookings.pause-ms:200}") long pauseMs,
+                                     @Value("${eventhub.retention.cancelled-bookings.time-budget-seconds:60}") long timeBudgetSeconds) {
+        this.bookingRepository = bookingRepository;
+        this.policy = RetentionPolicy.of(enabled, retentionDays, chunkSize, pauseMs, timeBudgetSeconds);
+    }
+
+    @Override
+    public String name() {
+        return "cancelled-bookings";
+    }
+
+    @Override
+    public RetentionPolicy policy() {
+        return policy;
+    }
+
+    @Override
+    public UUID start() {
+        return new UUID(0, 0);
+    }
+
+    @Override
+    public UUID parseId(String value) {
+        return UUID.fromString(value);
+    }
+
+    @Override
+    public List<UUID> findExpiredIds(LocalDateTime cutoff, UUID after, int limit) {
+        return bookingRepository.findUnpaidIdsCancelledBefore(BookingStatus.CANCELLED, cutoff, after, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public int purge(List<UUID> ids, LocalDateTime cutoff) {
+        return bookingRepository.deleteUnpaidCancelledBefore(ids, BookingStatus.CANCELLED, cutoff);
+    }
+}
@@ -0,0 +1,19 @@
+package com.exam.eventhub.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+/**
+ * CBOR counterpart of the JSON converter, built from the same Jackson settings. The Feign clients use it to talk
+ * to payment-service and notification-service in CBOR; it sits after the JSON converter, so JSON stays the default
+ * for everything else.
+ */
+@Component
+public class CborMessageConverter extends MappingJackson2CborHttpMessageConverter {
+
+    public CborMessageConverter(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        super(objectMapperBuilder.createXmlMapper(false).factory(new CBORFactory()).build());
+    }
+}
@@ -0,0 +1,156 @@
+package com.exam.eventhub.config;
+
+import com.exam.eventhub.http.InstrumentedFeignClient;
+import com.exam.eventhub.http.ResilientFeignClient;
+import com.exam.eventhub.http.WireFormatEncoder;
+import feign.RequestInterceptor;
+import feign.codec.Encoder;
+import feign.hc5.ApacheHttp5Client;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.SpringEncoder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Pooled HTTP transport of the Feign clients. Connections to each service are kept alive and reused, every service
+ * has its own connection limit so a slow payment-service cannot take the connections notification-service needs,
+ * and a request that cannot get a connection in time fails instead of holding its Tomcat thread. On top of the
+ * transport every service sits behind its own circuit breaker, bulkhead and retry budget.
+ * <p>
+ * Bodies travel in {@code eventhub.http.wire-format} (CBOR by default, {@code json} switches it off) and the
+ * services gzip large responses, which the client unpacks transparently.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    private static final String PAYMENT_SERVICE = "payment-service";
+    private static final String NOTIFICATION_SERVICE = "notification-service";
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager feignConnectionManager(@Value("${eventhub.http.pool.max-total:100}") int maxTotal,
+                                                                     @Value("${eventhub.http.pool.max-per-route:20}") int maxPerRoute,
+                                                                     @Value("${eventhub.http.pool.time-to-live-seconds:300}") long timeToLiveSeconds,
+                                                                     @Value("${eventhub.http.pool.validate-after-inactivity-ms:2000}") long validateAfterInactivityMs,
+                                                                     @Value("${eventhub.http.connect-timeout-ms:2000}") long connectTimeoutMs,
+                                                                     @Value("${eventhub.payment-service.base-url}") String paymentServiceUrl,
+                                                                     @Value("${eventhub.http.payment-service.max-connections:40}") int paymentConnections,
+                                                                     @Value("${eventhub.notification-service.base-url}") String notificationServiceUrl,
+                                                                     @Value("${eventhub.http.notification-service.max-connections:40}") int notificationConnections,
+                                                                     MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.STRICT)
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setTimeToLive(TimeValue.ofSeconds(timeToLiveSeconds))
+                        .setValidateAfterInactivity(TimeValue.ofMilliseconds(validateAfterInactivityMs))
+                        .build())
+                .build();
+
+        Map<String, HttpRoute> routes = Map.of(
+                PAYMENT_SERVICE, route(paymentServiceUrl),
+                NOTIFICATION_SERVICE, route(notificationServiceUrl));
+        connectionManager.setMaxPerRoute(routes.get(PAYMENT_SERVICE), paymentConnections);
+        connectionManager.setMaxPerRoute(routes.get(NOTIFICATION_SERVICE), notificationConnections);
+
+        routes.forEach((client, route) -> {
+            gauge(meterRegistry, connectionManager, client, route, "leased", "Connections in use", PoolStats::getLeased);
+            gauge(meterRegistry, connectionManager, client, route, "available", "Idle connections kept alive", PoolStats::getAvailable);
+            gauge(meterRegistry, connectionManager, client, route, "pending", "Requests waiting for a connection", PoolStats::getPending);
+            gauge(meterRegistry, connectionManager, client, route, "max", "Connection limit", PoolStats::getMax);
+        });
+
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient feignHttpClient(PoolingHttpClientConnectionManager feignConnectionManager,
+                                               @Value("${eventhub.http.pool.acquire-timeout-ms:1000}") long acquireTimeoutMs,
+                                               @Value("${eventhub.http.pool.keep-alive-seconds:30}") long keepAliveSeconds,
+                                               @Value("${eventhub.http.pool.idle-eviction-seconds:60}") long idleEvictionSeconds) {
+        return HttpClients.custom()
+                .setConnectionManager(feignConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(acquireTimeoutMs))
+                        .setConnectionKeepAlive(TimeValue.ofSeconds(keepAliveSeconds))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(idleEvictionSeconds))
+                .disableAutomaticRetries()
+                .build();
+    }
+
+    @Bean
+    public feign.Client feignClient(CloseableHttpClient feignHttpClient, Environment environment, MeterRegistry meterRegistry) {
+        return new ResilientFeignClient(
+                new InstrumentedFeignClient(new ApacheHttp5Client(feignHttpClient), environment, meterRegistry),
+                environment, meterRegistry, List.of(PAYMENT_SERVICE, NOTIFICATION_SERVICE));
+    }
+
+    @Bean
+    public Encoder feignEncoder(ObjectFactory<HttpMessageConverters> messageConverters,
+                                @Value("${eventhub.http.wire-format:cbor}") String wireFormat) {
+        return new WireFormatEncoder(new SpringEncoder(messageConverters), mediaType(wireFormat));
+    }
+
+    /**
+     * Asks for the wire format but still accepts JSON, so a service that cannot produce it keeps working.
+     */
+    @Bean
+    public RequestInterceptor wireFormatInterceptor(@Value("${eventhub.http.wire-format:cbor}") String wireFormat) {
+        MediaType mediaType = mediaType(wireFormat);
+        String accept = mediaType.equals(MediaType.APPLICATION_JSON)
+                ? MediaType.APPLICATION_JSON_VALUE
+                : mediaType + ", " + MediaType.APPLICATION_JSON_VALUE + ";q=0.9";
+
+        return template -> {
+            if (!template.headers().containsKey(HttpHeaders.ACCEPT)) {
+                template.header(HttpHeaders.ACCEPT, accept);
+            }
+        };
+    }
+
+    private static MediaType mediaType(String wireFormat) {
+        return "json".equalsIgnoreCase(wireFormat) ? MediaType.APPLICATION_JSON : MediaType.APPLICATION_CBOR;
+    }
+
+    private static HttpRoute route(String baseUrl) {
+        URI uri = URI.create(baseUrl);
+        int port = uri.getPort() > 0 ? uri.getPort() : "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+
+        return new HttpRoute(new HttpHost(uri.getScheme(), uri.getHost(), port), null, "https".equalsIgnoreCase(uri.getScheme()));
+    }
+
+    private static void gauge(MeterRegistry meterRegistry, PoolingHttpClientConnectionManager connectionManager,
+                              String client, HttpRoute route, String name, String description, ToIntFunction<PoolStats> stat) {
+        Gauge.builder("eventhub.http.client.pool." + name, connectionManager, manager -> stat.applyAsInt(manager.getStats(route)))
+                .description(description)
+                .tag("client", client)
+                .register(meterRegistry);
+    }
+}
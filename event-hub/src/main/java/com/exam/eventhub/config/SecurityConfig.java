@@ -1,22 +1,31 @@
 package com.exam.eventhub.config;
 
+import com.exam.eventhub.security.BoundedPasswordEncoder;
+import com.exam.eventhub.security.CachingPersistentTokenRepository;
 import com.exam.eventhub.security.CustomAuthFailureHandler;
+import com.exam.eventhub.security.LoginAttemptLimiter;
+import com.exam.eventhub.security.LoginThrottlingFilter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.security.servlet.PathRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.authentication.rememberme.JdbcTokenRepositoryImpl;
 import org.springframework.security.web.authentication.rememberme.PersistentTokenRepository;
 
 import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
 
 @Configuration
 @EnableWebSecurity
@@ -28,11 +37,15 @@ public class SecurityConfig {
             "/contact", "/contact/**", "/events", "/events/**", "/events/search/**"};
 
     private final CustomAuthFailureHandler customAuthFailureHandler;
+    private final LoginAttemptLimiter loginAttemptLimiter;
     private final DataSource dataSource;
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${eventhub.security.password.strength:10}") int strength,
+                                           @Value("${eventhub.security.password.pool-size:4}") int poolSize,
+                                           @Value("${eventhub.security.password.queue-capacity:32}") int queueCapacity,
+                                           MeterRegistry meterRegistry) {
+        return new BoundedPasswordEncoder(strength, poolSize, queueCapacity, meterRegistry);
     }
 
     @Bean
@@ -41,14 +54,18 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PersistentTokenRepository persistentTokenRepository() {
+    public CachingPersistentTokenRepository persistentTokenRepository(
+            @Value("${eventhub.security.remember-me.cache-enabled:true}") boolean cacheEnabled,
+            @Value("${eventhub.security.remember-me.max-cached-tokens:10000}") int maxCachedTokens,
+            @Value("${eventhub.security.remember-me.cache-ttl-seconds:60}") long cacheTtlSeconds) {
         JdbcTokenRepositoryImpl tokenRepository = new JdbcTokenRepositoryImpl();
         tokenRepository.setDataSource(dataSource);
-        return tokenRepository;
+        return new CachingPersistentTokenRepository(tokenRepository, new JdbcTemplate(dataSource), cacheEnabled,
+                maxCachedTokens, Duration.ofSeconds(cacheTtlSeconds), Clock.systemUTC());
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, PersistentTokenRepository persistentTokenRepository) throws Exception {
 
         http
                 .authorizeHttpRequests(authorize -> authorize
@@ -75,7 +92,7 @@ public class SecurityConfig {
                         .permitAll()
                 )
                 .rememberMe(remember -> remember
-                        .tokenRepository(persistentTokenRepository())
+                        .tokenRepository(persistentTokenRepository)
                         .tokenValiditySeconds(7 * 24 * 60 * 60)
                         .key("uniqueAndSecretKeyEventHub")
                         .rememberMeParameter("remember-me")
@@ -84,7 +101,9 @@ public class SecurityConfig {
                 )
                 .csrf(csrf -> csrf
                         .ignoringRequestMatchers("/api/**")
-                );
+                )
+                .addFilterBefore(new LoginThrottlingFilter(loginAttemptLimiter, "/login", "/login?error=throttled"),
+                        UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
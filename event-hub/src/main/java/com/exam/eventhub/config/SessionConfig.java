@@ -0,0 +1,44 @@
+package com.exam.eventhub.config;
+
+import com.exam.eventhub.session.repository.JdbcSessionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+import org.springframework.session.web.http.CookieSerializer;
+import org.springframework.session.web.http.DefaultCookieSerializer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Switches HTTP sessions from Tomcat memory to the shared {@code http_sessions} table when
+ * {@code eventhub.session.store=jdbc}. Without the property the container's in-memory sessions are used.
+ */
+@Configuration
+@EnableSpringHttpSession
+@ConditionalOnProperty(name = "eventhub.session.store", havingValue = "jdbc")
+public class SessionConfig {
+
+    @Bean
+    public JdbcSessionRepository sessionRepository(DataSource dataSource,
+                                                   @Value("${server.servlet.session.timeout:30m}") Duration timeout,
+                                                   @Value("${eventhub.session.touch-interval-seconds:60}") long touchIntervalSeconds,
+                                                   @Value("${eventhub.session.near-cache-size:10000}") int nearCacheSize,
+                                                   MeterRegistry meterRegistry) {
+        return new JdbcSessionRepository(new JdbcTemplate(dataSource), timeout,
+                Duration.ofSeconds(touchIntervalSeconds), nearCacheSize, meterRegistry);
+    }
+
+    @Bean
+    public CookieSerializer cookieSerializer() {
+        DefaultCookieSerializer serializer = new DefaultCookieSerializer();
+        serializer.setCookieName("JSESSIONID");
+        serializer.setUseHttpOnlyCookie(true);
+        serializer.setSameSite("Lax");
+        return serializer;
+    }
+}
@@ -3,14 +3,22 @@ package com.exam.eventhub.config;
 import com.exam.eventhub.security.LoginPageInterceptor;
 import lombok.AllArgsConstructor;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import org.springframework.web.servlet.i18n.LocaleChangeInterceptor;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+import java.util.concurrent.TimeUnit;
 
 @AllArgsConstructor
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    private static final long STATIC_ASSET_MAX_AGE_DAYS = 365;
+
     private final LoginPageInterceptor loginPageInterceptor;
     private final LocaleChangeInterceptor localeChangeInterceptor;
 
@@ -22,4 +30,20 @@ public class WebConfig implements WebMvcConfigurer {
                 .addPathPatterns("/login", "/register")
                 .excludePathPatterns("/css/**", "/js/**", "/images/**", "/webjars/**");
     }
-}
\ No newline at end of file
+
+    /**
+     * CSS is served under content-hashed names (e.g. {@code style-<md5>.css}) that Thymeleaf
+     * {@code @{...}} links are rewritten to, so the bytes behind a URL never change and can be
+     * cached as immutable. The {@code .br}/{@code .gz} variants are produced at build time by the
+     * {@code compressStaticAssets} Gradle task and picked according to {@code Accept-Encoding}.
+     */
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler("/css/**")
+                .addResourceLocations("classpath:/static/css/")
+                .setCacheControl(CacheControl.maxAge(STATIC_ASSET_MAX_AGE_DAYS, TimeUnit.DAYS).cachePublic().immutable())
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+    }
+}
@@ -0,0 +1,16 @@
+package com.exam.eventhub.event.model;
+
+import lombok.Getter;
+
+@Getter
+public enum CancellationStatus {
+    RUNNING("Running"),
+    COMPLETED("Completed"),
+    COMPLETED_WITH_ERRORS("Completed with errors");
+
+    private final String displayName;
+
+    CancellationStatus(String displayName) {
+        this.displayName = displayName;
+    }
+}
@@ -0,0 +1,71 @@
+package com.exam.eventhub.event.model;
+
+import jakarta.persistence.*;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Progress of cancelling one event: its bookings are refunded or cancelled chunk by chunk, in key order.
+ * {@code lastBookingId} is the highest booking already handled, so an interrupted run continues after it;
+ * {@code lockedUntil} keeps two instances from working on the same cancellation at once.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Entity
+@Table(name = "event_cancellations")
+public class EventCancellation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @EqualsAndHashCode.Include
+    private UUID id;
+
+    @Column(nullable = false, unique = true)
+    private UUID eventId;
+
+    @Column(nullable = false)
+    private String eventTitle;
+
+    @Column(nullable = false)
+    private String requestedBy;
+
+    private String reason;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CancellationStatus status = CancellationStatus.RUNNING;
+
+    private int totalBookings;
+
+    private int processedBookings;
+
+    private int refundedBookings;
+
+    private int cancelledBookings;
+
+    private int failedBookings;
+
+    private UUID lastBookingId;
+
+    private LocalDateTime lockedUntil;
+
+    @Column(length = 500)
+    private String lastError;
+
+    @CreationTimestamp
+    private LocalDateTime createdOn;
+
+    private LocalDateTime finishedOn;
+
+    public int getProgressPercent() {
+        return totalBookings == 0 ? 100 : Math.min(100, processedBookings * 100 / totalBookings);
+    }
+}
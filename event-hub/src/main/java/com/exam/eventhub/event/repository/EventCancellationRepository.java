@@ -0,0 +1,34 @@
+package com.exam.eventhub.event.repository;
+
+import com.exam.eventhub.event.model.CancellationStatus;
+import com.exam.eventhub.event.model.EventCancellation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface EventCancellationRepository extends JpaRepository<EventCancellation, UUID> {
+
+    Optional<EventCancellation> findByEventId(UUID eventId);
+
+    List<EventCancellation> findAllByOrderByCreatedOnDesc();
+
+    @Query("SELECT c.id FROM EventCancellation c WHERE c.status = :status ORDER BY c.createdOn")
+    List<UUID> findIdsByStatus(@Param("status") CancellationStatus status);
+
+    @Modifying
+    @Query("""
+            UPDATE EventCancellation c SET c.lockedUntil = :until
+            WHERE c.id = :id AND c.status = :status AND (c.lockedUntil IS NULL OR c.lockedUntil < :now)""")
+    int lock(@Param("id") UUID id,
+             @Param("status") CancellationStatus status,
+             @Param("now") LocalDateTime now,
+             @Param("until") LocalDateTime until);
+}
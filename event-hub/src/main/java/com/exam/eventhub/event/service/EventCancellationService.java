@@ -0,0 +1,468 @@
+package com.exam.eventhub.event.service;
+
+import com.exam.eventhub.booking.model.Booking;
+import com.exam.eventhub.booking.model.BookingStatus;
+import com.exam.eventhub.booking.repository.BookingRepository;
+import com.exam.eventhub.event.model.CancellationStatus;
+import com.exam.eventhub.event.model.Event;
+import com.exam.eventhub.event.model.EventCancellation;
+import com.exam.eventhub.event.model.EventStatus;
+import com.exam.eventhub.event.repository.EventCancellationRepository;
+import com.exam.eventhub.exception.EventNotFoundException;
+import com.exam.eventhub.exception.PaymentServiceUnavailableException;
+import com.exam.eventhub.notification.model.NotificationTemplate;
+import com.exam.eventhub.notification.service.NotificationService;
+import com.exam.eventhub.payment.client.dto.BatchRefundItemResult;
+import com.exam.eventhub.payment.client.dto.BatchRefundResponse;
+import com.exam.eventhub.payment.client.dto.RefundRequest;
+import com.exam.eventhub.payment.service.PaymentService;
+import com.exam.eventhub.user.model.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.exam.eventhub.common.Constants.ID_NOT_FOUND;
+
+/**
+ * Cancels an event and everything booked for it. Starting a cancellation only marks the event as cancelled and
+ * records an {@link EventCancellation}; {@link com.exam.eventhub.scheduler.EventCancellationScheduler} then works
+ * through the bookings in key-ordered chunks. The paid bookings of a chunk are refunded through payment-service in
+ * batches that run in parallel on a bounded pool, and the booking updates, the notifications for their owners and
+ * the progress of the cancellation are committed together in one short transaction per chunk. A run stops after
+ * its time budget or when payment-service is unavailable, and the next one continues after the last committed
+ * chunk; payment-service reports payments it already refunded instead of refunding them twice, so repeating a
+ * chunk is safe. A PENDING booking whose charge may still be in flight ({@code paymentRequestedAt} set) is neither
+ * cancelled nor counted: the charge could still succeed with nothing left to refund it. Such bookings are left for a
+ * later run, which goes over the event again once the scan reached its end, and the cancellation only completes when
+ * none are left; by then the booking was either confirmed (and is refunded) or its charge failed (and it is cancelled).
+ */
+@Slf4j
+@Service
+public class EventCancellationService implements DisposableBean {
+
+    private static final String ENTITY_NAME = "Event cancellation";
+    private static final String BOOKINGS_BY_USER = "bookings-by-user";
+    private static final String DEFAULT_REASON = "Event cancelled";
+    private static final Set<BookingStatus> ACTIVE = EnumSet.of(BookingStatus.PENDING, BookingStatus.CONFIRMED);
+    private static final UUID START = new UUID(0, 0);
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final EventCancellationRepository cancellationRepository;
+    private final EventService eventService;
+    private final BookingRepository bookingRepository;
+    private final PaymentService paymentService;
+    private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final MeterRegistry meterRegistry;
+    private final int chunkSize;
+    private final int refundBatchSize;
+    private final Duration lease;
+    private final Duration timeBudget;
+    private final ThreadPoolExecutor executor;
+
+    public EventCancellationService(EventCancellationRepository cancellationRepository,
+                                    EventService eventService,
+                                    BookingRepository bookingRepository,
+                                    PaymentService paymentService,
+                                    NotificationService notificationService,
+                                    PlatformTransactionManager transactionManager,
+                                    CacheManager cacheManager,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${eventhub.event.cancellation.chunk-size:500}") int chunkSize,
+                                    @Value("${eventhub.event.cancellation.refund-batch-size:100}") int refundBatchSize,
+                                    @Value("${eventhub.event.cancellation.refund-workers:4}") int refundWorkers,
+                                    @Value("${eventhub.event.cancellation.lease-seconds:300}") long leaseSeconds,
+                                    @Value("${eventhub.event.cancellation.time-budget-seconds:60}") long timeBudgetSeconds) {
+        this.cancellationRepository = cancellationRepository;
+        this.eventService = eventService;
+        this.bookingRepository = bookingRepository;
+        this.paymentService = paymentService;
+        this.notificationService = notificationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cacheManager = cacheManager;
+        this.meterRegistry = meterRegistry;
+        this.chunkSize = chunkSize;
+        this.refundBatchSize = refundBatchSize;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.timeBudget = Duration.ofSeconds(timeBudgetSeconds);
+
+        int batchesPerChunk = Math.max(1, (chunkSize + refundBatchSize - 1) / refundBatchSize);
+        this.executor = new ThreadPoolExecutor(refundWorkers, refundWorkers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(batchesPerChunk), refundThreads(), new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Marks the event as cancelled, so nothing new can be booked for it, and queues the cancellation of its
+     * bookings. Starting the cancellation of an event again returns the one already recorded.
+     */
+    @Transactional
+    @CacheEvict(value = {"events-simple", "events-detailed"}, allEntries = true)
+    public EventCancellation start(UUID eventId, String username, String reason) {
+        Optional<EventCancellation> existing = cancellationRepository.findByEventId(eventId);
+
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+
+        Event event = eventService.getById(eventId);
+        event.setStatus(EventStatus.CANCELLED);
+        eventService.saveEvent(event);
+
+        EventCancellation cancellation = new EventCancellation();
+        cancellation.setEventId(eventId);
+        cancellation.setEventTitle(event.getTitle());
+        cancellation.setRequestedBy(username);
+        cancellation.setReason(reason == null || reason.isBlank() ? DEFAULT_REASON : reason.strip());
+        cancellation.setTotalBookings(bookingRepository.countByEventIdAndStatusIn(eventId, ACTIVE));
+
+        EventCancellation saved = cancellationRepository.save(cancellation);
+
+        log.info("Cancellation of event [{}] (ID: [{}]) requested by {}: {} bookings to cancel.",
+                event.getTitle(), eventId, username, saved.getTotalBookings());
+
+        return saved;
+    }
+
+    public List<EventCancellation> getAll() {
+        return cancellationRepository.findAllByOrderByCreatedOnDesc();
+    }
+
+    public EventCancellation getById(UUID id) {
+        return cancellationRepository.findById(id)
+                .orElseThrow(() -> new EventNotFoundException(ID_NOT_FOUND.formatted(ENTITY_NAME, id)));
+    }
+
+    /**
+     * Goes over the bookings again after a run that could not refund some of them; bookings that were refunded
+     * or cancelled in the meantime are not touched again.
+     */
+    @Transactional
+    public EventCancellation retry(UUID id) {
+        EventCancellation cancellation = getById(id);
+
+        if (cancellation.getStatus() != CancellationStatus.COMPLETED_WITH_ERRORS) {
+            throw new IllegalStateException("Only a cancellation that completed with errors can be retried");
+        }
+
+        cancellation.setProcessedBookings(cancellation.getProcessedBookings() - cancellation.getFailedBookings());
+        cancellation.setFailedBookings(0);
+        cancellation.setLastBookingId(null);
+        cancellation.setLastError(null);
+        cancellation.setFinishedOn(null);
+        cancellation.setStatus(CancellationStatus.RUNNING);
+
+        return cancellationRepository.save(cancellation);
+    }
+
+    /**
+     * Continues every cancellation that is not finished yet and not being worked on by another instance.
+     *
+     * @return number of cancellations that were worked on
+     */
+    public int resumePending() {
+        int resumed = 0;
+
+        for (UUID id : cancellationRepository.findIdsByStatus(CancellationStatus.RUNNING)) {
+            if (run(id) != null) {
+                resumed++;
+            }
+        }
+
+        return resumed;
+    }
+
+    /**
+     * Works on one cancellation until its bookings are done, the time budget is spent or payment-service
+     * becomes unavailable.
+     *
+     * @return the cancellation after the run, or {@code null} when another instance holds it
+     */
+    public EventCancellation run(UUID id) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer locked = transactionTemplate.execute(status ->
+                cancellationRepository.lock(id, CancellationStatus.RUNNING, now, now.plus(lease)));
+
+        if (locked == null || locked == 0) {
+            log.debug("Cancellation [{}] is finished or already running elsewhere, skipping.", id);
+            return null;
+        }
+
+        EventCancellation cancellation = getById(id);
+        UUID after = cancellation.getLastBookingId() == null ? START : cancellation.getLastBookingId();
+        long deadline = System.currentTimeMillis() + timeBudget.toMillis();
+        boolean scanned = false;
+        int deferred = 0;
+        String error = null;
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        try {
+            while (true) {
+                List<Booking> chunk = bookingRepository.findByEventIdAndStatusInAfter(
+                        cancellation.getEventId(), ACTIVE, after, PageRequest.of(0, chunkSize));
+
+                if (!chunk.isEmpty()) {
+                    Refunds refunds = refund(cancellation, chunk);
+                    Applied applied = transactionTemplate.execute(status -> apply(id, chunk, refunds));
+                    cancellation = applied.cancellation();
+                    deferred += applied.deferred();
+                    evictBookingsByUser();
+                    after = chunk.get(chunk.size() - 1).getId();
+                }
+
+                if (chunk.size() < chunkSize) {
+                    scanned = true;
+                    break;
+                }
+
+                if (System.currentTimeMillis() >= deadline) {
+                    break;
+                }
+            }
+        } catch (PaymentServiceUnavailableException e) {
+            error = e.getMessage();
+            log.warn("Cancellation of event [{}] paused after {} of {} bookings: {}",
+                    cancellation.getEventTitle(), cancellation.getProcessedBookings(), cancellation.getTotalBookings(), error);
+        } catch (RuntimeException e) {
+            error = e.toString();
+            log.error("Cancellation of event [{}] failed after {} of {} bookings, it will resume from the last chunk.",
+                    cancellation.getEventTitle(), cancellation.getProcessedBookings(), cancellation.getTotalBookings(), e);
+        } finally {
+            boolean finished = scanned && deferred == 0;
+            boolean rescan = scanned && deferred > 0;
+            String lastError = error;
+            cancellation = transactionTemplate.execute(status -> release(id, finished, rescan, lastError));
+
+            sample.stop(Timer.builder("eventhub.event.cancellation.run")
+                    .description("Duration of one run of an event cancellation")
+                    .tag("outcome", finished ? "completed" : rescan ? "deferred" : error == null ? "budget-exhausted" : "paused")
+                    .register(meterRegistry));
+        }
+
+        boolean completed = scanned && deferred == 0;
+
+        if (scanned && deferred > 0) {
+            log.info("Cancellation of event [{}] left {} bookings with a charge in flight for a later run.",
+                    cancellation.getEventTitle(), deferred);
+        }
+
+        if (completed) {
+            log.info("Cancellation of event [{}] finished: {} refunded, {} cancelled, {} failed.",
+                    cancellation.getEventTitle(), cancellation.getRefundedBookings(),
+                    cancellation.getCancelledBookings(), cancellation.getFailedBookings());
+        }
+
+        return cancellation;
+    }
+
+    /**
+     * Refunds the paid bookings of the chunk in batches that are sent to payment-service in parallel. Waits for
+     * every batch before returning, so no refund is still in flight when the chunk is committed or given up.
+     *
+     * @throws PaymentServiceUnavailableException when payment-service could not be reached for some batch
+     */
+    private Refunds refund(EventCancellation cancellation, List<Booking> chunk) {
+        List<RefundRequest> refunds = chunk.stream()
+                .filter(EventCancellationService::isPaid)
+                .map(booking -> new RefundRequest(booking.getPaymentId(), booking.getTotalAmount()))
+                .toList();
+
+        List<CompletableFuture<BatchRefundResponse>> batches = new ArrayList<>();
+        for (int from = 0; from < refunds.size(); from += refundBatchSize) {
+            List<RefundRequest> batch = refunds.subList(from, Math.min(from + refundBatchSize, refunds.size()));
+            batches.add(CompletableFuture.supplyAsync(() -> paymentService.refundPayments(batch), executor));
+        }
+
+        Set<UUID> refunded = new HashSet<>();
+        PaymentServiceUnavailableException unavailable = null;
+        String error = null;
+
+        for (CompletableFuture<BatchRefundResponse> batch : batches) {
+            try {
+                batch.join().getResults().stream()
+                        .filter(BatchRefundItemResult::isRefunded)
+                        .map(BatchRefundItemResult::getPaymentId)
+                        .forEach(refunded::add);
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof PaymentServiceUnavailableException cause) {
+                    unavailable = cause;
+                } else {
+                    error = String.valueOf(e.getCause().getMessage());
+                    log.warn("Refund batch for event [{}] failed: {}", cancellation.getEventTitle(), error);
+                }
+            }
+        }
+
+        if (unavailable != null) {
+            throw unavailable;
+        }
+
+        return new Refunds(refunded, error);
+    }
+
+    /**
+     * Commits the outcome of one chunk. Unpaid bookings with a charge in flight, and unpaid ones that changed since
+     * the chunk was read, are not counted and come up again on the next pass.
+     */
+    private Applied apply(UUID id, List<Booking> chunk, Refunds refunds) {
+        EventCancellation cancellation = getById(id);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Booking> unpaid = chunk.stream()
+                .filter(booking -> !isPaid(booking) && !isChargeInFlight(booking))
+                .toList();
+        List<Booking> paid = chunk.stream()
+                .filter(EventCancellationService::isPaid)
+                .toList();
+        List<Booking> refunded = chunk.stream()
+                .filter(booking -> isPaid(booking) && refunds.paymentIds().contains(booking.getPaymentId()))
+                .toList();
+
+        int cancelledCount = unpaid.isEmpty() ? 0 : bookingRepository.cancelUnpaid(
+                ids(unpaid), ACTIVE, BookingStatus.CANCELLED, now, cancellation.getReason());
+        int refundedCount = refunded.isEmpty() ? 0 : bookingRepository.markRefunded(
+                ids(refunded), ACTIVE, BookingStatus.REFUNDED, now, cancellation.getReason());
+        int failedCount = paid.size() - refundedCount;
+        int deferredCount = chunk.size() - paid.size() - cancelledCount;
+
+        if (cancelledCount < unpaid.size()) {
+            unpaid = bookingRepository.findAllById(ids(unpaid)).stream()
+                    .filter(booking -> booking.getStatus() == BookingStatus.CANCELLED)
+                    .toList();
+        }
+
+        notificationService.enqueueAllIfEnabled(users(unpaid), NotificationTemplate.EVENT_CANCELLED,
+                cancellation.getEventTitle());
+        notificationService.enqueueAllIfEnabled(users(refunded), NotificationTemplate.EVENT_CANCELLED_REFUNDED,
+                cancellation.getEventTitle());
+
+        cancellation.setProcessedBookings(cancellation.getProcessedBookings() + chunk.size() - deferredCount);
+        cancellation.setCancelledBookings(cancellation.getCancelledBookings() + cancelledCount);
+        cancellation.setRefundedBookings(cancellation.getRefundedBookings() + refundedCount);
+        cancellation.setFailedBookings(cancellation.getFailedBookings() + failedCount);
+        cancellation.setLastBookingId(chunk.get(chunk.size() - 1).getId());
+        cancellation.setLockedUntil(now.plus(lease));
+
+        if (refunds.error() != null) {
+            cancellation.setLastError(truncate(refunds.error()));
+        }
+
+        count("cancelled", cancelledCount);
+        count("refunded", refundedCount);
+        count("failed", failedCount);
+        count("deferred", deferredCount);
+
+        return new Applied(cancellationRepository.save(cancellation), deferredCount);
+    }
+
+    private EventCancellation release(UUID id, boolean completed, boolean rescan, String error) {
+        EventCancellation cancellation = getById(id);
+        cancellation.setLockedUntil(null);
+
+        if (rescan) {
+            cancellation.setLastBookingId(null);
+        }
+
+        if (error != null) {
+            cancellation.setLastError(truncate(error));
+        }
+
+        if (completed) {
+            cancellation.setStatus(cancellation.getFailedBookings() > 0
+                    ? CancellationStatus.COMPLETED_WITH_ERRORS
+                    : CancellationStatus.COMPLETED);
+            cancellation.setLastBookingId(null);
+            cancellation.setFinishedOn(LocalDateTime.now());
+        }
+
+        return cancellationRepository.save(cancellation);
+    }
+
+    private void evictBookingsByUser() {
+        Cache cache = cacheManager.getCache(BOOKINGS_BY_USER);
+
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    private void count(String result, int amount) {
+        if (amount > 0) {
+            meterRegistry.counter("eventhub.event.cancellation.bookings", "result", result).increment(amount);
+        }
+    }
+
+    private static boolean isPaid(Booking booking) {
+        return booking.getPaymentId() != null;
+    }
+
+    private static boolean isChargeInFlight(Booking booking) {
+        return booking.getStatus() == BookingStatus.PENDING && booking.getPaymentRequestedAt() != null;
+    }
+
+    private static List<UUID> ids(List<Booking> bookings) {
+        return bookings.stream().map(Booking::getId).toList();
+    }
+
+    private static Set<User> users(List<Booking> bookings) {
+        Set<User> users = new LinkedHashSet<>();
+        bookings.forEach(booking -> users.add(booking.getUser()));
+        return users;
+    }
+
+    private static String truncate(String error) {
+        return error == null || error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private static ThreadFactory refundThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "event-cancellation-refund-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        executor.shutdown();
+
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    private record Refunds(Set<UUID> paymentIds, String error) {
+    }
+
+    private record Applied(EventCancellation cancellation, int deferred) {
+    }
+}
@@ -7,7 +7,7 @@ import com.exam.eventhub.event.model.EventStatus;
 import com.exam.eventhub.event.repository.EventRepository;
 import com.exam.eventhub.exception.EventAlreadyExistException;
 import com.exam.eventhub.exception.EventNotFoundException;
-import com.exam.eventhub.user.model.Role;
+import com.exam.eventhub.security.CurrentUser;
 import com.exam.eventhub.user.model.User;
 import com.exam.eventhub.user.service.UserService;
 import com.exam.eventhub.venue.model.Venue;
@@ -41,6 +41,7 @@ public class EventService {
     private final UserService userService;
     private final VenueService venueService;
     private final CategoryService categoryService;
+    private final CurrentUser currentUser;
 
     public void initData() {
         if (eventRepository.count() == 0) {
@@ -267,8 +268,7 @@ public class EventService {
     public void updateEvent(UUID id, EventEditRequest model, String username) {
         Event event = getByIdWithDetails(id);
 
-        User user = userService.getByUsername(username);
-        if (!user.getRole().equals(Role.ADMIN) && !event.getOrganizer().getUsername().equals(username)) {
+        if (!currentUser.isAdmin() && !event.getOrganizer().getUsername().equals(username)) {
             throw new SecurityException(NOT_ALLOWED.formatted("edit"));
         }
 
@@ -0,0 +1,21 @@
+package com.exam.eventhub.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Thrown instead of calling a downstream service whose circuit breaker is open or whose concurrency limit is reached.
+ */
+@Getter
+public class DependencyUnavailableException extends RuntimeException {
+
+    private final String dependency;
+    private final Duration retryAfter;
+
+    public DependencyUnavailableException(String dependency, String reason, Duration retryAfter) {
+        super("%s is unavailable: %s".formatted(dependency, reason));
+        this.dependency = dependency;
+        this.retryAfter = retryAfter;
+    }
+}
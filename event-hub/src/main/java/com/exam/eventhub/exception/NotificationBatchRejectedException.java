@@ -0,0 +1,11 @@
+package com.exam.eventhub.exception;
+
+/**
+ * notification-service refused a whole batch as invalid (400). Retrying the same batch cannot succeed,
+ * so callers fall back to sending its items one by one.
+ */
+public class NotificationBatchRejectedException extends NotificationServiceFeignCallException {
+    public NotificationBatchRejectedException(String message) {
+        super(message);
+    }
+}
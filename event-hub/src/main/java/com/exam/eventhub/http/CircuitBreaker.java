@@ -0,0 +1,148 @@
+package com.exam.eventhub.http;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Count-based circuit breaker. While closed it remembers the outcome of the last {@code windowSize} calls and opens
+ * once at least {@code minimumCalls} were made and the share of failures reaches the threshold. An open breaker
+ * rejects calls until {@code waitInOpen} has passed, then lets {@code halfOpenCalls} trial calls through: if they all
+ * succeed it closes again, the first failure opens it for another period.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final Duration waitInOpen;
+    private final int halfOpenCalls;
+    private final Clock clock;
+    private final Consumer<State> onTransition;
+
+    private final boolean[] failed;
+    private int next;
+    private int recorded;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenStarted;
+    private int halfOpenSucceeded;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRatePercent, Duration waitInOpen,
+                          int halfOpenCalls, Clock clock, Consumer<State> onTransition) {
+        this.windowSize = Math.max(windowSize, 1);
+        this.minimumCalls = Math.max(Math.min(minimumCalls, this.windowSize), 1);
+        this.failureRateThreshold = failureRatePercent / 100.0;
+        this.waitInOpen = waitInOpen;
+        this.halfOpenCalls = Math.max(halfOpenCalls, 1);
+        this.clock = clock;
+        this.onTransition = onTransition;
+        this.failed = new boolean[this.windowSize];
+    }
+
+    /**
+     * @return {@code true} when the call may go ahead; it must then be reported with {@link #onSuccess()} or
+     * {@link #onFailure()}
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (clock.millis() - openedAt < waitInOpen.toMillis()) {
+                    return false;
+                }
+                transition(State.HALF_OPEN);
+                halfOpenStarted = 0;
+                halfOpenSucceeded = 0;
+                // fall through: this call is the first trial
+            default:
+                if (halfOpenStarted >= halfOpenCalls) {
+                    return false;
+                }
+                halfOpenStarted++;
+                return true;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++halfOpenSucceeded >= halfOpenCalls) {
+                resetWindow();
+                transition(State.CLOSED);
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            record(true);
+
+            if (recorded >= minimumCalls && failures >= failureRateThreshold * recorded) {
+                open();
+            }
+        }
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    /**
+     * @return how long an open breaker keeps rejecting calls, {@link Duration#ZERO} when it is not open
+     */
+    public synchronized Duration remainingOpen() {
+        if (state != State.OPEN) {
+            return Duration.ZERO;
+        }
+
+        return Duration.ofMillis(Math.max(waitInOpen.toMillis() - (clock.millis() - openedAt), 0));
+    }
+
+    private void record(boolean failure) {
+        if (recorded == windowSize) {
+            if (failed[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+
+        failed[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % windowSize;
+    }
+
+    private void open() {
+        openedAt = clock.millis();
+        resetWindow();
+        transition(State.OPEN);
+    }
+
+    private void resetWindow() {
+        Arrays.fill(failed, false);
+        next = 0;
+        recorded = 0;
+        failures = 0;
+    }
+
+    private void transition(State to) {
+        if (state != to) {
+            state = to;
+            onTransition.accept(to);
+        }
+    }
+}
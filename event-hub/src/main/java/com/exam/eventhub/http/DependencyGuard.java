@@ -0,0 +1,188 @@
+package com.exam.eventhub.http;
+
+import com.exam.eventhub.exception.DependencyUnavailableException;
+import feign.Response;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.PropertyResolver;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Protection of one downstream service: a concurrency bulkhead, a {@link CircuitBreaker} and a {@link RetryBudget}.
+ * Only idempotent calls are retried, on connection errors and 502/503/504, with exponential back-off and full jitter.
+ * <p>
+ * Settings are read from {@code eventhub.resilience.<dependency>.*}, falling back to
+ * {@code eventhub.resilience.defaults.*}.
+ */
+@Slf4j
+public class DependencyGuard {
+
+    private final String dependency;
+    private final CircuitBreaker circuitBreaker;
+    private final Semaphore bulkhead;
+    private final long maxWaitMs;
+    private final RetryBudget retryBudget;
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final MeterRegistry meterRegistry;
+
+    DependencyGuard(String dependency, PropertyResolver properties, MeterRegistry meterRegistry, Clock clock) {
+        this.dependency = dependency;
+        this.meterRegistry = meterRegistry;
+
+        this.circuitBreaker = new CircuitBreaker(
+                setting(properties, "sliding-window", Integer.class, 20),
+                setting(properties, "minimum-calls", Integer.class, 10),
+                setting(properties, "failure-rate-threshold", Double.class, 50.0),
+                Duration.ofMillis(setting(properties, "wait-in-open-ms", Long.class, 30_000L)),
+                setting(properties, "half-open-calls", Integer.class, 3),
+                clock,
+                this::onTransition);
+
+        int maxConcurrent = setting(properties, "max-concurrent", Integer.class, 20);
+        this.bulkhead = new Semaphore(maxConcurrent, true);
+        this.maxWaitMs = setting(properties, "max-wait-ms", Long.class, 50L);
+
+        this.retryBudget = new RetryBudget(
+                setting(properties, "retry.budget-ratio", Double.class, 0.2),
+                setting(properties, "retry.budget-min-per-second", Double.class, 1.0),
+                setting(properties, "retry.budget-capacity", Double.class, 10.0),
+                clock);
+        this.maxAttempts = setting(properties, "retry.max-attempts", Integer.class, 3);
+        this.baseDelayMs = setting(properties, "retry.base-delay-ms", Long.class, 100L);
+        this.maxDelayMs = setting(properties, "retry.max-delay-ms", Long.class, 1000L);
+
+        Gauge.builder("eventhub.resilience.breaker.state", circuitBreaker, breaker -> breaker.state().ordinal())
+                .description("Circuit breaker state: 0 closed, 1 open, 2 half-open")
+                .tag("dependency", dependency)
+                .register(meterRegistry);
+        Gauge.builder("eventhub.resilience.bulkhead.available", bulkhead, Semaphore::availablePermits)
+                .description("Calls that may still start concurrently")
+                .tag("dependency", dependency)
+                .register(meterRegistry);
+        Gauge.builder("eventhub.resilience.retry-budget.tokens", retryBudget, RetryBudget::tokens)
+                .description("Retries currently allowed by the retry budget")
+                .tag("dependency", dependency)
+                .register(meterRegistry);
+    }
+
+    public CircuitBreaker.State state() {
+        return circuitBreaker.state();
+    }
+
+    Response execute(Call call, boolean idempotent) throws IOException {
+        if (!acquireBulkhead()) {
+            meterRegistry.counter("eventhub.resilience.rejected", "dependency", dependency, "reason", "bulkhead-full").increment();
+            throw new DependencyUnavailableException(dependency, "too many concurrent calls", Duration.ZERO);
+        }
+
+        try {
+            retryBudget.deposit();
+
+            for (int attempt = 1; ; attempt++) {
+                if (!circuitBreaker.tryAcquire()) {
+                    meterRegistry.counter("eventhub.resilience.rejected", "dependency", dependency, "reason", "circuit-open").increment();
+                    throw new DependencyUnavailableException(dependency, "circuit breaker is open", circuitBreaker.remainingOpen());
+                }
+
+                Response response;
+                try {
+                    response = call.execute();
+                } catch (IOException e) {
+                    circuitBreaker.onFailure();
+
+                    if (retry(attempt, idempotent)) {
+                        continue;
+                    }
+                    throw e;
+                } catch (RuntimeException e) {
+                    circuitBreaker.onFailure();
+                    throw e;
+                }
+
+                if (response.status() < 500) {
+                    circuitBreaker.onSuccess();
+                    return response;
+                }
+
+                circuitBreaker.onFailure();
+
+                if (isRetryable(response.status()) && retry(attempt, idempotent)) {
+                    response.close();
+                    continue;
+                }
+
+                return response;
+            }
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    private boolean acquireBulkhead() {
+        try {
+            return bulkhead.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Decides whether to try again and, if so, waits out the back-off.
+     */
+    private boolean retry(int attempt, boolean idempotent) {
+        if (!idempotent || attempt >= maxAttempts) {
+            return false;
+        }
+
+        if (!retryBudget.tryWithdraw()) {
+            meterRegistry.counter("eventhub.resilience.retries", "dependency", dependency, "result", "budget-exhausted").increment();
+            return false;
+        }
+
+        meterRegistry.counter("eventhub.resilience.retries", "dependency", dependency, "result", "attempted").increment();
+
+        long ceiling = Math.min(maxDelayMs, baseDelayMs << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void onTransition(CircuitBreaker.State state) {
+        meterRegistry.counter("eventhub.resilience.breaker.transitions", "dependency", dependency,
+                "state", state.name().toLowerCase().replace('_', '-')).increment();
+
+        if (state == CircuitBreaker.State.OPEN) {
+            log.warn("Circuit breaker of [{}] opened, calls are rejected for now.", dependency);
+        } else {
+            log.info("Circuit breaker of [{}] is now {}.", dependency, state);
+        }
+    }
+
+    private <T> T setting(PropertyResolver properties, String key, Class<T> type, T fallback) {
+        return properties.getProperty("eventhub.resilience." + dependency + "." + key, type,
+                properties.getProperty("eventhub.resilience.defaults." + key, type, fallback));
+    }
+
+    private static boolean isRetryable(int status) {
+        return status == 502 || status == 503 || status == 504;
+    }
+
+    @FunctionalInterface
+    interface Call {
+        Response execute() throws IOException;
+    }
+}
@@ -0,0 +1,99 @@
+package com.exam.eventhub.http;
+
+import feign.Client;
+import feign.MethodMetadata;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.env.PropertyResolver;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feign transport shared by all clients. Applies the timeouts configured for the target service, or the read timeout
+ * of an {@link OperationTimeout} method, and times every call per client and operation.
+ * <p>
+ * Timeouts are read from {@code eventhub.http.<client>.connect-timeout-ms} and {@code read-timeout-ms}, falling back
+ * to {@code eventhub.http.connect-timeout-ms} and {@code eventhub.http.read-timeout-ms}.
+ */
+public class InstrumentedFeignClient implements Client {
+
+    private static final String UNKNOWN = "unknown";
+
+    private final Client delegate;
+    private final PropertyResolver properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<Method, Request.Options> options = new ConcurrentHashMap<>();
+
+    public InstrumentedFeignClient(Client delegate, PropertyResolver properties, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options defaults) throws IOException {
+        MethodMetadata metadata = request.requestTemplate() == null ? null : request.requestTemplate().methodMetadata();
+        String client = request.requestTemplate() == null || request.requestTemplate().feignTarget() == null
+                ? UNKNOWN
+                : request.requestTemplate().feignTarget().name();
+        String operation = metadata == null || metadata.method() == null ? UNKNOWN : metadata.method().getName();
+
+        Request.Options applied = metadata == null || metadata.method() == null
+                ? defaults
+                : options.computeIfAbsent(metadata.method(), method -> resolve(client, method, defaults));
+
+        long start = System.nanoTime();
+        String outcome = "IO_ERROR";
+        try {
+            Response response = delegate.execute(request, applied);
+            outcome = outcome(response.status());
+            return response;
+        } finally {
+            Timer.builder("eventhub.http.client.requests")
+                    .description("Calls made through the Feign clients")
+                    .tag("client", client)
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .maximumExpectedValue(Duration.ofSeconds(30))
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Request.Options resolve(String client, Method method, Request.Options defaults) {
+        long connectTimeout = timeout("eventhub.http." + client + ".connect-timeout-ms",
+                timeout("eventhub.http.connect-timeout-ms", defaults.connectTimeoutMillis()));
+        long readTimeout = timeout("eventhub.http." + client + ".read-timeout-ms",
+                timeout("eventhub.http.read-timeout-ms", defaults.readTimeoutMillis()));
+
+        OperationTimeout operationTimeout = method.getAnnotation(OperationTimeout.class);
+        if (operationTimeout != null) {
+            readTimeout = Long.parseLong(properties.resolveRequiredPlaceholders(operationTimeout.value()).trim());
+        }
+
+        return new Request.Options(connectTimeout, TimeUnit.MILLISECONDS, readTimeout, TimeUnit.MILLISECONDS,
+                defaults.isFollowRedirects());
+    }
+
+    private long timeout(String property, long fallback) {
+        return properties.getProperty(property, Long.class, fallback);
+    }
+
+    private static String outcome(int status) {
+        if (status >= 500) {
+            return "SERVER_ERROR";
+        }
+        if (status >= 400) {
+            return "CLIENT_ERROR";
+        }
+        return "SUCCESS";
+    }
+}
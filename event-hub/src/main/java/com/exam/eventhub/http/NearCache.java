@@ -0,0 +1,127 @@
+package com.exam.eventhub.http;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived cache in front of a remote lookup. Concurrent misses for the same key share one call: the first caller
+ * loads, the others wait for its result (or its exception). Invalidating a key while it is being loaded keeps the
+ * late result out of the cache, so a page view that started before a change cannot bring the old data back.
+ */
+public class NearCache<K, V> {
+
+    private final String name;
+    private final Duration ttl;
+    private final int maxEntries;
+    private final Clock clock;
+    private final MeterRegistry meterRegistry;
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final Map<K, CompletableFuture<V>> loads = new ConcurrentHashMap<>();
+
+    public NearCache(String name, Duration ttl, int maxEntries, Clock clock, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("eventhub.near-cache.size", entries, Map::size)
+                .description("Entries held by the near cache")
+                .tag("cache", name)
+                .register(meterRegistry);
+    }
+
+    public V get(K key, Supplier<V> loader) {
+        Entry<V> entry = entries.get(key);
+
+        if (entry != null && entry.expiresAt() > clock.millis()) {
+            count("hit");
+            return entry.value();
+        }
+
+        CompletableFuture<V> load = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = loads.putIfAbsent(key, load);
+
+        if (inFlight != null) {
+            count("coalesced");
+            return join(inFlight);
+        }
+
+        count("miss");
+        try {
+            V value = loader.get();
+
+            if (value != null && loads.remove(key, load)) {
+                put(key, value);
+            }
+
+            load.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(key, load);
+        }
+    }
+
+    public void invalidate(K key) {
+        if (key != null) {
+            loads.remove(key);
+            entries.remove(key);
+        }
+    }
+
+    public void invalidateIf(Predicate<V> predicate) {
+        entries.values().removeIf(entry -> predicate.test(entry.value()));
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void purgeExpired() {
+        long now = clock.millis();
+        entries.values().removeIf(entry -> entry.expiresAt() <= now);
+    }
+
+    private void put(K key, V value) {
+        if (entries.size() >= maxEntries && !entries.containsKey(key)) {
+            purgeExpired();
+
+            Iterator<K> keys = entries.keySet().iterator();
+            while (entries.size() >= maxEntries && keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        }
+
+        entries.put(key, new Entry<>(value, clock.millis() + ttl.toMillis()));
+    }
+
+    private void count(String result) {
+        meterRegistry.counter("eventhub.near-cache.requests", "cache", name, "result", result).increment();
+    }
+
+    private static <V> V join(CompletableFuture<V> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
@@ -0,0 +1,17 @@
+package com.exam.eventhub.http;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Read timeout of one Feign operation in milliseconds, overriding the client's default. The value may be a property
+ * placeholder with a default, e.g. {@code "${eventhub.http.payment-service.charge-timeout-ms:10000}"}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface OperationTimeout {
+
+    String value();
+}
@@ -0,0 +1,60 @@
+package com.exam.eventhub.http;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.env.PropertyResolver;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs every Feign call through the {@link DependencyGuard} of its target service. When the guard refuses the call,
+ * a {@link com.exam.eventhub.exception.DependencyUnavailableException} reaches the caller right away instead of a
+ * timeout later, so services can fall back.
+ */
+public class ResilientFeignClient implements Client {
+
+    private final Client delegate;
+    private final PropertyResolver properties;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+    private final Map<String, DependencyGuard> guards = new ConcurrentHashMap<>();
+
+    public ResilientFeignClient(Client delegate, PropertyResolver properties, MeterRegistry meterRegistry,
+                                Collection<String> dependencies) {
+        this(delegate, properties, meterRegistry, dependencies, Clock.systemUTC());
+    }
+
+    ResilientFeignClient(Client delegate, PropertyResolver properties, MeterRegistry meterRegistry,
+                         Collection<String> dependencies, Clock clock) {
+        this.delegate = delegate;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+
+        // Registered up front, so the breaker metrics exist before the first call.
+        dependencies.forEach(this::guard);
+    }
+
+    public DependencyGuard guard(String dependency) {
+        return guards.computeIfAbsent(dependency, name -> new DependencyGuard(name, properties, meterRegistry, clock));
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        String dependency = request.requestTemplate() == null || request.requestTemplate().feignTarget() == null
+                ? request.url()
+                : request.requestTemplate().feignTarget().name();
+
+        return guard(dependency).execute(() -> delegate.execute(request, options), isIdempotent(request.httpMethod()));
+    }
+
+    private static boolean isIdempotent(Request.HttpMethod method) {
+        return method == Request.HttpMethod.GET || method == Request.HttpMethod.HEAD;
+    }
+}
@@ -0,0 +1,55 @@
+package com.exam.eventhub.http;
+
+import java.time.Clock;
+
+/**
+ * Token bucket that caps retries at a share of the traffic. Every call deposits {@code ratio} tokens and every retry
+ * takes a whole one, so when a dependency fails across the board the retries add at most that share on top instead
+ * of multiplying the load. A small floor per second keeps retries possible while there is little traffic.
+ */
+public class RetryBudget {
+
+    private final double ratio;
+    private final double minPerSecond;
+    private final double capacity;
+    private final Clock clock;
+
+    private double tokens;
+    private long refilledAt;
+
+    public RetryBudget(double ratio, double minPerSecond, double capacity, Clock clock) {
+        this.ratio = ratio;
+        this.minPerSecond = minPerSecond;
+        this.capacity = capacity;
+        this.clock = clock;
+        this.tokens = capacity;
+        this.refilledAt = clock.millis();
+    }
+
+    public synchronized void deposit() {
+        refill();
+        tokens = Math.min(capacity, tokens + ratio);
+    }
+
+    public synchronized boolean tryWithdraw() {
+        refill();
+
+        if (tokens < 1) {
+            return false;
+        }
+
+        tokens--;
+        return true;
+    }
+
+    public synchronized double tokens() {
+        refill();
+        return tokens;
+    }
+
+    private void refill() {
+        long now = clock.millis();
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * minPerSecond / 1000.0);
+        refilledAt = now;
+    }
+}
@@ -0,0 +1,34 @@
+package com.exam.eventhub.http;
+
+import feign.RequestTemplate;
+import feign.codec.EncodeException;
+import feign.codec.Encoder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.lang.reflect.Type;
+
+/**
+ * Encodes request bodies in the configured wire format unless the method declares its own {@code consumes}. The
+ * Spring encoder picks the message converter by the request's {@code Content-Type}, so setting it before delegating
+ * is all it takes.
+ */
+public class WireFormatEncoder implements Encoder {
+
+    private final Encoder delegate;
+    private final MediaType wireFormat;
+
+    public WireFormatEncoder(Encoder delegate, MediaType wireFormat) {
+        this.delegate = delegate;
+        this.wireFormat = wireFormat;
+    }
+
+    @Override
+    public void encode(Object object, Type bodyType, RequestTemplate template) throws EncodeException {
+        if (object != null && !template.headers().containsKey(HttpHeaders.CONTENT_TYPE)) {
+            template.header(HttpHeaders.CONTENT_TYPE, wireFormat.toString());
+        }
+
+        delegate.encode(object, bodyType, template);
+    }
+}
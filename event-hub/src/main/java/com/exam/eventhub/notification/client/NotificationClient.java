@@ -1,7 +1,17 @@
 package com.exam.eventhub.notification.client;
 
+import com.exam.eventhub.http.OperationTimeout;
+import com.exam.eventhub.notification.client.dto.MarkReadRequest;
+import com.exam.eventhub.notification.client.dto.MarkReadResponse;
+import com.exam.eventhub.notification.client.dto.NotificationBatchRequest;
+import com.exam.eventhub.notification.client.dto.NotificationBatchResponse;
+import com.exam.eventhub.notification.client.dto.NotificationClearResponse;
+import com.exam.eventhub.notification.client.dto.NotificationPageResponse;
+import com.exam.eventhub.notification.client.dto.NotificationPreferenceRequest;
+import com.exam.eventhub.notification.client.dto.NotificationPreferenceResponse;
 import com.exam.eventhub.notification.client.dto.NotificationRequest;
 import com.exam.eventhub.notification.client.dto.NotificationResponse;
+import com.exam.eventhub.notification.client.dto.UnreadCountResponse;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -9,22 +19,52 @@ import org.springframework.web.bind.annotation.*;
 import java.util.List;
 import java.util.UUID;
 
-@FeignClient(name = "notification-service", url = "${eventhub.notification-service.base-url}" + "/api/v1/notifications")
+@FeignClient(name = "notification-service", url = "${eventhub.notification-service.base-url}" + "/api/v1/notifications",
+        configuration = NotificationClientConfiguration.class)
 public interface NotificationClient {
 
     @PostMapping
     ResponseEntity<NotificationResponse> sendNotification(@RequestBody NotificationRequest notification);
 
+    @PostMapping("/batch")
+    @OperationTimeout("${eventhub.http.notification-service.batch-timeout-ms:10000}")
+    ResponseEntity<NotificationBatchResponse> sendNotifications(@RequestBody NotificationBatchRequest batch);
+
     @GetMapping
     ResponseEntity<List<NotificationResponse>> getAllNotifications();
 
     @GetMapping("/{userId}")
     ResponseEntity<List<NotificationResponse>> getNotificationsByUser(@PathVariable("userId") UUID userId);
 
+    @GetMapping("/page")
+    ResponseEntity<NotificationPageResponse> getAllNotificationsPage(@RequestParam(name = "cursor", required = false) String cursor,
+                                                                     @RequestParam(name = "limit") int limit);
+
+    @GetMapping("/{userId}/page")
+    ResponseEntity<NotificationPageResponse> getNotificationsPage(@PathVariable("userId") UUID userId,
+                                                                  @RequestParam(name = "cursor", required = false) String cursor,
+                                                                  @RequestParam(name = "limit") int limit);
+
+    @GetMapping("/{userId}/unread-count")
+    ResponseEntity<UnreadCountResponse> getUnreadCount(@PathVariable("userId") UUID userId);
+
+    @PostMapping("/{userId}/mark-read")
+    ResponseEntity<MarkReadResponse> markRead(@PathVariable("userId") UUID userId, @RequestBody MarkReadRequest markReadRequest);
+
+    @GetMapping("/{userId}/preferences")
+    ResponseEntity<NotificationPreferenceResponse> getPreference(@PathVariable("userId") UUID userId);
+
+    @PutMapping("/{userId}/preferences")
+    ResponseEntity<NotificationPreferenceResponse> updatePreference(@PathVariable("userId") UUID userId,
+                                                                    @RequestBody NotificationPreferenceRequest preferenceRequest);
+
     @DeleteMapping("/{id}")
     ResponseEntity<String> deleteNotification(@PathVariable("id") UUID id);
 
+    @DeleteMapping("/{id}")
+    ResponseEntity<String> deleteUserNotification(@PathVariable("id") UUID id, @RequestParam(name = "userId") UUID userId);
+
     @DeleteMapping
-    ResponseEntity<String> clearHistory(@RequestParam(name = "userId") UUID userId);
+    ResponseEntity<NotificationClearResponse> clearHistory(@RequestParam(name = "userId") UUID userId);
 
 }
@@ -0,0 +1,22 @@
+package com.exam.eventhub.notification.client;
+
+import feign.RequestInterceptor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Configuration of {@link NotificationClient} only; deliberately not a {@code @Configuration}, so the interceptor is
+ * not applied to the other Feign clients.
+ */
+public class NotificationClientConfiguration {
+
+    /**
+     * notification-service renders templated notifications in the language of the request, so the page language of the
+     * current user is passed along.
+     */
+    @Bean
+    public RequestInterceptor acceptLanguageInterceptor() {
+        return template -> template.header(HttpHeaders.ACCEPT_LANGUAGE, LocaleContextHolder.getLocale().toLanguageTag());
+    }
+}
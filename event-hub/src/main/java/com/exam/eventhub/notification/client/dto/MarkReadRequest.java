@@ -0,0 +1,19 @@
+package com.exam.eventhub.notification.client.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MarkReadRequest {
+
+    /**
+     * Notifications to mark as read; empty marks all of the user's notifications.
+     */
+    private List<UUID> ids;
+}
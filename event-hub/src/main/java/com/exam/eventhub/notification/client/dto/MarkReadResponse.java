@@ -0,0 +1,13 @@
+package com.exam.eventhub.notification.client.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MarkReadResponse {
+
+    private int updated;
+}
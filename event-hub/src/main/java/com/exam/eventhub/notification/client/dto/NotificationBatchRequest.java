@@ -0,0 +1,22 @@
+package com.exam.eventhub.notification.client.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationBatchRequest {
+
+    /**
+     * Largest batch notification-service accepts in one call.
+     */
+    public static final int MAX_SIZE = 500;
+
+    private List<NotificationRequest> notifications;
+}
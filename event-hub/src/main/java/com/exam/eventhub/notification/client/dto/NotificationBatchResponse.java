@@ -0,0 +1,17 @@
+package com.exam.eventhub.notification.client.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationBatchResponse {
+
+    private int count;
+    private List<UUID> ids;
+}
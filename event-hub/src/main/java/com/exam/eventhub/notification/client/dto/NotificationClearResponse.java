@@ -0,0 +1,14 @@
+package com.exam.eventhub.notification.client.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationClearResponse {
+
+    private String message;
+    private int cleared;
+}
@@ -0,0 +1,21 @@
+package com.exam.eventhub.notification.client.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationPageResponse {
+
+    private List<NotificationResponse> items = new ArrayList<>();
+
+    /**
+     * Cursor of the next page, {@code null} on the last page.
+     */
+    private String nextCursor;
+}
@@ -0,0 +1,21 @@
+package com.exam.eventhub.notification.client.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationPreferenceRequest {
+
+    /**
+     * {@code IMMEDIATE} or {@code DIGEST}.
+     */
+    private String mode;
+
+    /**
+     * Minutes notifications are collected before a digest is sent; {@code null} keeps the current window.
+     */
+    private Integer digestWindowMinutes;
+}
@@ -0,0 +1,24 @@
+package com.exam.eventhub.notification.client.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationPreferenceResponse {
+
+    public static final String IMMEDIATE = "IMMEDIATE";
+    public static final String DIGEST = "DIGEST";
+
+    private UUID recipientId;
+    private String mode;
+    private int digestWindowMinutes;
+
+    public boolean isDigest() {
+        return DIGEST.equals(mode);
+    }
+}
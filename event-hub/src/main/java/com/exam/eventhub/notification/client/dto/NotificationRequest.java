@@ -4,6 +4,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.util.List;
 import java.util.UUID;
 
 @Getter
@@ -15,4 +16,6 @@ public class NotificationRequest {
     private String recipientEmail;
     private String subject;
     private String message;
+    private String templateId;
+    private List<String> templateParams;
 }
@@ -18,5 +18,7 @@ public class NotificationResponse {
     private String subject;
     private String message;
     private String status;
+    private boolean read;
+    private int digestCount;
     private LocalDateTime createdOn;
 }
@@ -0,0 +1,66 @@
+package com.exam.eventhub.notification.model;
+
+import jakarta.persistence.*;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Entity
+@Table(name = "notification_outbox",
+        indexes = @Index(name = "idx_notification_outbox_status_next_attempt", columnList = "status, next_attempt_at"))
+public class NotificationOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @EqualsAndHashCode.Include
+    private UUID id;
+
+    @Column(nullable = false)
+    private UUID recipientId;
+
+    @Column(nullable = false)
+    private String recipientEmail;
+
+    /**
+     * Free-form text; empty when the notification is sent from {@link #templateId}.
+     */
+    private String subject;
+
+    @Column(length = 2000)
+    private String message;
+
+    @Column(length = 64)
+    private String templateId;
+
+    @Convert(converter = TemplateParamsConverter.class)
+    @Column(length = 500)
+    private List<String> templateParams;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private OutboxStatus status = OutboxStatus.PENDING;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    @CreationTimestamp
+    private LocalDateTime createdOn;
+
+    private LocalDateTime sentOn;
+}
@@ -0,0 +1,24 @@
+package com.exam.eventhub.notification.model;
+
+import lombok.Getter;
+
+/**
+ * Notification kinds event-hub sends. notification-service stores only the template id and its parameters and
+ * renders the text, in the reader's language, from its own template bundle.
+ */
+@Getter
+public enum NotificationTemplate {
+    PAYMENT_SUCCESSFUL("payment.successful"),
+    PAYMENT_FAILED("payment.failed"),
+    REFUND_PROCESSED("refund.processed"),
+    REFUND_FAILED("refund.failed"),
+    BOOKING_AUTO_CANCELLED("booking.auto-cancelled"),
+    EVENT_CANCELLED("event.cancelled"),
+    EVENT_CANCELLED_REFUNDED("event.cancelled-refunded");
+
+    private final String id;
+
+    NotificationTemplate(String id) {
+        this.id = id;
+    }
+}
@@ -0,0 +1,7 @@
+package com.exam.eventhub.notification.model;
+
+public enum OutboxStatus {
+    PENDING,
+    SENT,
+    FAILED
+}
@@ -0,0 +1,56 @@
+package com.exam.eventhub.notification.repository;
+
+import com.exam.eventhub.notification.model.NotificationOutbox;
+import com.exam.eventhub.notification.model.OutboxStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, UUID> {
+
+    /**
+     * Locks the due rows so that dispatchers on other nodes skip them instead of waiting
+     * ({@code FOR UPDATE SKIP LOCKED} where the database supports it).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM NotificationOutbox o WHERE o.status = :status AND o.nextAttemptAt <= :now ORDER BY o.nextAttemptAt")
+    List<NotificationOutbox> findDueForUpdate(@Param("status") OutboxStatus status,
+                                              @Param("now") LocalDateTime now,
+                                              Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.status = :status, o.sentOn = :sentOn, o.lastError = NULL WHERE o.id IN :ids")
+    int markSent(@Param("ids") Collection<UUID> ids,
+                 @Param("status") OutboxStatus status,
+                 @Param("sentOn") LocalDateTime sentOn);
+
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.nextAttemptAt = :nextAttemptAt WHERE o.id IN :ids AND o.status = :status")
+    int postpone(@Param("ids") Collection<UUID> ids,
+                 @Param("status") OutboxStatus status,
+                 @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    long countByStatus(OutboxStatus status);
+
+    @Query("SELECT o.id FROM NotificationOutbox o WHERE o.status <> :pending AND o.createdOn < :cutoff AND o.id > :after ORDER BY o.id")
+    List<UUID> findFinishedIdsCreatedBefore(@Param("pending") OutboxStatus pending,
+                                            @Param("cutoff") LocalDateTime cutoff,
+                                            @Param("after") UUID after,
+                                            Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM NotificationOutbox o WHERE o.id IN :ids AND o.status <> :pending AND o.createdOn < :cutoff")
+    int deleteFinishedCreatedBefore(@Param("ids") Collection<UUID> ids,
+                                    @Param("pending") OutboxStatus pending,
+                                    @Param("cutoff") LocalDateTime cutoff);
+}
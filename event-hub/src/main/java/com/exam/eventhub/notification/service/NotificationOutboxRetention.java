@@ -0,0 +1,63 @@
+package com.exam.eventhub.notification.service;
+
+import com.exam.eventhub.notification.model.OutboxStatus;
+import com.exam.eventhub.notification.repository.NotificationOutboxRepository;
+import com.exam.eventhub.retention.service.RetentionPolicy;
+import com.exam.eventhub.retention.service.RetentionTarget;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Outbox rows that were delivered or given up on. Pending rows are never touched, however old they are.
+ */
+@Component
+public class NotificationOutboxRetention implements RetentionTarget<UUID> {
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final RetentionPolicy policy;
+
+    public NotificationOutboxRetention(NotificationOutboxRepository outboxRepository,
+                                       @Value("${eventhub.retention.notification-outbox.enabled:true}") boolean enabled,
+                                       @Value("${eventhub.retention.notification-outbox.retention-days:7}") long retentionDays,
+                                       @Value("${eventhub.retention.notification-outbox.chunk-size:500}") int chunkSize,
+                                       @Value("${eventhub.retention.notification-outbox.pause-ms:100}") long pauseMs,
+                                       @Value("${eventhub.retention.notification-outbox.time-budget-seconds:60}") long timeBudgetSeconds) {
+        this.outboxRepository = outboxRepository;
+        this.policy = RetentionPolicy.of(enabled, retentionDays, chunkSize, pauseMs, timeBudgetSeconds);
+    }
+
+    @Override
+    public String name() {
+        return "notification-outbox";
+    }
+
+    @Override
+    public RetentionPolicy policy() {
+        return policy;
+    }
+
+    @Override
+    public UUID start() {
+        return new UUID(0, 0);
+    }
+
+    @Override
+    public UUID parseId(String value) {
+        return UUID.fromString(value);
+    }
+
+    @Override
+    public List<UUID> findExpiredIds(LocalDateTime cutoff, UUID after, int limit) {
+        return outboxRepository.findFinishedIdsCreatedBefore(OutboxStatus.PENDING, cutoff, after, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public int purge(List<UUID> ids, LocalDateTime cutoff) {
+        return outboxRepository.deleteFinishedCreatedBefore(ids, OutboxStatus.PENDING, cutoff);
+    }
+}
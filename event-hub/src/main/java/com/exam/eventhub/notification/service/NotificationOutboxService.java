@@ -0,0 +1,159 @@
+package com.exam.eventhub.notification.service;
+
+import com.exam.eventhub.notification.client.dto.NotificationBatchRequest;
+import com.exam.eventhub.notification.client.dto.NotificationRequest;
+import com.exam.eventhub.notification.model.NotificationOutbox;
+import com.exam.eventhub.notification.model.OutboxStatus;
+import com.exam.eventhub.notification.repository.NotificationOutboxRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Outbox of notifications that still have to reach notification-service. Rows are written in the
+ * caller's transaction, so a notification exists exactly when the booking change that caused it was
+ * committed; {@link com.exam.eventhub.scheduler.NotificationOutboxScheduler} delivers them afterwards.
+ */
+@Slf4j
+@Service
+public class NotificationOutboxService {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final int batchSize;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final Duration backoffBase;
+    private final Duration backoffMax;
+
+    public NotificationOutboxService(NotificationOutboxRepository outboxRepository,
+                                     @Value("${eventhub.notification.outbox.batch-size:200}") int batchSize,
+                                     @Value("${eventhub.notification.outbox.lease-seconds:60}") long leaseSeconds,
+                                     @Value("${eventhub.notification.outbox.max-attempts:10}") int maxAttempts,
+                                     @Value("${eventhub.notification.outbox.backoff-base-seconds:5}") long backoffBaseSeconds,
+                                     @Value("${eventhub.notification.outbox.backoff-max-seconds:900}") long backoffMaxSeconds,
+                                     MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.batchSize = Math.min(batchSize, NotificationBatchRequest.MAX_SIZE);
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.maxAttempts = maxAttempts;
+        this.backoffBase = Duration.ofSeconds(backoffBaseSeconds);
+        this.backoffMax = Duration.ofSeconds(backoffMaxSeconds);
+
+        Gauge.builder("eventhub.notification.outbox.pending", outboxRepository,
+                        repository -> repository.countByStatus(OutboxStatus.PENDING))
+                .description("Notifications waiting in the outbox")
+                .register(meterRegistry);
+    }
+
+    public int batchSize() {
+        return batchSize;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(NotificationRequest request) {
+        outboxRepository.save(toOutbox(request, LocalDateTime.now()));
+    }
+
+    /**
+     * Same as {@link #enqueue(NotificationRequest)} for many notifications at once; the rows are written with
+     * batched inserts where the JDBC batch size is configured.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueAll(Collection<NotificationRequest> requests) {
+        LocalDateTime now = LocalDateTime.now();
+
+        outboxRepository.saveAll(requests.stream().map(request -> toOutbox(request, now)).toList());
+    }
+
+    /**
+     * Takes the next batch of due rows and pushes their next attempt past the lease, so no other
+     * dispatcher picks them up while they are being sent. A dispatcher that dies mid-batch leaves the
+     * rows to be retried once the lease runs out.
+     */
+    @Transactional
+    public List<NotificationOutbox> claimDue() {
+        LocalDateTime now = LocalDateTime.now();
+
+        List<NotificationOutbox> due = outboxRepository.findDueForUpdate(OutboxStatus.PENDING, now, PageRequest.of(0, batchSize));
+        due.forEach(outbox -> outbox.setNextAttemptAt(now.plus(lease)));
+
+        return due;
+    }
+
+    @Transactional
+    public void markSent(Collection<UUID> ids) {
+        if (!ids.isEmpty()) {
+            outboxRepository.markSent(ids, OutboxStatus.SENT, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Moves the next attempt of the rows without counting a failed attempt, for when notification-service was
+     * not called at all.
+     */
+    @Transactional
+    public void postpone(Collection<UUID> ids, Duration delay) {
+        if (!ids.isEmpty()) {
+            outboxRepository.postpone(ids, OutboxStatus.PENDING, LocalDateTime.now().plus(delay));
+        }
+    }
+
+    /**
+     * @return {@code true} when the notification will be retried, {@code false} when it was given up on
+     */
+    @Transactional
+    public boolean markAttemptFailed(UUID id, String error) {
+        NotificationOutbox outbox = outboxRepository.findById(id).orElse(null);
+
+        if (outbox == null) {
+            return false;
+        }
+
+        outbox.setAttempts(outbox.getAttempts() + 1);
+        outbox.setLastError(error == null || error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH));
+
+        if (outbox.getAttempts() >= maxAttempts) {
+            outbox.setStatus(OutboxStatus.FAILED);
+            log.error("Giving up on notification [{}] to {} after {} attempts: {}",
+                    id, outbox.getRecipientEmail(), outbox.getAttempts(), error);
+            return false;
+        }
+
+        outbox.setNextAttemptAt(LocalDateTime.now().plus(backoff(outbox.getAttempts())));
+        return true;
+    }
+
+    private static NotificationOutbox toOutbox(NotificationRequest request, LocalDateTime now) {
+        NotificationOutbox outbox = new NotificationOutbox();
+        outbox.setRecipientId(request.getRecipientId());
+        outbox.setRecipientEmail(request.getRecipientEmail());
+        outbox.setSubject(request.getSubject());
+        outbox.setMessage(request.getMessage());
+        outbox.setTemplateId(request.getTemplateId());
+        outbox.setTemplateParams(request.getTemplateParams());
+        outbox.setNextAttemptAt(now);
+        return outbox;
+    }
+
+    Duration backoff(int attempts) {
+        long base = backoffBase.toMillis() << Math.min(attempts - 1, 20);
+        long capped = Math.min(base, backoffMax.toMillis());
+        long jitter = ThreadLocalRandom.current().nextLong(capped / 5 + 1);
+
+        return Duration.ofMillis(capped + jitter);
+    }
+}
@@ -0,0 +1,25 @@
+package com.exam.eventhub.notification.service;
+
+import com.exam.eventhub.http.NearCache;
+import com.exam.eventhub.notification.client.dto.NotificationPageResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * First page of each user's notifications, which is what the inbox shows on every visit. Dropped whenever this node
+ * sends, deletes or marks notifications of the user, or relays a new one over the stream.
+ */
+@Component
+public class NotificationPageCache extends NearCache<UUID, NotificationPageResponse> {
+
+    public NotificationPageCache(@Value("${eventhub.notification.page-cache.ttl-seconds:10}") long ttlSeconds,
+                                 @Value("${eventhub.notification.page-cache.max-entries:10000}") int maxEntries,
+                                 MeterRegistry meterRegistry) {
+        super("notification-page", Duration.ofSeconds(ttlSeconds), maxEntries, Clock.systemUTC(), meterRegistry);
+    }
+}
@@ -1,21 +1,37 @@
 package com.exam.eventhub.notification.service;
 
+import com.exam.eventhub.exception.DependencyUnavailableException;
+import com.exam.eventhub.exception.NotificationBatchRejectedException;
 import com.exam.eventhub.exception.NotificationServiceFeignCallException;
 import com.exam.eventhub.exception.UnauthorizedException;
 import com.exam.eventhub.notification.client.NotificationClient;
+import com.exam.eventhub.notification.client.dto.MarkReadRequest;
+import com.exam.eventhub.notification.client.dto.MarkReadResponse;
+import com.exam.eventhub.notification.client.dto.NotificationBatchRequest;
+import com.exam.eventhub.notification.client.dto.NotificationBatchResponse;
+import com.exam.eventhub.notification.client.dto.NotificationClearResponse;
+import com.exam.eventhub.notification.client.dto.NotificationPageResponse;
+import com.exam.eventhub.notification.client.dto.NotificationPreferenceRequest;
+import com.exam.eventhub.notification.client.dto.NotificationPreferenceResponse;
 import com.exam.eventhub.notification.client.dto.NotificationRequest;
 import com.exam.eventhub.notification.client.dto.NotificationResponse;
+import com.exam.eventhub.notification.client.dto.UnreadCountResponse;
+import com.exam.eventhub.notification.model.NotificationTemplate;
 import com.exam.eventhub.user.model.User;
+import feign.FeignException;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 
 import static com.exam.eventhub.common.Constants.DELETE_UNSUCCESSFUL;
+import static com.exam.eventhub.common.Constants.MICROSERVICE_ERROR;
 import static com.exam.eventhub.common.Constants.NOT_AUTHORIZED;
 
 @Slf4j
@@ -24,6 +40,110 @@ import static com.exam.eventhub.common.Constants.NOT_AUTHORIZED;
 public class NotificationService {
 
     private final NotificationClient notificationClient;
+    private final NotificationOutboxService notificationOutboxService;
+    private final UnreadCountCache unreadCountCache;
+    private final NotificationPageCache notificationPageCache;
+
+    /**
+     * Records the notification in the outbox as part of the caller's transaction instead of calling
+     * notification-service inline. Users who turned notifications off are skipped.
+     */
+    public void enqueueIfEnabled(User user, String subject, String message) {
+        if (acceptsNotifications(user)) {
+            notificationOutboxService.enqueue(toRequest(user, subject, message));
+        }
+    }
+
+    /**
+     * Same as {@link #enqueueIfEnabled(User, String, String)}, but sends only the template and its parameters;
+     * notification-service renders the text when the notification is read or delivered.
+     */
+    public void enqueueIfEnabled(User user, NotificationTemplate template, String... params) {
+        if (!acceptsNotifications(user)) {
+            return;
+        }
+
+        notificationOutboxService.enqueue(toTemplatedRequest(user, template, params));
+    }
+
+    /**
+     * Fan-out of one templated notification to many users, written to the outbox in one go. Users who turned
+     * notifications off are skipped, as in {@link #enqueueIfEnabled(User, NotificationTemplate, String...)}.
+     *
+     * @return number of notifications enqueued
+     */
+    public int enqueueAllIfEnabled(Collection<User> users, NotificationTemplate template, String... params) {
+        List<NotificationRequest> notificationRequests = users.stream()
+                .filter(NotificationService::acceptsNotifications)
+                .map(user -> toTemplatedRequest(user, template, params))
+                .toList();
+
+        if (!notificationRequests.isEmpty()) {
+            notificationOutboxService.enqueueAll(notificationRequests);
+        }
+
+        return notificationRequests.size();
+    }
+
+    /**
+     * Sends one outbox entry to notification-service.
+     *
+     * @throws DependencyUnavailableException when notification-service is not called because it is failing
+     * @throws NotificationServiceFeignCallException when the call fails or is not answered with 2xx
+     */
+    public void deliver(NotificationRequest notificationRequest) {
+        ResponseEntity<NotificationResponse> response;
+        try {
+            response = notificationClient.sendNotification(notificationRequest);
+        } catch (DependencyUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new NotificationServiceFeignCallException(e.getMessage());
+        }
+
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            throw new NotificationServiceFeignCallException("notification-service answered " + response.getStatusCode());
+        }
+
+        evict(notificationRequest.getRecipientId());
+    }
+
+    /**
+     * Sends outbox entries to notification-service in one call; notification-service stores them all
+     * or none of them.
+     *
+     * @throws NotificationBatchRejectedException when notification-service refuses the batch as invalid
+     * @throws DependencyUnavailableException when notification-service is not called because it is failing
+     * @throws NotificationServiceFeignCallException when the call fails for any other reason
+     */
+    public void deliverAll(List<NotificationRequest> notificationRequests) {
+        if (notificationRequests.size() > NotificationBatchRequest.MAX_SIZE) {
+            throw new IllegalArgumentException("At most %d notifications can be sent in one batch.".formatted(NotificationBatchRequest.MAX_SIZE));
+        }
+
+        ResponseEntity<NotificationBatchResponse> response;
+        try {
+            response = notificationClient.sendNotifications(new NotificationBatchRequest(notificationRequests));
+        } catch (FeignException.BadRequest e) {
+            throw new NotificationBatchRejectedException(e.getMessage());
+        } catch (DependencyUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new NotificationServiceFeignCallException(e.getMessage());
+        }
+
+        if (response.getStatusCode() == HttpStatus.BAD_REQUEST) {
+            throw new NotificationBatchRejectedException("notification-service rejected the batch");
+        }
+
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            throw new NotificationServiceFeignCallException("notification-service answered " + response.getStatusCode());
+        }
+
+        List<UUID> recipients = notificationRequests.stream().map(NotificationRequest::getRecipientId).toList();
+        unreadCountCache.evictAll(recipients);
+        recipients.forEach(notificationPageCache::invalidate);
+    }
 
     public void sendIfEnabled(User user, String subject, String message) {
         if (user == null) {
@@ -36,11 +156,7 @@ public class NotificationService {
             throw new IllegalArgumentException("User [%s] does not allow to receive notifications.".formatted(user.getUsername()));
         }
 
-        NotificationRequest notificationRequest = new NotificationRequest();
-        notificationRequest.setRecipientId(user.getId());
-        notificationRequest.setRecipientEmail(user.getEmail());
-        notificationRequest.setSubject(subject);
-        notificationRequest.setMessage(message);
+        NotificationRequest notificationRequest = toRequest(user, subject, message);
 
         ResponseEntity<NotificationResponse> notificationResponse = notificationClient.sendNotification(notificationRequest);
         if (!notificationResponse.getStatusCode().is2xxSuccessful()) {
@@ -68,38 +184,211 @@ public class NotificationService {
                 : Collections.emptyList();
     }
 
-    public void delete(UUID id) {
+    /**
+     * The first page is shared by concurrent views of the same user and kept briefly in {@link NotificationPageCache};
+     * later pages are always fetched.
+     *
+     * @param cursor {@code nextCursor} of the previous page, or {@code null} for the newest notifications
+     */
+    public NotificationPageResponse getNotificationsPage(UUID userId, String cursor, int limit) {
+        if (cursor == null) {
+            return notificationPageCache.get(userId, () -> fetchNotificationsPage(userId, null, limit));
+        }
+
+        return fetchNotificationsPage(userId, cursor, limit);
+    }
+
+    private NotificationPageResponse fetchNotificationsPage(UUID userId, String cursor, int limit) {
+
+        ResponseEntity<NotificationPageResponse> response = notificationClient.getNotificationsPage(userId, cursor, limit);
+
+        return response.getBody() != null
+                ? response.getBody()
+                : new NotificationPageResponse();
+    }
+
+    public NotificationPageResponse getAllPage(String cursor, int limit) {
+
+        ResponseEntity<NotificationPageResponse> response = notificationClient.getAllNotificationsPage(cursor, limit);
+
+        return response.getBody() != null
+                ? response.getBody()
+                : new NotificationPageResponse();
+    }
+
+    /**
+     * Unread count for the navbar badge. Served from {@link UnreadCountCache} when possible; when
+     * notification-service cannot be reached the badge shows nothing instead of failing the page.
+     */
+    public long getUnreadCount(UUID userId) {
+        Long cached = unreadCountCache.get(userId);
+
+        if (cached != null) {
+            return cached;
+        }
+
+        long unread;
+        try {
+            ResponseEntity<UnreadCountResponse> response = notificationClient.getUnreadCount(userId);
+            unread = response.getBody() != null ? response.getBody().getUnread() : 0;
+        } catch (Exception e) {
+            log.warn("Could not load unread notification count for user [{}]: {}", userId, e.getMessage());
+            return 0;
+        }
+
+        unreadCountCache.put(userId, unread);
+
+        return unread;
+    }
+
+    /**
+     * Marks the given notifications of the user as read, or all of them when {@code ids} is empty.
+     *
+     * @return how many notifications changed from unread to read
+     */
+    public int markRead(UUID userId, List<UUID> ids) {
+        ResponseEntity<MarkReadResponse> response;
+        try {
+            response = notificationClient.markRead(userId, new MarkReadRequest(ids));
+        } catch (Exception e) {
+            log.error("Error marking notifications as read: {}", e.getMessage());
+            throw new NotificationServiceFeignCallException(MICROSERVICE_ERROR);
+        } finally {
+            evict(userId);
+        }
+
+        return response.getBody() != null ? response.getBody().getUpdated() : 0;
+    }
+
+    /**
+     * Delivery preference of the user; when notification-service cannot be reached the page shows immediate
+     * delivery instead of failing.
+     */
+    public NotificationPreferenceResponse getPreference(UUID userId) {
+        try {
+            ResponseEntity<NotificationPreferenceResponse> response = notificationClient.getPreference(userId);
+
+            if (response.getBody() != null) {
+                return response.getBody();
+            }
+        } catch (Exception e) {
+            log.warn("Could not load notification preference for user [{}]: {}", userId, e.getMessage());
+        }
+
+        return new NotificationPreferenceResponse(userId, NotificationPreferenceResponse.IMMEDIATE, 0);
+    }
+
+    /**
+     * Switches the user between immediate notifications and a digest per {@code digestWindowMinutes}.
+     */
+    public NotificationPreferenceResponse updatePreference(UUID userId, String mode, Integer digestWindowMinutes) {
+        ResponseEntity<NotificationPreferenceResponse> response;
+        try {
+            response = notificationClient.updatePreference(userId, new NotificationPreferenceRequest(mode, digestWindowMinutes));
+        } catch (Exception e) {
+            log.error("Error updating notification preference: {}", e.getMessage());
+            throw new NotificationServiceFeignCallException(MICROSERVICE_ERROR);
+        }
+
+        log.info("User [{}] switched notification delivery to [{}]", userId, mode);
+
+        return response.getBody();
+    }
+
+    /**
+     * Deletes any notification, for the admin page. The recipient comes from the listing the admin deleted it
+     * from, since notification-service does not return it; without it the recipient's cached badge and first page
+     * are left to expire on their own.
+     */
+    public void delete(UUID id, UUID recipientId) {
 
         try {
             notificationClient.deleteNotification(id);
-            log.info("Notification with ID [{}] was successfully deleted.", id);
         } catch (Exception e) {
             log.error("Error deleting notification: {}", e.getMessage());
             throw new NotificationServiceFeignCallException(DELETE_UNSUCCESSFUL);
         }
+
+        if (recipientId != null) {
+            evict(recipientId);
+        }
+        log.info("Notification with ID [{}] was successfully deleted.", id);
     }
 
+    /**
+     * Deletes the notification only if it belongs to the user; notification-service checks ownership and
+     * answers 404 for a notification of someone else.
+     */
     public void deleteUserNotification(UUID notificationId, UUID userId) {
-        List<NotificationResponse> userNotifications = getNotificationsByUser(userId);
-
-        boolean isOwner = userNotifications.stream()
-                .anyMatch(n -> n.getId().equals(notificationId));
-
-        if (!isOwner) {
+        try {
+            notificationClient.deleteUserNotification(notificationId, userId);
+        } catch (FeignException.NotFound e) {
             log.warn("User [{}] attempted to delete notification [{}] that doesn't belong to them", userId, notificationId);
             throw new UnauthorizedException(NOT_AUTHORIZED);
+        } catch (Exception e) {
+            log.error("Error deleting notification: {}", e.getMessage());
+            throw new NotificationServiceFeignCallException(DELETE_UNSUCCESSFUL);
         }
 
-        delete(notificationId);
+        evict(userId);
         log.info("Notification [{}] successfully deleted by user [{}]", notificationId, userId);
     }
 
-    public void clearAllNotifications(List<NotificationResponse> notifications, User user) {
-        for (NotificationResponse n : notifications) {
-            delete(n.getId());
+    /**
+     * @return how many notifications were cleared
+     */
+    public int clearAllNotifications(User user) {
+        ResponseEntity<NotificationClearResponse> response;
+        try {
+            response = notificationClient.clearHistory(user.getId());
+        } catch (Exception e) {
+            log.error("Error clearing notifications: {}", e.getMessage());
+            throw new NotificationServiceFeignCallException(DELETE_UNSUCCESSFUL);
         }
 
-        log.info("User {} cleared his notification history.", user.getUsername());
+        evict(user.getId());
+        int cleared = response.getBody() != null ? response.getBody().getCleared() : 0;
+
+        log.info("User {} cleared his notification history ({} notifications).", user.getUsername(), cleared);
+
+        return cleared;
+    }
+
+    /**
+     * Drops what this node caches about the user's notifications after it changed them.
+     */
+    public void evict(UUID userId) {
+        unreadCountCache.evict(userId);
+        notificationPageCache.invalidate(userId);
     }
 
+    private static boolean acceptsNotifications(User user) {
+        if (user == null) {
+            log.warn("Cannot enqueue notification: user is null.");
+            return false;
+        }
+
+        if (!user.isNotificationsEnabled()) {
+            log.info("Notifications disabled for user {} — skipping.", user.getUsername());
+            return false;
+        }
+
+        return true;
+    }
+
+    private static NotificationRequest toTemplatedRequest(User user, NotificationTemplate template, String... params) {
+        NotificationRequest notificationRequest = toRequest(user, null, null);
+        notificationRequest.setTemplateId(template.getId());
+        notificationRequest.setTemplateParams(List.of(params));
+        return notificationRequest;
+    }
+
+    private static NotificationRequest toRequest(User user, String subject, String message) {
+        NotificationRequest notificationRequest = new NotificationRequest();
+        notificationRequest.setRecipientId(user.getId());
+        notificationRequest.setRecipientEmail(user.getEmail());
+        notificationRequest.setSubject(subject);
+        notificationRequest.setMessage(message);
+        return notificationRequest;
+    }
 }
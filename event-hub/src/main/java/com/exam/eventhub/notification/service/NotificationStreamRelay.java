@@ -0,0 +1,226 @@
+package com.exam.eventhub.notification.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Relays a user's notification stream from notification-service to the browser. The upstream body is read one
+ * line at a time and the next line is only requested once the previous one was written to the browser, so a slow
+ * browser slows down reading instead of buffering events here. Either side closing closes the other; the browser's
+ * {@code EventSource} reconnects on its own.
+ */
+@Slf4j
+@Service
+public class NotificationStreamRelay {
+
+    static final String NOTIFICATION = "notification";
+
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final long timeoutMs;
+    private final long reconnectMs;
+    private final UnreadCountCache unreadCountCache;
+    private final NotificationPageCache notificationPageCache;
+    private final AtomicInteger relays = new AtomicInteger();
+
+    public NotificationStreamRelay(@Value("${eventhub.notification-service.base-url}") String baseUrl,
+                                   @Value("${eventhub.notification.stream.timeout-ms:1800000}") long timeoutMs,
+                                   @Value("${eventhub.notification.stream.connect-timeout-ms:5000}") long connectTimeoutMs,
+                                   @Value("${eventhub.notification.stream.reconnect-ms:10000}") long reconnectMs,
+                                   UnreadCountCache unreadCountCache,
+                                   NotificationPageCache notificationPageCache,
+                                   MeterRegistry meterRegistry) {
+        this.baseUrl = baseUrl;
+        this.timeoutMs = timeoutMs;
+        this.reconnectMs = reconnectMs;
+        this.unreadCountCache = unreadCountCache;
+        this.notificationPageCache = notificationPageCache;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+
+        Gauge.builder("eventhub.notification.stream.relays", relays, AtomicInteger::get)
+                .description("Notification streams relayed to browsers")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter open(UUID userId, Locale locale) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+
+        relay(userId, locale, emitter);
+
+        return emitter;
+    }
+
+    void relay(UUID userId, Locale locale, SseEmitter emitter) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/notifications/" + userId + "/stream"))
+                .header("Accept", MediaType.TEXT_EVENT_STREAM_VALUE)
+                .header("Accept-Language", locale.toLanguageTag())
+                .GET()
+                .build();
+
+        try {
+            // Tells the browser how long to wait before reconnecting, and commits the response headers.
+            emitter.send(SseEmitter.event().reconnectTime(reconnectMs).comment("connected"));
+        } catch (IOException e) {
+            emitter.complete();
+            return;
+        }
+
+        EventRelay relay = new EventRelay(userId, emitter);
+        relays.incrementAndGet();
+
+        httpClient.sendAsync(request, response -> response.statusCode() == 200
+                        ? HttpResponse.BodySubscribers.fromLineSubscriber(relay)
+                        : HttpResponse.BodySubscribers.discarding())
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        log.warn("Notification stream of user [{}] could not be relayed: {}", userId, error.toString());
+                    } else if (response.statusCode() != 200) {
+                        log.warn("Notification stream of user [{}] was refused with status {}", userId, response.statusCode());
+                    }
+                    relay.finish();
+                });
+    }
+
+    /**
+     * Parses server-sent events line by line and forwards each complete event to the browser.
+     */
+    private class EventRelay implements Flow.Subscriber<String> {
+
+        private final UUID userId;
+        private final SseEmitter emitter;
+        private final AtomicInteger finished = new AtomicInteger();
+        private volatile Flow.Subscription subscription;
+        private volatile boolean emitterClosed;
+
+        private String name;
+        private String id;
+        private StringBuilder data;
+
+        EventRelay(UUID userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+
+            emitter.onCompletion(this::closedByBrowser);
+            emitter.onTimeout(this::closedByBrowser);
+            emitter.onError(error -> closedByBrowser());
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+
+            if (emitterClosed) {
+                subscription.cancel();
+            } else {
+                subscription.request(1);
+            }
+        }
+
+        @Override
+        public void onNext(String line) {
+            try {
+                accept(line);
+                subscription.request(1);
+            } catch (IOException | IllegalStateException e) {
+                subscription.cancel();
+                finish();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            finish();
+        }
+
+        @Override
+        public void onComplete() {
+            finish();
+        }
+
+        private void accept(String line) throws IOException {
+            if (line.isEmpty()) {
+                dispatch();
+            } else if (line.startsWith(":")) {
+                emitter.send(SseEmitter.event().comment(line.substring(1)));
+            } else {
+                int colon = line.indexOf(':');
+                String field = colon < 0 ? line : line.substring(0, colon);
+                String value = colon < 0 ? "" : line.substring(colon + 1).stripLeading();
+
+                switch (field) {
+                    case "event" -> name = value;
+                    case "id" -> id = value;
+                    case "data" -> data = data == null ? new StringBuilder(value) : data.append('\n').append(value);
+                    default -> {
+                    }
+                }
+            }
+        }
+
+        private void dispatch() throws IOException {
+            if (data == null) {
+                name = null;
+                id = null;
+                return;
+            }
+
+            SseEmitter.SseEventBuilder event = SseEmitter.event().data(data.toString());
+            if (name != null) {
+                event.name(name);
+            }
+            if (id != null) {
+                event.id(id);
+            }
+
+            if (NOTIFICATION.equals(name)) {
+                unreadCountCache.evict(userId);
+                notificationPageCache.invalidate(userId);
+            }
+
+            name = null;
+            id = null;
+            data = null;
+
+            emitter.send(event);
+        }
+
+        private void closedByBrowser() {
+            emitterClosed = true;
+
+            Flow.Subscription current = subscription;
+            if (current != null) {
+                current.cancel();
+            }
+            finish();
+        }
+
+        private void finish() {
+            if (finished.compareAndSet(0, 1)) {
+                relays.decrementAndGet();
+
+                if (!emitterClosed) {
+                    emitter.complete();
+                }
+            }
+        }
+    }
+}
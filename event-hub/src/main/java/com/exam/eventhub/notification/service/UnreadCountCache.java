@@ -0,0 +1,74 @@
+package com.exam.eventhub.notification.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived cache of unread notification counts for the navbar badge, which is requested on every
+ * page. Entries are dropped when the user reads, deletes or receives notifications through this node;
+ * changes made elsewhere show up once the entry expires.
+ */
+@Component
+public class UnreadCountCache {
+
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final Duration ttl;
+    private final Clock clock;
+
+    @Autowired
+    public UnreadCountCache(@Value("${eventhub.notification.unread-count-cache.ttl-seconds:30}") long ttlSeconds) {
+        this(Duration.ofSeconds(ttlSeconds), Clock.systemUTC());
+    }
+
+    UnreadCountCache(Duration ttl, Clock clock) {
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    public Long get(UUID userId) {
+        Entry entry = entries.get(userId);
+
+        if (entry == null) {
+            return null;
+        }
+
+        if (entry.expiresAt() <= clock.millis()) {
+            entries.remove(userId, entry);
+            return null;
+        }
+
+        return entry.unread();
+    }
+
+    public void put(UUID userId, long unread) {
+        entries.put(userId, new Entry(unread, clock.millis() + ttl.toMillis()));
+    }
+
+    public void evict(UUID userId) {
+        if (userId != null) {
+            entries.remove(userId);
+        }
+    }
+
+    public void evictAll(Collection<UUID> userIds) {
+        userIds.forEach(this::evict);
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void purgeExpired() {
+        long now = clock.millis();
+        entries.values().removeIf(entry -> entry.expiresAt() <= now);
+    }
+
+    private record Entry(long unread, long expiresAt) {
+    }
+}
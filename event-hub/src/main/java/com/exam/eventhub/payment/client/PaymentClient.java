@@ -1,5 +1,8 @@
 package com.exam.eventhub.payment.client;
 
+import com.exam.eventhub.http.OperationTimeout;
+import com.exam.eventhub.payment.client.dto.BatchRefundRequest;
+import com.exam.eventhub.payment.client.dto.BatchRefundResponse;
 import com.exam.eventhub.payment.client.dto.PaymentRequest;
 import com.exam.eventhub.payment.client.dto.PaymentResponse;
 import com.exam.eventhub.payment.client.dto.RefundRequest;
@@ -14,17 +17,26 @@ import java.util.UUID;
 public interface PaymentClient {
 
     @PostMapping
+    @OperationTimeout("${eventhub.http.payment-service.charge-timeout-ms:10000}")
     ResponseEntity<PaymentResponse> processPayment(@RequestBody PaymentRequest paymentRequest);
 
     @PostMapping("/{paymentId}/refunds")
+    @OperationTimeout("${eventhub.http.payment-service.charge-timeout-ms:10000}")
     ResponseEntity<PaymentResponse> refundPayment(@PathVariable UUID paymentId, @RequestBody RefundRequest refundRequest);
 
+    @PostMapping("/refunds")
+    @OperationTimeout("${eventhub.http.payment-service.batch-refund-timeout-ms:60000}")
+    ResponseEntity<BatchRefundResponse> refundPayments(@RequestBody BatchRefundRequest batchRefundRequest);
+
     @GetMapping("/bookings/{bookingId}")
     ResponseEntity<PaymentResponse> getPaymentByBookingId(@PathVariable UUID bookingId);
 
     @GetMapping("/users/{userId}")
     ResponseEntity<List<PaymentResponse>> getPaymentsByUser(@PathVariable UUID userId);
 
+    @GetMapping("/by-booking")
+    ResponseEntity<List<PaymentResponse>> getPaymentsByBookingOrder(@RequestParam("after") UUID after, @RequestParam("limit") int limit);
+
     @GetMapping("/{paymentId}")
     ResponseEntity<PaymentResponse> getPaymentById(@PathVariable UUID paymentId);
 
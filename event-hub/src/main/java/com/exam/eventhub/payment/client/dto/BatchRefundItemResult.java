@@ -0,0 +1,24 @@
+package com.exam.eventhub.payment.client.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRefundItemResult {
+
+    private UUID paymentId;
+    private String outcome;
+    private String message;
+
+    /**
+     * @return true when the payment is refunded, by this request or an earlier one
+     */
+    public boolean isRefunded() {
+        return "REFUNDED".equals(outcome) || "ALREADY_REFUNDED".equals(outcome);
+    }
+}
@@ -0,0 +1,15 @@
+package com.exam.eventhub.payment.client.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRefundRequest {
+
+    private List<RefundRequest> items;
+}
@@ -0,0 +1,19 @@
+package com.exam.eventhub.payment.client.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRefundResponse {
+
+    private int requested;
+    private int completed;
+    private Map<String, Long> outcomes;
+    private List<BatchRefundItemResult> results;
+}
@@ -0,0 +1,26 @@
+package com.exam.eventhub.payment.service;
+
+import com.exam.eventhub.http.NearCache;
+import com.exam.eventhub.payment.client.dto.PaymentResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Payment history per user for the profile page. Dropped when this node charges the user or refunds one of the
+ * listed payments.
+ */
+@Component
+public class PaymentHistoryCache extends NearCache<UUID, List<PaymentResponse>> {
+
+    public PaymentHistoryCache(@Value("${eventhub.payment.history-cache.ttl-seconds:30}") long ttlSeconds,
+                               @Value("${eventhub.payment.history-cache.max-entries:10000}") int maxEntries,
+                               MeterRegistry meterRegistry) {
+        super("payment-history", Duration.ofSeconds(ttlSeconds), maxEntries, Clock.systemUTC(), meterRegistry);
+    }
+}
@@ -0,0 +1,73 @@
+package com.exam.eventhub.payment.service;
+
+import com.exam.eventhub.payment.client.dto.PaymentResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Last payment history fetched for each user, served while payment-service cannot be reached. It is never read
+ * while the service answers, so it only has to be bounded, not fresh: the least recently used users are dropped
+ * first and nothing older than the maximum age is shown.
+ */
+@Component
+public class PaymentHistoryFallbackCache {
+
+    private final Map<UUID, Entry> entries;
+    private final Duration maxAge;
+    private final Clock clock;
+
+    @Autowired
+    public PaymentHistoryFallbackCache(@Value("${eventhub.payment.history-fallback.max-entries:10000}") int maxEntries,
+                                       @Value("${eventhub.payment.history-fallback.max-age-hours:24}") long maxAgeHours) {
+        this(maxEntries, Duration.ofHours(maxAgeHours), Clock.systemUTC());
+    }
+
+    PaymentHistoryFallbackCache(int maxEntries, Duration maxAge, Clock clock) {
+        this.maxAge = maxAge;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public synchronized Optional<List<PaymentResponse>> get(UUID userId) {
+        Entry entry = entries.get(userId);
+
+        if (entry == null) {
+            return Optional.empty();
+        }
+
+        if (entry.expiresAt() <= clock.millis()) {
+            entries.remove(userId);
+            return Optional.empty();
+        }
+
+        return Optional.of(entry.payments());
+    }
+
+    public synchronized void put(UUID userId, List<PaymentResponse> payments) {
+        entries.put(userId, new Entry(List.copyOf(payments), clock.millis() + maxAge.toMillis()));
+    }
+
+    @Scheduled(fixedDelay = 600_000)
+    public synchronized void purgeExpired() {
+        long now = clock.millis();
+        entries.values().removeIf(entry -> entry.expiresAt() <= now);
+    }
+
+    private record Entry(List<PaymentResponse> payments, long expiresAt) {
+    }
+}
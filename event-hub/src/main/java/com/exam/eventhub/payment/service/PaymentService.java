@@ -1,8 +1,12 @@
 package com.exam.eventhub.payment.service;
 
+import com.exam.eventhub.exception.DependencyUnavailableException;
+import com.exam.eventhub.exception.PaymentPendingException;
 import com.exam.eventhub.exception.PaymentProcessingException;
 import com.exam.eventhub.exception.PaymentServiceUnavailableException;
 import com.exam.eventhub.payment.client.PaymentClient;
+import com.exam.eventhub.payment.client.dto.BatchRefundRequest;
+import com.exam.eventhub.payment.client.dto.BatchRefundResponse;
 import com.exam.eventhub.payment.client.dto.PaymentRequest;
 import com.exam.eventhub.payment.client.dto.PaymentResponse;
 import com.exam.eventhub.payment.client.dto.RefundRequest;
@@ -14,7 +18,10 @@ import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -22,6 +29,9 @@ import java.util.UUID;
 public class PaymentService {
 
     private final PaymentClient paymentClient;
+    private final PaymentStatusPoller paymentStatusPoller;
+    private final PaymentHistoryCache historyCache;
+    private final PaymentHistoryFallbackCache historyFallbackCache;
 
     /**
      * Обработва плащане за резервация.
@@ -31,6 +41,7 @@ public class PaymentService {
      * @param amount Сума за плащане
      * @return PaymentResponse от външния сервис
      * @throws PaymentProcessingException ако плащането се провали
+     * @throws PaymentPendingException ако payment-service още таксува плащането след изтичане на изчакването
      */
     public PaymentResponse processPayment(UUID bookingId, UUID userId, BigDecimal amount) {
         log.info("Processing payment for booking {} with amount {}", bookingId, amount);
@@ -46,6 +57,10 @@ public class PaymentService {
 
             PaymentResponse response = responseEntity.getBody();
 
+            if (PaymentStatusPoller.isPending(response)) {
+                response = paymentStatusPoller.awaitCompletion(response);
+            }
+
             if (!"SUCCESS".equalsIgnoreCase(response.getStatus())) {
                 log.warn("Payment failed for booking {}: {}", bookingId, response.getMessage());
                 throw new PaymentProcessingException("Payment was declined: " + response.getMessage());
@@ -54,6 +69,10 @@ public class PaymentService {
             log.info("Payment successful for booking {}, paymentId: {}", bookingId, response.getPaymentId());
             return response;
 
+        } catch (DependencyUnavailableException e) {
+            log.warn("Payment for booking {} not attempted: {}", bookingId, e.getMessage());
+            throw new PaymentServiceUnavailableException("Payment service is temporarily unavailable. Please try again later.");
+
         } catch (FeignException.ServiceUnavailable e) {
             log.error("Payment service is unavailable for booking {}", bookingId, e);
             throw new PaymentServiceUnavailableException("Payment service is temporarily unavailable. Please try again later.");
@@ -61,6 +80,8 @@ public class PaymentService {
         } catch (FeignException e) {
             log.error("Error communicating with payment service for booking {}", bookingId, e);
             throw new PaymentProcessingException("Unable to process payment. Please try again.");
+        } finally {
+            historyCache.invalidate(userId);
         }
     }
 
@@ -85,6 +106,10 @@ public class PaymentService {
 
             log.info("Refund successful for payment {}", paymentId);
 
+        } catch (DependencyUnavailableException e) {
+            log.warn("Refund of payment {} not attempted: {}", paymentId, e.getMessage());
+            throw new PaymentServiceUnavailableException("Payment service is temporarily unavailable. Please try again later.");
+
         } catch (FeignException.ServiceUnavailable e) {
             log.error("Payment service is unavailable for refund of payment {}", paymentId, e);
             throw new PaymentServiceUnavailableException("Payment service is temporarily unavailable. Please try again later.");
@@ -92,13 +117,133 @@ public class PaymentService {
         } catch (FeignException e) {
             log.error("Error processing refund for payment {}", paymentId, e);
             throw new PaymentProcessingException("Unable to process refund. Please contact support.");
+        } finally {
+            historyCache.invalidateIf(payments -> payments.stream().anyMatch(payment -> paymentId.equals(payment.getPaymentId())));
+        }
+    }
+
+    /**
+     * Възстановява много плащания с една заявка (напр. при отменено събитие). payment-service ги обработва на
+     * порции и връща резултат за всяко плащане; вече възстановените се отчитат като ALREADY_REFUNDED, затова
+     * заявката може да се повтори.
+     *
+     * @param refunds плащания и суми за възстановяване, най-много 5000
+     * @return резултат за всяко плащане, в реда на заявката
+     * @throws PaymentProcessingException ако заявката се провали
+     */
+    public BatchRefundResponse refundPayments(List<RefundRequest> refunds) {
+        log.info("Processing batch refund of {} payments", refunds.size());
+
+        try {
+            ResponseEntity<BatchRefundResponse> responseEntity = paymentClient.refundPayments(new BatchRefundRequest(refunds));
+
+            if (!responseEntity.getStatusCode().is2xxSuccessful() || responseEntity.getBody() == null) {
+                log.warn("Batch refund failed: HTTP status {}", responseEntity.getStatusCode());
+                throw new PaymentProcessingException("Batch refund request failed with status: " + responseEntity.getStatusCode());
+            }
+
+            BatchRefundResponse response = responseEntity.getBody();
+            log.info("Batch refund: {} of {} payments refunded, outcomes {}", response.getCompleted(), response.getRequested(), response.getOutcomes());
+            return response;
+
+        } catch (DependencyUnavailableException e) {
+            log.warn("Batch refund not attempted: {}", e.getMessage());
+            throw new PaymentServiceUnavailableException("Payment service is temporarily unavailable. Please try again later.");
+
+        } catch (FeignException.ServiceUnavailable e) {
+            log.error("Payment service is unavailable for batch refund", e);
+            throw new PaymentServiceUnavailableException("Payment service is temporarily unavailable. Please try again later.");
+
+        } catch (FeignException e) {
+            log.error("Error processing batch refund", e);
+            throw new PaymentProcessingException("Unable to process refunds. Please try again.");
+        } finally {
+            Set<UUID> paymentIds = refunds.stream().map(RefundRequest::getPaymentId).collect(Collectors.toSet());
+            historyCache.invalidateIf(payments -> payments.stream().anyMatch(payment -> paymentIds.contains(payment.getPaymentId())));
+        }
+    }
+
+    /**
+     * Връща плащането на резервация, ако payment-service има такова.
+     *
+     * @throws PaymentServiceUnavailableException ако payment-service не отговаря
+     * @throws PaymentProcessingException ако заявката се провали
+     */
+    public Optional<PaymentResponse> getPaymentByBookingId(UUID bookingId) {
+        try {
+            ResponseEntity<PaymentResponse> responseEntity = paymentClient.getPaymentByBookingId(bookingId);
+
+            if (!responseEntity.getStatusCode().is2xxSuccessful() || responseEntity.getBody() == null) {
+                log.warn("Payment of booking {} not fetched: HTTP status {}", bookingId, responseEntity.getStatusCode());
+                throw new PaymentProcessingException("Payment request failed with status: " + responseEntity.getStatusCode());
+            }
+
+            return Optional.of(responseEntity.getBody());
+
+        } catch (FeignException.NotFound e) {
+            return Optional.empty();
+
+        } catch (DependencyUnavailableException e) {
+            log.warn("Payment of booking {} not fetched: {}", bookingId, e.getMessage());
+            throw new PaymentServiceUnavailableException("Payment service is temporarily unavailable. Please try again later.");
+
+        } catch (FeignException.ServiceUnavailable e) {
+            log.error("Payment service is unavailable for the payment of booking {}", bookingId, e);
+            throw new PaymentServiceUnavailableException("Payment service is temporarily unavailable. Please try again later.");
+
+        } catch (FeignException e) {
+            log.error("Error fetching the payment of booking {}", bookingId, e);
+            throw new PaymentProcessingException("Unable to fetch the payment.");
         }
     }
 
     /**
-     * Връща всички плащания за даден потребител.
+     * Връща една страница плащания, подредени по ID на резервацията, след {@code afterBookingId}. Използва се за
+     * обхождане на всички плащания страница по страница; страница с по-малко от {@code limit} елемента е последна.
+     *
+     * @throws PaymentServiceUnavailableException ако payment-service не отговаря
+     * @throws PaymentProcessingException ако заявката се провали
+     */
+    public List<PaymentResponse> getPaymentsAfterBooking(UUID afterBookingId, int limit) {
+        try {
+            ResponseEntity<List<PaymentResponse>> responseEntity = paymentClient.getPaymentsByBookingOrder(afterBookingId, limit);
+
+            if (!responseEntity.getStatusCode().is2xxSuccessful() || responseEntity.getBody() == null) {
+                log.warn("Payment page after booking {} not fetched: HTTP status {}", afterBookingId, responseEntity.getStatusCode());
+                throw new PaymentProcessingException("Payment page request failed with status: " + responseEntity.getStatusCode());
+            }
+
+            return responseEntity.getBody();
+
+        } catch (DependencyUnavailableException e) {
+            log.warn("Payment page after booking {} not fetched: {}", afterBookingId, e.getMessage());
+            throw new PaymentServiceUnavailableException("Payment service is temporarily unavailable. Please try again later.");
+
+        } catch (FeignException.ServiceUnavailable e) {
+            log.error("Payment service is unavailable for the payment page after booking {}", afterBookingId, e);
+            throw new PaymentServiceUnavailableException("Payment service is temporarily unavailable. Please try again later.");
+
+        } catch (FeignException e) {
+            log.error("Error fetching the payment page after booking {}", afterBookingId, e);
+            throw new PaymentProcessingException("Unable to fetch payments.");
+        }
+    }
+
+    /**
+     * Връща всички плащания за даден потребител. Едновременните заявки за един потребител споделят едно
+     * извикване и резултатът се пази кратко в {@link PaymentHistoryCache}. Ако payment-service не отговаря,
+     * връща последно полученият списък, докато не е по-стар от допустимото.
      */
     public List<PaymentResponse> getPaymentsByUser(UUID userId) {
+        List<PaymentResponse> payments = historyCache.get(userId, () -> fetchPaymentsByUser(userId));
+
+        return payments != null ? payments : fallbackHistory(userId);
+    }
+
+    /**
+     * @return the payment history, or {@code null} when payment-service did not provide it
+     */
+    private List<PaymentResponse> fetchPaymentsByUser(UUID userId) {
         log.debug("Fetching payments for user {}", userId);
 
         try {
@@ -106,15 +251,28 @@ public class PaymentService {
 
             if (!responseEntity.getStatusCode().is2xxSuccessful() || responseEntity.getBody() == null) {
                 log.warn("Failed to fetch payments for user {}: HTTP status {}", userId, responseEntity.getStatusCode());
-                throw new PaymentProcessingException("Unable to fetch payment history.");
+                return null;
             }
 
+            historyFallbackCache.put(userId, responseEntity.getBody());
             return responseEntity.getBody();
 
+        } catch (DependencyUnavailableException e) {
+            log.warn("Payment history of user {} not fetched: {}", userId, e.getMessage());
+            return null;
+
         } catch (FeignException e) {
             log.error("Error fetching payments for user {}", userId, e);
-            throw new PaymentProcessingException("Unable to fetch payment history.");
+            return null;
         }
     }
 
+    private List<PaymentResponse> fallbackHistory(UUID userId) {
+        List<PaymentResponse> cached = historyFallbackCache.get(userId)
+                .orElseThrow(() -> new PaymentProcessingException("Unable to fetch payment history."));
+
+        log.info("Serving the last known payment history of user {}", userId);
+        return cached;
+    }
+
 }
\ No newline at end of file
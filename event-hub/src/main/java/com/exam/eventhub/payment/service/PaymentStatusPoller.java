@@ -0,0 +1,91 @@
+package com.exam.eventhub.payment.service;
+
+import com.exam.eventhub.exception.DependencyUnavailableException;
+import com.exam.eventhub.exception.PaymentPendingException;
+import com.exam.eventhub.payment.client.PaymentClient;
+import com.exam.eventhub.payment.client.dto.PaymentResponse;
+import feign.FeignException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+/**
+ * Waits for the outcome of a payment that payment-service is still charging in the background. The status is polled
+ * with a doubling interval until it leaves PENDING or the confirmation timeout is spent; failed polls count as "still
+ * pending", so a short outage does not turn an in-flight charge into a reported failure.
+ */
+@Slf4j
+@Component
+public class PaymentStatusPoller {
+
+    static final String PENDING = "PENDING";
+
+    private final PaymentClient paymentClient;
+    private final long timeoutMs;
+    private final long pollIntervalMs;
+    private final long maxPollIntervalMs;
+
+    public PaymentStatusPoller(PaymentClient paymentClient,
+                               @Value("${eventhub.payment.confirmation.timeout-ms:15000}") long timeoutMs,
+                               @Value("${eventhub.payment.confirmation.poll-interval-ms:100}") long pollIntervalMs,
+                               @Value("${eventhub.payment.confirmation.max-poll-interval-ms:1000}") long maxPollIntervalMs) {
+        this.paymentClient = paymentClient;
+        this.timeoutMs = timeoutMs;
+        this.pollIntervalMs = Math.max(pollIntervalMs, 1);
+        this.maxPollIntervalMs = Math.max(maxPollIntervalMs, this.pollIntervalMs);
+    }
+
+    public static boolean isPending(PaymentResponse payment) {
+        return PENDING.equalsIgnoreCase(payment.getStatus());
+    }
+
+    /**
+     * @return the payment once it is no longer PENDING
+     * @throws PaymentPendingException if the charge did not finish within the confirmation timeout
+     */
+    public PaymentResponse awaitCompletion(PaymentResponse payment) {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        long interval = pollIntervalMs;
+        PaymentResponse current = payment;
+
+        while (isPending(current)) {
+            long remaining = deadline - System.currentTimeMillis();
+
+            if (remaining <= 0 || !pause(Math.min(interval, remaining))) {
+                log.warn("Payment {} for booking {} is still pending after {} ms", payment.getPaymentId(), payment.getBookingId(), timeoutMs);
+                throw new PaymentPendingException("Your payment is still being processed. Please check your booking again in a moment.");
+            }
+
+            interval = Math.min(interval * 2, maxPollIntervalMs);
+            current = poll(current);
+        }
+
+        return current;
+    }
+
+    private PaymentResponse poll(PaymentResponse current) {
+        try {
+            ResponseEntity<PaymentResponse> responseEntity = paymentClient.getPaymentById(current.getPaymentId());
+
+            if (responseEntity.getStatusCode().is2xxSuccessful() && responseEntity.getBody() != null) {
+                return responseEntity.getBody();
+            }
+
+        } catch (DependencyUnavailableException | FeignException e) {
+            log.debug("Status of payment {} not fetched: {}", current.getPaymentId(), e.getMessage());
+        }
+
+        return current;
+    }
+
+    private static boolean pause(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.exam.eventhub.reconciliation.model;
+
+import lombok.Getter;
+
+/**
+ * Ways a booking and its payment can disagree. The repairable ones have a single safe fix that the reconciliation
+ * applies when repairs are enabled; the others need someone to look at them.
+ */
+@Getter
+public enum MismatchType {
+    PAYMENT_MISSING("Paid booking without a payment", false),
+    PAYMENT_NOT_SUCCESSFUL("Confirmed booking with an unsuccessful payment", false),
+    PAYMENT_ID_MISMATCH("Booking points to another payment", false),
+    AMOUNT_MISMATCH("Booking and payment amounts differ", false),
+    REFUND_NOT_PROCESSED("Refunded booking with a payment still charged", false),
+    BOOKING_MISSING("Successful payment without a booking", false),
+    REFUND_NOT_RECORDED("Refunded payment, booking still confirmed", true),
+    PAID_NOT_CONFIRMED("Successful payment, booking not confirmed", true),
+    PAID_AFTER_CANCELLATION("Successful payment for a cancelled booking", true);
+
+    private final String displayName;
+    private final boolean repairable;
+
+    MismatchType(String displayName, boolean repairable) {
+        this.displayName = displayName;
+        this.repairable = repairable;
+    }
+}
@@ -0,0 +1,47 @@
+package com.exam.eventhub.reconciliation.model;
+
+import jakarta.persistence.*;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Entity
+@Table(name = "reconciliation_mismatches", indexes = @Index(name = "idx_reconciliation_mismatches_run", columnList = "run_id"))
+public class ReconciliationMismatch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @EqualsAndHashCode.Include
+    private UUID id;
+
+    @Column(nullable = false)
+    private UUID runId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private MismatchType type;
+
+    @Column(nullable = false)
+    private UUID bookingId;
+
+    private UUID paymentId;
+
+    private String bookingStatus;
+
+    private String paymentStatus;
+
+    private boolean repaired;
+
+    @Column(length = 500)
+    private String detail;
+
+    private LocalDateTime detectedOn;
+}
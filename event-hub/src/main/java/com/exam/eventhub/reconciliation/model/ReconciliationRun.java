@@ -0,0 +1,53 @@
+package com.exam.eventhub.reconciliation.model;
+
+import jakarta.persistence.*;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Summary of one pass over all bookings and payments. The individual findings are kept as
+ * {@link ReconciliationMismatch} rows of the run.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Entity
+@Table(name = "reconciliation_runs")
+public class ReconciliationRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @EqualsAndHashCode.Include
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ReconciliationStatus status = ReconciliationStatus.RUNNING;
+
+    private boolean repairEnabled;
+
+    private long bookingsScanned;
+
+    private long paymentsScanned;
+
+    private long skipped;
+
+    private long mismatches;
+
+    private long repaired;
+
+    @Column(length = 500)
+    private String lastError;
+
+    @CreationTimestamp
+    private LocalDateTime startedOn;
+
+    private LocalDateTime finishedOn;
+}
@@ -0,0 +1,16 @@
+package com.exam.eventhub.reconciliation.model;
+
+import lombok.Getter;
+
+@Getter
+public enum ReconciliationStatus {
+    RUNNING("Running"),
+    COMPLETED("Completed"),
+    FAILED("Failed");
+
+    private final String displayName;
+
+    ReconciliationStatus(String displayName) {
+        this.displayName = displayName;
+    }
+}
@@ -0,0 +1,15 @@
+package com.exam.eventhub.reconciliation.repository;
+
+import com.exam.eventhub.reconciliation.model.ReconciliationMismatch;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ReconciliationMismatchRepository extends JpaRepository<ReconciliationMismatch, UUID> {
+
+    List<ReconciliationMismatch> findByRunIdOrderByDetectedOn(UUID runId, Pageable pageable);
+}
@@ -0,0 +1,14 @@
+package com.exam.eventhub.reconciliation.repository;
+
+import com.exam.eventhub.reconciliation.model.ReconciliationRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ReconciliationRunRepository extends JpaRepository<ReconciliationRun, UUID> {
+
+    List<ReconciliationRun> findTop20ByOrderByStartedOnDesc();
+}
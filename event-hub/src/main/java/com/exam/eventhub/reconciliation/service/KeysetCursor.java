@@ -0,0 +1,67 @@
+package com.exam.eventhub.reconciliation.service;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Walks a source that is paged by key, holding only the current page. Each page is requested with the last key seen,
+ * and a page shorter than the page size ends the walk. Rows must arrive in strictly ascending {@code order}: a merge
+ * over two cursors would otherwise report rows as missing that are only out of place, so the cursor fails instead.
+ */
+class KeysetCursor<T> {
+
+    private final String name;
+    private final int pageSize;
+    private final Comparator<UUID> order;
+    private final Function<T, UUID> key;
+    private final BiFunction<UUID, Integer, List<T>> fetch;
+
+    private Iterator<T> page = Collections.emptyIterator();
+    private UUID last = new UUID(0, 0);
+    private boolean exhausted;
+    private long count;
+
+    KeysetCursor(String name, int pageSize, Comparator<UUID> order, Function<T, UUID> key,
+                 BiFunction<UUID, Integer, List<T>> fetch) {
+        this.name = name;
+        this.pageSize = pageSize;
+        this.order = order;
+        this.key = key;
+        this.fetch = fetch;
+    }
+
+    /**
+     * @return the next row, or {@code null} once the source is exhausted
+     */
+    T next() {
+        if (!page.hasNext() && !exhausted) {
+            List<T> rows = fetch.apply(last, pageSize);
+            exhausted = rows.size() < pageSize;
+            page = rows.iterator();
+        }
+
+        if (!page.hasNext()) {
+            return null;
+        }
+
+        T row = page.next();
+        UUID rowKey = key.apply(row);
+
+        if (order.compare(rowKey, last) <= 0) {
+            throw new IllegalStateException("%s are not in key order: %s after %s".formatted(name, rowKey, last));
+        }
+
+        last = rowKey;
+        count++;
+        return row;
+    }
+
+    long count() {
+        return count;
+    }
+}
@@ -0,0 +1,388 @@
+package com.exam.eventhub.reconciliation.service;
+
+import com.exam.eventhub.booking.model.Booking;
+import com.exam.eventhub.booking.model.BookingPaymentState;
+import com.exam.eventhub.booking.model.BookingStatus;
+import com.exam.eventhub.booking.repository.BookingRepository;
+import com.exam.eventhub.exception.PaymentProcessingException;
+import com.exam.eventhub.exception.PaymentServiceUnavailableException;
+import com.exam.eventhub.notification.model.NotificationTemplate;
+import com.exam.eventhub.notification.service.NotificationService;
+import com.exam.eventhub.payment.client.dto.BatchRefundItemResult;
+import com.exam.eventhub.payment.client.dto.PaymentResponse;
+import com.exam.eventhub.payment.client.dto.RefundRequest;
+import com.exam.eventhub.payment.service.PaymentService;
+import com.exam.eventhub.reconciliation.model.MismatchType;
+import com.exam.eventhub.reconciliation.model.ReconciliationMismatch;
+import com.exam.eventhub.reconciliation.model.ReconciliationRun;
+import com.exam.eventhub.reconciliation.model.ReconciliationStatus;
+import com.exam.eventhub.reconciliation.repository.ReconciliationMismatchRepository;
+import com.exam.eventhub.reconciliation.repository.ReconciliationRunRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Compares the bookings of event-hub with the payments of payment-service, which can drift apart because paying
+ * and confirming a booking are two calls to two services. Both sides are read in booking ID order, bookings from
+ * the local table and payments from payment-service's paged endpoint, each through a {@link KeysetCursor}, and
+ * merged like a sort-merge join: a run holds one page of each side and one page of findings, whatever the size of
+ * the tables.
+ * <p>
+ * Rows changed within the grace period are skipped, as their payment may still be in flight. With repairs enabled,
+ * mismatches that have a single safe fix are repaired with conditional updates, and refunds go through the batch
+ * endpoint, which does not refund a payment twice, so overlapping runs cannot apply a fix twice. Everything else is
+ * only reported.
+ */
+@Slf4j
+@Service
+public class ReconciliationService {
+
+    /**
+     * Order of UUID keys in MySQL and H2: unsigned, most significant half first. Both cursors are checked against it.
+     */
+    static final Comparator<UUID> KEY_ORDER = Comparator.comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    private static final Set<BookingStatus> PAID = EnumSet.of(BookingStatus.CONFIRMED, BookingStatus.REFUNDED);
+    private static final String BOOKINGS_BY_USER = "bookings-by-user";
+    private static final String REFUND_REASON = "Refund recorded by reconciliation";
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final ReconciliationRunRepository runRepository;
+    private final ReconciliationMismatchRepository mismatchRepository;
+    private final BookingRepository bookingRepository;
+    private final PaymentService paymentService;
+    private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final MeterRegistry meterRegistry;
+    private final int pageSize;
+    private final Duration grace;
+    private final boolean repair;
+    private final int maxRecorded;
+
+    public ReconciliationService(ReconciliationRunRepository runRepository,
+                                 ReconciliationMismatchRepository mismatchRepository,
+                                 BookingRepository bookingRepository,
+                                 PaymentService paymentService,
+                                 NotificationService notificationService,
+                                 PlatformTransactionManager transactionManager,
+                                 CacheManager cacheManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${eventhub.reconciliation.page-size:1000}") int pageSize,
+                                 @Value("${eventhub.reconciliation.grace-minutes:15}") long graceMinutes,
+                                 @Value("${eventhub.reconciliation.repair:false}") boolean repair,
+                                 @Value("${eventhub.reconciliation.max-recorded-mismatches:10000}") int maxRecorded) {
+        this.runRepository = runRepository;
+        this.mismatchRepository = mismatchRepository;
+        this.bookingRepository = bookingRepository;
+        this.paymentService = paymentService;
+        this.notificationService = notificationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cacheManager = cacheManager;
+        this.meterRegistry = meterRegistry;
+        this.pageSize = Math.max(pageSize, 1);
+        this.grace = Duration.ofMinutes(graceMinutes);
+        this.repair = repair;
+        this.maxRecorded = maxRecorded;
+    }
+
+    public List<ReconciliationRun> getRecentRuns() {
+        return runRepository.findTop20ByOrderByStartedOnDesc();
+    }
+
+    public List<ReconciliationMismatch> getMismatches(UUID runId, int limit) {
+        return mismatchRepository.findByRunIdOrderByDetectedOn(runId, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Walks all bookings that claim a payment and all payments once, reporting and (if enabled) repairing every
+     * mismatch. Stops at the first page that cannot be read; the next run starts over.
+     */
+    public ReconciliationRun run() {
+        ReconciliationRun run = new ReconciliationRun();
+        run.setRepairEnabled(repair);
+        run = runRepository.save(run);
+
+        Pass pass = new Pass(run.getId(), LocalDateTime.now().minus(grace));
+        KeysetCursor<BookingPaymentState> bookings = new KeysetCursor<>("Bookings", pageSize, KEY_ORDER,
+                BookingPaymentState::id,
+                (after, limit) -> bookingRepository.findPaymentStatesAfter(PAID, after, PageRequest.of(0, limit)));
+        KeysetCursor<PaymentResponse> payments = new KeysetCursor<>("Payments", pageSize, KEY_ORDER,
+                PaymentResponse::getBookingId, paymentService::getPaymentsAfterBooking);
+
+        String error = null;
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        try {
+            BookingPaymentState booking = bookings.next();
+            PaymentResponse payment = payments.next();
+
+            while (booking != null || payment != null) {
+                int order = booking == null ? 1 : payment == null ? -1 : KEY_ORDER.compare(booking.id(), payment.getBookingId());
+
+                if (order < 0) {
+                    compare(pass, booking, null);
+                    booking = bookings.next();
+                } else if (order > 0) {
+                    compare(pass, null, payment);
+                    payment = payments.next();
+                } else {
+                    compare(pass, booking, payment);
+                    booking = bookings.next();
+                    payment = payments.next();
+                }
+            }
+        } catch (PaymentServiceUnavailableException | PaymentProcessingException e) {
+            error = e.getMessage();
+            log.warn("Reconciliation stopped after {} bookings and {} payments: {}", bookings.count(), payments.count(), error);
+        } catch (RuntimeException e) {
+            error = e.toString();
+            log.error("Reconciliation failed after {} bookings and {} payments.", bookings.count(), payments.count(), e);
+        } finally {
+            pass.flush();
+            run = finish(run, pass, bookings.count(), payments.count(), error);
+
+            if (pass.repaired > 0) {
+                evictBookingsByUser();
+            }
+
+            sample.stop(Timer.builder("eventhub.reconciliation.run")
+                    .description("Duration of one reconciliation of bookings and payments")
+                    .tag("outcome", error == null ? "completed" : "failed")
+                    .register(meterRegistry));
+        }
+
+        log.info("Reconciliation {}: {} bookings, {} payments, {} mismatches, {} repaired, {} skipped as too recent.",
+                run.getStatus().getDisplayName().toLowerCase(), run.getBookingsScanned(), run.getPaymentsScanned(),
+                run.getMismatches(), run.getRepaired(), run.getSkipped());
+
+        return run;
+    }
+
+    /**
+     * Checks one booking ID. Either side may be missing: a booking that claims a payment without one, or a payment
+     * whose booking does not claim it.
+     */
+    private void compare(Pass pass, BookingPaymentState booking, PaymentResponse payment) {
+        if ((booking != null && !pass.isSettled(booking)) || (payment != null && !pass.isSettled(payment))) {
+            pass.skipped++;
+            return;
+        }
+
+        if (payment == null) {
+            pass.report(MismatchType.PAYMENT_MISSING, booking.id(), booking.paymentId(), booking.status(), null,
+                    "No payment exists for the booking");
+            return;
+        }
+
+        if (booking == null) {
+            compareUnclaimed(pass, payment);
+            return;
+        }
+
+        String paymentStatus = payment.getStatus();
+
+        if (booking.paymentId() != null && !booking.paymentId().equals(payment.getPaymentId())) {
+            pass.report(MismatchType.PAYMENT_ID_MISMATCH, booking.id(), payment.getPaymentId(), booking.status(), paymentStatus,
+                    "Booking points to payment " + booking.paymentId());
+
+        } else if (booking.status() == BookingStatus.CONFIRMED) {
+            if (booking.paymentId() == null) {
+                pass.report(MismatchType.PAYMENT_ID_MISMATCH, booking.id(), payment.getPaymentId(), booking.status(), paymentStatus,
+                        "Confirmed booking has no payment ID");
+            } else if ("REFUNDED".equals(paymentStatus)) {
+                pass.report(MismatchType.REFUND_NOT_RECORDED, booking.id(), payment.getPaymentId(), booking.status(), paymentStatus,
+                        null, () -> recordRefund(booking.id()));
+            } else if (!"SUCCESS".equals(paymentStatus)) {
+                pass.report(MismatchType.PAYMENT_NOT_SUCCESSFUL, booking.id(), payment.getPaymentId(), booking.status(), paymentStatus, null);
+            } else if (booking.totalAmount().compareTo(payment.getAmount()) != 0) {
+                pass.report(MismatchType.AMOUNT_MISMATCH, booking.id(), payment.getPaymentId(), booking.status(), paymentStatus,
+                        "Booking %s, payment %s".formatted(booking.totalAmount(), payment.getAmount()));
+            }
+
+        } else if (booking.status() == BookingStatus.REFUNDED && "SUCCESS".equals(paymentStatus)) {
+            pass.report(MismatchType.REFUND_NOT_PROCESSED, booking.id(), payment.getPaymentId(), booking.status(), paymentStatus, null);
+
+        } else if (booking.status() == BookingStatus.CANCELLED && "SUCCESS".equals(paymentStatus)) {
+            pass.report(MismatchType.PAID_AFTER_CANCELLATION, booking.id(), payment.getPaymentId(), booking.status(), paymentStatus,
+                    null, () -> refund(payment));
+        }
+    }
+
+    /**
+     * A payment whose booking is not among those that claim a payment. Only a successful one is a problem: the
+     * booking is looked up to tell a stuck confirmation from a booking that was cancelled meanwhile.
+     */
+    private void compareUnclaimed(Pass pass, PaymentResponse payment) {
+        if (!"SUCCESS".equals(payment.getStatus())) {
+            return;
+        }
+
+        Optional<BookingStatus> status = bookingRepository.findById(payment.getBookingId()).map(Booking::getStatus);
+
+        if (status.isEmpty()) {
+            pass.report(MismatchType.BOOKING_MISSING, payment.getBookingId(), payment.getPaymentId(), null, payment.getStatus(), null);
+        } else if (status.get() == BookingStatus.PENDING) {
+            pass.report(MismatchType.PAID_NOT_CONFIRMED, payment.getBookingId(), payment.getPaymentId(), status.get(),
+                    payment.getStatus(), null, () -> confirm(payment));
+        } else if (status.get() == BookingStatus.CANCELLED) {
+            pass.report(MismatchType.PAID_AFTER_CANCELLATION, payment.getBookingId(), payment.getPaymentId(), status.get(),
+                    payment.getStatus(), null, () -> refund(payment));
+        }
+    }
+
+    private boolean confirm(PaymentResponse payment) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status ->
+                attach(payment, BookingStatus.PENDING, BookingStatus.CONFIRMED, NotificationTemplate.PAYMENT_SUCCESSFUL)));
+    }
+
+    private boolean refund(PaymentResponse payment) {
+        List<BatchRefundItemResult> results = paymentService.refundPayments(
+                List.of(new RefundRequest(payment.getPaymentId(), payment.getAmount()))).getResults();
+
+        if (results.isEmpty() || !results.get(0).isRefunded()) {
+            log.warn("Refund of payment {} for cancelled booking {} was not accepted.", payment.getPaymentId(), payment.getBookingId());
+            return false;
+        }
+
+        return Boolean.TRUE.equals(transactionTemplate.execute(status ->
+                attach(payment, BookingStatus.CANCELLED, BookingStatus.REFUNDED, NotificationTemplate.REFUND_PROCESSED)));
+    }
+
+    private boolean attach(PaymentResponse payment, BookingStatus from, BookingStatus to, NotificationTemplate template) {
+        if (bookingRepository.attachPayment(payment.getBookingId(), payment.getPaymentId(), from, to, LocalDateTime.now()) == 0) {
+            return false;
+        }
+
+        bookingRepository.findById(payment.getBookingId()).ifPresent(booking ->
+                notificationService.enqueueIfEnabled(booking.getUser(), template, booking.getEvent().getTitle()));
+        return true;
+    }
+
+    private boolean recordRefund(UUID bookingId) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> bookingRepository.markRefunded(List.of(bookingId),
+                EnumSet.of(BookingStatus.CONFIRMED), BookingStatus.REFUNDED, LocalDateTime.now(), REFUND_REASON) == 1));
+    }
+
+    private ReconciliationRun finish(ReconciliationRun run, Pass pass, long bookingsScanned, long paymentsScanned, String error) {
+        run.setStatus(error == null ? ReconciliationStatus.COMPLETED : ReconciliationStatus.FAILED);
+        run.setBookingsScanned(bookingsScanned);
+        run.setPaymentsScanned(paymentsScanned);
+        run.setSkipped(pass.skipped);
+        run.setMismatches(pass.mismatches);
+        run.setRepaired(pass.repaired);
+        run.setLastError(error == null || error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH));
+        run.setFinishedOn(LocalDateTime.now());
+
+        return runRepository.save(run);
+    }
+
+    private void evictBookingsByUser() {
+        Cache cache = cacheManager.getCache(BOOKINGS_BY_USER);
+
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * State of one run: counters and the findings not yet written, flushed a page at a time.
+     */
+    private final class Pass {
+
+        private final UUID runId;
+        private final LocalDateTime settledBefore;
+        private final List<ReconciliationMismatch> pending = new ArrayList<>();
+        private long skipped;
+        private long mismatches;
+        private long repaired;
+
+        private Pass(UUID runId, LocalDateTime settledBefore) {
+            this.runId = runId;
+            this.settledBefore = settledBefore;
+        }
+
+        private boolean isSettled(BookingPaymentState booking) {
+            return isBefore(booking.bookingDate()) && isBefore(booking.paymentCompletedAt());
+        }
+
+        private boolean isSettled(PaymentResponse payment) {
+            return isBefore(payment.getCreatedOn());
+        }
+
+        private boolean isBefore(LocalDateTime time) {
+            return time == null || time.isBefore(settledBefore);
+        }
+
+        private void report(MismatchType type, UUID bookingId, UUID paymentId, BookingStatus bookingStatus,
+                            String paymentStatus, String detail) {
+            report(type, bookingId, paymentId, bookingStatus, paymentStatus, detail, null);
+        }
+
+        private void report(MismatchType type, UUID bookingId, UUID paymentId, BookingStatus bookingStatus,
+                            String paymentStatus, String detail, BooleanSupplier fix) {
+            boolean fixed = false;
+
+            if (repair && fix != null) {
+                try {
+                    fixed = fix.getAsBoolean();
+                } catch (PaymentServiceUnavailableException | PaymentProcessingException e) {
+                    detail = "Repair failed: " + e.getMessage();
+                }
+            }
+
+            mismatches++;
+            repaired += fixed ? 1 : 0;
+            meterRegistry.counter("eventhub.reconciliation.mismatches", "type", type.name().toLowerCase(),
+                    "repaired", String.valueOf(fixed)).increment();
+            log.debug("Reconciliation found {} for booking {} and payment {} (repaired: {}).", type, bookingId, paymentId, fixed);
+
+            if (mismatches > maxRecorded) {
+                return;
+            }
+
+            ReconciliationMismatch mismatch = new ReconciliationMismatch();
+            mismatch.setRunId(runId);
+            mismatch.setType(type);
+            mismatch.setBookingId(bookingId);
+            mismatch.setPaymentId(paymentId);
+            mismatch.setBookingStatus(bookingStatus == null ? null : bookingStatus.name());
+            mismatch.setPaymentStatus(paymentStatus);
+            mismatch.setRepaired(fixed);
+            mismatch.setDetail(detail);
+            mismatch.setDetectedOn(LocalDateTime.now());
+            pending.add(mismatch);
+
+            if (pending.size() >= pageSize) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (!pending.isEmpty()) {
+                mismatchRepository.saveAll(pending);
+                pending.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.exam.eventhub.retention.repository;
+
+import com.exam.eventhub.retention.model.RetentionCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface RetentionCheckpointRepository extends JpaRepository<RetentionCheckpoint, String> {
+
+    @Modifying
+    @Query("""
+            UPDATE RetentionCheckpoint c SET c.lockedUntil = :until
+            WHERE c.target = :target AND (c.lockedUntil IS NULL OR c.lockedUntil < :now)""")
+    int lock(@Param("target") String target, @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+}
@@ -2,6 +2,7 @@ package com.exam.eventhub.scheduler;
 
 import com.exam.eventhub.booking.model.Booking;
 import com.exam.eventhub.booking.service.BookingService;
+import com.exam.eventhub.notification.model.NotificationTemplate;
 import com.exam.eventhub.notification.service.NotificationService;
 import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
@@ -36,16 +37,14 @@ public class BookingCleanupScheduler {
 
         for (Booking booking : expiredBookings) {
 
-            bookingService.autoCancelBooking(booking.getId(), "Auto-cancelled after timeout.");
+            if (!bookingService.autoCancelBooking(booking.getId(), "Auto-cancelled after timeout.")) {
+                continue;
+            }
 
             log.info("Booking {} for event '{}' was auto-cancelled.", booking.getId(), booking.getEvent().getTitle());
 
-            notificationService.sendIfEnabled(
-                    booking.getUser(),
-                    "Booking Cancelled",
-                    "Your booking for \"" + booking.getEvent().getTitle() +
-                            "\" has been automatically cancelled because it was not paid in time."
-            );
+            notificationService.enqueueIfEnabled(booking.getUser(), NotificationTemplate.BOOKING_AUTO_CANCELLED,
+                    booking.getEvent().getTitle());
         }
 
         log.info("Scheduler finished at {}", LocalDateTime.now());
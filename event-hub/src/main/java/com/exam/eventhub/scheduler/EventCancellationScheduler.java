@@ -0,0 +1,24 @@
+package com.exam.eventhub.scheduler;
+
+import com.exam.eventhub.event.service.EventCancellationService;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@AllArgsConstructor
+public class EventCancellationScheduler {
+
+    private final EventCancellationService eventCancellationService;
+
+    @Scheduled(fixedDelayString = "${eventhub.event.cancellation.poll-interval-ms:5000}")
+    public void resumeCancellations() {
+        int resumed = eventCancellationService.resumePending();
+
+        if (resumed > 0) {
+            log.debug("Worked on {} event cancellations.", resumed);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.exam.eventhub.scheduler;
+
+import com.exam.eventhub.exception.DependencyUnavailableException;
+import com.exam.eventhub.exception.NotificationBatchRejectedException;
+import com.exam.eventhub.notification.client.dto.NotificationRequest;
+import com.exam.eventhub.notification.model.NotificationOutbox;
+import com.exam.eventhub.notification.service.NotificationOutboxService;
+import com.exam.eventhub.notification.service.NotificationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@Component
+@AllArgsConstructor
+public class NotificationOutboxScheduler {
+
+    private static final Duration MIN_DEFERRAL = Duration.ofSeconds(5);
+
+    private final NotificationOutboxService notificationOutboxService;
+    private final NotificationService notificationService;
+    private final MeterRegistry meterRegistry;
+
+    @Scheduled(fixedDelayString = "${eventhub.notification.outbox.poll-interval-ms:2000}")
+    public void dispatchPending() {
+        List<NotificationOutbox> batch;
+
+        do {
+            batch = notificationOutboxService.claimDue();
+
+            if (!dispatch(batch)) {
+                return;
+            }
+        } while (!batch.isEmpty() && batch.size() == notificationOutboxService.batchSize());
+    }
+
+    /**
+     * Sends the whole claimed batch in one call. When notification-service rejects the batch because
+     * one entry is invalid, the entries are sent one by one so the bad one cannot hold back the rest.
+     * While the circuit breaker of notification-service is open nothing is sent: the batch stays queued
+     * until the breaker lets calls through again, without spending its attempts.
+     *
+     * @return {@code false} when notification-service is unavailable and dispatching should stop for now
+     */
+    private boolean dispatch(List<NotificationOutbox> batch) {
+        if (batch.isEmpty()) {
+            return true;
+        }
+
+        try {
+            notificationService.deliverAll(batch.stream().map(NotificationOutboxScheduler::toRequest).toList());
+            markSent(batch.stream().map(NotificationOutbox::getId).toList());
+        } catch (NotificationBatchRejectedException e) {
+            log.warn("Batch of {} notifications was rejected, sending them one by one: {}", batch.size(), e.getMessage());
+            return dispatchOneByOne(batch);
+        } catch (DependencyUnavailableException e) {
+            defer(batch, e);
+            return false;
+        } catch (Exception e) {
+            batch.forEach(outbox -> markFailed(outbox, e));
+        }
+
+        return true;
+    }
+
+    private boolean dispatchOneByOne(List<NotificationOutbox> batch) {
+        List<UUID> sent = new ArrayList<>();
+
+        for (int i = 0; i < batch.size(); i++) {
+            NotificationOutbox outbox = batch.get(i);
+            try {
+                notificationService.deliver(toRequest(outbox));
+                sent.add(outbox.getId());
+            } catch (DependencyUnavailableException e) {
+                markSent(sent);
+                defer(batch.subList(i, batch.size()), e);
+                return false;
+            } catch (Exception e) {
+                markFailed(outbox, e);
+            }
+        }
+
+        markSent(sent);
+        return true;
+    }
+
+    private void defer(List<NotificationOutbox> batch, DependencyUnavailableException e) {
+        Duration delay = e.getRetryAfter().compareTo(MIN_DEFERRAL) < 0 ? MIN_DEFERRAL : e.getRetryAfter();
+
+        notificationOutboxService.postpone(batch.stream().map(NotificationOutbox::getId).toList(), delay);
+        meterRegistry.counter("eventhub.notification.outbox.dispatched", "result", "deferred").increment(batch.size());
+        log.warn("Keeping {} notifications queued for {}s: {}", batch.size(), delay.toSeconds(), e.getMessage());
+    }
+
+    private void markSent(List<UUID> sent) {
+        notificationOutboxService.markSent(sent);
+        meterRegistry.counter("eventhub.notification.outbox.dispatched", "result", "sent").increment(sent.size());
+
+        if (!sent.isEmpty()) {
+            log.info("📨 Delivered {} queued notifications.", sent.size());
+        }
+    }
+
+    private void markFailed(NotificationOutbox outbox, Exception e) {
+        boolean retrying = notificationOutboxService.markAttemptFailed(outbox.getId(), e.getMessage());
+        meterRegistry.counter("eventhub.notification.outbox.dispatched", "result", retrying ? "retry" : "failed").increment();
+        log.warn("Notification [{}] to {} was not delivered (attempt {}): {}",
+                outbox.getId(), outbox.getRecipientEmail(), outbox.getAttempts() + 1, e.getMessage());
+    }
+
+    private static NotificationRequest toRequest(NotificationOutbox outbox) {
+        NotificationRequest request = new NotificationRequest();
+        request.setRecipientId(outbox.getRecipientId());
+        request.setRecipientEmail(outbox.getRecipientEmail());
+        request.setSubject(outbox.getSubject());
+        request.setMessage(outbox.getMessage());
+        request.setTemplateId(outbox.getTemplateId());
+        request.setTemplateParams(outbox.getTemplateParams());
+        return request;
+    }
+}
@@ -0,0 +1,35 @@
+package com.exam.eventhub.scheduler;
+
+import com.exam.eventhub.booking.service.BookingPaymentConfirmationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+@Slf4j
+@Component
+public class PaymentConfirmationScheduler {
+
+    private final BookingPaymentConfirmationService confirmationService;
+    private final boolean enabled;
+
+    public PaymentConfirmationScheduler(BookingPaymentConfirmationService confirmationService,
+                                        @Value("${eventhub.payment.confirmation.recheck-enabled:true}") boolean enabled) {
+        this.confirmationService = confirmationService;
+        this.enabled = enabled;
+    }
+
+    @Scheduled(fixedDelayString = "${eventhub.payment.confirmation.recheck-interval-ms:30000}",
+            initialDelayString = "${eventhub.payment.confirmation.recheck-initial-delay-ms:30000}")
+    public void confirmTimedOutPayments() {
+        if (!enabled) {
+            return;
+        }
+
+        log.debug("Payment confirmation scheduler triggered at {}", LocalDateTime.now());
+
+        confirmationService.run();
+    }
+}
@@ -0,0 +1,35 @@
+package com.exam.eventhub.scheduler;
+
+import com.exam.eventhub.reconciliation.service.ReconciliationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+@Slf4j
+@Component
+public class ReconciliationScheduler {
+
+    private final ReconciliationService reconciliationService;
+    private final boolean enabled;
+
+    public ReconciliationScheduler(ReconciliationService reconciliationService,
+                                   @Value("${eventhub.reconciliation.enabled:true}") boolean enabled) {
+        this.reconciliationService = reconciliationService;
+        this.enabled = enabled;
+    }
+
+    @Scheduled(fixedDelayString = "${eventhub.reconciliation.interval-ms:86400000}",
+            initialDelayString = "${eventhub.reconciliation.initial-delay-ms:600000}")
+    public void reconcile() {
+        if (!enabled) {
+            return;
+        }
+
+        log.debug("Reconciliation scheduler triggered at {}", LocalDateTime.now());
+
+        reconciliationService.run();
+    }
+}
@@ -0,0 +1,25 @@
+package com.exam.eventhub.scheduler;
+
+import com.exam.eventhub.retention.service.RetentionEngine;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+@Slf4j
+@Component
+@AllArgsConstructor
+public class RetentionScheduler {
+
+    private final RetentionEngine retentionEngine;
+
+    @Scheduled(fixedDelayString = "${eventhub.retention.interval-ms:3600000}",
+            initialDelayString = "${eventhub.retention.initial-delay-ms:60000}")
+    public void purgeExpired() {
+        log.debug("Retention scheduler triggered at {}", LocalDateTime.now());
+
+        retentionEngine.runAll();
+    }
+}
@@ -0,0 +1,198 @@
+package com.exam.eventhub.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.web.authentication.rememberme.PersistentRememberMeToken;
+import org.springframework.security.web.authentication.rememberme.PersistentTokenRepository;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remember-me token store that keeps tokens in memory, so a remember-me authentication does not SELECT its series
+ * from {@code persistent_logins}. New tokens, token rotations and removals are written through immediately: a
+ * rotation that never reached the database would make the next login from that cookie look like a theft and wipe
+ * the user's tokens. Only an update that keeps the token value and just moves {@code last_used} is written back in
+ * batches, and it is put back for the next flush when the batch fails. Spring Security's remember-me services
+ * rotate the token on every authentication, so with them each remember-me login still costs one UPDATE.
+ * <p>
+ * The cache holds at most {@code maxCachedTokens} series, dropping the least recently used one when full, and
+ * each entry is re-read from the database after {@code ttl}, so rows deleted behind its back (retention) do not
+ * linger. It is local to the node, so it must be turned off when several nodes share {@code persistent_logins}:
+ * a token rotated on one node would still be served in its old form by another, and the next login from that
+ * cookie would be taken for a theft. With the cache disabled every call goes straight to the database.
+ */
+@Slf4j
+public class CachingPersistentTokenRepository implements PersistentTokenRepository, DisposableBean {
+
+    private static final String UPDATE_LAST_USED_SQL = "UPDATE persistent_logins SET last_used = ? WHERE series = ?";
+
+    private final PersistentTokenRepository delegate;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final Clock clock;
+
+    private final Map<String, Entry> tokensBySeries;
+    private final Map<String, PersistentRememberMeToken> pendingUpdates = new ConcurrentHashMap<>();
+
+    public CachingPersistentTokenRepository(PersistentTokenRepository delegate,
+                                            JdbcTemplate jdbcTemplate,
+                                            boolean enabled,
+                                            int maxCachedTokens,
+                                            Duration ttl,
+                                            Clock clock) {
+        this.delegate = delegate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.ttl = ttl;
+        this.clock = clock;
+        this.tokensBySeries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxCachedTokens;
+            }
+        };
+    }
+
+    @Override
+    public void createNewToken(PersistentRememberMeToken token) {
+        delegate.createNewToken(token);
+
+        if (enabled) {
+            cache(token);
+        }
+    }
+
+    @Override
+    public void updateToken(String series, String tokenValue, Date lastUsed) {
+        if (!enabled) {
+            delegate.updateToken(series, tokenValue, lastUsed);
+            return;
+        }
+
+        PersistentRememberMeToken current = cached(series);
+
+        if (current != null && current.getTokenValue().equals(tokenValue)) {
+            PersistentRememberMeToken touched = new PersistentRememberMeToken(current.getUsername(), series, tokenValue, lastUsed);
+            cache(touched);
+            pendingUpdates.put(series, touched);
+            return;
+        }
+
+        pendingUpdates.remove(series);
+        delegate.updateToken(series, tokenValue, lastUsed);
+
+        if (current != null) {
+            cache(new PersistentRememberMeToken(current.getUsername(), series, tokenValue, lastUsed));
+        }
+    }
+
+    @Override
+    public PersistentRememberMeToken getTokenForSeries(String seriesId) {
+        if (!enabled) {
+            return delegate.getTokenForSeries(seriesId);
+        }
+
+        PersistentRememberMeToken cached = cached(seriesId);
+        if (cached != null) {
+            return cached;
+        }
+
+        PersistentRememberMeToken loaded = delegate.getTokenForSeries(seriesId);
+        if (loaded != null) {
+            cache(loaded);
+        }
+        return loaded;
+    }
+
+    @Override
+    public void removeUserTokens(String username) {
+        synchronized (tokensBySeries) {
+            tokensBySeries.values().removeIf(entry -> entry.token().getUsername().equals(username));
+        }
+        pendingUpdates.values().removeIf(token -> token.getUsername().equals(username));
+
+        delegate.removeUserTokens(username);
+    }
+
+    /**
+     * Drops series whose rows were deleted directly in the database.
+     */
+    public void evict(Collection<String> series) {
+        synchronized (tokensBySeries) {
+            tokensBySeries.keySet().removeAll(series);
+        }
+        pendingUpdates.keySet().removeAll(series);
+    }
+
+    @Scheduled(fixedDelayString = "${eventhub.security.remember-me.flush-interval-ms:5000}")
+    public void flushPendingUpdates() {
+        if (pendingUpdates.isEmpty()) {
+            return;
+        }
+
+        List<PersistentRememberMeToken> batch = new ArrayList<>(pendingUpdates.size());
+        for (String series : List.copyOf(pendingUpdates.keySet())) {
+            PersistentRememberMeToken token = pendingUpdates.remove(series);
+            if (token != null) {
+                batch.add(token);
+            }
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_LAST_USED_SQL, batch, batch.size(), (ps, token) -> {
+                ps.setTimestamp(1, new Timestamp(token.getDate().getTime()));
+                ps.setString(2, token.getSeries());
+            });
+        } catch (DataAccessException e) {
+            batch.forEach(token -> pendingUpdates.putIfAbsent(token.getSeries(), token));
+            log.warn("Could not flush {} remember-me last_used updates, retrying on the next flush: {}",
+                    batch.size(), e.getMessage());
+            return;
+        }
+
+        log.debug("Flushed {} remember-me last_used updates.", batch.size());
+    }
+
+    @Override
+    public void destroy() {
+        flushPendingUpdates();
+    }
+
+    private PersistentRememberMeToken cached(String series) {
+        synchronized (tokensBySeries) {
+            Entry entry = tokensBySeries.get(series);
+
+            if (entry != null && entry.expiresAt() > clock.millis()) {
+                return entry.token();
+            }
+
+            if (entry != null) {
+                tokensBySeries.remove(series);
+            }
+        }
+
+        return null;
+    }
+
+    private void cache(PersistentRememberMeToken token) {
+        synchronized (tokensBySeries) {
+            tokensBySeries.put(token.getSeries(), new Entry(token, clock.millis() + ttl.toMillis()));
+        }
+    }
+
+    private record Entry(PersistentRememberMeToken token, long expiresAt) {
+    }
+}
@@ -0,0 +1,76 @@
+package com.exam.eventhub.security;
+
+import com.exam.eventhub.exception.UserNotFoundException;
+import com.exam.eventhub.user.model.Role;
+import com.exam.eventhub.user.model.User;
+import com.exam.eventhub.user.repository.UserRepository;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+import java.util.UUID;
+
+import static com.exam.eventhub.common.Constants.ID_NOT_FOUND;
+
+/**
+ * The authenticated user of the current request. Id, username and role come straight from the
+ * {@link AuthenticationMetadata} principal; the {@link User} entity is only loaded when first asked for
+ * and then reused for the rest of the request.
+ */
+@Component
+@RequestScope
+public class CurrentUser {
+
+    private final UserRepository userRepository;
+
+    private AuthenticationMetadata principal;
+    private User user;
+
+    public CurrentUser(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    public UUID getId() {
+        return principal().getUserId();
+    }
+
+    public String getUsername() {
+        return principal().getUsername();
+    }
+
+    public Role getRole() {
+        return principal().getRole();
+    }
+
+    public boolean hasRole(Role role) {
+        return getRole() == role;
+    }
+
+    public boolean isAdmin() {
+        return hasRole(Role.ADMIN);
+    }
+
+    public User getUser() {
+        if (user == null) {
+            UUID id = getId();
+            user = userRepository.findById(id)
+                    .orElseThrow(() -> new UserNotFoundException(ID_NOT_FOUND.formatted("User", id)));
+        }
+        return user;
+    }
+
+    private AuthenticationMetadata principal() {
+        if (principal == null) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+            if (authentication == null || !(authentication.getPrincipal() instanceof AuthenticationMetadata metadata)) {
+                throw new AuthenticationCredentialsNotFoundException("No authenticated user in the current request.");
+            }
+
+            principal = metadata;
+        }
+        return principal;
+    }
+}
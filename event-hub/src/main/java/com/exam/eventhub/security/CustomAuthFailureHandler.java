@@ -1,8 +1,11 @@
 package com.exam.eventhub.security;
 
+import com.exam.eventhub.exception.LoginCapacityExceededException;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.AllArgsConstructor;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.LockedException;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.authentication.SimpleUrlAuthenticationFailureHandler;
@@ -13,14 +16,23 @@ import org.springframework.stereotype.Component;
 import java.io.IOException;
 
 @Component
+@AllArgsConstructor
 public class CustomAuthFailureHandler extends SimpleUrlAuthenticationFailureHandler {
 
+    private final LoginAttemptLimiter loginAttemptLimiter;
+
     @Override
     public void onAuthenticationFailure(HttpServletRequest request, HttpServletResponse response, AuthenticationException exception)
             throws IOException, ServletException {
 
+        if (exception instanceof BadCredentialsException) {
+            loginAttemptLimiter.recordFailure(request);
+        }
+
         if (exception instanceof LockedException) {
             setDefaultFailureUrl("/login?error=blocked");
+        } else if (exception instanceof LoginCapacityExceededException) {
+            setDefaultFailureUrl("/login?error=busy");
         } else if (exception instanceof RememberMeAuthenticationException) {
             setDefaultFailureUrl("/login?rememberExpired");
         } else if (exception instanceof CookieTheftException) {
@@ -0,0 +1,248 @@
+package com.exam.eventhub.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Token-bucket throttle for form logins, keyed both by client IP and by the username or email typed
+ * into the form. Every failed attempt takes a token from both buckets; an empty bucket locks its key
+ * for an exponentially growing period (base, 2x base, 4x base ... capped at the maximum).
+ * <p>
+ * Buckets live in a fixed number of LRU stripes with a hard size limit, so a distributed attack with
+ * many IPs or made-up usernames cannot grow memory without bound - the least recently used keys are
+ * simply forgotten.
+ */
+@Slf4j
+@Component
+public class LoginAttemptLimiter {
+
+    static final String USERNAME_PARAMETER = "username";
+    private static final int MAX_ACCOUNT_KEY_LENGTH = 128;
+    private static final int STRIPES = 16;
+
+    private final KeyedBuckets ipBuckets;
+    private final KeyedBuckets accountBuckets;
+
+    @Autowired
+    public LoginAttemptLimiter(@Value("${eventhub.security.login-throttle.ip.capacity:20}") int ipCapacity,
+                               @Value("${eventhub.security.login-throttle.ip.refill-per-minute:10}") double ipRefillPerMinute,
+                               @Value("${eventhub.security.login-throttle.account.capacity:5}") int accountCapacity,
+                               @Value("${eventhub.security.login-throttle.account.refill-per-minute:1}") double accountRefillPerMinute,
+                               @Value("${eventhub.security.login-throttle.lockout-base-seconds:30}") long lockoutBaseSeconds,
+                               @Value("${eventhub.security.login-throttle.lockout-max-seconds:900}") long lockoutMaxSeconds,
+                               @Value("${eventhub.security.login-throttle.max-tracked-keys:100000}") int maxTrackedKeys,
+                               MeterRegistry meterRegistry) {
+        this(new Policy(ipCapacity, ipRefillPerMinute), new Policy(accountCapacity, accountRefillPerMinute),
+                Duration.ofSeconds(lockoutBaseSeconds), Duration.ofSeconds(lockoutMaxSeconds),
+                maxTrackedKeys, meterRegistry, Clock.systemUTC());
+    }
+
+    LoginAttemptLimiter(Policy ipPolicy, Policy accountPolicy, Duration lockoutBase, Duration lockoutMax,
+                        int maxTrackedKeys, MeterRegistry meterRegistry, Clock clock) {
+        this.ipBuckets = new KeyedBuckets("ip", ipPolicy, lockoutBase, lockoutMax, maxTrackedKeys, meterRegistry, clock);
+        this.accountBuckets = new KeyedBuckets("account", accountPolicy, lockoutBase, lockoutMax, maxTrackedKeys, meterRegistry, clock);
+    }
+
+    /**
+     * @return how long the request still has to wait, or {@link Duration#ZERO} when it may try to log in
+     */
+    public Duration blockedFor(HttpServletRequest request) {
+        Duration byIp = ipBuckets.blockedFor(clientIp(request));
+
+        String account = accountKey(request);
+        Duration byAccount = account == null ? Duration.ZERO : accountBuckets.blockedFor(account);
+
+        return byIp.compareTo(byAccount) >= 0 ? byIp : byAccount;
+    }
+
+    public void recordFailure(HttpServletRequest request) {
+        ipBuckets.recordFailure(clientIp(request));
+
+        String account = accountKey(request);
+        if (account != null) {
+            accountBuckets.recordFailure(account);
+        }
+    }
+
+    /**
+     * A successful login clears the account's history. The IP bucket is left alone on purpose, otherwise
+     * an attacker could reset it by logging into an account of their own between guesses.
+     */
+    public void recordSuccess(HttpServletRequest request) {
+        String account = accountKey(request);
+        if (account != null) {
+            accountBuckets.reset(account);
+        }
+    }
+
+    private static String clientIp(HttpServletRequest request) {
+        return request.getRemoteAddr();
+    }
+
+    private static String accountKey(HttpServletRequest request) {
+        String username = request.getParameter(USERNAME_PARAMETER);
+
+        if (username == null || username.isBlank()) {
+            return null;
+        }
+
+        String key = username.trim().toLowerCase(Locale.ROOT);
+        return key.length() > MAX_ACCOUNT_KEY_LENGTH ? key.substring(0, MAX_ACCOUNT_KEY_LENGTH) : key;
+    }
+
+    record Policy(int capacity, double refillPerMinute) {
+    }
+
+    private static final class KeyedBuckets {
+
+        private final String type;
+        private final Policy policy;
+        private final long lockoutBaseMillis;
+        private final long lockoutMaxMillis;
+        private final Clock clock;
+        private final Stripe[] stripes = new Stripe[STRIPES];
+        private final Counter lockouts;
+        private final Counter rejected;
+
+        KeyedBuckets(String type, Policy policy, Duration lockoutBase, Duration lockoutMax,
+                     int maxTrackedKeys, MeterRegistry meterRegistry, Clock clock) {
+            this.type = type;
+            this.policy = policy;
+            this.lockoutBaseMillis = lockoutBase.toMillis();
+            this.lockoutMaxMillis = lockoutMax.toMillis();
+            this.clock = clock;
+
+            int perStripe = Math.max(1, maxTrackedKeys / STRIPES);
+            for (int i = 0; i < STRIPES; i++) {
+                stripes[i] = new Stripe(perStripe);
+            }
+
+            Gauge.builder("eventhub.login.throttle.tracked", this, KeyedBuckets::size)
+                    .tag("key", type)
+                    .description("Login throttle buckets currently held in memory")
+                    .register(meterRegistry);
+            this.lockouts = Counter.builder("eventhub.login.throttle.lockouts")
+                    .tag("key", type)
+                    .description("Keys locked out after running out of login attempts")
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("eventhub.login.throttle.rejected")
+                    .tag("key", type)
+                    .description("Login attempts rejected while the key was locked out")
+                    .register(meterRegistry);
+        }
+
+        Duration blockedFor(String key) {
+            Stripe stripe = stripeFor(key);
+            long now = clock.millis();
+
+            synchronized (stripe) {
+                Bucket bucket = stripe.get(key);
+
+                if (bucket == null || bucket.lockedUntil <= now) {
+                    return Duration.ZERO;
+                }
+
+                rejected.increment();
+                return Duration.ofMillis(bucket.lockedUntil - now);
+            }
+        }
+
+        void recordFailure(String key) {
+            Stripe stripe = stripeFor(key);
+            long now = clock.millis();
+
+            synchronized (stripe) {
+                Bucket bucket = stripe.computeIfAbsent(key, k -> new Bucket(policy.capacity(), now));
+                bucket.refill(policy, now);
+                bucket.tokens -= 1;
+
+                if (bucket.tokens < 1) {
+                    long lockout = Math.min(lockoutMaxMillis, lockoutBaseMillis << Math.min(bucket.lockouts, 20));
+                    bucket.lockouts++;
+                    bucket.lockedUntil = now + lockout;
+                    bucket.lastRefill = bucket.lockedUntil;
+                    bucket.tokens = 1;
+                    lockouts.increment();
+
+                    log.warn("Login throttle locked {} key [{}] for {} ms after repeated failures.", type, key, lockout);
+                }
+            }
+        }
+
+        void reset(String key) {
+            Stripe stripe = stripeFor(key);
+
+            synchronized (stripe) {
+                stripe.remove(key);
+            }
+        }
+
+        int size() {
+            int size = 0;
+            for (Stripe stripe : stripes) {
+                synchronized (stripe) {
+                    size += stripe.size();
+                }
+            }
+            return size;
+        }
+
+        private Stripe stripeFor(String key) {
+            int hash = key.hashCode();
+            return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+        }
+    }
+
+    private static final class Stripe extends LinkedHashMap<String, Bucket> {
+
+        private final int maxEntries;
+
+        Stripe(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+            return size() > maxEntries;
+        }
+    }
+
+    private static final class Bucket {
+
+        private double tokens;
+        private long lastRefill;
+        private long lockedUntil;
+        private int lockouts;
+
+        Bucket(int capacity, long now) {
+            this.tokens = capacity;
+            this.lastRefill = now;
+        }
+
+        void refill(Policy policy, long now) {
+            if (now <= lastRefill) {
+                return;
+            }
+
+            tokens = Math.min(policy.capacity(), tokens + (now - lastRefill) * policy.refillPerMinute() / 60_000d);
+            lastRefill = now;
+
+            if (tokens >= policy.capacity()) {
+                lockouts = 0;
+            }
+        }
+    }
+}
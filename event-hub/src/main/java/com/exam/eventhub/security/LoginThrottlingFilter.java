@@ -0,0 +1,61 @@
+package com.exam.eventhub.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Runs in front of the form login filter and turns away login POSTs from a locked out IP or account
+ * before any user lookup or BCrypt verification happens. Failures are recorded by
+ * {@link CustomAuthFailureHandler}; a successful login clears the account's bucket here.
+ */
+public class LoginThrottlingFilter extends OncePerRequestFilter {
+
+    private final LoginAttemptLimiter loginAttemptLimiter;
+    private final RequestMatcher loginRequest;
+    private final String throttledUrl;
+
+    public LoginThrottlingFilter(LoginAttemptLimiter loginAttemptLimiter, String loginProcessingUrl, String throttledUrl) {
+        this.loginAttemptLimiter = loginAttemptLimiter;
+        this.loginRequest = new AntPathRequestMatcher(loginProcessingUrl, "POST");
+        this.throttledUrl = throttledUrl;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !loginRequest.matches(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        Duration blockedFor = loginAttemptLimiter.blockedFor(request);
+
+        if (!blockedFor.isZero()) {
+            long retryAfterSeconds = Math.max(1, (blockedFor.toMillis() + 999) / 1000);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            response.sendRedirect(request.getContextPath() + throttledUrl);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            loginAttemptLimiter.recordSuccess(request);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.exam.eventhub.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived cache of {@link AuthenticationMetadata} keyed by the username or email used to log in,
+ * so remember-me and form logins do not hit {@code users} on every request. Entries are dropped
+ * explicitly whenever a user's security-relevant data changes.
+ */
+@Component
+public class UserDetailsCache {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Duration ttl;
+    private final Clock clock;
+
+    @Autowired
+    public UserDetailsCache(@Value("${eventhub.security.user-details-cache.ttl-seconds:30}") long ttlSeconds) {
+        this(Duration.ofSeconds(ttlSeconds), Clock.systemUTC());
+    }
+
+    UserDetailsCache(Duration ttl, Clock clock) {
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    public AuthenticationMetadata get(String usernameOrEmail) {
+        Entry entry = entries.get(usernameOrEmail);
+
+        if (entry == null) {
+            return null;
+        }
+
+        if (entry.expiresAt() <= clock.millis()) {
+            entries.remove(usernameOrEmail, entry);
+            return null;
+        }
+
+        return entry.details();
+    }
+
+    public void put(String usernameOrEmail, AuthenticationMetadata details) {
+        entries.put(usernameOrEmail, new Entry(details, clock.millis() + ttl.toMillis()));
+    }
+
+    public void evict(String username) {
+        entries.values().removeIf(entry -> entry.details().getUsername().equals(username));
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void purgeExpired() {
+        long now = clock.millis();
+        entries.values().removeIf(entry -> entry.expiresAt() <= now);
+    }
+
+    private record Entry(AuthenticationMetadata details, long expiresAt) {
+    }
+}
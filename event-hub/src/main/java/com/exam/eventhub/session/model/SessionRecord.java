@@ -0,0 +1,41 @@
+package com.exam.eventhub.session.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Row of the shared {@code http_sessions} table. The table is read and written through
+ * {@link com.exam.eventhub.session.repository.JdbcSessionRepository}; the entity only describes the schema.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "http_sessions", indexes = @Index(name = "idx_http_sessions_expiry_time", columnList = "expiry_time"))
+public class SessionRecord {
+
+    @Id
+    @Column(name = "session_id", length = 36)
+    private String sessionId;
+
+    @Column(name = "creation_time", nullable = false)
+    private long creationTime;
+
+    @Column(name = "last_access_time", nullable = false)
+    private long lastAccessTime;
+
+    @Column(name = "max_inactive_seconds", nullable = false)
+    private int maxInactiveSeconds;
+
+    @Column(name = "expiry_time", nullable = false)
+    private long expiryTime;
+
+    @Column(nullable = false)
+    private long version;
+
+    @Lob
+    @Column(length = 16_777_215)
+    private byte[] attributes;
+}
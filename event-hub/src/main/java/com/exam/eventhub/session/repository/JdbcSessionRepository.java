@@ -0,0 +1,414 @@
+package com.exam.eventhub.session.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializationFailedException;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.session.MapSession;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Spring Session store backed by the shared {@code http_sessions} table, so any event-hub node can
+ * serve any user and a restart does not log anybody out.
+ * <p>
+ * Two things keep the per-request cost close to the in-memory default:
+ * <ul>
+ *     <li>a local near-cache of deserialized sessions. A cached copy is only trusted after a primary key
+ *     lookup of the row's {@code version}, which changes on every attribute write from any node, so the
+ *     attribute blob is fetched and deserialized only when another node actually changed it;</li>
+ *     <li>a lazy access-time write. A request that only touched the session updates
+ *     {@code last_access_time} at most once per {@code touchInterval} instead of on every request.</li>
+ * </ul>
+ * Attributes are written as a whole, so concurrent requests that set different attributes on the same
+ * session follow last-writer-wins, like the in-memory store.
+ * <p>
+ * Attributes are Java-serialized, which includes flash attributes such as form objects and their
+ * {@code BindingResult}, so anything put in the session has to be {@link java.io.Serializable}. An attribute that
+ * is not is left out of the row with a warning instead of failing the request; it then only survives in the
+ * near-cache of the node that set it.
+ */
+@Slf4j
+public class JdbcSessionRepository implements SessionRepository<JdbcSessionRepository.StoredSession> {
+
+    private static final String INSERT_SQL = "INSERT INTO http_sessions "
+            + "(session_id, creation_time, last_access_time, max_inactive_seconds, expiry_time, version, attributes) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_SQL = "UPDATE http_sessions SET session_id = ?, last_access_time = ?, "
+            + "max_inactive_seconds = ?, expiry_time = ?, version = ?, attributes = ? WHERE session_id = ?";
+    private static final String TOUCH_SQL = "UPDATE http_sessions SET last_access_time = ?, max_inactive_seconds = ?, "
+            + "expiry_time = ? WHERE session_id = ?";
+    private static final String SELECT_SQL = "SELECT creation_time, last_access_time, max_inactive_seconds, version, attributes "
+            + "FROM http_sessions WHERE session_id = ?";
+    private static final String SELECT_VERSION_SQL = "SELECT last_access_time, version FROM http_sessions WHERE session_id = ?";
+    private static final String DELETE_SQL = "DELETE FROM http_sessions WHERE session_id = ?";
+    private static final String DELETE_EXPIRED_SQL = "DELETE FROM http_sessions WHERE expiry_time < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration defaultMaxInactiveInterval;
+    private final long touchIntervalMillis;
+    private final Map<String, CachedSession> nearCache;
+
+    private final SerializingConverter serializer = new SerializingConverter();
+    private final DeserializingConverter deserializer = new DeserializingConverter(getClass().getClassLoader());
+
+    private final Counter cacheHits;
+    private final Counter cacheStale;
+    private final Counter cacheMisses;
+    private final Counter fullWrites;
+    private final Counter touchWrites;
+    private final Counter skippedWrites;
+
+    public JdbcSessionRepository(JdbcTemplate jdbcTemplate, Duration defaultMaxInactiveInterval, Duration touchInterval,
+                                 int nearCacheSize, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.defaultMaxInactiveInterval = defaultMaxInactiveInterval;
+        this.touchIntervalMillis = touchInterval.toMillis();
+        this.nearCache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedSession> eldest) {
+                return size() > nearCacheSize;
+            }
+        });
+
+        Gauge.builder("eventhub.session.near-cache.size", nearCache, Map::size)
+                .description("Sessions held in the local near-cache")
+                .register(meterRegistry);
+        this.cacheHits = nearCacheCounter("hit", meterRegistry);
+        this.cacheStale = nearCacheCounter("stale", meterRegistry);
+        this.cacheMisses = nearCacheCounter("miss", meterRegistry);
+        this.fullWrites = writeCounter("full", meterRegistry);
+        this.touchWrites = writeCounter("touch", meterRegistry);
+        this.skippedWrites = writeCounter("skipped", meterRegistry);
+    }
+
+    @Override
+    public StoredSession createSession() {
+        MapSession session = new MapSession();
+        session.setMaxInactiveInterval(defaultMaxInactiveInterval);
+        return new StoredSession(session, true);
+    }
+
+    @Override
+    public void save(StoredSession session) {
+        if (session.isNew) {
+            long version = nextVersion();
+            jdbcTemplate.update(INSERT_SQL, session.getId(), session.getCreationTime().toEpochMilli(),
+                    session.lastAccessMillis(), maxInactiveSeconds(session), expiryMillis(session), version,
+                    serialize(session));
+            fullWrites.increment();
+            session.markPersisted(version);
+            cache(session, version);
+            return;
+        }
+
+        if (session.attributesChanged || session.isIdChanged()) {
+            long version = nextVersion();
+            int updated = jdbcTemplate.update(UPDATE_SQL, session.getId(), session.lastAccessMillis(),
+                    maxInactiveSeconds(session), expiryMillis(session), version, serialize(session),
+                    session.persistedId);
+            fullWrites.increment();
+            nearCache.remove(session.persistedId);
+
+            if (updated > 0) {
+                session.markPersisted(version);
+                cache(session, version);
+            }
+            return;
+        }
+
+        if (session.needsTouch(touchIntervalMillis)) {
+            jdbcTemplate.update(TOUCH_SQL, session.lastAccessMillis(), maxInactiveSeconds(session),
+                    expiryMillis(session), session.getId());
+            touchWrites.increment();
+            session.markTouched();
+            return;
+        }
+
+        skippedWrites.increment();
+    }
+
+    @Override
+    public StoredSession findById(String id) {
+        CachedSession cached = nearCache.get(id);
+
+        if (cached != null) {
+            List<long[]> rows = jdbcTemplate.query(SELECT_VERSION_SQL,
+                    (rs, rowNum) -> new long[]{rs.getLong("last_access_time"), rs.getLong("version")}, id);
+
+            if (rows.isEmpty()) {
+                nearCache.remove(id);
+                cacheStale.increment();
+                return null;
+            }
+
+            long persistedLastAccess = rows.get(0)[0];
+            long version = rows.get(0)[1];
+
+            if (version == cached.version()) {
+                cacheHits.increment();
+                MapSession copy = new MapSession(cached.session());
+                copy.setLastAccessedTime(Instant.ofEpochMilli(
+                        Math.max(persistedLastAccess, copy.getLastAccessedTime().toEpochMilli())));
+                return open(copy, persistedLastAccess);
+            }
+
+            cacheStale.increment();
+        } else {
+            cacheMisses.increment();
+        }
+
+        return load(id);
+    }
+
+    @Override
+    public void deleteById(String id) {
+        nearCache.remove(id);
+        jdbcTemplate.update(DELETE_SQL, id);
+    }
+
+    @Scheduled(fixedDelayString = "${eventhub.session.cleanup-interval-ms:60000}")
+    public void cleanUpExpiredSessions() {
+        int deleted = jdbcTemplate.update(DELETE_EXPIRED_SQL, System.currentTimeMillis());
+
+        if (deleted > 0) {
+            log.info("Session cleanup job: {} expired sessions removed.", deleted);
+        }
+    }
+
+    private StoredSession load(String id) {
+        List<StoredSession> sessions = jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> {
+            MapSession session = new MapSession(id);
+            session.setCreationTime(Instant.ofEpochMilli(rs.getLong("creation_time")));
+            session.setLastAccessedTime(Instant.ofEpochMilli(rs.getLong("last_access_time")));
+            session.setMaxInactiveInterval(Duration.ofSeconds(rs.getInt("max_inactive_seconds")));
+
+            Map<String, Object> attributes = deserialize(id, rs.getBytes("attributes"));
+            if (attributes == null) {
+                return null;
+            }
+            attributes.forEach(session::setAttribute);
+
+            StoredSession stored = new StoredSession(session, false);
+            stored.markPersisted(rs.getLong("version"));
+            return stored;
+        }, id);
+
+        if (sessions.isEmpty() || sessions.get(0) == null) {
+            if (!sessions.isEmpty()) {
+                deleteById(id);
+            }
+            return null;
+        }
+
+        StoredSession session = sessions.get(0);
+
+        if (session.isExpired()) {
+            deleteById(id);
+            return null;
+        }
+
+        cache(session, session.persistedVersion);
+        return session;
+    }
+
+    private StoredSession open(MapSession session, long persistedLastAccess) {
+        if (session.isExpired()) {
+            deleteById(session.getId());
+            return null;
+        }
+
+        StoredSession stored = new StoredSession(session, false);
+        stored.persistedLastAccess = persistedLastAccess;
+        return stored;
+    }
+
+    private void cache(StoredSession session, long version) {
+        nearCache.put(session.getId(), new CachedSession(new MapSession(session.delegate), version));
+    }
+
+    private byte[] serialize(StoredSession session) {
+        Map<String, Object> attributes = new HashMap<>();
+        for (String name : session.getAttributeNames()) {
+            attributes.put(name, session.getAttribute(name));
+        }
+        try {
+            return serializer.convert(attributes);
+        } catch (SerializationFailedException e) {
+            attributes.entrySet().removeIf(attribute -> !isSerializable(session.getId(), attribute));
+            return serializer.convert(attributes);
+        }
+    }
+
+    private boolean isSerializable(String id, Map.Entry<String, Object> attribute) {
+        try {
+            serializer.convert(attribute.getValue());
+            return true;
+        } catch (SerializationFailedException e) {
+            log.warn("Session [{}] attribute [{}] of type {} is not serializable and is kept on this node only.",
+                    id, attribute.getKey(), attribute.getValue().getClass().getName());
+            return false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> deserialize(String id, byte[] attributes) {
+        try {
+            return (Map<String, Object>) deserializer.convert(attributes);
+        } catch (SerializationFailedException e) {
+            log.warn("Dropping session [{}] because its attributes could not be deserialized: {}", id, e.getMessage());
+            return null;
+        }
+    }
+
+    private static long nextVersion() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+
+    private static long maxInactiveSeconds(StoredSession session) {
+        return session.getMaxInactiveInterval().getSeconds();
+    }
+
+    private static long expiryMillis(StoredSession session) {
+        Duration maxInactive = session.getMaxInactiveInterval();
+        return maxInactive.isNegative() ? Long.MAX_VALUE : session.lastAccessMillis() + maxInactive.toMillis();
+    }
+
+    private static Counter nearCacheCounter(String result, MeterRegistry meterRegistry) {
+        return Counter.builder("eventhub.session.near-cache")
+                .tag("result", result)
+                .description("Session lookups by near-cache outcome")
+                .register(meterRegistry);
+    }
+
+    private static Counter writeCounter(String type, MeterRegistry meterRegistry) {
+        return Counter.builder("eventhub.session.writes")
+                .tag("type", type)
+                .description("Session saves by kind of write issued")
+                .register(meterRegistry);
+    }
+
+    private record CachedSession(MapSession session, long version) {
+    }
+
+    /**
+     * Session handed to Spring Session. It tracks whether attributes or the id changed since the session
+     * was loaded, which decides between a full write, an access-time touch or no write at all.
+     */
+    public static final class StoredSession implements Session {
+
+        private final MapSession delegate;
+        private boolean isNew;
+        private boolean attributesChanged;
+        private String persistedId;
+        private long persistedVersion;
+        private long persistedLastAccess;
+        private Duration persistedMaxInactive;
+
+        private StoredSession(MapSession delegate, boolean isNew) {
+            this.delegate = delegate;
+            this.isNew = isNew;
+            this.persistedId = delegate.getId();
+            this.persistedLastAccess = delegate.getLastAccessedTime().toEpochMilli();
+            this.persistedMaxInactive = delegate.getMaxInactiveInterval();
+        }
+
+        @Override
+        public String getId() {
+            return delegate.getId();
+        }
+
+        @Override
+        public String changeSessionId() {
+            return delegate.changeSessionId();
+        }
+
+        @Override
+        public <T> T getAttribute(String attributeName) {
+            return delegate.getAttribute(attributeName);
+        }
+
+        @Override
+        public Set<String> getAttributeNames() {
+            return delegate.getAttributeNames();
+        }
+
+        @Override
+        public void setAttribute(String attributeName, Object attributeValue) {
+            delegate.setAttribute(attributeName, attributeValue);
+            attributesChanged = true;
+        }
+
+        @Override
+        public void removeAttribute(String attributeName) {
+            delegate.removeAttribute(attributeName);
+            attributesChanged = true;
+        }
+
+        @Override
+        public Instant getCreationTime() {
+            return delegate.getCreationTime();
+        }
+
+        @Override
+        public void setLastAccessedTime(Instant lastAccessedTime) {
+            delegate.setLastAccessedTime(lastAccessedTime);
+        }
+
+        @Override
+        public Instant getLastAccessedTime() {
+            return delegate.getLastAccessedTime();
+        }
+
+        @Override
+        public void setMaxInactiveInterval(Duration interval) {
+            delegate.setMaxInactiveInterval(interval);
+        }
+
+        @Override
+        public Duration getMaxInactiveInterval() {
+            return delegate.getMaxInactiveInterval();
+        }
+
+        @Override
+        public boolean isExpired() {
+            return delegate.isExpired();
+        }
+
+        private boolean isIdChanged() {
+            return !delegate.getId().equals(persistedId);
+        }
+
+        private boolean needsTouch(long touchIntervalMillis) {
+            return !delegate.getMaxInactiveInterval().equals(persistedMaxInactive)
+                    || lastAccessMillis() - persistedLastAccess >= touchIntervalMillis;
+        }
+
+        private long lastAccessMillis() {
+            return delegate.getLastAccessedTime().toEpochMilli();
+        }
+
+        private void markPersisted(long version) {
+            isNew = false;
+            attributesChanged = false;
+            persistedId = delegate.getId();
+            persistedVersion = version;
+            markTouched();
+        }
+
+        private void markTouched() {
+            persistedLastAccess = lastAccessMillis();
+            persistedMaxInactive = delegate.getMaxInactiveInterval();
+        }
+    }
+}
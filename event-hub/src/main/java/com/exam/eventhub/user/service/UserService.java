@@ -5,6 +5,7 @@ import com.exam.eventhub.exception.EmailDuplicateException;
 import com.exam.eventhub.exception.UserNotFoundException;
 import com.exam.eventhub.exception.UsernameAlreadyExistsException;
 import com.exam.eventhub.security.AuthenticationMetadata;
+import com.exam.eventhub.security.UserDetailsCache;
 import com.exam.eventhub.user.model.Role;
 import com.exam.eventhub.user.model.User;
 import com.exam.eventhub.user.repository.UserRepository;
@@ -14,12 +15,13 @@ import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.authentication.rememberme.PersistentTokenRepository;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -32,13 +34,14 @@ import static com.exam.eventhub.common.Constants.*;
 @Slf4j
 @Service
 @AllArgsConstructor
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
 
     private static final String ENTITY_NAME = "User";
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
-    private final JdbcTemplate jdbcTemplate;
+    private final PersistentTokenRepository persistentTokenRepository;
+    private final UserDetailsCache userDetailsCache;
 
     public void initData() {
         if (userRepository.count() == 0) {
@@ -115,12 +118,14 @@ public class UserService implements UserDetailsService {
 
     @CacheEvict(value = "users", allEntries = true)
     public void updateUserProfile(String username, UserEditRequest updatedData) {
-        User user = getByUsername(username);
+        updateUserProfile(getByUsername(username), updatedData);
+    }
 
+    @CacheEvict(value = "users", allEntries = true)
+    public void updateUserProfile(User user, UserEditRequest updatedData) {
         boolean emailChanged = !user.getEmail().equals(updatedData.getEmail());
-        Optional<User> userByEmail = userRepository.findByEmail(updatedData.getEmail());
 
-        if (emailChanged && userByEmail.isPresent()) {
+        if (emailChanged && userRepository.findByEmail(updatedData.getEmail()).isPresent()) {
             throw new EmailDuplicateException(EMAIL_EXIST);
         }
 
@@ -131,6 +136,7 @@ public class UserService implements UserDetailsService {
         user.setProfileImageUrl(updatedData.getProfileImageUrl());
 
         this.userRepository.save(user);
+        userDetailsCache.evict(user.getUsername());
     }
 
     @CacheEvict(value = "users", allEntries = true)
@@ -138,8 +144,9 @@ public class UserService implements UserDetailsService {
         User user = getById(id);
         user.setBlocked(true);
         this.userRepository.save(user);
+        userDetailsCache.evict(user.getUsername());
 
-        jdbcTemplate.update("DELETE FROM persistent_logins WHERE username = ?", user.getUsername());
+        persistentTokenRepository.removeUserTokens(user.getUsername());
         log.info("Deleted remember-me tokens for blocked user {}", user.getUsername());
     }
 
@@ -148,6 +155,7 @@ public class UserService implements UserDetailsService {
         User user = getById(id);
         user.setBlocked(false);
         this.userRepository.save(user);
+        userDetailsCache.evict(user.getUsername());
     }
 
     public User getById(UUID id) {
@@ -175,6 +183,7 @@ public class UserService implements UserDetailsService {
     @CacheEvict(value = "users", allEntries = true)
     public void updateUser(UUID id, User updatedUser) {
         User user = getById(id);
+        userDetailsCache.evict(user.getUsername());
 
         user.setUsername(updatedUser.getUsername());
         user.setEmail(updatedUser.getEmail());
@@ -193,11 +202,36 @@ public class UserService implements UserDetailsService {
         return user.isNotificationsEnabled();
     }
 
+    /**
+     * Called by Spring Security after a successful login whose stored hash was produced with a
+     * different BCrypt cost than the one currently configured.
+     */
+    @Override
+    @CacheEvict(value = "users", allEntries = true)
+    public UserDetails updatePassword(UserDetails userDetails, String newEncodedPassword) {
+        User user = getByUsername(userDetails.getUsername());
+        user.setPassword(newEncodedPassword);
+        this.userRepository.save(user);
+        userDetailsCache.evict(user.getUsername());
+
+        log.info("Re-hashed password for user [{}] with the current work factor.", user.getUsername());
+
+        return new AuthenticationMetadata(user.getId(), user.getUsername(), user.getPassword(), user.getRole(), user.isBlocked(), user.getProfileImageUrl());
+    }
+
     @Override
     public UserDetails loadUserByUsername(String usernameOrEmail) throws UsernameNotFoundException {
 
+        AuthenticationMetadata cached = userDetailsCache.get(usernameOrEmail);
+        if (cached != null) {
+            return cached;
+        }
+
         User user = getByUsernameOrEmail(usernameOrEmail);
 
-        return new AuthenticationMetadata(user.getId(), user.getUsername(), user.getPassword(), user.getRole(), user.isBlocked(), user.getProfileImageUrl());
+        AuthenticationMetadata authenticationMetadata = new AuthenticationMetadata(user.getId(), user.getUsername(), user.getPassword(), user.getRole(), user.isBlocked(), user.getProfileImageUrl());
+        userDetailsCache.put(usernameOrEmail, authenticationMetadata);
+
+        return authenticationMetadata;
     }
 }
@@ -0,0 +1,42 @@
+package com.exam.eventhub.web;
+
+import com.exam.eventhub.event.model.CancellationStatus;
+import com.exam.eventhub.event.model.EventCancellation;
+import com.exam.eventhub.event.service.EventCancellationService;
+import lombok.AllArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+
+import java.util.List;
+import java.util.UUID;
+
+import static com.exam.eventhub.common.Constants.SUCCESS_MESSAGE_ATTR;
+
+@Controller
+@RequestMapping("/admin/event-cancellations")
+@AllArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminEventCancellationController {
+
+    private final EventCancellationService eventCancellationService;
+
+    @GetMapping
+    public String listCancellations(Model model) {
+        List<EventCancellation> cancellations = eventCancellationService.getAll();
+
+        model.addAttribute("cancellations", cancellations);
+        model.addAttribute("anyRunning", cancellations.stream()
+                .anyMatch(cancellation -> cancellation.getStatus() == CancellationStatus.RUNNING));
+        return "admin/manage-event-cancellations";
+    }
+
+    @PostMapping("/{id}/retry")
+    public String retryCancellation(@PathVariable UUID id, RedirectAttributes redirectAttributes) {
+        eventCancellationService.retry(id);
+        redirectAttributes.addFlashAttribute(SUCCESS_MESSAGE_ATTR, "Cancellation restarted!");
+        return "redirect:/admin/event-cancellations";
+    }
+}
@@ -1,6 +1,6 @@
 package com.exam.eventhub.web;
 
-import com.exam.eventhub.notification.client.dto.NotificationResponse;
+import com.exam.eventhub.notification.client.dto.NotificationPageResponse;
 import com.exam.eventhub.notification.service.NotificationService;
 import lombok.AllArgsConstructor;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -10,9 +10,9 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.util.List;
 import java.util.UUID;
 
 import static com.exam.eventhub.common.Constants.SUCCESS_MESSAGE_ATTR;
@@ -23,18 +23,24 @@ import static com.exam.eventhub.common.Constants.SUCCESS_MESSAGE_ATTR;
 @PreAuthorize("hasRole('ADMIN')")
 public class AdminNotificationController {
 
+    private static final int PAGE_SIZE = 50;
+
     private final NotificationService notificationService;
 
     @GetMapping
-    public String viewNotifications(Model model) {
-        List<NotificationResponse> notifications = notificationService.getAll();
-        model.addAttribute("notifications", notifications);
+    public String viewNotifications(@RequestParam(name = "cursor", required = false) String cursor, Model model) {
+        NotificationPageResponse page = notificationService.getAllPage(cursor, PAGE_SIZE);
+        model.addAttribute("notifications", page.getItems());
+        model.addAttribute("nextCursor", page.getNextCursor());
+        model.addAttribute("firstPage", cursor == null);
         return "admin/manage-notifications";
     }
 
     @PostMapping("/{id}")
-    public String deleteNotification(@PathVariable UUID id, RedirectAttributes redirectAttributes) {
-        notificationService.delete(id);
+    public String deleteNotification(@PathVariable UUID id,
+                                     @RequestParam(name = "recipientId", required = false) UUID recipientId,
+                                     RedirectAttributes redirectAttributes) {
+        notificationService.delete(id, recipientId);
         redirectAttributes.addFlashAttribute(SUCCESS_MESSAGE_ATTR, "Notification deleted successfully!");
         return "redirect:/admin/notifications";
     }
@@ -0,0 +1,40 @@
+package com.exam.eventhub.web;
+
+import com.exam.eventhub.reconciliation.model.ReconciliationRun;
+import com.exam.eventhub.reconciliation.service.ReconciliationService;
+import lombok.AllArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
+import java.util.UUID;
+
+@Controller
+@RequestMapping("/admin/reconciliations")
+@AllArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminReconciliationController {
+
+    private static final int MISMATCHES_SHOWN = 200;
+
+    private final ReconciliationService reconciliationService;
+
+    @GetMapping
+    public String listReconciliations(@RequestParam(required = false) UUID run, Model model) {
+        List<ReconciliationRun> runs = reconciliationService.getRecentRuns();
+        ReconciliationRun selected = runs.stream()
+                .filter(candidate -> run == null || candidate.getId().equals(run))
+                .findFirst()
+                .orElse(null);
+
+        model.addAttribute("runs", runs);
+        model.addAttribute("selectedRun", selected);
+        model.addAttribute("mismatches", selected == null ? List.of()
+                : reconciliationService.getMismatches(selected.getId(), MISMATCHES_SHOWN));
+        return "admin/manage-reconciliations";
+    }
+}
@@ -47,7 +47,6 @@ public class BookingController {
         }
 
         Booking booking = bookingService.add(bookingCreateRequest, principal.getName());
-        redirectAttributes.addFlashAttribute("booking", booking);
 
         return "redirect:/bookings/%s/confirmation".formatted(booking.getId());
     }
@@ -3,9 +3,9 @@ package com.exam.eventhub.web;
 import com.exam.eventhub.booking.service.BookingService;
 import com.exam.eventhub.category.service.CategoryService;
 import com.exam.eventhub.event.model.Event;
+import com.exam.eventhub.event.service.EventCancellationService;
 import com.exam.eventhub.event.service.EventService;
-import com.exam.eventhub.user.model.Role;
-import com.exam.eventhub.user.service.UserService;
+import com.exam.eventhub.security.CurrentUser;
 import com.exam.eventhub.venue.service.VenueService;
 import com.exam.eventhub.web.dto.EventCreateRequest;
 import com.exam.eventhub.web.dto.EventEditRequest;
@@ -34,10 +34,11 @@ public class EventController {
     private static final String ENTITY_NAME = "Event";
 
     private final EventService eventService;
-    private final UserService userService;
+    private final CurrentUser currentUser;
     private final CategoryService categoryService;
     private final VenueService venueService;
     private final BookingService bookingService;
+    private final EventCancellationService eventCancellationService;
 
     @GetMapping("/search")
     public String searchEvents(@RequestParam(required = false) String keyword,
@@ -54,9 +55,7 @@ public class EventController {
     @GetMapping("/my")
     @PreAuthorize("hasAnyRole('EVENT_ORGANIZER','ADMIN')")
     public String manageEvents(Model model, Principal principal) {
-        boolean isAdmin = userService.hasRole(principal.getName(), Role.ADMIN);
-
-        if (isAdmin) {
+        if (currentUser.isAdmin()) {
             model.addAttribute("myEvents", eventService.getAllWithDetails());
         } else {
             model.addAttribute("myEvents", eventService.getEventsByOrganizer(principal.getName()));
@@ -168,8 +167,27 @@ public class EventController {
         return "redirect:/events/my";
     }
 
+    @PostMapping("/{id}/cancellation")
+    @PreAuthorize("hasAnyRole('EVENT_ORGANIZER','ADMIN')")
+    public String cancelEvent(@PathVariable UUID id,
+                              @RequestParam(required = false) String reason,
+                              Principal principal,
+                              RedirectAttributes redirectAttributes) {
+        Event event = eventService.getByIdWithDetails(id);
+
+        if (!isAuthorizedToModifyEvent(event, principal, redirectAttributes, "cancel")) {
+            return "redirect:/events/my";
+        }
+
+        eventCancellationService.start(id, principal.getName(), reason);
+        redirectAttributes.addFlashAttribute(SUCCESS_MESSAGE_ATTR,
+                "Event cancelled. Its bookings are being refunded and attendees will be notified.");
+
+        return currentUser.isAdmin() ? "redirect:/admin/event-cancellations" : "redirect:/events/my";
+    }
+
     private boolean isAuthorizedToModifyEvent(Event event, Principal principal, RedirectAttributes redirectAttributes, String action) {
-        if (!userService.hasRole(principal.getName(), Role.ADMIN) &&
+        if (!currentUser.isAdmin() &&
                 !event.getOrganizer().getUsername().equals(principal.getName())) {
             redirectAttributes.addFlashAttribute(ERROR_MESSAGE_ATTR, NOT_ALLOWED.formatted(action));
             return false;
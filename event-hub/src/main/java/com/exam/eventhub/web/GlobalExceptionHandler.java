@@ -1,9 +1,11 @@
 package com.exam.eventhub.web;
 
 import com.exam.eventhub.exception.*;
+import com.exam.eventhub.web.dto.RegisterRequest;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.MissingRequestValueException;
@@ -43,6 +45,24 @@ public class GlobalExceptionHandler {
         return "redirect:/register";
     }
 
+    /**
+     * Registration hashes the password on the same bounded pool as login, which rejects work when it is full.
+     * The user is sent back to the form, without the passwords, to try again.
+     */
+    @ExceptionHandler(LoginCapacityExceededException.class)
+    public String handleRegistrationBusy(LoginCapacityExceededException ex, HttpServletRequest request,
+                                         RedirectAttributes redirectAttributes) {
+        log.warn("Registration rejected: {}", ex.getMessage());
+
+        RegisterRequest registerRequest = new RegisterRequest();
+        registerRequest.setUsername(request.getParameter("username"));
+        registerRequest.setEmail(request.getParameter("email"));
+
+        redirectAttributes.addFlashAttribute("registerRequest", registerRequest);
+        redirectAttributes.addFlashAttribute("registrationBusy", true);
+        return "redirect:/register";
+    }
+
     @ExceptionHandler(CategoryAlreadyExistException.class)
     public String handleCategoryAlreadyExist(CategoryAlreadyExistException ex, RedirectAttributes redirectAttributes) {
         log.warn("Category already used: {}", ex.getMessage());
@@ -101,6 +121,13 @@ public class GlobalExceptionHandler {
         }
     }
 
+    @ExceptionHandler(PaymentPendingException.class)
+    public String handlePaymentPending(PaymentPendingException ex, RedirectAttributes redirectAttributes) {
+        log.warn("Payment not confirmed yet: {}", ex.getMessage());
+        redirectAttributes.addFlashAttribute(INFO_MESSAGE_ATTR, ex.getMessage());
+        return "redirect:/bookings/my";
+    }
+
     private String extractBookingIdFromUri(String uri) {
         try {
             if (uri.contains("/bookings/")) {
@@ -159,12 +186,19 @@ public class GlobalExceptionHandler {
             ConnectException.class,
             SocketTimeoutException.class,
             feign.RetryableException.class,
-            feign.FeignException.class
+            feign.FeignException.class,
+            DependencyUnavailableException.class
     })
     public ModelAndView handleMicroserviceErrors(Exception ex, HttpServletResponse response) {
-        log.error("Microservice communication error: {}", ex.getMessage(), ex);
         response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
 
+        if (ex instanceof DependencyUnavailableException unavailable) {
+            log.warn("Microservice call not attempted: {}", ex.getMessage());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, unavailable.getRetryAfter().toSeconds())));
+        } else {
+            log.error("Microservice communication error: {}", ex.getMessage(), ex);
+        }
+
         ModelAndView modelAndView = new ModelAndView(ERROR_VIEW);
         modelAndView.addObject("status", 503);
         modelAndView.addObject("error", "Service Unavailable");
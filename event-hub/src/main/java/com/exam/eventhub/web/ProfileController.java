@@ -1,6 +1,7 @@
 package com.exam.eventhub.web;
 
 import com.exam.eventhub.security.AuthenticationMetadata;
+import com.exam.eventhub.security.CurrentUser;
 import com.exam.eventhub.user.model.User;
 import com.exam.eventhub.user.service.UserService;
 import com.exam.eventhub.web.dto.UserEditRequest;
@@ -19,8 +20,6 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.security.Principal;
-
 import static com.exam.eventhub.common.Constants.*;
 
 @Controller
@@ -29,17 +28,18 @@ import static com.exam.eventhub.common.Constants.*;
 public class ProfileController {
 
     private final UserService userService;
+    private final CurrentUser currentUser;
 
     @GetMapping
-    public String profilePage(Model model, Principal principal) {
-        User user = userService.getByUsername(principal.getName());
+    public String profilePage(Model model) {
+        User user = currentUser.getUser();
         model.addAttribute("user", user);
         return "user/profile-menu";
     }
 
     @GetMapping("/edit")
-    public String editProfileForm(Model model, Principal principal) {
-        User user = userService.getByUsername(principal.getName());
+    public String editProfileForm(Model model) {
+        User user = currentUser.getUser();
 
         if (!model.containsAttribute("user")) {
             model.addAttribute("user", DtoMapper.mapUserToUserEditRequest(user));
@@ -51,7 +51,6 @@ public class ProfileController {
     @PutMapping
     public String updateProfile(@Valid @ModelAttribute("user") UserEditRequest userEditRequest,
                                 BindingResult bindingResult,
-                                Principal principal,
                                 RedirectAttributes redirectAttributes) {
 
         if (bindingResult.hasErrors()) {
@@ -61,9 +60,8 @@ public class ProfileController {
             return "redirect:profile/edit";
         }
 
-        userService.updateUserProfile(principal.getName(), userEditRequest);
-
-        User updatedUser = userService.getByUsername(principal.getName());
+        User updatedUser = currentUser.getUser();
+        userService.updateUserProfile(updatedUser, userEditRequest);
 
         AuthenticationMetadata newAuthMetadata = new AuthenticationMetadata();
         newAuthMetadata.setUserId(updatedUser.getId());
@@ -1,18 +1,27 @@
 package com.exam.eventhub.web;
 
-import com.exam.eventhub.notification.client.dto.NotificationResponse;
+import com.exam.eventhub.notification.client.dto.NotificationPageResponse;
+import com.exam.eventhub.notification.client.dto.NotificationPreferenceResponse;
+import com.exam.eventhub.notification.client.dto.UnreadCountResponse;
 import com.exam.eventhub.notification.service.NotificationService;
+import com.exam.eventhub.notification.service.NotificationStreamRelay;
+import com.exam.eventhub.security.CurrentUser;
 import com.exam.eventhub.user.model.User;
 import com.exam.eventhub.user.service.UserService;
 import lombok.AllArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.security.Principal;
+import java.time.Duration;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
 
 import static com.exam.eventhub.common.Constants.INFO_MESSAGE_ATTR;
@@ -24,25 +33,61 @@ import static com.exam.eventhub.common.Constants.SUCCESS_MESSAGE_ATTR;
 @PreAuthorize("isAuthenticated()")
 public class UserNotificationController {
 
+    private static final int PAGE_SIZE = 20;
+
     private final NotificationService notificationService;
+    private final NotificationStreamRelay streamRelay;
     private final UserService userService;
+    private final CurrentUser currentUser;
 
     @GetMapping
-    public String viewUserNotifications(Model model, Principal principal) {
-        User user = userService.getByUsername(principal.getName());
-        UUID userId = user.getId();
+    public String viewUserNotifications(@RequestParam(name = "cursor", required = false) String cursor, Model model) {
+        User user = currentUser.getUser();
 
-        List<NotificationResponse> notifications = notificationService.getNotificationsByUser(userId);
+        NotificationPageResponse page = notificationService.getNotificationsPage(user.getId(), cursor, PAGE_SIZE);
 
-        model.addAttribute("notifications", notifications);
+        model.addAttribute("notifications", page.getItems());
+        model.addAttribute("nextCursor", page.getNextCursor());
+        model.addAttribute("firstPage", cursor == null);
         model.addAttribute("notificationsEnabled", user.isNotificationsEnabled());
+        model.addAttribute("deliveryPreference", notificationService.getPreference(user.getId()));
 
         return "notifications";
     }
 
+    @GetMapping("/unread-count")
+    @ResponseBody
+    public ResponseEntity<UnreadCountResponse> unreadCount() {
+        long unread = notificationService.getUnreadCount(currentUser.getId());
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(15)).cachePrivate())
+                .body(new UnreadCountResponse(unread));
+    }
+
+    /**
+     * New notifications of the current user as server-sent events, so the inbox updates without reloading.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public SseEmitter stream(Locale locale) {
+        return streamRelay.open(currentUser.getId(), locale);
+    }
+
+    @PatchMapping("/read")
+    public String markRead(@RequestParam(name = "ids", required = false) List<UUID> ids, RedirectAttributes redirectAttributes) {
+        int updated = notificationService.markRead(currentUser.getId(), ids == null ? List.of() : ids);
+
+        if (updated > 0) {
+            redirectAttributes.addFlashAttribute(SUCCESS_MESSAGE_ATTR, "Marked %d notification(s) as read.".formatted(updated));
+        }
+
+        return "redirect:/notifications";
+    }
+
     @PatchMapping("/settings")
-    public String toggleNotifications(Principal principal, RedirectAttributes redirectAttributes) {
-        User user = userService.getByUsername(principal.getName());
+    public String toggleNotifications(RedirectAttributes redirectAttributes) {
+        User user = currentUser.getUser();
 
         boolean newState = userService.toggleNotifications(user);
 
@@ -53,29 +98,39 @@ public class UserNotificationController {
         return "redirect:/notifications";
     }
 
-    @DeleteMapping
-    public String clearAllNotifications(Principal principal, RedirectAttributes redirectAttributes) {
-        User user = userService.getByUsername(principal.getName());
+    @PatchMapping("/delivery")
+    public String updateDelivery(@RequestParam(name = "mode") String mode,
+                                 @RequestParam(name = "digestWindowMinutes", required = false) Integer digestWindowMinutes,
+                                 RedirectAttributes redirectAttributes) {
+        boolean digest = NotificationPreferenceResponse.DIGEST.equals(mode);
+
+        notificationService.updatePreference(currentUser.getId(),
+                digest ? NotificationPreferenceResponse.DIGEST : NotificationPreferenceResponse.IMMEDIATE, digestWindowMinutes);
+
+        redirectAttributes.addFlashAttribute(SUCCESS_MESSAGE_ATTR, digest
+                ? "Notifications will be grouped into a digest."
+                : "Notifications will be sent as they happen.");
+
+        return "redirect:/notifications";
+    }
 
-        List<NotificationResponse> notifications = notificationService.getNotificationsByUser(user.getId());
+    @DeleteMapping
+    public String clearAllNotifications(RedirectAttributes redirectAttributes) {
+        int cleared = notificationService.clearAllNotifications(currentUser.getUser());
 
-        if (notifications.isEmpty()) {
+        if (cleared == 0) {
             redirectAttributes.addFlashAttribute(INFO_MESSAGE_ATTR, "No notifications to clear.");
             return "redirect:/notifications";
         }
 
-        notificationService.clearAllNotifications(notifications, user);
-
         redirectAttributes.addFlashAttribute(SUCCESS_MESSAGE_ATTR, "Notification history cleared successfully!");
 
         return "redirect:/notifications";
     }
 
     @DeleteMapping("/{id}")
-    public String deleteNotification(@PathVariable UUID id, Principal principal, RedirectAttributes redirectAttributes) {
-        User user = userService.getByUsername(principal.getName());
-
-        notificationService.deleteUserNotification(id, user.getId());
+    public String deleteNotification(@PathVariable UUID id, RedirectAttributes redirectAttributes) {
+        notificationService.deleteUserNotification(id, currentUser.getId());
 
         redirectAttributes.addFlashAttribute(SUCCESS_MESSAGE_ATTR, "Notification deleted successfully.");
         return "redirect:/notifications";
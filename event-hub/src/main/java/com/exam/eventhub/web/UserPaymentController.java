@@ -2,7 +2,7 @@ package com.exam.eventhub.web;
 
 import com.exam.eventhub.payment.client.dto.PaymentResponse;
 import com.exam.eventhub.payment.service.PaymentService;
-import com.exam.eventhub.user.service.UserService;
+import com.exam.eventhub.security.CurrentUser;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -11,9 +11,7 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 
-import java.security.Principal;
 import java.util.List;
-import java.util.UUID;
 
 @Slf4j
 @Controller
@@ -23,12 +21,11 @@ import java.util.UUID;
 public class UserPaymentController {
 
     private final PaymentService paymentService;
-    private final UserService userService;
+    private final CurrentUser currentUser;
 
     @GetMapping
-    public String viewPaymentHistory(Model model, Principal principal) {
-        UUID userId = userService.getByUsername(principal.getName()).getId();
-        List<PaymentResponse> payments = paymentService.getPaymentsByUser(userId);
+    public String viewPaymentHistory(Model model) {
+        List<PaymentResponse> payments = paymentService.getPaymentsByUser(currentUser.getId());
 
         model.addAttribute("payments", payments);
         return "user/payment-history";
@@ -6,12 +6,13 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.io.Serializable;
 import java.util.UUID;
 
 @Getter
 @Setter
 @NoArgsConstructor
-public class BookingCreateRequest {
+public class BookingCreateRequest implements Serializable {
 
     @NotNull(message = "Event is required")
     private UUID eventId;
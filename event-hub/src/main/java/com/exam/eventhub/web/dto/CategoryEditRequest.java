@@ -8,12 +8,13 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.io.Serializable;
 import java.util.UUID;
 
 @Getter
 @Setter
 @NoArgsConstructor
-public class CategoryEditRequest {
+public class CategoryEditRequest implements Serializable {
 
     @NotNull
     private UUID id;
@@ -6,10 +6,12 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.io.Serializable;
+
 @Getter
 @Setter
 @NoArgsConstructor
-public class ContactCreateRequest {
+public class ContactCreateRequest implements Serializable {
 
     @NotBlank(message = "Name is required")
     private String name;
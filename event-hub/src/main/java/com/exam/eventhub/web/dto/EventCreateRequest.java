@@ -4,6 +4,7 @@ import jakarta.validation.constraints.*;
 import lombok.*;
 import org.springframework.format.annotation.DateTimeFormat;
 
+import java.io.Serializable;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -12,7 +13,7 @@ import java.util.UUID;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-public class EventCreateRequest {
+public class EventCreateRequest implements Serializable {
 
     @NotBlank(message = "Event title is required")
     @Size(min = 3, max = 100, message = "Title must be between 3 and 100 characters")
@@ -6,12 +6,13 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.io.Serializable;
 import java.math.BigDecimal;
 
 @Getter
 @Setter
 @NoArgsConstructor
-public class VenueCreateRequest {
+public class VenueCreateRequest implements Serializable {
 
     @NotBlank(message = "Venue name is required")
     @Size(min = 2, max = 100, message = "Venue name must be between 2 and 100 characters")
@@ -6,13 +6,14 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.io.Serializable;
 import java.math.BigDecimal;
 import java.util.UUID;
 
 @Getter
 @Setter
 @NoArgsConstructor
-public class VenueEditRequest {
+public class VenueEditRequest implements Serializable {
 
     @NotNull
     private UUID id;
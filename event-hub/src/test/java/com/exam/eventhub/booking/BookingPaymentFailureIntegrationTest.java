@@ -0,0 +1,122 @@
+package com.exam.eventhub.booking;
+
+import com.exam.eventhub.booking.model.Booking;
+import com.exam.eventhub.booking.model.BookingStatus;
+import com.exam.eventhub.booking.repository.BookingRepository;
+import com.exam.eventhub.booking.service.BookingService;
+import com.exam.eventhub.event.model.Event;
+import com.exam.eventhub.event.model.EventStatus;
+import com.exam.eventhub.event.repository.EventRepository;
+import com.exam.eventhub.exception.PaymentProcessingException;
+import com.exam.eventhub.notification.model.NotificationOutbox;
+import com.exam.eventhub.notification.repository.NotificationOutboxRepository;
+import com.exam.eventhub.payment.service.PaymentService;
+import com.exam.eventhub.user.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+
+@ActiveProfiles("test")
+@SpringBootTest
+class BookingPaymentFailureIntegrationTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private NotificationOutboxRepository notificationOutboxRepository;
+
+    @MockitoBean
+    private PaymentService paymentService;
+
+    @BeforeEach
+    void setUp() {
+        notificationOutboxRepository.deleteAll();
+    }
+
+    @Test
+    void markAsPaid_whenChargeIsDeclined_throwsPaymentProcessingExceptionAndQueuesTheFailureNotification() {
+
+        Event event = event();
+        UUID bookingId = booking(event, BookingStatus.PENDING, null);
+        when(paymentService.processPayment(eq(bookingId), any(), any()))
+                .thenThrow(new PaymentProcessingException("Card declined"));
+
+        PaymentProcessingException exception = assertThrows(PaymentProcessingException.class,
+                () -> bookingService.markAsPaid(bookingId, "user"));
+
+        assertEquals("Payment processing failed. Please try again.", exception.getMessage());
+        assertQueued("payment.failed", event);
+    }
+
+    @Test
+    void refundBooking_whenRefundIsRejected_throwsIllegalStateExceptionAndQueuesTheFailureNotification() {
+
+        Event event = event();
+        UUID paymentId = UUID.randomUUID();
+        UUID bookingId = booking(event, BookingStatus.CONFIRMED, paymentId);
+        doThrow(new PaymentProcessingException("Refund rejected"))
+                .when(paymentService).refundPayment(eq(paymentId), any());
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> bookingService.refundBooking(bookingId));
+
+        assertEquals("Refund processing failed. Please contact support.", exception.getMessage());
+        assertEquals(BookingStatus.CONFIRMED, bookingRepository.findById(bookingId).orElseThrow().getStatus());
+        assertQueued("refund.failed", event);
+    }
+
+    private void assertQueued(String templateId, Event event) {
+        List<NotificationOutbox> outbox = notificationOutboxRepository.findAll();
+
+        assertEquals(1, outbox.size());
+        assertEquals(templateId, outbox.get(0).getTemplateId());
+        assertEquals(List.of(event.getTitle()), outbox.get(0).getTemplateParams());
+    }
+
+    private Event event() {
+        Event template = eventRepository.findAll().get(0);
+        Event event = new Event("Payment Show " + UUID.randomUUID(), "Paid show",
+                LocalDateTime.now().plusDays(30), LocalDateTime.now().plusDays(30).plusHours(3),
+                BigDecimal.TEN, 100, template.getVenue(), template.getOrganizer(), template.getCategory());
+        event.setStatus(EventStatus.PUBLISHED);
+
+        return eventRepository.save(event);
+    }
+
+    private UUID booking(Event event, BookingStatus status, UUID paymentId) {
+        Booking booking = new Booking();
+        booking.setNumberOfTickets(1);
+        booking.setTotalAmount(BigDecimal.TEN);
+        booking.setCustomerEmail("user@example.com");
+        booking.setStatus(status);
+        booking.setPaymentId(paymentId);
+        booking.setEvent(event);
+        booking.setUser(userRepository.findByUsername("user").orElseThrow());
+
+        return bookingRepository.save(booking).getId();
+    }
+}
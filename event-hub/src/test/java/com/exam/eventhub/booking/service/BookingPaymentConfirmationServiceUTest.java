@@ -0,0 +1,140 @@
+package com.exam.eventhub.booking.service;
+
+import com.exam.eventhub.booking.model.Booking;
+import com.exam.eventhub.booking.model.BookingStatus;
+import com.exam.eventhub.booking.repository.BookingRepository;
+import com.exam.eventhub.event.model.Event;
+import com.exam.eventhub.exception.PaymentServiceUnavailableException;
+import com.exam.eventhub.notification.model.NotificationTemplate;
+import com.exam.eventhub.notification.service.NotificationService;
+import com.exam.eventhub.payment.client.dto.PaymentResponse;
+import com.exam.eventhub.payment.service.PaymentService;
+import com.exam.eventhub.user.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static com.exam.eventhub.util.BookingHelper.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingPaymentConfirmationServiceUTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private PaymentService paymentService;
+    @Mock
+    private NotificationService notificationService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BookingPaymentConfirmationService confirmationService;
+
+    @BeforeEach
+    void setUp() {
+        confirmationService = new BookingPaymentConfirmationService(bookingRepository, paymentService, notificationService,
+                transactionManager, 60, 10);
+    }
+
+    @Test
+    void run_whenChargeSucceeded_confirmsTheBookingAndNotifies() {
+
+        UUID bookingId = UUID.randomUUID();
+        UUID paymentId = UUID.randomUUID();
+        User user = createUser(UUID.randomUUID(), "user");
+        Event event = createEvent(UUID.randomUUID(), "Event", new BigDecimal("50.00"), 100, 98);
+        Booking booking = createBooking(bookingId, user, event, 2, new BigDecimal("100.00"));
+
+        when(bookingRepository.findPaymentRequestedIdsBefore(eq(BookingStatus.PENDING), any(), any(), any())).thenReturn(List.of(bookingId));
+        when(paymentService.getPaymentByBookingId(bookingId)).thenReturn(Optional.of(payment(paymentId, "SUCCESS")));
+        when(bookingRepository.attachPayment(eq(bookingId), eq(paymentId), eq(BookingStatus.PENDING), eq(BookingStatus.CONFIRMED), any())).thenReturn(1);
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+
+        int confirmed = confirmationService.run();
+
+        assertEquals(1, confirmed);
+        verify(notificationService).enqueueIfEnabled(user, NotificationTemplate.PAYMENT_SUCCESSFUL, "Event");
+    }
+
+    @Test
+    void run_whenChargeFailedOrWasNeverMade_clearsTheMarkSoTheBookingCanExpire() {
+
+        UUID declined = UUID.randomUUID();
+        UUID missing = UUID.randomUUID();
+
+        when(bookingRepository.findPaymentRequestedIdsBefore(eq(BookingStatus.PENDING), any(), any(), any())).thenReturn(List.of(declined, missing));
+        when(paymentService.getPaymentByBookingId(declined)).thenReturn(Optional.of(payment(UUID.randomUUID(), "FAILED")));
+        when(paymentService.getPaymentByBookingId(missing)).thenReturn(Optional.empty());
+
+        int confirmed = confirmationService.run();
+
+        assertEquals(0, confirmed);
+        verify(bookingRepository).clearPaymentRequested(eq(declined), eq(BookingStatus.PENDING), any());
+        verify(bookingRepository).clearPaymentRequested(eq(missing), eq(BookingStatus.PENDING), any());
+        verify(bookingRepository, never()).attachPayment(any(), any(), any(), any(), any());
+        verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    void run_whenChargeIsStillPending_leavesTheBookingForTheNextRun() {
+
+        UUID bookingId = UUID.randomUUID();
+
+        when(bookingRepository.findPaymentRequestedIdsBefore(eq(BookingStatus.PENDING), any(), any(), any())).thenReturn(List.of(bookingId));
+        when(paymentService.getPaymentByBookingId(bookingId)).thenReturn(Optional.of(payment(UUID.randomUUID(), "PENDING")));
+
+        confirmationService.run();
+
+        verify(bookingRepository, never()).clearPaymentRequested(any(), any(), any());
+        verify(bookingRepository, never()).attachPayment(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void run_whenPaymentServiceIsUnavailable_stopsWithoutTouchingTheBookings() {
+
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+
+        when(bookingRepository.findPaymentRequestedIdsBefore(eq(BookingStatus.PENDING), any(), any(), any())).thenReturn(List.of(first, second));
+        when(paymentService.getPaymentByBookingId(first)).thenThrow(new PaymentServiceUnavailableException("down"));
+
+        confirmationService.run();
+
+        verify(paymentService, never()).getPaymentByBookingId(second);
+        verify(bookingRepository, never()).clearPaymentRequested(any(), any(), any());
+    }
+
+    @Test
+    void run_whenBookingWasCancelledMeanwhile_doesNotConfirmIt() {
+
+        UUID bookingId = UUID.randomUUID();
+        UUID paymentId = UUID.randomUUID();
+
+        when(bookingRepository.findPaymentRequestedIdsBefore(eq(BookingStatus.PENDING), any(), any(), any())).thenReturn(List.of(bookingId));
+        when(paymentService.getPaymentByBookingId(bookingId)).thenReturn(Optional.of(payment(paymentId, "SUCCESS")));
+        when(bookingRepository.attachPayment(eq(bookingId), eq(paymentId), eq(BookingStatus.PENDING), eq(BookingStatus.CONFIRMED), any())).thenReturn(0);
+
+        int confirmed = confirmationService.run();
+
+        assertEquals(0, confirmed);
+        verifyNoInteractions(notificationService);
+    }
+
+    private static PaymentResponse payment(UUID paymentId, String status) {
+        PaymentResponse payment = new PaymentResponse();
+        payment.setPaymentId(paymentId);
+        payment.setStatus(status);
+        return payment;
+    }
+}
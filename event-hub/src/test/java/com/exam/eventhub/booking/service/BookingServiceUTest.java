@@ -4,8 +4,10 @@ import com.exam.eventhub.booking.model.Booking;
 import com.exam.eventhub.booking.model.BookingStatus;
 import com.exam.eventhub.booking.repository.BookingRepository;
 import com.exam.eventhub.event.model.Event;
+import com.exam.eventhub.event.model.EventStatus;
 import com.exam.eventhub.event.service.EventService;
 import com.exam.eventhub.exception.*;
+import com.exam.eventhub.notification.model.NotificationTemplate;
 import com.exam.eventhub.notification.service.NotificationService;
 import com.exam.eventhub.payment.client.dto.PaymentResponse;
 import com.exam.eventhub.payment.service.PaymentService;
@@ -15,9 +17,11 @@ import com.exam.eventhub.web.dto.BookingCreateRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -46,6 +50,8 @@ public class BookingServiceUTest {
     private NotificationService notificationService;
     @Mock
     private PaymentService paymentService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
 
     @InjectMocks
     private BookingService bookingService;
@@ -123,6 +129,30 @@ public class BookingServiceUTest {
         verify(eventService, never()).saveEvent(any(Event.class));
     }
 
+    @Test
+    void add_whenEventIsCancelled_shouldThrowException() {
+
+        String username = "user";
+        UUID eventId = UUID.randomUUID();
+
+        BookingCreateRequest request = new BookingCreateRequest();
+        request.setEventId(eventId);
+        request.setNumberOfTickets(1);
+
+        Event event = createEvent(UUID.randomUUID(), "Event", new BigDecimal("50.00"), 100, 100);
+        event.setStatus(EventStatus.CANCELLED);
+
+        when(userService.getByUsername(username)).thenReturn(createUser(UUID.randomUUID(), username));
+        when(eventService.getById(eventId)).thenReturn(event);
+
+        IllegalStateException exception =
+                assertThrows(IllegalStateException.class, () -> bookingService.add(request, username));
+        assertEquals("This event has been cancelled", exception.getMessage());
+
+        verify(bookingRepository, never()).save(any(Booking.class));
+        verify(eventService, never()).saveEvent(any(Event.class));
+    }
+
     @Test
     void cancelBooking_whenUserOwnsBookingAndCanBeCancelled_shouldCancelSuccessfully() {
 
@@ -322,7 +352,7 @@ public class BookingServiceUTest {
 
         verify(paymentService).refundPayment(paymentId, booking.getTotalAmount());
         verify(bookingRepository, times(2)).findById(bookingId);
-        verify(notificationService).sendIfEnabled(eq(user), eq("Refund Processed"), anyString());
+        verify(notificationService).enqueueIfEnabled(eq(user), eq(NotificationTemplate.REFUND_PROCESSED), anyString());
     }
 
     @Test
@@ -389,12 +419,12 @@ public class BookingServiceUTest {
                 assertThrows(IllegalStateException.class, () -> bookingService.refundBooking(bookingId));
         assertTrue(exception.getMessage().contains("Refund processing failed"));
 
-        verify(notificationService).sendIfEnabled(eq(user), eq("Refund Failed"), anyString());
+        verify(notificationService).enqueueIfEnabled(eq(user), eq(NotificationTemplate.REFUND_FAILED), anyString());
         verify(bookingRepository, times(1)).findById(bookingId);
     }
 
     @Test
-    void refundBooking_whenNotificationServiceThrowsException_shouldStillProcessRefund() {
+    void refundBooking_whenOutboxWriteFails_shouldPropagateSoTheTransactionRollsBack() {
 
         UUID bookingId = UUID.randomUUID();
         UUID paymentId = UUID.randomUUID();
@@ -410,12 +440,13 @@ public class BookingServiceUTest {
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
 
         doThrow(new RuntimeException("Notification failed"))
-                .when(notificationService).sendIfEnabled(any(), eq("Refund Processed"), anyString());
+                .when(notificationService).enqueueIfEnabled(any(), eq(NotificationTemplate.REFUND_PROCESSED), anyString());
 
-        bookingService.refundBooking(bookingId);
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> bookingService.refundBooking(bookingId));
+        assertEquals("Notification failed", exception.getMessage());
 
         verify(paymentService).refundPayment(paymentId, booking.getTotalAmount());
-        verify(notificationService).sendIfEnabled(eq(user), eq("Refund Processed"), anyString());
+        verify(notificationService).enqueueIfEnabled(eq(user), eq(NotificationTemplate.REFUND_PROCESSED), anyString());
         verify(bookingRepository, times(2)).findById(bookingId);
     }
 
@@ -438,11 +469,11 @@ public class BookingServiceUTest {
         bookingService.refundBooking(bookingId);
 
         verify(paymentService).refundPayment(paymentId, booking.getTotalAmount());
-        verify(notificationService, never()).sendIfEnabled(any(), any(), any());
+        verify(notificationService, never()).enqueueIfEnabled(any(), any(NotificationTemplate.class), any(String[].class));
     }
 
     @Test
-    void refundBooking_whenPaymentFailsAndNotificationThrowsException_shouldStillThrowOriginalException() {
+    void refundBooking_whenPaymentFailsAndOutboxWriteFails_shouldPropagateOutboxFailure() {
 
         UUID bookingId = UUID.randomUUID();
         UUID paymentId = UUID.randomUUID();
@@ -460,13 +491,12 @@ public class BookingServiceUTest {
                 .when(paymentService).refundPayment(paymentId, booking.getTotalAmount());
 
         doThrow(new RuntimeException("Email service down"))
-                .when(notificationService).sendIfEnabled(eq(user), eq("Refund Failed"), anyString());
+                .when(notificationService).enqueueIfEnabled(eq(user), eq(NotificationTemplate.REFUND_FAILED), anyString());
 
-        IllegalStateException exception =
-                assertThrows(IllegalStateException.class, () -> bookingService.refundBooking(bookingId));
-        assertTrue(exception.getMessage().contains("Refund processing failed"));
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> bookingService.refundBooking(bookingId));
+        assertEquals("Email service down", exception.getMessage());
 
-        verify(notificationService).sendIfEnabled(eq(user), eq("Refund Failed"), anyString());
+        verify(notificationService).enqueueIfEnabled(eq(user), eq(NotificationTemplate.REFUND_FAILED), anyString());
         verify(bookingRepository, times(1)).findById(bookingId);
     }
 
@@ -492,7 +522,7 @@ public class BookingServiceUTest {
                 assertThrows(IllegalStateException.class, () -> bookingService.refundBooking(bookingId));
         assertTrue(exception.getMessage().contains("Refund processing failed"));
 
-        verify(notificationService, never()).sendIfEnabled(any(), any(), any());
+        verify(notificationService, never()).enqueueIfEnabled(any(), any(NotificationTemplate.class), any(String[].class));
         verify(bookingRepository, times(1)).findById(bookingId);
     }
 
@@ -577,13 +607,46 @@ public class BookingServiceUTest {
         paymentResponse.setPaymentId(paymentId);
 
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.markPaymentRequested(eq(bookingId), eq(BookingStatus.PENDING), any())).thenReturn(1);
         when(paymentService.processPayment(bookingId, userId, booking.getTotalAmount())).thenReturn(paymentResponse);
 
         bookingService.markAsPaid(bookingId, username);
 
         verify(paymentService).processPayment(bookingId, userId, booking.getTotalAmount());
         verify(bookingRepository, times(2)).findById(bookingId);
-        verify(notificationService).sendIfEnabled(eq(user), eq("Payment Successful"), anyString());
+        verify(notificationService).enqueueIfEnabled(eq(user), eq(NotificationTemplate.PAYMENT_SUCCESSFUL), anyString());
+    }
+
+    @Test
+    void markAsPaid_chargesOutsideOfAnyTransaction() {
+
+        UUID bookingId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        String username = "user";
+
+        User user = createUser(userId, username);
+        Event event = createEvent(UUID.randomUUID(), "Event", new BigDecimal("50.00"), 100, 100);
+
+        Booking booking = createBooking(bookingId, user, event, 2, new BigDecimal("100.00"));
+        booking.setStatus(BookingStatus.PENDING);
+
+        PaymentResponse paymentResponse = new PaymentResponse();
+        paymentResponse.setPaymentId(UUID.randomUUID());
+
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.markPaymentRequested(eq(bookingId), eq(BookingStatus.PENDING), any())).thenReturn(1);
+        when(paymentService.processPayment(bookingId, userId, booking.getTotalAmount())).thenReturn(paymentResponse);
+
+        bookingService.markAsPaid(bookingId, username);
+
+        InOrder inOrder = inOrder(transactionManager, paymentService, bookingRepository);
+        inOrder.verify(bookingRepository).markPaymentRequested(eq(bookingId), eq(BookingStatus.PENDING), any());
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(paymentService).processPayment(bookingId, userId, booking.getTotalAmount());
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(bookingRepository).save(booking);
+        inOrder.verify(transactionManager).commit(any());
+        assertEquals(BookingStatus.CONFIRMED, booking.getStatus());
     }
 
     @Test
@@ -601,6 +664,7 @@ public class BookingServiceUTest {
         booking.setStatus(BookingStatus.PENDING);
 
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.markPaymentRequested(eq(bookingId), eq(BookingStatus.PENDING), any())).thenReturn(1);
         when(paymentService.processPayment(bookingId, userId, booking.getTotalAmount()))
                 .thenThrow(new PaymentProcessingException("Payment declined"));
 
@@ -609,7 +673,7 @@ public class BookingServiceUTest {
                         () -> bookingService.markAsPaid(bookingId, username));
         assertTrue(exception.getMessage().contains("Payment processing failed"));
 
-        verify(notificationService).sendIfEnabled(eq(user), eq("Payment Failed"), anyString());
+        verify(notificationService).enqueueIfEnabled(eq(user), eq(NotificationTemplate.PAYMENT_FAILED), anyString());
         verify(bookingRepository, times(1)).findById(bookingId);
     }
 
@@ -627,6 +691,7 @@ public class BookingServiceUTest {
         booking.setStatus(BookingStatus.PENDING);
 
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.markPaymentRequested(eq(bookingId), eq(BookingStatus.PENDING), any())).thenReturn(1);
         when(paymentService.processPayment(bookingId, userId, booking.getTotalAmount()))
                 .thenThrow(new PaymentServiceUnavailableException("Service down"));
 
@@ -654,16 +719,17 @@ public class BookingServiceUTest {
         paymentResponse.setPaymentId(paymentId);
 
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.markPaymentRequested(eq(bookingId), eq(BookingStatus.PENDING), any())).thenReturn(1);
         when(paymentService.processPayment(bookingId, userId, booking.getTotalAmount())).thenReturn(paymentResponse);
 
         bookingService.markAsPaid(bookingId, username);
 
         verify(paymentService).processPayment(bookingId, userId, booking.getTotalAmount());
-        verify(notificationService, never()).sendIfEnabled(any(), any(), any());
+        verify(notificationService, never()).enqueueIfEnabled(any(), any(NotificationTemplate.class), any(String[].class));
     }
 
     @Test
-    void markAsPaid_whenNotificationServiceThrowsException_shouldStillProcessPayment() {
+    void markAsPaid_whenOutboxWriteFails_shouldPropagateSoTheTransactionRollsBack() {
 
         UUID bookingId = UUID.randomUUID();
         UUID userId = UUID.randomUUID();
@@ -681,20 +747,22 @@ public class BookingServiceUTest {
         paymentResponse.setPaymentId(paymentId);
 
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.markPaymentRequested(eq(bookingId), eq(BookingStatus.PENDING), any())).thenReturn(1);
         when(paymentService.processPayment(bookingId, userId, booking.getTotalAmount())).thenReturn(paymentResponse);
 
         doThrow(new RuntimeException("Notification failed"))
-                .when(notificationService).sendIfEnabled(any(), eq("Payment Successful"), anyString());
+                .when(notificationService).enqueueIfEnabled(any(), eq(NotificationTemplate.PAYMENT_SUCCESSFUL), anyString());
 
-        bookingService.markAsPaid(bookingId, username);
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> bookingService.markAsPaid(bookingId, username));
+        assertEquals("Notification failed", exception.getMessage());
 
         verify(paymentService).processPayment(bookingId, userId, booking.getTotalAmount());
-        verify(notificationService).sendIfEnabled(eq(user), eq("Payment Successful"), anyString());
+        verify(notificationService).enqueueIfEnabled(eq(user), eq(NotificationTemplate.PAYMENT_SUCCESSFUL), anyString());
         verify(bookingRepository, times(2)).findById(bookingId);
     }
 
     @Test
-    void markAsPaid_whenPaymentFailsAndNotificationThrowsException_shouldStillThrowOriginalException() {
+    void markAsPaid_whenPaymentFailsAndOutboxWriteFails_shouldPropagateOutboxFailure() {
 
         UUID bookingId = UUID.randomUUID();
         UUID userId = UUID.randomUUID();
@@ -708,18 +776,17 @@ public class BookingServiceUTest {
         booking.setStatus(BookingStatus.PENDING);
 
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.markPaymentRequested(eq(bookingId), eq(BookingStatus.PENDING), any())).thenReturn(1);
         when(paymentService.processPayment(bookingId, userId, booking.getTotalAmount()))
                 .thenThrow(new PaymentProcessingException("Insufficient funds"));
 
         doThrow(new RuntimeException("SMS gateway error"))
-                .when(notificationService).sendIfEnabled(eq(user), eq("Payment Failed"), anyString());
+                .when(notificationService).enqueueIfEnabled(eq(user), eq(NotificationTemplate.PAYMENT_FAILED), anyString());
 
-        PaymentProcessingException exception =
-                assertThrows(PaymentProcessingException.class,
-                        () -> bookingService.markAsPaid(bookingId, username));
-        assertTrue(exception.getMessage().contains("Payment processing failed"));
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> bookingService.markAsPaid(bookingId, username));
+        assertEquals("SMS gateway error", exception.getMessage());
 
-        verify(notificationService).sendIfEnabled(eq(user), eq("Payment Failed"), anyString());
+        verify(notificationService).enqueueIfEnabled(eq(user), eq(NotificationTemplate.PAYMENT_FAILED), anyString());
         verify(bookingRepository, times(1)).findById(bookingId);
     }
 
@@ -738,6 +805,7 @@ public class BookingServiceUTest {
         booking.setStatus(BookingStatus.PENDING);
 
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.markPaymentRequested(eq(bookingId), eq(BookingStatus.PENDING), any())).thenReturn(1);
         when(paymentService.processPayment(bookingId, userId, booking.getTotalAmount()))
                 .thenThrow(new PaymentProcessingException("Payment declined"));
 
@@ -745,7 +813,7 @@ public class BookingServiceUTest {
                 assertThrows(PaymentProcessingException.class, () -> bookingService.markAsPaid(bookingId, username));
         assertTrue(exception.getMessage().contains("Payment processing failed"));
 
-        verify(notificationService, never()).sendIfEnabled(any(), any(), any());
+        verify(notificationService, never()).enqueueIfEnabled(any(), any(NotificationTemplate.class), any(String[].class));
         verify(bookingRepository, times(1)).findById(bookingId);
     }
 
@@ -834,4 +902,46 @@ public class BookingServiceUTest {
         verify(bookingRepository).save(booking);
         verify(eventService).saveEvent(event);
     }
+
+    @Test
+    void autoCancelBooking_whenChargeIsInFlight_shouldLeaveTheBookingAlone() {
+
+        UUID bookingId = UUID.randomUUID();
+
+        User user = createUser(UUID.randomUUID(), "user");
+        Event event = createEvent(UUID.randomUUID(), "Event", new BigDecimal("50.00"), 100, 97);
+
+        Booking booking = createBooking(bookingId, user, event, 3, new BigDecimal("150.00"));
+        booking.setStatus(BookingStatus.PENDING);
+        booking.setPaymentRequestedAt(LocalDateTime.now().minusMinutes(5));
+
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+
+        assertFalse(bookingService.autoCancelBooking(bookingId, "Booking expired"));
+
+        assertEquals(BookingStatus.PENDING, booking.getStatus());
+        assertEquals(97, event.getAvailableTickets());
+        verify(bookingRepository, never()).save(any());
+        verify(eventService, never()).saveEvent(any());
+    }
+
+    @Test
+    void markAsPaid_whenBookingWasCancelledMeanwhile_shouldNotCharge() {
+
+        UUID bookingId = UUID.randomUUID();
+        String username = "user";
+
+        User user = createUser(UUID.randomUUID(), username);
+        Event event = createEvent(UUID.randomUUID(), "Event", new BigDecimal("50.00"), 100, 100);
+
+        Booking booking = createBooking(bookingId, user, event, 2, new BigDecimal("100.00"));
+        booking.setStatus(BookingStatus.PENDING);
+
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.markPaymentRequested(eq(bookingId), eq(BookingStatus.PENDING), any())).thenReturn(0);
+
+        assertThrows(IllegalStateException.class, () -> bookingService.markAsPaid(bookingId, username));
+
+        verifyNoInteractions(paymentService);
+    }
 }
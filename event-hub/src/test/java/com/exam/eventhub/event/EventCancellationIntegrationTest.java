@@ -0,0 +1,272 @@
+package com.exam.eventhub.event;
+
+import com.exam.eventhub.booking.model.Booking;
+import com.exam.eventhub.booking.model.BookingStatus;
+import com.exam.eventhub.booking.repository.BookingRepository;
+import com.exam.eventhub.event.model.CancellationStatus;
+import com.exam.eventhub.event.model.Event;
+import com.exam.eventhub.event.model.EventCancellation;
+import com.exam.eventhub.event.model.EventStatus;
+import com.exam.eventhub.event.repository.EventCancellationRepository;
+import com.exam.eventhub.event.repository.EventRepository;
+import com.exam.eventhub.event.service.EventCancellationService;
+import com.exam.eventhub.exception.PaymentServiceUnavailableException;
+import com.exam.eventhub.notification.model.NotificationOutbox;
+import com.exam.eventhub.notification.repository.NotificationOutboxRepository;
+import com.exam.eventhub.payment.client.dto.BatchRefundItemResult;
+import com.exam.eventhub.payment.client.dto.BatchRefundResponse;
+import com.exam.eventhub.payment.client.dto.RefundRequest;
+import com.exam.eventhub.payment.service.PaymentService;
+import com.exam.eventhub.user.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "eventhub.event.cancellation.chunk-size=3",
+        "eventhub.event.cancellation.refund-batch-size=2",
+        "eventhub.event.cancellation.refund-workers=2"
+})
+class EventCancellationIntegrationTest {
+
+    @Autowired
+    private EventCancellationService eventCancellationService;
+
+    @Autowired
+    private EventCancellationRepository cancellationRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private NotificationOutboxRepository notificationOutboxRepository;
+
+    @MockitoBean
+    private PaymentService paymentService;
+
+    @BeforeEach
+    void setUp() {
+        cancellationRepository.deleteAll();
+        notificationOutboxRepository.deleteAll();
+    }
+
+    @Test
+    void run_refundsPaidBookingsCancelsUnpaidOnesAndNotifiesAttendees() {
+
+        Event event = event();
+        UUID paidByUser = booking(event, "user", BookingStatus.CONFIRMED, UUID.randomUUID());
+        UUID paidByOrganizer = booking(event, "organizer", BookingStatus.CONFIRMED, UUID.randomUUID());
+        UUID paidByAdmin = booking(event, "admin", BookingStatus.CONFIRMED, UUID.randomUUID());
+        UUID unpaid = booking(event, "user", BookingStatus.PENDING, null);
+        UUID alreadyCancelled = booking(event, "organizer", BookingStatus.CANCELLED, null);
+        when(paymentService.refundPayments(anyList())).thenAnswer(refundAllExcept(Set.of()));
+
+        EventCancellation started = eventCancellationService.start(event.getId(), "organizer", "Venue flooded");
+        EventCancellation finished = eventCancellationService.run(started.getId());
+
+        assertEquals(4, started.getTotalBookings());
+        assertEquals(EventStatus.CANCELLED, eventRepository.findById(event.getId()).orElseThrow().getStatus());
+        assertEquals(CancellationStatus.COMPLETED, finished.getStatus());
+        assertEquals(4, finished.getProcessedBookings());
+        assertEquals(3, finished.getRefundedBookings());
+        assertEquals(1, finished.getCancelledBookings());
+        assertEquals(0, finished.getFailedBookings());
+        assertNull(finished.getLockedUntil());
+        assertNotNull(finished.getFinishedOn());
+
+        assertEquals(BookingStatus.REFUNDED, status(paidByUser));
+        assertEquals(BookingStatus.REFUNDED, status(paidByOrganizer));
+        assertEquals(BookingStatus.REFUNDED, status(paidByAdmin));
+        assertEquals(BookingStatus.CANCELLED, status(unpaid));
+        assertEquals("Venue flooded", bookingRepository.findById(unpaid).orElseThrow().getCancellationReason());
+        assertEquals(BookingStatus.CANCELLED, status(alreadyCancelled));
+
+        ArgumentCaptor<List<RefundRequest>> batches = ArgumentCaptor.captor();
+        verify(paymentService, atLeast(2)).refundPayments(batches.capture());
+        assertTrue(batches.getAllValues().stream().allMatch(batch -> batch.size() <= 2));
+        assertEquals(3, batches.getAllValues().stream().mapToInt(List::size).sum());
+
+        List<NotificationOutbox> outbox = notificationOutboxRepository.findAll();
+        assertEquals(3, outbox.stream().filter(row -> "event.cancelled-refunded".equals(row.getTemplateId())).count());
+        assertEquals(1, outbox.stream().filter(row -> "event.cancelled".equals(row.getTemplateId())).count());
+        assertTrue(outbox.stream().allMatch(row -> row.getTemplateParams().equals(List.of(event.getTitle()))));
+    }
+
+    @Test
+    void start_calledTwiceForTheSameEvent_returnsTheSameCancellation() {
+
+        Event event = event();
+
+        EventCancellation first = eventCancellationService.start(event.getId(), "organizer", null);
+        EventCancellation second = eventCancellationService.start(event.getId(), "admin", "Again");
+
+        assertEquals(first.getId(), second.getId());
+        assertEquals(1, cancellationRepository.count());
+        assertEquals("Event cancelled", second.getReason());
+    }
+
+    @Test
+    void run_whenPaymentServiceIsUnavailable_keepsTheBookingsAndResumesLater() {
+
+        Event event = event();
+        List<UUID> bookings = List.of(
+                booking(event, "user", BookingStatus.CONFIRMED, UUID.randomUUID()),
+                booking(event, "organizer", BookingStatus.CONFIRMED, UUID.randomUUID()),
+                booking(event, "admin", BookingStatus.CONFIRMED, UUID.randomUUID()),
+                booking(event, "user", BookingStatus.CONFIRMED, UUID.randomUUID()));
+        when(paymentService.refundPayments(anyList()))
+                .thenThrow(new PaymentServiceUnavailableException("Payment service is temporarily unavailable."));
+
+        EventCancellation started = eventCancellationService.start(event.getId(), "admin", null);
+        EventCancellation paused = eventCancellationService.run(started.getId());
+
+        assertEquals(CancellationStatus.RUNNING, paused.getStatus());
+        assertEquals(0, paused.getProcessedBookings());
+        assertNotNull(paused.getLastError());
+        assertNull(paused.getLockedUntil());
+        assertTrue(bookings.stream().allMatch(id -> status(id) == BookingStatus.CONFIRMED));
+        assertEquals(0, notificationOutboxRepository.count());
+
+        reset(paymentService);
+        when(paymentService.refundPayments(anyList())).thenAnswer(refundAllExcept(Set.of()));
+
+        assertEquals(1, eventCancellationService.resumePending());
+
+        EventCancellation finished = cancellationRepository.findById(started.getId()).orElseThrow();
+        assertEquals(CancellationStatus.COMPLETED, finished.getStatus());
+        assertEquals(4, finished.getRefundedBookings());
+        assertTrue(bookings.stream().allMatch(id -> status(id) == BookingStatus.REFUNDED));
+    }
+
+    @Test
+    void run_whenSomeRefundsAreRejected_completesWithErrorsAndRetryFinishesThem() {
+
+        Event event = event();
+        UUID rejectedPayment = UUID.randomUUID();
+        UUID rejected = booking(event, "user", BookingStatus.CONFIRMED, rejectedPayment);
+        UUID refunded = booking(event, "organizer", BookingStatus.CONFIRMED, UUID.randomUUID());
+        when(paymentService.refundPayments(anyList())).thenAnswer(refundAllExcept(Set.of(rejectedPayment)));
+
+        EventCancellation started = eventCancellationService.start(event.getId(), "admin", null);
+        EventCancellation first = eventCancellationService.run(started.getId());
+
+        assertEquals(CancellationStatus.COMPLETED_WITH_ERRORS, first.getStatus());
+        assertEquals(1, first.getRefundedBookings());
+        assertEquals(1, first.getFailedBookings());
+        assertEquals(BookingStatus.CONFIRMED, status(rejected));
+        assertEquals(BookingStatus.REFUNDED, status(refunded));
+        assertNull(eventCancellationService.run(started.getId()));
+
+        reset(paymentService);
+        when(paymentService.refundPayments(anyList())).thenAnswer(refundAllExcept(Set.of()));
+        eventCancellationService.retry(started.getId());
+        EventCancellation retried = eventCancellationService.run(started.getId());
+
+        assertEquals(CancellationStatus.COMPLETED, retried.getStatus());
+        assertEquals(2, retried.getProcessedBookings());
+        assertEquals(2, retried.getRefundedBookings());
+        assertEquals(0, retried.getFailedBookings());
+        assertEquals(BookingStatus.REFUNDED, status(rejected));
+        verify(paymentService, times(1)).refundPayments(argThat(batch ->
+                batch.size() == 1 && batch.get(0).getPaymentId().equals(rejectedPayment)));
+    }
+
+    @Test
+    void run_whenAChargeIsInFlight_leavesTheBookingUntilItsPaymentIsSettled() {
+
+        Event event = event();
+        UUID charging = booking(event, "user", BookingStatus.PENDING, null);
+        UUID unpaid = booking(event, "organizer", BookingStatus.PENDING, null);
+        Booking inFlight = bookingRepository.findById(charging).orElseThrow();
+        inFlight.setPaymentRequestedAt(LocalDateTime.now());
+        bookingRepository.save(inFlight);
+        when(paymentService.refundPayments(anyList())).thenAnswer(refundAllExcept(Set.of()));
+
+        EventCancellation started = eventCancellationService.start(event.getId(), "admin", null);
+        EventCancellation first = eventCancellationService.run(started.getId());
+
+        assertEquals(CancellationStatus.RUNNING, first.getStatus());
+        assertEquals(1, first.getProcessedBookings());
+        assertEquals(1, first.getCancelledBookings());
+        assertNull(first.getLastBookingId());
+        assertEquals(BookingStatus.PENDING, status(charging));
+        assertEquals(BookingStatus.CANCELLED, status(unpaid));
+
+        UUID paymentId = UUID.randomUUID();
+        Booking charged = bookingRepository.findById(charging).orElseThrow();
+        charged.setStatus(BookingStatus.CONFIRMED);
+        charged.setPaymentId(paymentId);
+        charged.setPaymentRequestedAt(null);
+        bookingRepository.save(charged);
+        EventCancellation second = eventCancellationService.run(started.getId());
+
+        assertEquals(CancellationStatus.COMPLETED, second.getStatus());
+        assertEquals(2, second.getProcessedBookings());
+        assertEquals(1, second.getRefundedBookings());
+        assertEquals(BookingStatus.REFUNDED, status(charging));
+        verify(paymentService).refundPayments(argThat(batch ->
+                batch.size() == 1 && batch.get(0).getPaymentId().equals(paymentId)));
+    }
+
+    private static Answer<BatchRefundResponse> refundAllExcept(Set<UUID> rejected) {
+        return invocation -> {
+            List<RefundRequest> items = invocation.getArgument(0);
+            List<BatchRefundItemResult> results = items.stream()
+                    .map(item -> new BatchRefundItemResult(item.getPaymentId(),
+                            rejected.contains(item.getPaymentId()) ? "NOT_REFUNDABLE" : "REFUNDED", null))
+                    .toList();
+            int completed = (int) results.stream().filter(BatchRefundItemResult::isRefunded).count();
+            return new BatchRefundResponse(items.size(), completed, Map.of(), results);
+        };
+    }
+
+    private BookingStatus status(UUID bookingId) {
+        return bookingRepository.findById(bookingId).orElseThrow().getStatus();
+    }
+
+    private Event event() {
+        Event template = eventRepository.findAll().get(0);
+        Event event = new Event("Cancelled Show " + UUID.randomUUID(), "To be cancelled",
+                LocalDateTime.now().plusDays(30), LocalDateTime.now().plusDays(30).plusHours(3),
+                BigDecimal.TEN, 100, template.getVenue(), template.getOrganizer(), template.getCategory());
+        event.setStatus(EventStatus.PUBLISHED);
+
+        return eventRepository.save(event);
+    }
+
+    private UUID booking(Event event, String username, BookingStatus status, UUID paymentId) {
+        Booking booking = new Booking();
+        booking.setNumberOfTickets(1);
+        booking.setTotalAmount(BigDecimal.TEN);
+        booking.setCustomerEmail(username + "@example.com");
+        booking.setStatus(status);
+        booking.setPaymentId(paymentId);
+        booking.setEvent(event);
+        booking.setUser(userRepository.findByUsername(username).orElseThrow());
+
+        return bookingRepository.save(booking).getId();
+    }
+}
@@ -7,6 +7,7 @@ import com.exam.eventhub.event.model.EventStatus;
 import com.exam.eventhub.event.repository.EventRepository;
 import com.exam.eventhub.exception.EventAlreadyExistException;
 import com.exam.eventhub.exception.EventNotFoundException;
+import com.exam.eventhub.security.CurrentUser;
 import com.exam.eventhub.user.model.Role;
 import com.exam.eventhub.user.model.User;
 import com.exam.eventhub.user.service.UserService;
@@ -51,6 +52,8 @@ public class EventServiceUTest {
     private VenueService venueService;
     @Mock
     private CategoryService categoryService;
+    @Mock
+    private CurrentUser currentUser;
 
     @InjectMocks
     private EventService eventService;
@@ -331,7 +334,7 @@ public class EventServiceUTest {
         request.setCategoryId(categoryId);
 
         when(eventRepository.findByIdWithDetails(eventId)).thenReturn(Optional.of(existingEvent));
-        when(userService.getByUsername(username)).thenReturn(organizer);
+        when(currentUser.isAdmin()).thenReturn(false);
         when(venueService.getById(venueId)).thenReturn(venue);
         when(categoryService.getById(categoryId)).thenReturn(category);
         when(eventRepository.save(any(Event.class))).thenReturn(existingEvent);
@@ -358,7 +361,6 @@ public class EventServiceUTest {
         String organizerUsername = "organizer";
         int maxCapacity = 100;
 
-        User admin = createUser(UUID.randomUUID(), adminUsername, Role.ADMIN);
         User organizer = createUser(UUID.randomUUID(), organizerUsername, Role.EVENT_ORGANIZER);
         Venue venue = createVenue(venueId, "Venue");
         Category category = createCategory(categoryId, "Category");
@@ -376,7 +378,7 @@ public class EventServiceUTest {
         request.setCategoryId(categoryId);
 
         when(eventRepository.findByIdWithDetails(eventId)).thenReturn(Optional.of(existingEvent));
-        when(userService.getByUsername(adminUsername)).thenReturn(admin);
+        when(currentUser.isAdmin()).thenReturn(true);
         when(venueService.getById(venueId)).thenReturn(venue);
         when(categoryService.getById(categoryId)).thenReturn(category);
 
@@ -392,7 +394,6 @@ public class EventServiceUTest {
         String username = "otherUser";
         String organizerUsername = "organizer";
 
-        User otherUser = createUser(UUID.randomUUID(), username, Role.USER);
         User organizer = createUser(UUID.randomUUID(), organizerUsername, Role.EVENT_ORGANIZER);
 
         Event existingEvent = createEvent(eventId, "Event", organizer, null, null, 100);
@@ -403,7 +404,7 @@ public class EventServiceUTest {
         request.setCategoryId(UUID.randomUUID());
 
         when(eventRepository.findByIdWithDetails(eventId)).thenReturn(Optional.of(existingEvent));
-        when(userService.getByUsername(username)).thenReturn(otherUser);
+        when(currentUser.isAdmin()).thenReturn(false);
 
         SecurityException exception =
                 assertThrows(SecurityException.class, () -> eventService.updateEvent(eventId, request, username));
@@ -440,7 +441,7 @@ public class EventServiceUTest {
         request.setCategoryId(categoryId);
 
         when(eventRepository.findByIdWithDetails(eventId)).thenReturn(Optional.of(existingEvent));
-        when(userService.getByUsername(username)).thenReturn(organizer);
+        when(currentUser.isAdmin()).thenReturn(false);
         when(venueService.getById(venueId)).thenReturn(venue);
         when(categoryService.getById(categoryId)).thenReturn(category);
 
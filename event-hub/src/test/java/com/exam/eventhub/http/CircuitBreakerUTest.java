@@ -0,0 +1,102 @@
+package com.exam.eventhub.http;
+
+import com.exam.eventhub.util.MutableClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CircuitBreakerUTest {
+
+    private MutableClock clock;
+    private List<CircuitBreaker.State> transitions;
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        transitions = new ArrayList<>();
+        breaker = new CircuitBreaker(10, 4, 50, Duration.ofSeconds(30), 2, clock, transitions::add);
+    }
+
+    @Test
+    void givenFewerCallsThanMinimum_whenAllFail_thenStaysClosed() {
+
+        fail(3);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void givenFailureRateAtThreshold_thenOpensAndRejectsUntilTheWaitIsOver() {
+
+        succeed(2);
+        fail(2);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(Duration.ofSeconds(30), breaker.remainingOpen());
+
+        clock.advance(Duration.ofSeconds(20));
+        assertFalse(breaker.tryAcquire());
+        assertEquals(Duration.ofSeconds(10), breaker.remainingOpen());
+    }
+
+    @Test
+    void givenOpenBreaker_whenTrialCallsSucceed_thenCloses() {
+
+        fail(4);
+        clock.advance(Duration.ofSeconds(30));
+
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire(), "only the configured number of trial calls may run");
+        breaker.onSuccess();
+        breaker.onSuccess();
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertEquals(List.of(CircuitBreaker.State.OPEN, CircuitBreaker.State.HALF_OPEN, CircuitBreaker.State.CLOSED), transitions);
+    }
+
+    @Test
+    void givenHalfOpenBreaker_whenTrialCallFails_thenOpensAgain() {
+
+        fail(4);
+        clock.advance(Duration.ofSeconds(30));
+
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void givenOldFailures_whenTheyLeaveTheWindow_thenTheyNoLongerCount() {
+
+        fail(1);
+        succeed(10);
+        fail(3);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    private void fail(int calls) {
+        for (int i = 0; i < calls; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onFailure();
+        }
+    }
+
+    private void succeed(int calls) {
+        for (int i = 0; i < calls; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onSuccess();
+        }
+    }
+}
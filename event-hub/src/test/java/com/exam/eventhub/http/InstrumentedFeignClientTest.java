@@ -0,0 +1,127 @@
+package com.exam.eventhub.http;
+
+import com.sun.net.httpserver.HttpServer;
+import feign.Feign;
+import feign.RequestLine;
+import feign.RetryableException;
+import feign.Retryer;
+import feign.Target;
+import feign.hc5.ApacheHttp5Client;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstrumentedFeignClientTest {
+
+    private HttpServer server;
+    private SimpleMeterRegistry meterRegistry;
+    private MockEnvironment environment;
+
+    interface SlowApi {
+
+        @RequestLine("GET /slow")
+        String lookup();
+
+        @RequestLine("POST /slow")
+        @OperationTimeout("${test.charge-timeout-ms:2000}")
+        String charge();
+
+        @RequestLine("GET /missing")
+        String missing();
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/slow", exchange -> {
+            sleep(400);
+            respond(exchange, 200, "ok");
+        });
+        server.createContext("/missing", exchange -> respond(exchange, 404, "missing"));
+        server.start();
+
+        meterRegistry = new SimpleMeterRegistry();
+        environment = new MockEnvironment()
+                .withProperty("eventhub.http.slow-api.read-timeout-ms", "100");
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void lookup_usesTheClientReadTimeout() {
+
+        SlowApi api = client();
+
+        assertThrows(RetryableException.class, api::lookup);
+        assertEquals(1, timer("lookup", "IO_ERROR").count());
+    }
+
+    @Test
+    void operationTimeout_overridesTheClientReadTimeout() {
+
+        SlowApi api = client();
+
+        assertEquals("ok", api.charge());
+        Timer timer = timer("charge", "SUCCESS");
+        assertEquals(1, timer.count());
+        assertTrue(timer.totalTime(TimeUnit.MILLISECONDS) >= 400);
+    }
+
+    @Test
+    void errorStatus_isRecordedAsClientError() {
+
+        SlowApi api = client();
+
+        assertThrows(Exception.class, api::missing);
+        assertEquals(1, timer("missing", "CLIENT_ERROR").count());
+    }
+
+    private SlowApi client() {
+        InstrumentedFeignClient client = new InstrumentedFeignClient(new ApacheHttp5Client(), environment, meterRegistry);
+
+        return Feign.builder()
+                .client(client)
+                .retryer(Retryer.NEVER_RETRY)
+                .target(new Target.HardCodedTarget<>(SlowApi.class, "slow-api", "http://localhost:" + server.getAddress().getPort()));
+    }
+
+    private Timer timer(String operation, String outcome) {
+        return meterRegistry.get("eventhub.http.client.requests")
+                .tag("client", "slow-api")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .timer();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void respond(com.sun.net.httpserver.HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        } catch (IOException e) {
+            // the client gave up waiting
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.exam.eventhub.http;
+
+import com.exam.eventhub.util.MutableClock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NearCacheUTest {
+
+    private MutableClock clock;
+    private SimpleMeterRegistry meterRegistry;
+    private NearCache<String, String> cache;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new NearCache<>("test", Duration.ofSeconds(10), 2, clock, meterRegistry);
+    }
+
+    @Test
+    void get_servesTheCachedValueUntilItExpires() {
+
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("v1", cache.get("a", () -> "v" + loads.incrementAndGet()));
+        assertEquals("v1", cache.get("a", () -> "v" + loads.incrementAndGet()));
+
+        clock.advance(Duration.ofSeconds(11));
+
+        assertEquals("v2", cache.get("a", () -> "v" + loads.incrementAndGet()));
+        assertEquals(1.0, requests("hit"));
+        assertEquals(2.0, requests("miss"));
+    }
+
+    @Test
+    void get_concurrentMissesShareOneLoad() throws Exception {
+
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            Future<String> first = executor.submit(() -> cache.get("a", () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return "value";
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+            Future<String> second = executor.submit(() -> cache.get("a", () -> "other" + loads.incrementAndGet()));
+            Future<String> third = executor.submit(() -> cache.get("a", () -> "other" + loads.incrementAndGet()));
+            while (requests("coalesced") < 2) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertEquals("value", first.get(5, TimeUnit.SECONDS));
+            assertEquals("value", second.get(5, TimeUnit.SECONDS));
+            assertEquals("value", third.get(5, TimeUnit.SECONDS));
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void get_whenTheLoadFails_doesNotCacheAndRethrows() {
+
+        assertThrows(IllegalStateException.class, () -> cache.get("a", () -> {
+            throw new IllegalStateException("down");
+        }));
+
+        assertEquals("value", cache.get("a", () -> "value"));
+    }
+
+    @Test
+    void get_nullResultIsNotCached() {
+
+        assertNull(cache.get("a", () -> null));
+        assertEquals("value", cache.get("a", () -> "value"));
+    }
+
+    @Test
+    void invalidate_duringALoad_keepsTheStaleResultOut() {
+
+        String loaded = cache.get("a", () -> {
+            cache.invalidate("a");
+            return "stale";
+        });
+
+        assertEquals("stale", loaded);
+        assertEquals("fresh", cache.get("a", () -> "fresh"));
+    }
+
+    @Test
+    void invalidateIf_dropsMatchingEntries() {
+
+        cache.get("a", () -> "keep");
+        cache.get("b", () -> "drop");
+
+        cache.invalidateIf(value -> value.equals("drop"));
+
+        assertEquals("keep", cache.get("a", () -> "reloaded"));
+        assertEquals("reloaded", cache.get("b", () -> "reloaded"));
+    }
+
+    @Test
+    void put_beyondMaxEntries_evictsToStayBounded() {
+
+        cache.get("a", () -> "1");
+        cache.get("b", () -> "2");
+        cache.get("c", () -> "3");
+
+        assertEquals(2.0, meterRegistry.get("eventhub.near-cache.size").tag("cache", "test").gauge().value());
+    }
+
+    private double requests(String result) {
+        return meterRegistry.counter("eventhub.near-cache.requests", "cache", "test", "result", result).count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.exam.eventhub.http;
+
+import com.exam.eventhub.exception.DependencyUnavailableException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import feign.Feign;
+import feign.FeignException;
+import feign.RequestLine;
+import feign.Retryer;
+import feign.Target;
+import feign.hc5.ApacheHttp5Client;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResilientFeignClientTest {
+
+    private HttpServer server;
+    private SimpleMeterRegistry meterRegistry;
+    private MockEnvironment environment;
+    private AtomicInteger hits;
+    private CountDownLatch release;
+    private ResilientFeignClient resilientClient;
+
+    interface FlakyApi {
+
+        @RequestLine("GET /unavailable")
+        String lookup();
+
+        @RequestLine("POST /unavailable")
+        String charge();
+
+        @RequestLine("GET /missing")
+        String missing();
+
+        @RequestLine("GET /blocked")
+        String blocked();
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        hits = new AtomicInteger();
+        release = new CountDownLatch(1);
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/unavailable", exchange -> {
+            hits.incrementAndGet();
+            respond(exchange, 503, "down");
+        });
+        server.createContext("/missing", exchange -> {
+            hits.incrementAndGet();
+            respond(exchange, 404, "missing");
+        });
+        server.createContext("/blocked", exchange -> {
+            await(release);
+            respond(exchange, 200, "ok");
+        });
+        server.start();
+
+        meterRegistry = new SimpleMeterRegistry();
+        environment = new MockEnvironment()
+                .withProperty("eventhub.resilience.defaults.retry.base-delay-ms", "1")
+                .withProperty("eventhub.resilience.defaults.minimum-calls", "4")
+                .withProperty("eventhub.resilience.defaults.sliding-window", "4");
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    void idempotentCall_isRetriedOnServiceUnavailable() {
+
+        FlakyApi api = client();
+
+        assertThrows(FeignException.ServiceUnavailable.class, api::lookup);
+        assertEquals(3, hits.get());
+        assertEquals(2, retries("attempted"));
+    }
+
+    @Test
+    void nonIdempotentCall_isNeverRetried() {
+
+        FlakyApi api = client();
+
+        assertThrows(FeignException.ServiceUnavailable.class, api::charge);
+        assertEquals(1, hits.get());
+    }
+
+    @Test
+    void clientError_isNeitherRetriedNorCountedAsFailure() {
+
+        FlakyApi api = client();
+
+        for (int i = 0; i < 5; i++) {
+            assertThrows(FeignException.NotFound.class, api::missing);
+        }
+
+        assertEquals(5, hits.get());
+        assertEquals(CircuitBreaker.State.CLOSED, guard().state());
+    }
+
+    @Test
+    void openCircuit_failsFastWithoutCallingTheService() {
+
+        FlakyApi api = client();
+        for (int i = 0; i < 4; i++) {
+            assertThrows(FeignException.ServiceUnavailable.class, api::charge);
+        }
+
+        DependencyUnavailableException e = assertThrows(DependencyUnavailableException.class, api::lookup);
+
+        assertEquals(4, hits.get());
+        assertEquals("flaky-api", e.getDependency());
+        assertTrue(e.getRetryAfter().toSeconds() > 0);
+        assertEquals(1.0, meterRegistry.get("eventhub.resilience.breaker.state").tag("dependency", "flaky-api").gauge().value());
+        assertEquals(1.0, meterRegistry.get("eventhub.resilience.rejected").tag("reason", "circuit-open").counter().count());
+    }
+
+    @Test
+    void exhaustedRetryBudget_stopsRetrying() {
+
+        environment.withProperty("eventhub.resilience.defaults.retry.budget-capacity", "1")
+                .withProperty("eventhub.resilience.defaults.retry.budget-ratio", "0")
+                .withProperty("eventhub.resilience.defaults.retry.budget-min-per-second", "0")
+                .withProperty("eventhub.resilience.defaults.minimum-calls", "100")
+                .withProperty("eventhub.resilience.defaults.sliding-window", "100");
+        FlakyApi api = client();
+
+        assertThrows(FeignException.ServiceUnavailable.class, api::lookup);
+        assertThrows(FeignException.ServiceUnavailable.class, api::lookup);
+
+        assertEquals(3, hits.get());
+        assertEquals(1, retries("attempted"));
+        assertEquals(2, retries("budget-exhausted"));
+    }
+
+    @Test
+    void fullBulkhead_rejectsTheCallInsteadOfQueueing() throws Exception {
+
+        environment.withProperty("eventhub.resilience.defaults.max-concurrent", "1")
+                .withProperty("eventhub.resilience.defaults.max-wait-ms", "0");
+        FlakyApi api = client();
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(api::blocked);
+        waitUntil(() -> guardBulkheadAvailable() == 0);
+
+        DependencyUnavailableException e = assertThrows(DependencyUnavailableException.class, api::blocked);
+
+        release.countDown();
+        assertEquals("ok", first.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getMessage().contains("too many concurrent calls"));
+        assertEquals(1.0, meterRegistry.get("eventhub.resilience.rejected").tag("reason", "bulkhead-full").counter().count());
+    }
+
+    private FlakyApi client() {
+        resilientClient = new ResilientFeignClient(
+                new ApacheHttp5Client(HttpClients.custom().disableAutomaticRetries().build()), environment, meterRegistry, List.of("flaky-api"));
+
+        return Feign.builder()
+                .client(resilientClient)
+                .retryer(Retryer.NEVER_RETRY)
+                .target(new Target.HardCodedTarget<>(FlakyApi.class, "flaky-api", "http://localhost:" + server.getAddress().getPort()));
+    }
+
+    private DependencyGuard guard() {
+        return resilientClient.guard("flaky-api");
+    }
+
+    private double guardBulkheadAvailable() {
+        return meterRegistry.get("eventhub.resilience.bulkhead.available").tag("dependency", "flaky-api").gauge().value();
+    }
+
+    private double retries(String result) {
+        return meterRegistry.get("eventhub.resilience.retries").tag("dependency", "flaky-api").tag("result", result).counter().count();
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
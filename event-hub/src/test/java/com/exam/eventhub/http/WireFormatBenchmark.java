@@ -0,0 +1,107 @@
+package com.exam.eventhub.http;
+
+import com.exam.eventhub.notification.client.dto.NotificationResponse;
+import com.exam.eventhub.payment.client.dto.PaymentResponse;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Payload size and CPU cost of the wire formats for the list responses the admin pages pull from the services:
+ * every format is written and read back with the same Jackson settings the application uses, with and without
+ * gzip. Run with {@code gradle benchmark}.
+ */
+@Tag("benchmark")
+class WireFormatBenchmark {
+
+    private static final int ITEMS = 1_000;
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int MEASURED_ROUNDS = 500;
+
+    private static final ObjectMapper JSON = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private static final ObjectMapper CBOR = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .factory(new CBORFactory())
+            .build();
+
+    @Test
+    void listPayloads() throws IOException {
+
+        List<PaymentResponse> payments = IntStream.range(0, ITEMS)
+                .mapToObj(i -> new PaymentResponse(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(),
+                        new BigDecimal("49.90"), "SUCCESS", "Payment processed successfully", LocalDateTime.now()))
+                .toList();
+        List<NotificationResponse> notifications = IntStream.range(0, ITEMS)
+                .mapToObj(i -> new NotificationResponse(UUID.randomUUID(), UUID.randomUUID(), "user" + i + "@example.com",
+                        "Booking Confirmed", "Your booking for \"Rock Night\" is confirmed. Enjoy the event!",
+                        "SENT", i % 3 == 0, 1, LocalDateTime.now()))
+                .toList();
+
+        System.out.printf("%-30s %10s %12s %12s%n", "payload / format", "bytes", "write us", "read us");
+        report("payments", payments, new TypeReference<List<PaymentResponse>>() { });
+        report("notifications", notifications, new TypeReference<List<NotificationResponse>>() { });
+    }
+
+    private static <T> void report(String payload, List<T> items, TypeReference<List<T>> type) throws IOException {
+        measure(payload + " json", JSON, false, items, type);
+        measure(payload + " cbor", CBOR, false, items, type);
+        measure(payload + " json+gzip", JSON, true, items, type);
+        measure(payload + " cbor+gzip", CBOR, true, items, type);
+    }
+
+    private static <T> void measure(String name, ObjectMapper mapper, boolean gzip, List<T> items,
+                                    TypeReference<List<T>> type) throws IOException {
+        byte[] encoded = write(mapper, gzip, items);
+
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            read(mapper, gzip, write(mapper, gzip, items), type);
+        }
+
+        long writeNanos = 0;
+        long readNanos = 0;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            long start = System.nanoTime();
+            byte[] bytes = write(mapper, gzip, items);
+            long written = System.nanoTime();
+            read(mapper, gzip, bytes, type);
+            readNanos += System.nanoTime() - written;
+            writeNanos += written - start;
+        }
+
+        System.out.printf("%-30s %10d %12.1f %12.1f%n", name, encoded.length,
+                writeNanos / 1_000.0 / MEASURED_ROUNDS, readNanos / 1_000.0 / MEASURED_ROUNDS);
+    }
+
+    private static byte[] write(ObjectMapper mapper, boolean gzip, Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = gzip ? new GZIPOutputStream(bytes) : bytes) {
+            mapper.writeValue(out, value);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static <T> List<T> read(ObjectMapper mapper, boolean gzip, byte[] bytes, TypeReference<List<T>> type) throws IOException {
+        try (InputStream in = gzip ? new GZIPInputStream(new ByteArrayInputStream(bytes)) : new ByteArrayInputStream(bytes)) {
+            return mapper.readValue(in, type);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.exam.eventhub.http;
+
+import com.exam.eventhub.config.CborMessageConverter;
+import com.exam.eventhub.config.HttpClientConfig;
+import com.exam.eventhub.payment.client.dto.PaymentRequest;
+import com.exam.eventhub.payment.client.dto.PaymentResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import feign.Feign;
+import feign.Retryer;
+import feign.hc5.ApacheHttp5Client;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.ResponseEntityDecoder;
+import org.springframework.cloud.openfeign.support.SpringDecoder;
+import org.springframework.cloud.openfeign.support.SpringEncoder;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+import static com.exam.eventhub.util.PaymentHelper.createPaymentResponse;
+import static org.junit.jupiter.api.Assertions.*;
+
+class WireFormatEncoderTest {
+
+    private static final CborMessageConverter CBOR = new CborMessageConverter(Jackson2ObjectMapperBuilder.json());
+
+    private HttpServer server;
+    private final Map<String, String> received = new ConcurrentHashMap<>();
+
+    interface PaymentsApi {
+
+        @PostMapping("/payments")
+        ResponseEntity<List<PaymentResponse>> pay(@RequestBody PaymentRequest request);
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/payments", this::payments);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void requestIsSentAsCborAndGzippedCborResponseIsDecoded() {
+
+        PaymentRequest request = new PaymentRequest(UUID.randomUUID(), UUID.randomUUID(), new BigDecimal("25.50"));
+
+        ResponseEntity<List<PaymentResponse>> response = client("cbor").pay(request);
+
+        assertEquals(MediaType.APPLICATION_CBOR_VALUE, received.get("content-type"));
+        assertTrue(received.get("accept").startsWith(MediaType.APPLICATION_CBOR_VALUE));
+        assertTrue(received.get("accept-encoding").contains("gzip"));
+        assertEquals(request.getBookingId().toString(), received.get("bookingId"));
+        assertEquals(200, response.getBody().size());
+        assertEquals("Payment 199", response.getBody().get(199).getMessage());
+    }
+
+    @Test
+    void jsonWireFormat_keepsTheBodiesInJson() {
+
+        client("json").pay(new PaymentRequest(UUID.randomUUID(), UUID.randomUUID(), BigDecimal.ONE));
+
+        assertEquals(MediaType.APPLICATION_JSON_VALUE, received.get("content-type"));
+        assertEquals(MediaType.APPLICATION_JSON_VALUE, received.get("accept"));
+    }
+
+    private PaymentsApi client(String wireFormat) {
+        HttpMessageConverters converters = new HttpMessageConverters(CBOR);
+        HttpClientConfig config = new HttpClientConfig();
+
+        return Feign.builder()
+                .client(new ApacheHttp5Client(HttpClients.createDefault()))
+                .contract(new SpringMvcContract())
+                .encoder(new WireFormatEncoder(new SpringEncoder(() -> converters),
+                        "json".equals(wireFormat) ? MediaType.APPLICATION_JSON : MediaType.APPLICATION_CBOR))
+                .decoder(new ResponseEntityDecoder(new SpringDecoder(() -> converters)))
+                .requestInterceptor(config.wireFormatInterceptor(wireFormat))
+                .retryer(Retryer.NEVER_RETRY)
+                .target(PaymentsApi.class, "http://localhost:" + server.getAddress().getPort());
+    }
+
+    private void payments(HttpExchange exchange) throws IOException {
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        received.put("content-type", contentType);
+        received.put("accept", exchange.getRequestHeaders().getFirst("Accept"));
+        received.put("accept-encoding", String.valueOf(exchange.getRequestHeaders().getFirst("Accept-Encoding")));
+
+        boolean cbor = MediaType.APPLICATION_CBOR_VALUE.equals(contentType);
+        ObjectMapper mapper = cbor ? CBOR.getObjectMapper() : new ObjectMapper();
+        PaymentRequest request = mapper.readValue(exchange.getRequestBody(), PaymentRequest.class);
+        received.put("bookingId", request.getBookingId().toString());
+
+        List<PaymentResponse> payments = IntStream.range(0, 200)
+                .mapToObj(i -> createPaymentResponse(UUID.randomUUID(), "SUCCESS", "Payment " + i))
+                .toList();
+
+        exchange.getResponseHeaders().set("Content-Type", cbor ? MediaType.APPLICATION_CBOR_VALUE : MediaType.APPLICATION_JSON_VALUE);
+        exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = new GZIPOutputStream(exchange.getResponseBody())) {
+            mapper.writeValue(out, payments);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.exam.eventhub.notification;
 
+import com.exam.eventhub.notification.client.dto.NotificationPageResponse;
 import com.exam.eventhub.notification.client.dto.NotificationResponse;
 import com.exam.eventhub.notification.service.NotificationService;
 import com.exam.eventhub.security.AuthenticationMetadata;
@@ -58,7 +59,7 @@ class AdminNotificationControllerIntegrationTest {
         NotificationResponse notification2 = createMockNotification("Warning", "Security warning", "SENT");
         List<NotificationResponse> initialNotifications = Arrays.asList(mockNotificationWithId, notification, notification2);
 
-        when(notificationService.getAll()).thenReturn(initialNotifications);
+        when(notificationService.getAllPage(null, 50)).thenReturn(new NotificationPageResponse(initialNotifications, null));
 
         MockHttpServletRequestBuilder request1 = get("/admin/notifications")
                 .with(user(adminPrincipal));
@@ -69,7 +70,7 @@ class AdminNotificationControllerIntegrationTest {
                 .andExpect(view().name("admin/manage-notifications"))
                 .andExpect(model().attribute("notifications", initialNotifications));
 
-        doNothing().when(notificationService).delete(notificationToDelete);
+        doNothing().when(notificationService).delete(eq(notificationToDelete), any());
 
         MockHttpServletRequestBuilder request2 = post("/admin/notifications/" + notificationToDelete)
                 .with(user(adminPrincipal))
@@ -87,7 +88,7 @@ class AdminNotificationControllerIntegrationTest {
         NotificationResponse notification4 = createMockNotification("Warning", "Security warning", "SENT");
         List<NotificationResponse> updatedNotifications = Arrays.asList(notification3, notification4);
 
-        when(notificationService.getAll()).thenReturn(updatedNotifications);
+        when(notificationService.getAllPage(null, 50)).thenReturn(new NotificationPageResponse(updatedNotifications, null));
 
         MockHttpServletRequestBuilder request3 = get("/admin/notifications")
                 .with(user(adminPrincipal));
@@ -98,8 +99,8 @@ class AdminNotificationControllerIntegrationTest {
                 .andExpect(view().name("admin/manage-notifications"))
                 .andExpect(model().attribute("notifications", updatedNotifications));
 
-        verify(notificationService, times(2)).getAll();
-        verify(notificationService, times(1)).delete(notificationToDelete);
+        verify(notificationService, times(2)).getAllPage(null, 50);
+        verify(notificationService, times(1)).delete(eq(notificationToDelete), any());
     }
 
     private NotificationResponse createMockNotification(String subject, String message, String status) {
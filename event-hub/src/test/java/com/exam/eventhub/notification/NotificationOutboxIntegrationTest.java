@@ -0,0 +1,204 @@
+package com.exam.eventhub.notification;
+
+import com.exam.eventhub.exception.DependencyUnavailableException;
+import com.exam.eventhub.notification.client.NotificationClient;
+import com.exam.eventhub.notification.client.dto.NotificationBatchRequest;
+import com.exam.eventhub.notification.client.dto.NotificationBatchResponse;
+import com.exam.eventhub.notification.client.dto.NotificationRequest;
+import com.exam.eventhub.notification.client.dto.NotificationResponse;
+import com.exam.eventhub.notification.model.NotificationOutbox;
+import com.exam.eventhub.notification.model.OutboxStatus;
+import com.exam.eventhub.notification.repository.NotificationOutboxRepository;
+import com.exam.eventhub.notification.service.NotificationOutboxService;
+import com.exam.eventhub.scheduler.NotificationOutboxScheduler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = "eventhub.notification.outbox.poll-interval-ms=3600000")
+class NotificationOutboxIntegrationTest {
+
+    @Autowired
+    private NotificationOutboxService notificationOutboxService;
+
+    @Autowired
+    private NotificationOutboxScheduler notificationOutboxScheduler;
+
+    @Autowired
+    private NotificationOutboxRepository notificationOutboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private NotificationClient notificationClient;
+
+    @BeforeEach
+    void setUp() {
+        notificationOutboxRepository.deleteAll();
+    }
+
+    @Test
+    void enqueuedNotification_isDeliveredAndMarkedSent() {
+
+        enqueueInTransaction("Payment Successful");
+        when(notificationClient.sendNotifications(any(NotificationBatchRequest.class)))
+                .thenReturn(ResponseEntity.status(HttpStatus.CREATED).body(new NotificationBatchResponse()));
+
+        notificationOutboxScheduler.dispatchPending();
+
+        NotificationOutbox outbox = notificationOutboxRepository.findAll().get(0);
+        assertEquals(OutboxStatus.SENT, outbox.getStatus());
+        assertNotNull(outbox.getSentOn());
+        verify(notificationClient, times(1)).sendNotifications(argThat(batch ->
+                batch.getNotifications().get(0).getSubject().equals("Payment Successful")));
+        verify(notificationClient, never()).sendNotification(any(NotificationRequest.class));
+    }
+
+    @Test
+    void templatedNotification_keepsTemplateAndParamsThroughTheOutbox() {
+
+        NotificationRequest templated = request(null);
+        templated.setMessage(null);
+        templated.setTemplateId("payment.successful");
+        templated.setTemplateParams(List.of("Rock Night"));
+        new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> notificationOutboxService.enqueue(templated));
+        when(notificationClient.sendNotifications(any(NotificationBatchRequest.class)))
+                .thenReturn(ResponseEntity.status(HttpStatus.CREATED).body(new NotificationBatchResponse()));
+
+        notificationOutboxScheduler.dispatchPending();
+
+        verify(notificationClient, times(1)).sendNotifications(argThat(batch -> {
+            NotificationRequest sent = batch.getNotifications().get(0);
+            return sent.getTemplateId().equals("payment.successful")
+                    && sent.getTemplateParams().equals(List.of("Rock Night"))
+                    && sent.getSubject() == null;
+        }));
+    }
+
+    @Test
+    void manyQueuedNotifications_areDeliveredWithOneCall() {
+
+        for (int i = 0; i < 120; i++) {
+            enqueueInTransaction("Booking Expired " + i);
+        }
+        when(notificationClient.sendNotifications(any(NotificationBatchRequest.class)))
+                .thenReturn(ResponseEntity.status(HttpStatus.CREATED).body(new NotificationBatchResponse()));
+
+        notificationOutboxScheduler.dispatchPending();
+
+        assertEquals(120, notificationOutboxRepository.countByStatus(OutboxStatus.SENT));
+        verify(notificationClient, times(1)).sendNotifications(argThat(batch -> batch.getNotifications().size() == 120));
+        verify(notificationClient, never()).sendNotification(any(NotificationRequest.class));
+    }
+
+    @Test
+    void rejectedBatch_isSentOneByOneSoOnlyTheInvalidEntryIsRetried() {
+
+        enqueueInTransaction("Payment Successful");
+        enqueueInTransaction("");
+        when(notificationClient.sendNotifications(any(NotificationBatchRequest.class)))
+                .thenReturn(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+        doReturn(ResponseEntity.ok(new NotificationResponse()))
+                .when(notificationClient).sendNotification(argThat(request -> !request.getSubject().isEmpty()));
+        doReturn(new ResponseEntity<>(HttpStatus.BAD_REQUEST))
+                .when(notificationClient).sendNotification(argThat(request -> request.getSubject().isEmpty()));
+
+        notificationOutboxScheduler.dispatchPending();
+
+        List<NotificationOutbox> outboxes = notificationOutboxRepository.findAll();
+        NotificationOutbox valid = outboxes.stream().filter(o -> !o.getSubject().isEmpty()).findFirst().orElseThrow();
+        NotificationOutbox invalid = outboxes.stream().filter(o -> o.getSubject().isEmpty()).findFirst().orElseThrow();
+        assertEquals(OutboxStatus.SENT, valid.getStatus());
+        assertEquals(OutboxStatus.PENDING, invalid.getStatus());
+        assertEquals(1, invalid.getAttempts());
+    }
+
+    @Test
+    void failedDelivery_isKeptForRetryWithBackOff() {
+
+        enqueueInTransaction("Refund Processed");
+        when(notificationClient.sendNotifications(any(NotificationBatchRequest.class)))
+                .thenReturn(new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE));
+
+        notificationOutboxScheduler.dispatchPending();
+        notificationOutboxScheduler.dispatchPending();
+
+        NotificationOutbox outbox = notificationOutboxRepository.findAll().get(0);
+        assertEquals(OutboxStatus.PENDING, outbox.getStatus());
+        assertEquals(1, outbox.getAttempts());
+        assertTrue(outbox.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        assertNotNull(outbox.getLastError());
+        verify(notificationClient, times(1)).sendNotifications(any(NotificationBatchRequest.class));
+        verify(notificationClient, never()).sendNotification(any(NotificationRequest.class));
+    }
+
+    @Test
+    void openCircuit_keepsNotificationsQueuedWithoutSpendingAttempts() {
+
+        enqueueInTransaction("Refund Processed");
+        when(notificationClient.sendNotifications(any(NotificationBatchRequest.class)))
+                .thenThrow(new DependencyUnavailableException("notification-service", "circuit breaker is open", Duration.ofSeconds(30)));
+
+        notificationOutboxScheduler.dispatchPending();
+
+        NotificationOutbox outbox = notificationOutboxRepository.findAll().get(0);
+        assertEquals(OutboxStatus.PENDING, outbox.getStatus());
+        assertEquals(0, outbox.getAttempts());
+        assertNull(outbox.getLastError());
+        assertTrue(outbox.getNextAttemptAt().isAfter(LocalDateTime.now().plusSeconds(20)));
+    }
+
+    @Test
+    void rolledBackTransaction_leavesNothingInTheOutbox() {
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        assertThrows(IllegalStateException.class, () -> transaction.executeWithoutResult(status -> {
+            notificationOutboxService.enqueue(request("Booking Cancelled"));
+            throw new IllegalStateException("booking change failed");
+        }));
+
+        assertEquals(0, notificationOutboxRepository.count());
+    }
+
+    @Test
+    void enqueueOutsideTransaction_isRejected() {
+
+        assertThrows(IllegalTransactionStateException.class,
+                () -> notificationOutboxService.enqueue(request("Booking Cancelled")));
+    }
+
+    private void enqueueInTransaction(String subject) {
+        new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> notificationOutboxService.enqueue(request(subject)));
+    }
+
+    private static NotificationRequest request(String subject) {
+        NotificationRequest request = new NotificationRequest();
+        request.setRecipientId(UUID.randomUUID());
+        request.setRecipientEmail("user@example.com");
+        request.setSubject(subject);
+        request.setMessage("Message");
+        return request;
+    }
+}
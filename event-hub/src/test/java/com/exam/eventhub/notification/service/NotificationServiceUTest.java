@@ -1,22 +1,39 @@
 package com.exam.eventhub.notification.service;
 
+import com.exam.eventhub.exception.NotificationBatchRejectedException;
 import com.exam.eventhub.exception.NotificationServiceFeignCallException;
 import com.exam.eventhub.exception.UnauthorizedException;
 import com.exam.eventhub.notification.client.NotificationClient;
+import com.exam.eventhub.notification.client.dto.NotificationBatchRequest;
+import com.exam.eventhub.notification.client.dto.NotificationBatchResponse;
+import com.exam.eventhub.notification.client.dto.MarkReadRequest;
+import com.exam.eventhub.notification.client.dto.MarkReadResponse;
+import com.exam.eventhub.notification.client.dto.NotificationClearResponse;
+import com.exam.eventhub.notification.client.dto.NotificationPageResponse;
+import com.exam.eventhub.notification.client.dto.NotificationPreferenceRequest;
+import com.exam.eventhub.notification.client.dto.NotificationPreferenceResponse;
+import com.exam.eventhub.notification.client.dto.UnreadCountResponse;
 import com.exam.eventhub.notification.client.dto.NotificationRequest;
 import com.exam.eventhub.notification.client.dto.NotificationResponse;
+import com.exam.eventhub.notification.model.NotificationTemplate;
 import com.exam.eventhub.user.model.User;
+import feign.FeignException;
+import feign.Request;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static com.exam.eventhub.common.Constants.DELETE_UNSUCCESSFUL;
@@ -25,6 +42,8 @@ import static com.exam.eventhub.util.NotificationHelper.createNotificationRespon
 import static com.exam.eventhub.util.NotificationHelper.createUser;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,6 +51,12 @@ public class NotificationServiceUTest {
 
     @Mock
     private NotificationClient notificationClient;
+    @Mock
+    private NotificationOutboxService notificationOutboxService;
+    @Mock
+    private UnreadCountCache unreadCountCache;
+    @Spy
+    private NotificationPageCache notificationPageCache = new NotificationPageCache(10, 100, new SimpleMeterRegistry());
 
     @InjectMocks
     private NotificationService notificationService;
@@ -110,6 +135,255 @@ public class NotificationServiceUTest {
         verify(notificationClient, times(1)).sendNotification(any(NotificationRequest.class));
     }
 
+    @Test
+    void enqueueIfEnabled_whenNotificationsEnabled_shouldWriteToOutboxInsteadOfCallingClient() {
+
+        UUID userId = UUID.randomUUID();
+        User user = createUser(userId, "john", "john@example.com");
+        user.setNotificationsEnabled(true);
+
+        notificationService.enqueueIfEnabled(user, "Payment Successful", "Enjoy the event");
+
+        verify(notificationOutboxService).enqueue(argThat(request ->
+                request.getRecipientId().equals(userId) &&
+                        request.getRecipientEmail().equals("john@example.com") &&
+                        request.getSubject().equals("Payment Successful") &&
+                        request.getMessage().equals("Enjoy the event")
+        ));
+        verify(notificationClient, never()).sendNotification(any());
+    }
+
+    @Test
+    void enqueueIfEnabled_withTemplate_shouldSendOnlyTemplateIdAndParams() {
+
+        User user = createUser(UUID.randomUUID(), "john", "john@example.com");
+        user.setNotificationsEnabled(true);
+
+        notificationService.enqueueIfEnabled(user, NotificationTemplate.PAYMENT_SUCCESSFUL, "Rock Night");
+
+        verify(notificationOutboxService).enqueue(argThat(request ->
+                request.getTemplateId().equals("payment.successful") &&
+                        request.getTemplateParams().equals(List.of("Rock Night")) &&
+                        request.getSubject() == null &&
+                        request.getMessage() == null
+        ));
+    }
+
+    @Test
+    void enqueueAllIfEnabled_shouldWriteOneOutboxBatchForUsersWithNotificationsEnabled() {
+
+        User john = createUser(UUID.randomUUID(), "john", "john@example.com");
+        User jane = createUser(UUID.randomUUID(), "jane", "jane@example.com");
+        User muted = createUser(UUID.randomUUID(), "muted", "muted@example.com");
+        john.setNotificationsEnabled(true);
+        jane.setNotificationsEnabled(true);
+        muted.setNotificationsEnabled(false);
+
+        int enqueued = notificationService.enqueueAllIfEnabled(List.of(john, jane, muted),
+                NotificationTemplate.EVENT_CANCELLED_REFUNDED, "Rock Night");
+
+        assertEquals(2, enqueued);
+        verify(notificationOutboxService).enqueueAll(argThat(requests -> requests.size() == 2 &&
+                requests.stream().allMatch(request -> request.getTemplateId().equals("event.cancelled-refunded") &&
+                        request.getTemplateParams().equals(List.of("Rock Night")))));
+        verify(notificationOutboxService, never()).enqueue(any());
+    }
+
+    @Test
+    void enqueueIfEnabled_whenNotificationsDisabled_shouldSkipWithoutException() {
+
+        User user = createUser(UUID.randomUUID(), "user", "user@example.com");
+        user.setNotificationsEnabled(false);
+
+        notificationService.enqueueIfEnabled(user, "Subject", "Message");
+
+        verify(notificationOutboxService, never()).enqueue(any());
+    }
+
+    @Test
+    void deliver_whenClientReturnsNon2xxStatus_shouldThrowException() {
+
+        when(notificationClient.sendNotification(any(NotificationRequest.class)))
+                .thenReturn(new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE));
+
+        assertThrows(NotificationServiceFeignCallException.class, () -> notificationService.deliver(new NotificationRequest()));
+    }
+
+    @Test
+    void deliver_whenClientThrows_shouldWrapException() {
+
+        when(notificationClient.sendNotification(any(NotificationRequest.class)))
+                .thenThrow(new RuntimeException("Connection refused"));
+
+        NotificationServiceFeignCallException exception =
+                assertThrows(NotificationServiceFeignCallException.class, () -> notificationService.deliver(new NotificationRequest()));
+        assertEquals("Connection refused", exception.getMessage());
+    }
+
+    @Test
+    void getPreference_whenServiceIsDown_shouldFallBackToImmediateDelivery() {
+
+        UUID userId = UUID.randomUUID();
+        when(notificationClient.getPreference(userId)).thenThrow(new RuntimeException("Connection refused"));
+
+        NotificationPreferenceResponse preference = notificationService.getPreference(userId);
+
+        assertEquals(NotificationPreferenceResponse.IMMEDIATE, preference.getMode());
+        assertFalse(preference.isDigest());
+    }
+
+    @Test
+    void updatePreference_shouldSendModeAndWindow() {
+
+        UUID userId = UUID.randomUUID();
+        NotificationPreferenceResponse stored = new NotificationPreferenceResponse(userId, NotificationPreferenceResponse.DIGEST, 60);
+        when(notificationClient.updatePreference(userId, new NotificationPreferenceRequest("DIGEST", 60)))
+                .thenReturn(ResponseEntity.ok(stored));
+
+        NotificationPreferenceResponse result = notificationService.updatePreference(userId, "DIGEST", 60);
+
+        assertTrue(result.isDigest());
+        assertEquals(60, result.getDigestWindowMinutes());
+    }
+
+    @Test
+    void updatePreference_whenClientThrows_shouldWrapException() {
+
+        UUID userId = UUID.randomUUID();
+        when(notificationClient.updatePreference(eq(userId), any(NotificationPreferenceRequest.class)))
+                .thenThrow(new RuntimeException("Connection refused"));
+
+        assertThrows(NotificationServiceFeignCallException.class, () -> notificationService.updatePreference(userId, "DIGEST", 60));
+    }
+
+    @Test
+    void deliverAll_shouldSendAllRequestsInOneCall() {
+
+        List<NotificationRequest> requests = List.of(new NotificationRequest(), new NotificationRequest());
+        when(notificationClient.sendNotifications(any(NotificationBatchRequest.class)))
+                .thenReturn(ResponseEntity.status(HttpStatus.CREATED).body(new NotificationBatchResponse()));
+
+        notificationService.deliverAll(requests);
+
+        verify(notificationClient, times(1)).sendNotifications(argThat(batch -> batch.getNotifications().equals(requests)));
+        verify(unreadCountCache, times(1)).evictAll(any());
+        verify(notificationClient, never()).sendNotification(any(NotificationRequest.class));
+    }
+
+    @Test
+    void deliverAll_whenBatchIsRejected_shouldThrowBatchRejectedException() {
+
+        when(notificationClient.sendNotifications(any(NotificationBatchRequest.class)))
+                .thenReturn(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+
+        assertThrows(NotificationBatchRejectedException.class, () -> notificationService.deliverAll(List.of(new NotificationRequest())));
+    }
+
+    @Test
+    void deliverAll_whenServiceUnavailable_shouldThrowFeignCallException() {
+
+        when(notificationClient.sendNotifications(any(NotificationBatchRequest.class)))
+                .thenThrow(new RuntimeException("Connection refused"));
+
+        NotificationServiceFeignCallException exception = assertThrows(NotificationServiceFeignCallException.class,
+                () -> notificationService.deliverAll(List.of(new NotificationRequest())));
+        assertFalse(exception instanceof NotificationBatchRejectedException);
+    }
+
+    @Test
+    void getNotificationsPage_shouldPassCursorAndReturnThePage() {
+
+        UUID userId = UUID.randomUUID();
+        NotificationPageResponse page = new NotificationPageResponse(List.of(response1), "next");
+        when(notificationClient.getNotificationsPage(userId, "cursor", 20)).thenReturn(ResponseEntity.ok(page));
+
+        assertEquals(page, notificationService.getNotificationsPage(userId, "cursor", 20));
+    }
+
+    @Test
+    void getNotificationsPage_firstPageIsCachedUntilANotificationIsDelivered() {
+
+        UUID userId = UUID.randomUUID();
+        NotificationPageResponse page = new NotificationPageResponse(List.of(response1), "next");
+        when(notificationClient.getNotificationsPage(userId, null, 20)).thenReturn(ResponseEntity.ok(page));
+        NotificationRequest request = new NotificationRequest();
+        request.setRecipientId(userId);
+        when(notificationClient.sendNotification(request)).thenReturn(ResponseEntity.ok(new NotificationResponse()));
+
+        notificationService.getNotificationsPage(userId, null, 20);
+        notificationService.getNotificationsPage(userId, null, 20);
+        verify(notificationClient, times(1)).getNotificationsPage(userId, null, 20);
+
+        notificationService.deliver(request);
+        notificationService.getNotificationsPage(userId, null, 20);
+        verify(notificationClient, times(2)).getNotificationsPage(userId, null, 20);
+    }
+
+    @Test
+    void getNotificationsPage_whenBodyIsNull_shouldReturnEmptyPage() {
+
+        UUID userId = UUID.randomUUID();
+        when(notificationClient.getNotificationsPage(userId, null, 20)).thenReturn(ResponseEntity.ok(null));
+
+        NotificationPageResponse page = notificationService.getNotificationsPage(userId, null, 20);
+
+        assertTrue(page.getItems().isEmpty());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getUnreadCount_whenCached_shouldNotCallNotificationService() {
+
+        UUID userId = UUID.randomUUID();
+        when(unreadCountCache.get(userId)).thenReturn(3L);
+
+        assertEquals(3, notificationService.getUnreadCount(userId));
+        verify(notificationClient, never()).getUnreadCount(any());
+    }
+
+    @Test
+    void getUnreadCount_whenNotCached_shouldLoadAndCache() {
+
+        UUID userId = UUID.randomUUID();
+        when(unreadCountCache.get(userId)).thenReturn(null);
+        when(notificationClient.getUnreadCount(userId)).thenReturn(ResponseEntity.ok(new UnreadCountResponse(5)));
+
+        assertEquals(5, notificationService.getUnreadCount(userId));
+        verify(unreadCountCache, times(1)).put(userId, 5L);
+    }
+
+    @Test
+    void getUnreadCount_whenServiceUnavailable_shouldReturnZeroWithoutCaching() {
+
+        UUID userId = UUID.randomUUID();
+        when(unreadCountCache.get(userId)).thenReturn(null);
+        when(notificationClient.getUnreadCount(userId)).thenThrow(new RuntimeException("Connection refused"));
+
+        assertEquals(0, notificationService.getUnreadCount(userId));
+        verify(unreadCountCache, never()).put(any(), anyLong());
+    }
+
+    @Test
+    void markRead_shouldSendIdsAndEvictTheCachedCount() {
+
+        UUID userId = UUID.randomUUID();
+        List<UUID> ids = List.of(UUID.randomUUID());
+        when(notificationClient.markRead(userId, new MarkReadRequest(ids))).thenReturn(ResponseEntity.ok(new MarkReadResponse(1)));
+
+        assertEquals(1, notificationService.markRead(userId, ids));
+        verify(unreadCountCache, times(1)).evict(userId);
+    }
+
+    @Test
+    void markRead_whenClientThrows_shouldThrowFeignCallException() {
+
+        UUID userId = UUID.randomUUID();
+        when(notificationClient.markRead(eq(userId), any(MarkReadRequest.class))).thenThrow(new RuntimeException("Connection refused"));
+
+        assertThrows(NotificationServiceFeignCallException.class, () -> notificationService.markRead(userId, List.of()));
+        verify(unreadCountCache, times(1)).evict(userId);
+    }
+
     @Test
     void getNotificationsByUser_shouldReturnNotifications() {
 
@@ -203,21 +477,16 @@ public class NotificationServiceUTest {
     }
 
     @Test
-    void deleteUserNotification_whenUserOwnsNotification_shouldDeleteSuccessfully() {
+    void deleteUserNotification_whenUserOwnsNotification_shouldDeleteWithOneOwnerScopedCall() {
 
         UUID userId = UUID.randomUUID();
         UUID notificationId = UUID.randomUUID();
 
-        NotificationResponse ownedNotification = createNotificationResponse(notificationId, "Subject", "Message");
-        List<NotificationResponse> userNotifications = List.of(ownedNotification, response2);
-
-        ResponseEntity<List<NotificationResponse>> responseEntity = ResponseEntity.ok(userNotifications);
-        when(notificationClient.getNotificationsByUser(userId)).thenReturn(responseEntity);
-
         notificationService.deleteUserNotification(notificationId, userId);
 
-        verify(notificationClient, times(1)).getNotificationsByUser(userId);
-        verify(notificationClient, times(1)).deleteNotification(notificationId);
+        verify(notificationClient, times(1)).deleteUserNotification(notificationId, userId);
+        verify(notificationClient, never()).getNotificationsByUser(any(UUID.class));
+        verify(notificationClient, never()).deleteNotification(any(UUID.class));
     }
 
     @Test
@@ -225,20 +494,26 @@ public class NotificationServiceUTest {
 
         UUID userId = UUID.randomUUID();
         UUID notificationId = UUID.randomUUID();
-        UUID differentNotificationId = UUID.randomUUID();
 
-        NotificationResponse notification = createNotificationResponse(differentNotificationId, "Subject", "Message");
-        List<NotificationResponse> userNotifications = List.of(notification, response2);
-
-        ResponseEntity<List<NotificationResponse>> responseEntity = ResponseEntity.ok(userNotifications);
-        when(notificationClient.getNotificationsByUser(userId)).thenReturn(responseEntity);
+        doThrow(notFound()).when(notificationClient).deleteUserNotification(notificationId, userId);
 
         UnauthorizedException exception =
                 assertThrows(UnauthorizedException.class, () -> notificationService.deleteUserNotification(notificationId, userId));
 
         assertTrue(exception.getMessage().contains(NOT_AUTHORIZED));
-        verify(notificationClient, times(1)).getNotificationsByUser(userId);
-        verify(notificationClient, never()).deleteNotification(any(UUID.class));
+    }
+
+    @Test
+    void deleteUserNotification_whenServiceUnavailable_shouldThrowNotificationServiceFeignCallException() {
+
+        UUID userId = UUID.randomUUID();
+        UUID notificationId = UUID.randomUUID();
+
+        doThrow(new RuntimeException("Connection refused")).when(notificationClient).deleteUserNotification(notificationId, userId);
+
+        NotificationServiceFeignCallException exception = assertThrows(NotificationServiceFeignCallException.class,
+                () -> notificationService.deleteUserNotification(notificationId, userId));
+        assertTrue(exception.getMessage().contains(DELETE_UNSUCCESSFUL));
     }
 
     @Test
@@ -248,25 +523,51 @@ public class NotificationServiceUTest {
         doThrow(new RuntimeException("Connection timeout")).when(notificationClient).deleteNotification(notificationId);
 
         NotificationServiceFeignCallException exception =
-                assertThrows(NotificationServiceFeignCallException.class, () -> notificationService.delete(notificationId));
+                assertThrows(NotificationServiceFeignCallException.class, () -> notificationService.delete(notificationId, UUID.randomUUID()));
         assertTrue(exception.getMessage().contains(DELETE_UNSUCCESSFUL));
 
         verify(notificationClient, times(1)).deleteNotification(notificationId);
+        verifyNoInteractions(unreadCountCache);
+    }
+
+    @Test
+    void delete_shouldEvictTheCachedEntriesOfTheRecipient() {
+
+        UUID notificationId = UUID.randomUUID();
+        UUID recipientId = UUID.randomUUID();
+
+        notificationService.delete(notificationId, recipientId);
+
+        verify(notificationClient, times(1)).deleteNotification(notificationId);
+        verify(unreadCountCache, times(1)).evict(recipientId);
+        verify(notificationPageCache, times(1)).invalidate(recipientId);
     }
 
     @Test
-    void clearAllNotifications_shouldDeleteAllNotifications() {
+    void clearAllNotifications_shouldClearHistoryWithOneCall() {
 
         User user = createUser(UUID.randomUUID(), "user", "user@example.com");
+        when(notificationClient.clearHistory(user.getId()))
+                .thenReturn(ResponseEntity.ok(new NotificationClearResponse("Notification history cleared.", 3)));
+
+        int cleared = notificationService.clearAllNotifications(user);
+
+        assertEquals(3, cleared);
+        verify(notificationClient, times(1)).clearHistory(user.getId());
+        verify(notificationClient, never()).deleteNotification(any(UUID.class));
+    }
 
-        List<NotificationResponse> notifications = List.of(response1,response2,response3);
+    @Test
+    void clearAllNotifications_whenClientThrows_shouldThrowNotificationServiceFeignCallException() {
 
-        notificationService.clearAllNotifications(notifications, user);
+        User user = createUser(UUID.randomUUID(), "user", "user@example.com");
+        when(notificationClient.clearHistory(user.getId())).thenThrow(new RuntimeException("Connection refused"));
 
-        verify(notificationClient, times(1)).deleteNotification(response1.getId());
-        verify(notificationClient, times(1)).deleteNotification(response2.getId());
-        verify(notificationClient, times(1)).deleteNotification(response3.getId());
-        verify(notificationClient, times(3)).deleteNotification(any(UUID.class));
+        assertThrows(NotificationServiceFeignCallException.class, () -> notificationService.clearAllNotifications(user));
     }
 
+    private static FeignException notFound() {
+        Request request = Request.create(Request.HttpMethod.DELETE, "/api/v1/notifications", Map.of(), null, StandardCharsets.UTF_8, null);
+        return new FeignException.NotFound("Not Found", request, null, Map.of());
+    }
 }
@@ -0,0 +1,133 @@
+package com.exam.eventhub.notification.service;
+
+import com.exam.eventhub.notification.client.dto.NotificationPageResponse;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationStreamRelayTest {
+
+    private HttpServer upstream;
+    private final AtomicReference<String> upstreamPath = new AtomicReference<>();
+    private final AtomicReference<String> upstreamLanguage = new AtomicReference<>();
+    private final UnreadCountCache unreadCountCache = new UnreadCountCache(30);
+    private SimpleMeterRegistry meterRegistry;
+    private NotificationPageCache notificationPageCache;
+    private NotificationStreamRelay relay;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        upstream = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        upstream.createContext("/", exchange -> {
+            upstreamPath.set(exchange.getRequestURI().getPath());
+            upstreamLanguage.set(exchange.getRequestHeaders().getFirst("Accept-Language"));
+
+            byte[] body = """
+                    :heartbeat
+
+                    event:notification
+                    id:42
+                    data:{"subject":"Booking Confirmed"}
+
+                    event:resync
+                    data:3
+
+                    """.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        upstream.start();
+
+        meterRegistry = new SimpleMeterRegistry();
+        notificationPageCache = new NotificationPageCache(10, 100, meterRegistry);
+        relay = new NotificationStreamRelay("http://localhost:" + upstream.getAddress().getPort(),
+                60_000, 2_000, 10_000, unreadCountCache, notificationPageCache, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        upstream.stop(0);
+    }
+
+    @Test
+    void relay_forwardsUpstreamEventsAndCompletesWhenUpstreamEnds() throws Exception {
+
+        UUID userId = UUID.randomUUID();
+        unreadCountCache.put(userId, 2);
+        NotificationPageResponse cachedPage = notificationPageCache.get(userId, NotificationPageResponse::new);
+        RecordingEmitter emitter = new RecordingEmitter();
+
+        relay.relay(userId, Locale.forLanguageTag("bg"), emitter);
+
+        assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+        assertEquals("/api/v1/notifications/" + userId + "/stream", upstreamPath.get());
+        assertEquals("bg", upstreamLanguage.get());
+
+        List<String> events = emitter.events;
+        assertEquals(4, events.size());
+        assertTrue(events.get(0).startsWith("retry:10000"));
+        assertTrue(events.get(1).startsWith(":heartbeat\n"));
+        assertTrue(events.get(2).contains("event:notification\n"));
+        assertTrue(events.get(2).contains("id:42\n"));
+        assertTrue(events.get(2).contains("data:{\"subject\":\"Booking Confirmed\"}"));
+        assertTrue(events.get(3).contains("event:resync\n"));
+        assertNull(unreadCountCache.get(userId));
+        assertNotSame(cachedPage, notificationPageCache.get(userId, NotificationPageResponse::new));
+        assertEquals(0.0, meterRegistry.get("eventhub.notification.stream.relays").gauge().value());
+    }
+
+    @Test
+    void relay_whenUpstreamIsUnreachable_completesTheBrowserStream() throws Exception {
+
+        upstream.stop(0);
+        RecordingEmitter emitter = new RecordingEmitter();
+
+        relay.relay(UUID.randomUUID(), Locale.ENGLISH, emitter);
+
+        assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(1, emitter.events.size());
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        RecordingEmitter() {
+            super(Duration.ofMinutes(1).toMillis());
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            StringBuilder event = new StringBuilder();
+            builder.build().forEach(part -> event.append(part.getData()));
+            events.add(event.toString());
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed.countDown();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.exam.eventhub.notification.service;
+
+import com.exam.eventhub.util.MutableClock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class UnreadCountCacheUTest {
+
+    @Test
+    void givenEntryOlderThanTtl_whenGet_thenMiss() {
+
+        MutableClock clock = new MutableClock();
+        UnreadCountCache cache = new UnreadCountCache(Duration.ofSeconds(30), clock);
+        UUID userId = UUID.randomUUID();
+
+        cache.put(userId, 4);
+        assertEquals(4L, cache.get(userId));
+
+        clock.advance(Duration.ofSeconds(31));
+        assertNull(cache.get(userId));
+    }
+
+    @Test
+    void givenEntries_whenEvictAll_thenOnlyThoseUsersAreDropped() {
+
+        UnreadCountCache cache = new UnreadCountCache(Duration.ofMinutes(1), new MutableClock());
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID untouched = UUID.randomUUID();
+        cache.put(first, 1);
+        cache.put(second, 2);
+        cache.put(untouched, 3);
+
+        cache.evictAll(List.of(first, second));
+        cache.evict(null);
+
+        assertNull(cache.get(first));
+        assertNull(cache.get(second));
+        assertEquals(3L, cache.get(untouched));
+    }
+}
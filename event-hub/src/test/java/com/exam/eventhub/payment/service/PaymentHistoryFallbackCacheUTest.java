@@ -0,0 +1,50 @@
+package com.exam.eventhub.payment.service;
+
+import com.exam.eventhub.payment.client.dto.PaymentResponse;
+import com.exam.eventhub.util.MutableClock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static com.exam.eventhub.util.PaymentHelper.createPaymentResponse;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PaymentHistoryFallbackCacheUTest {
+
+    @Test
+    void givenHistoryOlderThanMaxAge_whenGet_thenMiss() {
+
+        MutableClock clock = new MutableClock();
+        PaymentHistoryFallbackCache cache = new PaymentHistoryFallbackCache(10, Duration.ofHours(24), clock);
+        UUID userId = UUID.randomUUID();
+        List<PaymentResponse> history = List.of(createPaymentResponse(UUID.randomUUID(), "SUCCESS", "Payment"));
+
+        cache.put(userId, history);
+        assertEquals(Optional.of(history), cache.get(userId));
+
+        clock.advance(Duration.ofHours(25));
+        assertTrue(cache.get(userId).isEmpty());
+    }
+
+    @Test
+    void givenFullCache_whenPut_thenLeastRecentlyUsedUserIsDropped() {
+
+        PaymentHistoryFallbackCache cache = new PaymentHistoryFallbackCache(2, Duration.ofHours(24), new MutableClock());
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        cache.put(first, List.of());
+        cache.put(second, List.of());
+
+        cache.get(first);
+        cache.put(third, List.of());
+
+        assertTrue(cache.get(first).isPresent());
+        assertTrue(cache.get(second).isEmpty());
+        assertTrue(cache.get(third).isPresent());
+    }
+}
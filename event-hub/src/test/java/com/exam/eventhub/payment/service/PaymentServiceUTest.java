@@ -1,26 +1,35 @@
 package com.exam.eventhub.payment.service;
 
+import com.exam.eventhub.exception.DependencyUnavailableException;
+import com.exam.eventhub.exception.PaymentPendingException;
 import com.exam.eventhub.exception.PaymentProcessingException;
 import com.exam.eventhub.exception.PaymentServiceUnavailableException;
 import com.exam.eventhub.payment.client.PaymentClient;
+import com.exam.eventhub.payment.client.dto.BatchRefundItemResult;
+import com.exam.eventhub.payment.client.dto.BatchRefundRequest;
+import com.exam.eventhub.payment.client.dto.BatchRefundResponse;
 import com.exam.eventhub.payment.client.dto.PaymentRequest;
 import com.exam.eventhub.payment.client.dto.PaymentResponse;
 import com.exam.eventhub.payment.client.dto.RefundRequest;
 import feign.FeignException;
 import feign.Request;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 import static com.exam.eventhub.util.PaymentHelper.createPaymentResponse;
@@ -34,6 +43,15 @@ public class PaymentServiceUTest {
     @Mock
     private PaymentClient paymentClient;
 
+    @Mock
+    private PaymentStatusPoller paymentStatusPoller;
+
+    @Spy
+    private PaymentHistoryCache historyCache = new PaymentHistoryCache(30, 100, new SimpleMeterRegistry());
+
+    @Mock
+    private PaymentHistoryFallbackCache historyFallbackCache;
+
     @InjectMocks
     private PaymentService paymentService;
 
@@ -68,6 +86,29 @@ public class PaymentServiceUTest {
         verify(paymentClient, times(1)).processPayment(any(PaymentRequest.class));
     }
 
+    @Test
+    void processPayment_whenChargeIsStillPending_shouldWaitForItsOutcome() {
+
+        PaymentResponse pending = createPaymentResponse(paymentId, "PENDING", null);
+        PaymentResponse completed = createPaymentResponse(paymentId, "SUCCESS", "Payment completed");
+        when(paymentClient.processPayment(any(PaymentRequest.class))).thenReturn(ResponseEntity.accepted().body(pending));
+        when(paymentStatusPoller.awaitCompletion(pending)).thenReturn(completed);
+
+        PaymentResponse result = paymentService.processPayment(bookingId, userId, amount);
+
+        assertSame(completed, result);
+    }
+
+    @Test
+    void processPayment_whenPendingChargeDoesNotFinishInTime_shouldThrowPaymentPendingException() {
+
+        PaymentResponse pending = createPaymentResponse(paymentId, "PENDING", null);
+        when(paymentClient.processPayment(any(PaymentRequest.class))).thenReturn(ResponseEntity.accepted().body(pending));
+        when(paymentStatusPoller.awaitCompletion(pending)).thenThrow(new PaymentPendingException("still processing"));
+
+        assertThrows(PaymentPendingException.class, () -> paymentService.processPayment(bookingId, userId, amount));
+    }
+
     @Test
     void processPayment_shouldCreateCorrectPaymentRequest() {
 
@@ -174,6 +215,34 @@ public class PaymentServiceUTest {
         verify(paymentClient, times(1)).processPayment(any(PaymentRequest.class));
     }
 
+    @Test
+    void refundPayments_shouldSendAllRefundsInOneRequest() {
+
+        UUID otherPaymentId = UUID.randomUUID();
+        List<RefundRequest> refunds = List.of(new RefundRequest(paymentId, amount), new RefundRequest(otherPaymentId, amount));
+        BatchRefundResponse batchResponse = new BatchRefundResponse(2, 2, Map.of("REFUNDED", 1L, "ALREADY_REFUNDED", 1L), List.of(
+                new BatchRefundItemResult(paymentId, "REFUNDED", "Refund processed successfully"),
+                new BatchRefundItemResult(otherPaymentId, "ALREADY_REFUNDED", "Payment was already refunded.")));
+        when(paymentClient.refundPayments(new BatchRefundRequest(refunds))).thenReturn(ResponseEntity.ok(batchResponse));
+
+        BatchRefundResponse result = paymentService.refundPayments(refunds);
+
+        assertEquals(2, result.getCompleted());
+        assertTrue(result.getResults().stream().allMatch(BatchRefundItemResult::isRefunded));
+        verify(paymentClient, times(1)).refundPayments(any(BatchRefundRequest.class));
+        verify(paymentClient, never()).refundPayment(any(), any());
+    }
+
+    @Test
+    void refundPayments_whenCircuitIsOpen_shouldThrowPaymentServiceUnavailableException() {
+
+        when(paymentClient.refundPayments(any(BatchRefundRequest.class)))
+                .thenThrow(new DependencyUnavailableException("payment-service", "circuit breaker is open", Duration.ofSeconds(5)));
+
+        assertThrows(PaymentServiceUnavailableException.class,
+                () -> paymentService.refundPayments(List.of(new RefundRequest(paymentId, amount))));
+    }
+
     @Test
     void refundPayment_whenSuccessful_shouldCompleteWithoutException() {
 
@@ -205,6 +274,25 @@ public class PaymentServiceUTest {
         assertEquals(amount, capturedRequest.getAmount());
     }
 
+    @Test
+    void getPaymentByBookingId_whenPaymentExists_shouldReturnIt() {
+
+        PaymentResponse expectedResponse = createPaymentResponse(paymentId, "SUCCESS", "Payment completed");
+        when(paymentClient.getPaymentByBookingId(bookingId)).thenReturn(ResponseEntity.ok(expectedResponse));
+
+        assertEquals(Optional.of(expectedResponse), paymentService.getPaymentByBookingId(bookingId));
+    }
+
+    @Test
+    void getPaymentByBookingId_whenBookingHasNoPayment_shouldReturnEmpty() {
+
+        Request request = Request.create(Request.HttpMethod.GET, "/payments/bookings/" + bookingId, Map.of(), null, null, null);
+        when(paymentClient.getPaymentByBookingId(bookingId))
+                .thenThrow(new FeignException.NotFound("Not found", request, null, null));
+
+        assertTrue(paymentService.getPaymentByBookingId(bookingId).isEmpty());
+    }
+
     @Test
     void refundPayment_whenServiceUnavailable_shouldThrowPaymentServiceUnavailableException() {
 
@@ -294,6 +382,7 @@ public class PaymentServiceUTest {
         assertEquals(expectedPayments, result);
 
         verify(paymentClient, times(1)).getPaymentsByUser(userId);
+        verify(historyFallbackCache).put(userId, expectedPayments);
     }
 
     @Test
@@ -353,4 +442,69 @@ public class PaymentServiceUTest {
 
         verify(paymentClient, times(1)).getPaymentsByUser(userId);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getPaymentsByUser_isCachedUntilTheUserIsCharged() {
+
+        List<PaymentResponse> payments = List.of(createPaymentResponse(paymentId, "SUCCESS", "Payment 1"));
+        when(paymentClient.getPaymentsByUser(userId)).thenReturn(ResponseEntity.ok(payments));
+        when(paymentClient.processPayment(any(PaymentRequest.class))).thenReturn(
+                ResponseEntity.status(HttpStatus.CREATED).body(createPaymentResponse(paymentId, "SUCCESS", "Paid")));
+
+        paymentService.getPaymentsByUser(userId);
+        paymentService.getPaymentsByUser(userId);
+        verify(paymentClient, times(1)).getPaymentsByUser(userId);
+
+        paymentService.processPayment(bookingId, userId, amount);
+        paymentService.getPaymentsByUser(userId);
+        verify(paymentClient, times(2)).getPaymentsByUser(userId);
+    }
+
+    @Test
+    void refundPayment_dropsTheCachedHistoriesListingThePayment() {
+
+        when(paymentClient.getPaymentsByUser(userId))
+                .thenReturn(ResponseEntity.ok(List.of(createPaymentResponse(paymentId, "SUCCESS", "Payment 1"))));
+        when(paymentClient.refundPayment(eq(paymentId), any(RefundRequest.class)))
+                .thenReturn(ResponseEntity.ok(createPaymentResponse(paymentId, "REFUNDED", "Refunded")));
+
+        paymentService.getPaymentsByUser(userId);
+        paymentService.refundPayment(paymentId, amount);
+        paymentService.getPaymentsByUser(userId);
+
+        verify(paymentClient, times(2)).getPaymentsByUser(userId);
+    }
+
+    @Test
+    void getPaymentsByUser_whenCircuitIsOpen_shouldServeTheLastKnownHistory() {
+
+        List<PaymentResponse> cached = List.of(createPaymentResponse(paymentId, "SUCCESS", "Payment 1"));
+        when(paymentClient.getPaymentsByUser(userId)).thenThrow(
+                new DependencyUnavailableException("payment-service", "circuit breaker is open", Duration.ofSeconds(20)));
+        when(historyFallbackCache.get(userId)).thenReturn(Optional.of(cached));
+
+        List<PaymentResponse> result = paymentService.getPaymentsByUser(userId);
+
+        assertEquals(cached, result);
+        verify(historyFallbackCache, never()).put(any(), any());
+    }
+
+    @Test
+    void getPaymentsByUser_whenCircuitIsOpenAndNothingIsCached_shouldThrowPaymentProcessingException() {
+
+        when(paymentClient.getPaymentsByUser(userId)).thenThrow(
+                new DependencyUnavailableException("payment-service", "circuit breaker is open", Duration.ofSeconds(20)));
+
+        assertThrows(PaymentProcessingException.class, () -> paymentService.getPaymentsByUser(userId));
+    }
+
+    @Test
+    void processPayment_whenCircuitIsOpen_shouldFailFastWithPaymentServiceUnavailableException() {
+
+        when(paymentClient.processPayment(any(PaymentRequest.class))).thenThrow(
+                new DependencyUnavailableException("payment-service", "circuit breaker is open", Duration.ofSeconds(20)));
+
+        assertThrows(PaymentServiceUnavailableException.class,
+                () -> paymentService.processPayment(bookingId, userId, amount));
+    }
+}
@@ -0,0 +1,79 @@
+package com.exam.eventhub.payment.service;
+
+import com.exam.eventhub.exception.DependencyUnavailableException;
+import com.exam.eventhub.exception.PaymentPendingException;
+import com.exam.eventhub.payment.client.PaymentClient;
+import com.exam.eventhub.payment.client.dto.PaymentResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static com.exam.eventhub.util.PaymentHelper.createPaymentResponse;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentStatusPollerUTest {
+
+    @Mock
+    private PaymentClient paymentClient;
+
+    private PaymentStatusPoller poller;
+    private UUID paymentId;
+
+    @BeforeEach
+    void setUp() {
+        poller = new PaymentStatusPoller(paymentClient, 500, 1, 5);
+        paymentId = UUID.randomUUID();
+    }
+
+    @Test
+    void awaitCompletion_pollsUntilThePaymentLeavesPending() {
+
+        when(paymentClient.getPaymentById(paymentId)).thenReturn(
+                ResponseEntity.ok(createPaymentResponse(paymentId, "PENDING", null)),
+                ResponseEntity.ok(createPaymentResponse(paymentId, "SUCCESS", "Payment completed")));
+
+        PaymentResponse result = poller.awaitCompletion(createPaymentResponse(paymentId, "PENDING", null));
+
+        assertEquals("SUCCESS", result.getStatus());
+        verify(paymentClient, times(2)).getPaymentById(paymentId);
+    }
+
+    @Test
+    void awaitCompletion_treatsFailedPollsAsStillPending() {
+
+        when(paymentClient.getPaymentById(paymentId))
+                .thenThrow(new DependencyUnavailableException("payment-service", "circuit breaker is open", Duration.ofSeconds(1)))
+                .thenReturn(ResponseEntity.ok(createPaymentResponse(paymentId, "FAILED", "Payment failed")));
+
+        PaymentResponse result = poller.awaitCompletion(createPaymentResponse(paymentId, "PENDING", null));
+
+        assertEquals("FAILED", result.getStatus());
+    }
+
+    @Test
+    void awaitCompletion_whenTheTimeoutIsSpent_throwsPaymentPendingException() {
+
+        poller = new PaymentStatusPoller(paymentClient, 50, 5, 10);
+        when(paymentClient.getPaymentById(paymentId)).thenReturn(ResponseEntity.ok(createPaymentResponse(paymentId, "PENDING", null)));
+
+        assertThrows(PaymentPendingException.class,
+                () -> poller.awaitCompletion(createPaymentResponse(paymentId, "PENDING", null)));
+    }
+
+    @Test
+    void awaitCompletion_whenAlreadyCompleted_doesNotPoll() {
+
+        PaymentResponse completed = createPaymentResponse(paymentId, "SUCCESS", "Payment completed");
+
+        assertSame(completed, poller.awaitCompletion(completed));
+        verifyNoInteractions(paymentClient);
+    }
+}
@@ -0,0 +1,294 @@
+package com.exam.eventhub.reconciliation;
+
+import com.exam.eventhub.booking.model.Booking;
+import com.exam.eventhub.booking.model.BookingStatus;
+import com.exam.eventhub.booking.repository.BookingRepository;
+import com.exam.eventhub.event.model.Event;
+import com.exam.eventhub.event.repository.EventRepository;
+import com.exam.eventhub.exception.PaymentServiceUnavailableException;
+import com.exam.eventhub.notification.model.NotificationOutbox;
+import com.exam.eventhub.notification.repository.NotificationOutboxRepository;
+import com.exam.eventhub.notification.service.NotificationService;
+import com.exam.eventhub.payment.client.dto.BatchRefundItemResult;
+import com.exam.eventhub.payment.client.dto.BatchRefundResponse;
+import com.exam.eventhub.payment.client.dto.PaymentResponse;
+import com.exam.eventhub.payment.client.dto.RefundRequest;
+import com.exam.eventhub.payment.service.PaymentService;
+import com.exam.eventhub.reconciliation.model.MismatchType;
+import com.exam.eventhub.reconciliation.model.ReconciliationMismatch;
+import com.exam.eventhub.reconciliation.model.ReconciliationRun;
+import com.exam.eventhub.reconciliation.model.ReconciliationStatus;
+import com.exam.eventhub.reconciliation.repository.ReconciliationMismatchRepository;
+import com.exam.eventhub.reconciliation.repository.ReconciliationRunRepository;
+import com.exam.eventhub.reconciliation.service.ReconciliationService;
+import com.exam.eventhub.user.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "eventhub.reconciliation.page-size=2",
+        "eventhub.reconciliation.grace-minutes=30"
+})
+class ReconciliationIntegrationTest {
+
+    private static final Comparator<UUID> KEY_ORDER = Comparator
+            .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @Autowired
+    private ReconciliationRunRepository runRepository;
+
+    @Autowired
+    private ReconciliationMismatchRepository mismatchRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private NotificationOutboxRepository notificationOutboxRepository;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private PaymentService paymentService;
+
+    private final List<PaymentResponse> payments = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        mismatchRepository.deleteAll();
+        runRepository.deleteAll();
+        notificationOutboxRepository.deleteAll();
+        payments.clear();
+
+        when(paymentService.getPaymentsAfterBooking(any(UUID.class), anyInt())).thenAnswer(invocation -> {
+            UUID after = invocation.getArgument(0);
+            int limit = invocation.getArgument(1);
+            return payments.stream()
+                    .filter(payment -> KEY_ORDER.compare(payment.getBookingId(), after) > 0)
+                    .sorted(Comparator.comparing(PaymentResponse::getBookingId, KEY_ORDER))
+                    .limit(limit)
+                    .toList();
+        });
+    }
+
+    @Test
+    void run_reportsEveryMismatchAndLeavesTheBookingsAlone() {
+
+        Event event = event();
+        UUID matching = booking(event, BookingStatus.CONFIRMED, payment(BigDecimal.TEN, "SUCCESS"));
+        UUID missing = booking(event, BookingStatus.CONFIRMED, UUID.randomUUID());
+        UUID failed = booking(event, BookingStatus.CONFIRMED, payment(BigDecimal.TEN, "FAILED"));
+        UUID wrongAmount = booking(event, BookingStatus.CONFIRMED, payment(new BigDecimal("12.00"), "SUCCESS"));
+        UUID refundedOnly = booking(event, BookingStatus.CONFIRMED, payment(BigDecimal.TEN, "REFUNDED"));
+        UUID notRefunded = booking(event, BookingStatus.REFUNDED, payment(BigDecimal.TEN, "SUCCESS"));
+        UUID unconfirmed = booking(event, BookingStatus.PENDING, null);
+        unclaimedPayment(unconfirmed, "SUCCESS");
+        UUID unknown = UUID.randomUUID();
+        unclaimedPayment(unknown, "SUCCESS");
+        settle();
+
+        ReconciliationRun run = reconciliationService.run();
+
+        assertEquals(ReconciliationStatus.COMPLETED, run.getStatus());
+        assertFalse(run.isRepairEnabled());
+        assertEquals(0, run.getRepaired());
+        assertNotNull(run.getFinishedOn());
+        assertEquals(7, run.getPaymentsScanned());
+
+        Map<UUID, MismatchType> found = mine(run, List.of(matching, missing, failed, wrongAmount, refundedOnly,
+                notRefunded, unconfirmed, unknown)).stream()
+                .collect(Collectors.toMap(ReconciliationMismatch::getBookingId, ReconciliationMismatch::getType));
+        assertEquals(Map.of(
+                missing, MismatchType.PAYMENT_MISSING,
+                failed, MismatchType.PAYMENT_NOT_SUCCESSFUL,
+                wrongAmount, MismatchType.AMOUNT_MISMATCH,
+                refundedOnly, MismatchType.REFUND_NOT_RECORDED,
+                notRefunded, MismatchType.REFUND_NOT_PROCESSED,
+                unconfirmed, MismatchType.PAID_NOT_CONFIRMED,
+                unknown, MismatchType.BOOKING_MISSING), found);
+        assertFalse(found.containsKey(matching));
+
+        assertEquals(BookingStatus.CONFIRMED, status(refundedOnly));
+        assertEquals(BookingStatus.PENDING, status(unconfirmed));
+        verify(paymentService, never()).refundPayments(anyList());
+        assertEquals(0, notificationOutboxRepository.count());
+    }
+
+    @Test
+    void run_withRepairsEnabled_fixesTheMismatchesThatHaveASafeFix() {
+
+        ReconciliationService repairing = new ReconciliationService(runRepository, mismatchRepository, bookingRepository,
+                paymentService, notificationService, transactionManager, cacheManager, meterRegistry, 2, 30, true, 100);
+        when(paymentService.refundPayments(anyList())).thenAnswer(invocation -> {
+            List<RefundRequest> items = invocation.getArgument(0);
+            List<BatchRefundItemResult> results = items.stream()
+                    .map(item -> new BatchRefundItemResult(item.getPaymentId(), "REFUNDED", null))
+                    .toList();
+            return new BatchRefundResponse(items.size(), items.size(), Map.of(), results);
+        });
+
+        Event event = event();
+        UUID refundedOnly = booking(event, BookingStatus.CONFIRMED, payment(BigDecimal.TEN, "REFUNDED"));
+        UUID unconfirmed = booking(event, BookingStatus.PENDING, null);
+        UUID unconfirmedPayment = unclaimedPayment(unconfirmed, "SUCCESS");
+        UUID cancelled = booking(event, BookingStatus.CANCELLED, null);
+        UUID cancelledPayment = unclaimedPayment(cancelled, "SUCCESS");
+        UUID wrongAmount = booking(event, BookingStatus.CONFIRMED, payment(new BigDecimal("12.00"), "SUCCESS"));
+        settle();
+
+        ReconciliationRun run = repairing.run();
+
+        assertEquals(ReconciliationStatus.COMPLETED, run.getStatus());
+        assertTrue(run.isRepairEnabled());
+
+        assertEquals(BookingStatus.REFUNDED, status(refundedOnly));
+        assertEquals(BookingStatus.CONFIRMED, status(unconfirmed));
+        assertEquals(unconfirmedPayment, bookingRepository.findById(unconfirmed).orElseThrow().getPaymentId());
+        assertEquals(BookingStatus.REFUNDED, status(cancelled));
+        assertEquals(cancelledPayment, bookingRepository.findById(cancelled).orElseThrow().getPaymentId());
+        assertEquals(BookingStatus.CONFIRMED, status(wrongAmount));
+        verify(paymentService).refundPayments(argThat(batch ->
+                batch.size() == 1 && batch.get(0).getPaymentId().equals(cancelledPayment)));
+
+        List<ReconciliationMismatch> recorded = mine(run, List.of(refundedOnly, unconfirmed, cancelled, wrongAmount));
+        assertEquals(4, recorded.size());
+        assertTrue(recorded.stream().allMatch(mismatch -> mismatch.isRepaired() == mismatch.getType().isRepairable()));
+
+        List<NotificationOutbox> outbox = notificationOutboxRepository.findAll();
+        assertEquals(1, outbox.stream().filter(row -> "payment.successful".equals(row.getTemplateId())).count());
+        assertEquals(1, outbox.stream().filter(row -> "refund.processed".equals(row.getTemplateId())).count());
+
+        ReconciliationRun again = repairing.run();
+
+        assertTrue(mine(again, List.of(refundedOnly, unconfirmed, cancelled)).isEmpty());
+        verify(paymentService, times(1)).refundPayments(anyList());
+    }
+
+    @Test
+    void run_skipsBookingsAndPaymentsChangedWithinTheGracePeriod() {
+
+        Event event = event();
+        UUID paying = booking(event, BookingStatus.CONFIRMED, UUID.randomUUID());
+        UUID unconfirmed = booking(event, BookingStatus.PENDING, null);
+        payments.add(new PaymentResponse(UUID.randomUUID(), unconfirmed, null, BigDecimal.TEN, "SUCCESS", null,
+                LocalDateTime.now()));
+
+        ReconciliationRun run = reconciliationService.run();
+
+        assertEquals(ReconciliationStatus.COMPLETED, run.getStatus());
+        assertTrue(run.getSkipped() >= 2);
+        assertTrue(mine(run, List.of(paying, unconfirmed)).isEmpty());
+    }
+
+    @Test
+    void run_whenPaymentServiceIsUnavailable_failsTheRunAndKeepsWhatItFound() {
+
+        when(paymentService.getPaymentsAfterBooking(any(UUID.class), anyInt()))
+                .thenThrow(new PaymentServiceUnavailableException("Payment service is temporarily unavailable."));
+
+        ReconciliationRun run = reconciliationService.run();
+
+        assertEquals(ReconciliationStatus.FAILED, run.getStatus());
+        assertEquals("Payment service is temporarily unavailable.", run.getLastError());
+        assertEquals(0, run.getPaymentsScanned());
+        assertEquals(run.getId(), reconciliationService.getRecentRuns().get(0).getId());
+    }
+
+    private List<ReconciliationMismatch> mine(ReconciliationRun run, List<UUID> bookingIds) {
+        return reconciliationService.getMismatches(run.getId(), 1000).stream()
+                .filter(mismatch -> bookingIds.contains(mismatch.getBookingId()))
+                .toList();
+    }
+
+    private UUID payment(BigDecimal amount, String status) {
+        UUID paymentId = UUID.randomUUID();
+        payments.add(new PaymentResponse(paymentId, null, null, amount, status, null, LocalDateTime.now().minusHours(1)));
+        return paymentId;
+    }
+
+    private UUID unclaimedPayment(UUID bookingId, String status) {
+        UUID paymentId = UUID.randomUUID();
+        payments.add(new PaymentResponse(paymentId, bookingId, null, BigDecimal.TEN, status, null, LocalDateTime.now().minusHours(1)));
+        return paymentId;
+    }
+
+    private void settle() {
+        jdbcTemplate.update("UPDATE bookings SET booking_date = ?, payment_completed_at = ?",
+                LocalDateTime.now().minusHours(2), LocalDateTime.now().minusHours(2));
+    }
+
+    private BookingStatus status(UUID bookingId) {
+        return bookingRepository.findById(bookingId).orElseThrow().getStatus();
+    }
+
+    private Event event() {
+        Event template = eventRepository.findAll().get(0);
+        Event event = new Event("Reconciled Show " + UUID.randomUUID(), "To be reconciled",
+                LocalDateTime.now().plusDays(30), LocalDateTime.now().plusDays(30).plusHours(3),
+                BigDecimal.TEN, 100, template.getVenue(), template.getOrganizer(), template.getCategory());
+
+        return eventRepository.save(event);
+    }
+
+    private UUID booking(Event event, BookingStatus status, UUID paymentId) {
+        Booking booking = new Booking();
+        booking.setNumberOfTickets(1);
+        booking.setTotalAmount(BigDecimal.TEN);
+        booking.setCustomerEmail("user@example.com");
+        booking.setStatus(status);
+        booking.setPaymentId(paymentId);
+        booking.setEvent(event);
+        booking.setUser(userRepository.findByUsername("user").orElseThrow());
+
+        UUID id = bookingRepository.save(booking).getId();
+        payments.stream()
+                .filter(payment -> payment.getPaymentId().equals(paymentId))
+                .forEach(payment -> payment.setBookingId(id));
+        return id;
+    }
+}
@@ -0,0 +1,182 @@
+package com.exam.eventhub.retention;
+
+import com.exam.eventhub.auth.model.PersistentLogin;
+import com.exam.eventhub.auth.repository.PersistentLoginRepository;
+import com.exam.eventhub.auth.service.RememberMeTokenRetention;
+import com.exam.eventhub.booking.model.Booking;
+import com.exam.eventhub.booking.model.BookingStatus;
+import com.exam.eventhub.booking.repository.BookingRepository;
+import com.exam.eventhub.booking.service.CancelledBookingRetention;
+import com.exam.eventhub.event.repository.EventRepository;
+import com.exam.eventhub.notification.model.NotificationOutbox;
+import com.exam.eventhub.notification.model.OutboxStatus;
+import com.exam.eventhub.notification.repository.NotificationOutboxRepository;
+import com.exam.eventhub.notification.service.NotificationOutboxRetention;
+import com.exam.eventhub.retention.model.RetentionCheckpoint;
+import com.exam.eventhub.retention.repository.RetentionCheckpointRepository;
+import com.exam.eventhub.retention.service.RetentionEngine;
+import com.exam.eventhub.retention.service.RetentionRun;
+import com.exam.eventhub.retention.service.RetentionRun.Outcome;
+import com.exam.eventhub.user.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "eventhub.notification.outbox.poll-interval-ms=3600000",
+        "eventhub.retention.remember-me-tokens.chunk-size=2",
+        "eventhub.retention.remember-me-tokens.pause-ms=0"
+})
+class RetentionIntegrationTest {
+
+    @Autowired
+    private RetentionEngine retentionEngine;
+
+    @Autowired
+    private RememberMeTokenRetention rememberMeTokenRetention;
+
+    @Autowired
+    private CancelledBookingRetention cancelledBookingRetention;
+
+    @Autowired
+    private NotificationOutboxRetention notificationOutboxRetention;
+
+    @Autowired
+    private PersistentLoginRepository persistentLoginRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private NotificationOutboxRepository notificationOutboxRepository;
+
+    @Autowired
+    private RetentionCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        checkpointRepository.deleteAll();
+    }
+
+    @Test
+    void rememberMeTokens_unusedPastRetention_areRemovedInChunks() {
+
+        List<String> stale = List.of(persistentLogin(45), persistentLogin(40), persistentLogin(31));
+        String fresh = persistentLogin(2);
+
+        RetentionRun run = retentionEngine.run(rememberMeTokenRetention);
+
+        assertEquals(Outcome.COMPLETED, run.outcome());
+        assertTrue(run.chunks() >= 2);
+        assertTrue(stale.stream().noneMatch(persistentLoginRepository::existsById));
+        assertTrue(persistentLoginRepository.existsById(fresh));
+    }
+
+    @Test
+    void cancelledBookings_onlyUnpaidOnesPastRetention_areRemoved() {
+
+        UUID unpaidOld = booking(BookingStatus.CANCELLED, 120, null);
+        UUID paidOld = booking(BookingStatus.CANCELLED, 120, UUID.randomUUID());
+        UUID unpaidRecent = booking(BookingStatus.CANCELLED, 10, null);
+        UUID refundedOld = booking(BookingStatus.REFUNDED, 120, null);
+
+        RetentionRun run = retentionEngine.run(cancelledBookingRetention);
+
+        assertEquals(Outcome.COMPLETED, run.outcome());
+        assertFalse(bookingRepository.existsById(unpaidOld));
+        assertTrue(bookingRepository.existsById(paidOld));
+        assertTrue(bookingRepository.existsById(unpaidRecent));
+        assertTrue(bookingRepository.existsById(refundedOld));
+    }
+
+    @Test
+    void notificationOutbox_finishedRowsAreRemovedAndPendingOnesKept() {
+
+        UUID sent = outbox(OutboxStatus.SENT, 10);
+        UUID failed = outbox(OutboxStatus.FAILED, 10);
+        UUID pending = outbox(OutboxStatus.PENDING, 10);
+        UUID recentlySent = outbox(OutboxStatus.SENT, 1);
+
+        retentionEngine.run(notificationOutboxRetention);
+
+        assertFalse(notificationOutboxRepository.existsById(sent));
+        assertFalse(notificationOutboxRepository.existsById(failed));
+        assertTrue(notificationOutboxRepository.existsById(pending));
+        assertTrue(notificationOutboxRepository.existsById(recentlySent));
+    }
+
+    @Test
+    void runAll_recordsACheckpointForEveryTarget() {
+
+        List<RetentionRun> runs = retentionEngine.runAll();
+
+        assertEquals(3, runs.size());
+        for (RetentionRun run : runs) {
+            RetentionCheckpoint checkpoint = checkpointRepository.findById(run.target()).orElseThrow();
+            assertTrue(checkpoint.isLastRunCompleted());
+            assertNull(checkpoint.getLockedUntil());
+            assertNotNull(checkpoint.getLastRunOn());
+        }
+    }
+
+    private String persistentLogin(int daysUnused) {
+        PersistentLogin login = new PersistentLogin();
+        login.setSeries(UUID.randomUUID().toString());
+        login.setUsername("user");
+        login.setToken(UUID.randomUUID().toString());
+        persistentLoginRepository.save(login);
+
+        jdbcTemplate.update("UPDATE persistent_logins SET last_used = ? WHERE series = ?",
+                LocalDateTime.now().minusDays(daysUnused), login.getSeries());
+        return login.getSeries();
+    }
+
+    private UUID booking(BookingStatus status, int daysSinceCancelled, UUID paymentId) {
+        Booking booking = new Booking();
+        booking.setNumberOfTickets(1);
+        booking.setTotalAmount(BigDecimal.TEN);
+        booking.setCustomerEmail("user@example.com");
+        booking.setStatus(status);
+        booking.setCancelledAt(LocalDateTime.now().minusDays(daysSinceCancelled));
+        booking.setPaymentId(paymentId);
+        booking.setEvent(eventRepository.findAll().get(0));
+        booking.setUser(userRepository.findByUsername("user").orElseThrow());
+
+        return bookingRepository.save(booking).getId();
+    }
+
+    private UUID outbox(OutboxStatus status, int daysOld) {
+        NotificationOutbox outbox = new NotificationOutbox();
+        outbox.setRecipientId(UUID.randomUUID());
+        outbox.setRecipientEmail("user@example.com");
+        outbox.setSubject("Booking Confirmed");
+        outbox.setMessage("Your booking is confirmed.");
+        outbox.setStatus(status);
+        outbox.setNextAttemptAt(LocalDateTime.now().plusDays(1));
+        UUID id = notificationOutboxRepository.save(outbox).getId();
+
+        jdbcTemplate.update("UPDATE notification_outbox SET created_on = ? WHERE id = ?",
+                LocalDateTime.now().minusDays(daysOld), id);
+        return id;
+    }
+}
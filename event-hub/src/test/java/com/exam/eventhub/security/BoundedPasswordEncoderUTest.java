@@ -0,0 +1,76 @@
+package com.exam.eventhub.security;
+
+import com.exam.eventhub.exception.LoginCapacityExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoundedPasswordEncoderUTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        if (encoder != null) {
+            encoder.destroy();
+        }
+    }
+
+    @Test
+    void givenRawPassword_whenEncodeAndMatch_thenRoundTripsWithConfiguredCost() {
+
+        encoder = new BoundedPasswordEncoder(5, 1, 4, meterRegistry);
+
+        String hash = encoder.encode("secret");
+
+        assertTrue(hash.startsWith("$2a$05$"));
+        assertTrue(encoder.matches("secret", hash));
+        assertFalse(encoder.matches("wrong", hash));
+    }
+
+    @Test
+    void givenHashWithDifferentCost_whenUpgradeEncoding_thenRehashIsRequested() {
+
+        encoder = new BoundedPasswordEncoder(5, 1, 4, meterRegistry);
+
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret")));
+        assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("secret")));
+        assertFalse(encoder.upgradeEncoding(null));
+    }
+
+    @Test
+    void givenFullQueue_whenMoreHashesAreRequested_thenExcessIsShed() {
+
+        encoder = new BoundedPasswordEncoder(12, 1, 1, meterRegistry);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+
+        try {
+            List<CompletableFuture<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(CompletableFuture.supplyAsync(() -> encoder.encode("secret"), callers));
+            }
+
+            long shed = results.stream()
+                    .filter(future -> future.handle((hash, ex) -> ex != null
+                            && ex.getCause() instanceof LoginCapacityExceededException).join())
+                    .count();
+
+            assertThat(shed).isPositive();
+            assertThat(meterRegistry.get("eventhub.password.hashing.rejected").counter().count()).isEqualTo(shed);
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.exam.eventhub.security;
+
+import com.exam.eventhub.util.MutableClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.security.web.authentication.rememberme.PersistentRememberMeToken;
+import org.springframework.security.web.authentication.rememberme.PersistentTokenRepository;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CachingPersistentTokenRepositoryUTest {
+
+    @Mock
+    private PersistentTokenRepository delegate;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private MutableClock clock;
+    private CachingPersistentTokenRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        repository = new CachingPersistentTokenRepository(delegate, jdbcTemplate, true, 2, Duration.ofSeconds(60), clock);
+    }
+
+    @Test
+    void givenLoadedToken_whenReadAgain_thenDatabaseIsQueriedOnce() {
+
+        PersistentRememberMeToken token = new PersistentRememberMeToken("user", "series", "token", new Date());
+        when(delegate.getTokenForSeries("series")).thenReturn(token);
+
+        repository.getTokenForSeries("series");
+        PersistentRememberMeToken second = repository.getTokenForSeries("series");
+
+        assertThat(second).isSameAs(token);
+        verify(delegate, times(1)).getTokenForSeries("series");
+    }
+
+    @Test
+    void givenTokenRotation_thenItIsWrittenThroughAndServedFromMemory() {
+
+        repository.createNewToken(new PersistentRememberMeToken("user", "series", "t0", new Date()));
+        Date lastUsed = new Date();
+
+        repository.updateToken("series", "t1", lastUsed);
+        repository.flushPendingUpdates();
+
+        verify(delegate).updateToken("series", "t1", lastUsed);
+        assertThat(repository.getTokenForSeries("series").getTokenValue()).isEqualTo("t1");
+        verify(delegate, never()).getTokenForSeries("series");
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void givenLastUsedRefreshes_whenFlushed_thenOnlyLatestPerSeriesIsWrittenInOneBatch() {
+
+        repository.createNewToken(new PersistentRememberMeToken("user", "series", "t0", new Date()));
+
+        repository.updateToken("series", "t0", new Date());
+        repository.updateToken("series", "t0", new Date());
+
+        verify(delegate, never()).updateToken(anyString(), anyString(), any());
+
+        repository.flushPendingUpdates();
+        repository.flushPendingUpdates();
+
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(),
+                (Collection<PersistentRememberMeToken>) argThat(batch -> ((Collection<?>) batch).size() == 1),
+                eq(1), any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void givenFailedFlush_whenFlushedAgain_thenTheUpdateIsRetried() {
+
+        repository.createNewToken(new PersistentRememberMeToken("user", "series", "t0", new Date()));
+        repository.updateToken("series", "t0", new Date());
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"))
+                .thenReturn(new int[][]{{1}});
+
+        repository.flushPendingUpdates();
+        repository.flushPendingUpdates();
+        repository.flushPendingUpdates();
+
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    void givenPendingUpdate_whenUserTokensRemoved_thenCacheAndPendingWritesAreDropped() {
+
+        repository.createNewToken(new PersistentRememberMeToken("user", "series", "t0", new Date()));
+        repository.updateToken("series", "t0", new Date());
+
+        repository.removeUserTokens("user");
+        repository.flushPendingUpdates();
+
+        verify(delegate, times(1)).removeUserTokens("user");
+        verifyNoInteractions(jdbcTemplate);
+
+        repository.getTokenForSeries("series");
+        verify(delegate, times(1)).getTokenForSeries("series");
+    }
+
+    @Test
+    void givenCachedToken_whenTtlPassed_thenItIsReadFromTheDatabaseAgain() {
+
+        PersistentRememberMeToken token = new PersistentRememberMeToken("user", "series", "token", new Date());
+        when(delegate.getTokenForSeries("series")).thenReturn(token, (PersistentRememberMeToken) null);
+
+        repository.getTokenForSeries("series");
+        clock.advance(Duration.ofSeconds(61));
+
+        assertThat(repository.getTokenForSeries("series")).isNull();
+        verify(delegate, times(2)).getTokenForSeries("series");
+    }
+
+    @Test
+    void givenFullCache_whenAnotherSeriesIsCached_thenTheLeastRecentlyUsedOneIsDropped() {
+
+        repository.createNewToken(new PersistentRememberMeToken("a", "series-a", "t", new Date()));
+        repository.createNewToken(new PersistentRememberMeToken("b", "series-b", "t", new Date()));
+        repository.getTokenForSeries("series-a");
+
+        repository.createNewToken(new PersistentRememberMeToken("c", "series-c", "t", new Date()));
+
+        repository.getTokenForSeries("series-a");
+        repository.getTokenForSeries("series-c");
+        repository.getTokenForSeries("series-b");
+        verify(delegate, never()).getTokenForSeries("series-a");
+        verify(delegate, never()).getTokenForSeries("series-c");
+        verify(delegate, times(1)).getTokenForSeries("series-b");
+    }
+
+    @Test
+    void givenSeriesDeletedByRetention_whenEvicted_thenItIsNoLongerServedFromMemory() {
+
+        repository.createNewToken(new PersistentRememberMeToken("user", "series", "t0", new Date()));
+        repository.updateToken("series", "t0", new Date());
+
+        repository.evict(List.of("series"));
+        repository.flushPendingUpdates();
+
+        assertThat(repository.getTokenForSeries("series")).isNull();
+        verify(delegate).getTokenForSeries("series");
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void givenCacheDisabled_whenTokensAreReadAndRotated_thenEveryCallGoesToTheDatabase() {
+
+        repository = new CachingPersistentTokenRepository(delegate, jdbcTemplate, false, 100, Duration.ofSeconds(60), clock);
+        PersistentRememberMeToken token = new PersistentRememberMeToken("user", "series", "t0", new Date());
+        when(delegate.getTokenForSeries("series")).thenReturn(token);
+        Date lastUsed = new Date();
+
+        repository.createNewToken(token);
+        repository.getTokenForSeries("series");
+        repository.getTokenForSeries("series");
+        repository.updateToken("series", "t1", lastUsed);
+        repository.flushPendingUpdates();
+
+        verify(delegate, times(2)).getTokenForSeries("series");
+        verify(delegate).updateToken("series", "t1", lastUsed);
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,125 @@
+package com.exam.eventhub.security;
+
+import com.exam.eventhub.user.model.User;
+import com.exam.eventhub.user.repository.UserRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+                "com.exam.eventhub.security.CurrentUserIntegrationTest$UserSelectCounter")
+@AutoConfigureMockMvc
+class CurrentUserIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private AuthenticationMetadata userPrincipal;
+    private AuthenticationMetadata organizerPrincipal;
+    private User user;
+
+    @BeforeEach
+    void setup() {
+        user = userRepository.findByUsername("user").orElseThrow();
+        User organizer = userRepository.findByUsername("organizer").orElseThrow();
+
+        userPrincipal = toPrincipal(user);
+        organizerPrincipal = toPrincipal(organizer);
+    }
+
+    @Test
+    void getProfile_loadsUserAtMostOnce() throws Exception {
+
+        assertAtMostOneUserSelect(get("/profile").with(user(userPrincipal)));
+    }
+
+    @Test
+    void getEditProfile_loadsUserAtMostOnce() throws Exception {
+
+        assertAtMostOneUserSelect(get("/profile/edit").with(user(userPrincipal)));
+    }
+
+    @Test
+    void putProfileWithUnchangedEmail_loadsUserAtMostOnce() throws Exception {
+
+        MockHttpServletRequestBuilder request = put("/profile")
+                .param("username", user.getUsername())
+                .param("firstName", user.getFirstName())
+                .param("lastName", user.getLastName())
+                .param("email", user.getEmail())
+                .with(user(userPrincipal))
+                .with(csrf());
+
+        assertAtMostOneUserSelect(request);
+    }
+
+    @Test
+    void getMyEventsAsOrganizer_doesNotLoadUser() throws Exception {
+
+        UserSelectCounter.reset();
+
+        mockMvc.perform(get("/events/my").with(user(organizerPrincipal)))
+                .andExpect(status().isOk());
+
+        assertTrue(UserSelectCounter.count() == 0,
+                "Expected no select on users but got " + UserSelectCounter.count());
+    }
+
+    private void assertAtMostOneUserSelect(MockHttpServletRequestBuilder request) throws Exception {
+        UserSelectCounter.reset();
+
+        mockMvc.perform(request)
+                .andExpect(result -> assertTrue(result.getResponse().getStatus() < 400));
+
+        assertTrue(UserSelectCounter.count() <= 1,
+                "Expected at most one select on users but got " + UserSelectCounter.count());
+    }
+
+    private static AuthenticationMetadata toPrincipal(User user) {
+        return new AuthenticationMetadata(user.getId(), user.getUsername(), user.getPassword(),
+                user.getRole(), user.isBlocked(), user.getProfileImageUrl());
+    }
+
+    public static class UserSelectCounter implements StatementInspector {
+
+        private static final Pattern SELECT_FROM_USERS = Pattern.compile("\\bfrom users\\b", Pattern.CASE_INSENSITIVE);
+        private static final AtomicInteger COUNT = new AtomicInteger();
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.regionMatches(true, 0, "select", 0, 6) && SELECT_FROM_USERS.matcher(sql).find()) {
+                COUNT.incrementAndGet();
+            }
+            return sql;
+        }
+
+        static void reset() {
+            COUNT.set(0);
+        }
+
+        static int count() {
+            return COUNT.get();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.exam.eventhub.security;
+
+import com.exam.eventhub.util.MutableClock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LoginAttemptLimiterUTest {
+
+    private MutableClock clock;
+    private SimpleMeterRegistry meterRegistry;
+    private LoginAttemptLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        meterRegistry = new SimpleMeterRegistry();
+        limiter = new LoginAttemptLimiter(new LoginAttemptLimiter.Policy(10, 0),
+                new LoginAttemptLimiter.Policy(3, 0), Duration.ofSeconds(30), Duration.ofMinutes(2),
+                1_000, meterRegistry, clock);
+    }
+
+    @Test
+    void givenAccountOutOfTokens_whenBlockedFor_thenLockedForBaseDuration() {
+
+        failTimes(loginRequest("10.0.0.1", "user"), 3);
+
+        assertEquals(Duration.ofSeconds(30), limiter.blockedFor(loginRequest("10.0.0.2", "user")));
+        assertEquals(Duration.ZERO, limiter.blockedFor(loginRequest("10.0.0.2", "other")));
+        assertEquals(1.0, lockouts("account"));
+    }
+
+    @Test
+    void givenRepeatedLockouts_whenFailingAgain_thenBackOffDoublesUpToMax() {
+
+        MockHttpServletRequest request = loginRequest("10.0.0.1", "user");
+        failTimes(request, 3);
+
+        clock.advance(Duration.ofSeconds(30));
+        failTimes(request, 1);
+        assertEquals(Duration.ofSeconds(60), limiter.blockedFor(request));
+
+        clock.advance(Duration.ofSeconds(60));
+        failTimes(request, 1);
+        assertEquals(Duration.ofMinutes(2), limiter.blockedFor(request));
+
+        clock.advance(Duration.ofMinutes(2));
+        failTimes(request, 1);
+        assertEquals(Duration.ofMinutes(2), limiter.blockedFor(request));
+    }
+
+    @Test
+    void givenUsernameInDifferentCase_whenFailing_thenSameAccountBucketIsUsed() {
+
+        failTimes(loginRequest("10.0.0.1", "User"), 2);
+        failTimes(loginRequest("10.0.0.2", " user "), 1);
+
+        assertTrue(limiter.blockedFor(loginRequest("10.0.0.3", "USER")).toSeconds() > 0);
+    }
+
+    @Test
+    void givenManyAccountsFromOneIp_whenFailing_thenIpIsLocked() {
+
+        for (int i = 0; i < 10; i++) {
+            failTimes(loginRequest("10.0.0.1", "user" + i), 1);
+        }
+
+        assertTrue(limiter.blockedFor(loginRequest("10.0.0.1", "fresh")).toSeconds() > 0);
+        assertEquals(1.0, lockouts("ip"));
+    }
+
+    @Test
+    void givenSuccessfulLogin_whenRecorded_thenAccountIsClearedButIpIsNot() {
+
+        LoginAttemptLimiter limiter = new LoginAttemptLimiter(new LoginAttemptLimiter.Policy(3, 0),
+                new LoginAttemptLimiter.Policy(3, 0), Duration.ofSeconds(30), Duration.ofMinutes(2),
+                1_000, meterRegistry, clock);
+
+        failTimes(limiter, loginRequest("10.0.0.1", "user"), 2);
+        limiter.recordSuccess(loginRequest("10.0.0.1", "user"));
+        failTimes(limiter, loginRequest("10.0.0.1", "user"), 1);
+
+        assertTrue(limiter.blockedFor(loginRequest("10.0.0.9", "user")).isZero());
+        assertTrue(limiter.blockedFor(loginRequest("10.0.0.1", "other")).toSeconds() > 0);
+    }
+
+    @Test
+    void givenTokensRefill_whenEnoughTimePassed_thenAttemptsAreAllowedAgain() {
+
+        LoginAttemptLimiter limiter = new LoginAttemptLimiter(new LoginAttemptLimiter.Policy(100, 60),
+                new LoginAttemptLimiter.Policy(3, 1), Duration.ofSeconds(30), Duration.ofMinutes(2),
+                1_000, meterRegistry, clock);
+        MockHttpServletRequest request = loginRequest("10.0.0.1", "user");
+
+        failTimes(limiter, request, 2);
+        clock.advance(Duration.ofMinutes(1));
+        failTimes(limiter, request, 1);
+
+        assertTrue(limiter.blockedFor(request).isZero());
+    }
+
+    @Test
+    void givenMoreKeysThanLimit_whenFailing_thenTrackedKeysStayBounded() {
+
+        for (int i = 0; i < 10_000; i++) {
+            failTimes(loginRequest("10.1." + (i / 256) + "." + (i % 256), "user" + i), 1);
+        }
+
+        double trackedIps = meterRegistry.get("eventhub.login.throttle.tracked").tag("key", "ip").gauge().value();
+        double trackedAccounts = meterRegistry.get("eventhub.login.throttle.tracked").tag("key", "account").gauge().value();
+
+        assertTrue(trackedIps <= 1_000);
+        assertTrue(trackedAccounts <= 1_000);
+    }
+
+    private void failTimes(MockHttpServletRequest request, int times) {
+        failTimes(limiter, request, times);
+    }
+
+    private static void failTimes(LoginAttemptLimiter limiter, MockHttpServletRequest request, int times) {
+        for (int i = 0; i < times; i++) {
+            limiter.recordFailure(request);
+        }
+    }
+
+    private double lockouts(String key) {
+        return meterRegistry.get("eventhub.login.throttle.lockouts").tag("key", key).counter().count();
+    }
+
+    private static MockHttpServletRequest loginRequest(String ip, String username) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/login");
+        request.setRemoteAddr(ip);
+        request.setParameter("username", username);
+        return request;
+    }
+}
@@ -0,0 +1,67 @@
+package com.exam.eventhub.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "eventhub.security.login-throttle.account.capacity=3",
+        "eventhub.security.login-throttle.account.refill-per-minute=0"
+})
+@AutoConfigureMockMvc
+class LoginThrottlingIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void repeatedWrongPasswords_lockTheAccountEvenForTheRightPassword() throws Exception {
+
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(login("organizer", "wrong-password", "10.0.0." + i))
+                    .andExpect(redirectedUrl("/login?error"));
+        }
+
+        mockMvc.perform(login("organizer", "org123", "10.0.0.99"))
+                .andExpect(redirectedUrl("/login?error=throttled"))
+                .andExpect(header().exists("Retry-After"));
+    }
+
+    @Test
+    void successfulLogin_clearsPreviousFailuresForTheAccount() throws Exception {
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(login("user", "wrong-password", "10.0.1.1"))
+                    .andExpect(redirectedUrl("/login?error"));
+        }
+
+        mockMvc.perform(login("user", "user123", "10.0.1.1"))
+                .andExpect(redirectedUrl("/"));
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(login("user", "wrong-password", "10.0.1.1"))
+                    .andExpect(redirectedUrl("/login?error"));
+        }
+    }
+
+    private static MockHttpServletRequestBuilder login(String username, String password, String ip) {
+        return post("/login")
+                .param("username", username)
+                .param("password", password)
+                .with(request -> {
+                    request.setRemoteAddr(ip);
+                    return request;
+                })
+                .with(csrf());
+    }
+}
@@ -0,0 +1,44 @@
+package com.exam.eventhub.security;
+
+import com.exam.eventhub.user.model.Role;
+import com.exam.eventhub.util.MutableClock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class UserDetailsCacheUTest {
+
+    private final AuthenticationMetadata details =
+            new AuthenticationMetadata(UUID.randomUUID(), "user", "pass", Role.USER, false, null);
+
+    @Test
+    void givenEntryOlderThanTtl_whenGet_thenMiss() {
+
+        MutableClock clock = new MutableClock();
+        UserDetailsCache cache = new UserDetailsCache(Duration.ofSeconds(30), clock);
+
+        cache.put("user", details);
+        assertSame(details, cache.get("user"));
+
+        clock.advance(Duration.ofSeconds(31));
+        assertNull(cache.get("user"));
+    }
+
+    @Test
+    void givenEntriesUnderUsernameAndEmail_whenEvictByUsername_thenBothAreDropped() {
+
+        UserDetailsCache cache = new UserDetailsCache(Duration.ofMinutes(1), Clock.systemUTC());
+        cache.put("user", details);
+        cache.put("user@exam.com", details);
+
+        cache.evict("user");
+
+        assertNull(cache.get("user"));
+        assertNull(cache.get("user@exam.com"));
+    }
+}
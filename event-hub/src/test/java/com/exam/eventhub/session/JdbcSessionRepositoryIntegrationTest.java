@@ -0,0 +1,212 @@
+package com.exam.eventhub.session;
+
+import com.exam.eventhub.session.repository.JdbcSessionRepository;
+import com.exam.eventhub.session.repository.JdbcSessionRepository.StoredSession;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = "eventhub.session.store=jdbc")
+@AutoConfigureMockMvc
+class JdbcSessionRepositoryIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private SimpleMeterRegistry meterRegistry;
+    private JdbcSessionRepository nodeA;
+    private JdbcSessionRepository nodeB;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        nodeA = newNode(meterRegistry);
+        nodeB = newNode(new SimpleMeterRegistry());
+    }
+
+    @Test
+    void sessionSavedOnOneNode_isServedByAnother() {
+
+        StoredSession session = nodeA.createSession();
+        session.setAttribute("cart", "3 tickets");
+        nodeA.save(session);
+
+        StoredSession loaded = nodeB.findById(session.getId());
+
+        assertNotNull(loaded);
+        assertEquals("3 tickets", loaded.getAttribute("cart"));
+    }
+
+    @Test
+    void attributeThatIsNotSerializable_isLeftOutInsteadOfFailingTheSave() {
+
+        StoredSession session = nodeA.createSession();
+        session.setAttribute("cart", "3 tickets");
+        session.setAttribute("lock", new Object());
+        nodeA.save(session);
+
+        StoredSession loaded = nodeB.findById(session.getId());
+
+        assertNotNull(loaded);
+        assertEquals("3 tickets", loaded.getAttribute("cart"));
+        assertNull(loaded.getAttribute("lock"));
+    }
+
+    @Test
+    void attributeChangedOnAnotherNode_isNotServedFromStaleNearCache() {
+
+        StoredSession session = nodeA.createSession();
+        session.setAttribute("cart", "3 tickets");
+        nodeA.save(session);
+        assertEquals("3 tickets", nodeA.findById(session.getId()).getAttribute("cart"));
+
+        StoredSession onB = nodeB.findById(session.getId());
+        onB.setAttribute("cart", "5 tickets");
+        nodeB.save(onB);
+
+        assertEquals("5 tickets", nodeA.findById(session.getId()).getAttribute("cart"));
+        assertEquals(1.0, counter("eventhub.session.near-cache", "result", "stale"));
+    }
+
+    @Test
+    void unchangedSession_isServedFromNearCacheAndAccessTimeWriteIsDeferred() {
+
+        StoredSession session = nodeA.createSession();
+        session.setAttribute("cart", "3 tickets");
+        nodeA.save(session);
+
+        StoredSession loaded = nodeA.findById(session.getId());
+        loaded.setLastAccessedTime(loaded.getLastAccessedTime().plusSeconds(5));
+        nodeA.save(loaded);
+
+        StoredSession later = nodeA.findById(session.getId());
+        later.setLastAccessedTime(later.getLastAccessedTime().plusSeconds(120));
+        nodeA.save(later);
+
+        assertEquals(2.0, counter("eventhub.session.near-cache", "result", "hit"));
+        assertEquals(1.0, counter("eventhub.session.writes", "type", "skipped"));
+        assertEquals(1.0, counter("eventhub.session.writes", "type", "touch"));
+    }
+
+    @Test
+    void expiredSession_isNotReturnedAndIsDeleted() {
+
+        StoredSession session = nodeA.createSession();
+        session.setMaxInactiveInterval(Duration.ofMinutes(1));
+        session.setLastAccessedTime(Instant.now().minus(Duration.ofMinutes(5)));
+        nodeA.save(session);
+
+        assertNull(nodeB.findById(session.getId()));
+        assertNull(nodeA.findById(session.getId()));
+    }
+
+    @Test
+    void changedSessionId_movesTheRow() {
+
+        StoredSession session = nodeA.createSession();
+        session.setAttribute("cart", "3 tickets");
+        nodeA.save(session);
+        String oldId = session.getId();
+
+        StoredSession loaded = nodeA.findById(oldId);
+        String newId = loaded.changeSessionId();
+        nodeA.save(loaded);
+
+        assertNull(nodeB.findById(oldId));
+        assertEquals("3 tickets", nodeB.findById(newId).getAttribute("cart"));
+    }
+
+    @Test
+    void formLogin_keepsTheUserLoggedInThroughTheJdbcStore() throws Exception {
+
+        MvcResult login = mockMvc.perform(post("/login")
+                        .param("username", "user")
+                        .param("password", "user123")
+                        .with(csrf()))
+                .andExpect(redirectedUrl("/"))
+                .andReturn();
+
+        Cookie sessionCookie = login.getResponse().getCookie("JSESSIONID");
+        assertNotNull(sessionCookie);
+
+        mockMvc.perform(get("/profile").cookie(sessionCookie))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void invalidRegistration_keepsTheFormErrorsAcrossTheRedirectThroughTheJdbcStore() throws Exception {
+
+        MvcResult invalid = mockMvc.perform(post("/register")
+                        .param("username", "x")
+                        .param("email", "not-an-email")
+                        .with(csrf()))
+                .andExpect(redirectedUrl("/register"))
+                .andReturn();
+
+        Cookie sessionCookie = invalid.getResponse().getCookie("JSESSIONID");
+        assertNotNull(sessionCookie);
+
+        mockMvc.perform(get("/register").cookie(sessionCookie))
+                .andExpect(status().isOk())
+                .andExpect(model().attributeHasFieldErrors("registerRequest", "username", "email"))
+                .andExpect(model().attribute("registerRequest", hasProperty("email", is("not-an-email"))));
+    }
+
+    @Test
+    void invalidProfileEdit_keepsTheFormErrorsAcrossTheRedirectThroughTheJdbcStore() throws Exception {
+
+        MvcResult login = mockMvc.perform(post("/login")
+                        .param("username", "user")
+                        .param("password", "user123")
+                        .with(csrf()))
+                .andReturn();
+        Cookie sessionCookie = login.getResponse().getCookie("JSESSIONID");
+
+        mockMvc.perform(put("/profile")
+                        .cookie(sessionCookie)
+                        .param("email", "not-an-email")
+                        .with(csrf()))
+                .andExpect(status().is3xxRedirection());
+
+        mockMvc.perform(get("/profile/edit").cookie(sessionCookie))
+                .andExpect(status().isOk())
+                .andExpect(model().attributeHasFieldErrors("user", "email"));
+    }
+
+    private JdbcSessionRepository newNode(MeterRegistry registry) {
+        return new JdbcSessionRepository(new JdbcTemplate(dataSource), Duration.ofMinutes(30),
+                Duration.ofSeconds(60), 100, registry);
+    }
+
+    private double counter(String name, String tag, String value) {
+        return meterRegistry.get(name).tag(tag, value).counter().count();
+    }
+}
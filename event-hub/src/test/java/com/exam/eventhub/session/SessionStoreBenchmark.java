@@ -0,0 +1,100 @@
+package com.exam.eventhub.session;
+
+import com.exam.eventhub.security.AuthenticationMetadata;
+import com.exam.eventhub.session.repository.JdbcSessionRepository;
+import com.exam.eventhub.user.model.Role;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.session.MapSession;
+import org.springframework.session.MapSessionRepository;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-request session overhead of the stores, measured as the findById / setLastAccessedTime / save cycle
+ * that {@code SessionRepositoryFilter} runs around every request, for a session holding a logged-in
+ * security context and a CSRF-sized attribute. Run with {@code gradle benchmark}.
+ */
+@Tag("benchmark")
+@ActiveProfiles("test")
+@SpringBootTest
+class SessionStoreBenchmark {
+
+    private static final int SESSIONS = 200;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 50;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void perRequestSessionOverhead() {
+
+        MapSessionRepository inMemory = new MapSessionRepository(new ConcurrentHashMap<>());
+        JdbcSessionRepository jdbcNearCache = jdbcRepository(SESSIONS * 2);
+        JdbcSessionRepository jdbcNoCache = jdbcRepository(0);
+
+        System.out.printf("%-28s %12s%n", "store", "us/request");
+        System.out.printf("%-28s %12.1f%n", "in-memory (MapSession)", measure(inMemory));
+        System.out.printf("%-28s %12.1f%n", "jdbc + near-cache", measure(jdbcNearCache));
+        System.out.printf("%-28s %12.1f%n", "jdbc without near-cache", measure(jdbcNoCache));
+    }
+
+    private <S extends Session> double measure(SessionRepository<S> repository) {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < SESSIONS; i++) {
+            S session = repository.createSession();
+            session.setAttribute("SPRING_SECURITY_CONTEXT", securityContext());
+            session.setAttribute("csrfToken", UUID.randomUUID().toString());
+            repository.save(session);
+            ids.add(session.getId());
+        }
+
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            requestCycle(repository, ids);
+        }
+
+        long start = System.nanoTime();
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            requestCycle(repository, ids);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        return elapsed / 1_000.0 / (MEASURED_ROUNDS * (double) SESSIONS);
+    }
+
+    private static <S extends Session> void requestCycle(SessionRepository<S> repository, List<String> ids) {
+        for (String id : ids) {
+            S session = repository.findById(id);
+            session.setLastAccessedTime(Instant.now());
+            repository.save(session);
+        }
+    }
+
+    private JdbcSessionRepository jdbcRepository(int nearCacheSize) {
+        return new JdbcSessionRepository(new JdbcTemplate(dataSource), MapSession.DEFAULT_MAX_INACTIVE_INTERVAL,
+                Duration.ofSeconds(60), nearCacheSize, new SimpleMeterRegistry());
+    }
+
+    private static SecurityContextImpl securityContext() {
+        AuthenticationMetadata principal =
+                new AuthenticationMetadata(UUID.randomUUID(), "user", "{bcrypt}hash", Role.USER, false, null);
+        return new SecurityContextImpl(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
@@ -5,6 +5,7 @@ import com.exam.eventhub.exception.EmailDuplicateException;
 import com.exam.eventhub.exception.UserNotFoundException;
 import com.exam.eventhub.exception.UsernameAlreadyExistsException;
 import com.exam.eventhub.security.AuthenticationMetadata;
+import com.exam.eventhub.security.UserDetailsCache;
 import com.exam.eventhub.user.model.Role;
 import com.exam.eventhub.user.model.User;
 import com.exam.eventhub.user.repository.UserRepository;
@@ -18,12 +19,11 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.authentication.rememberme.PersistentTokenRepository;
 
-import java.lang.reflect.Field;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -45,7 +45,9 @@ public class UserServiceUTest {
     @Mock
     private PasswordEncoder passwordEncoder;
     @Mock
-    private JdbcTemplate jdbcTemplate;
+    private PersistentTokenRepository persistentTokenRepository;
+    @Mock
+    private UserDetailsCache userDetailsCache;
 
     @InjectMocks
     private UserService userService;
@@ -305,7 +307,6 @@ public class UserServiceUTest {
         user.setLastName("OldLastName");
 
         when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
-        when(userRepository.findByEmail(originalEmail)).thenReturn(Optional.of(user));
 
         userService.updateUserProfile(username, dto);
 
@@ -315,25 +316,21 @@ public class UserServiceUTest {
         assertEquals("www.image.com", user.getProfileImageUrl());
         assertEquals("+359888111222", user.getPhoneNumber());
         verify(userRepository, times(1)).save(user);
-        verify(userRepository, times(1)).findByEmail(originalEmail);
+        verify(userRepository, never()).findByEmail(any());
     }
 
     @Test
-    void givenUserWithStatusUnblocked_whenSwitchStatus_thenUserStatusBecomeBlocked() throws NoSuchFieldException, IllegalAccessException {
+    void givenUserWithStatusUnblocked_whenSwitchStatus_thenUserStatusBecomeBlocked() {
 
         defaultUser.setBlocked(false);
         when(userRepository.findById(defaultUser.getId())).thenReturn(Optional.of(defaultUser));
 
-        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(1);
-
-        Field jdbcField = UserService.class.getDeclaredField("jdbcTemplate");
-        jdbcField.setAccessible(true);
-        jdbcField.set(userService, jdbcTemplate);
-
         userService.blockUser(defaultUser.getId());
 
         assertTrue(defaultUser.isBlocked());
         verify(userRepository, times(1)).save(defaultUser);
+        verify(userDetailsCache, times(1)).evict(defaultUser.getUsername());
+        verify(persistentTokenRepository, times(1)).removeUserTokens(defaultUser.getUsername());
     }
 
     @Test
@@ -486,6 +483,19 @@ public class UserServiceUTest {
         assertEquals("ROLE_USER", result.getAuthorities().iterator().next().getAuthority());
     }
 
+    @Test
+    void givenCachedUserDetails_whenLoadUserByUsername_thenRepositoryIsNotQueried() {
+
+        AuthenticationMetadata cached = new AuthenticationMetadata(defaultUser.getId(), defaultUser.getUsername(),
+                "encodedPass", Role.USER, false, null);
+        when(userDetailsCache.get(defaultUser.getUsername())).thenReturn(cached);
+
+        UserDetails result = userService.loadUserByUsername(defaultUser.getUsername());
+
+        assertSame(cached, result);
+        verify(userRepository, never()).findByUsernameOrEmail(anyString(), anyString());
+    }
+
     @Test
     void givenMissingUserFromDatabase_whenLoadUserByUsername_thenExceptionIsThrown() {
 
@@ -497,4 +507,18 @@ public class UserServiceUTest {
         assertTrue(exception.getMessage().contains("User not found: " + username));
 
     }
+
+    @Test
+    void givenRehashedPassword_whenUpdatePassword_thenStoredHashIsReplaced() {
+
+        when(userRepository.findByUsername(defaultUser.getUsername())).thenReturn(Optional.of(defaultUser));
+
+        UserDetails current = userService.updatePassword(
+                new AuthenticationMetadata(defaultUser.getId(), defaultUser.getUsername(), "encodedPass", Role.USER, false, null),
+                "$2a$12$rehashed");
+
+        assertEquals("$2a$12$rehashed", defaultUser.getPassword());
+        assertEquals("$2a$12$rehashed", current.getPassword());
+        verify(userRepository, times(1)).save(defaultUser);
+    }
 }
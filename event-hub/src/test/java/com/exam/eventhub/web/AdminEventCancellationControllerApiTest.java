@@ -0,0 +1,109 @@
+package com.exam.eventhub.web;
+
+import com.exam.eventhub.config.TestMvcConfig;
+import com.exam.eventhub.config.TestSecurityConfig;
+import com.exam.eventhub.event.model.CancellationStatus;
+import com.exam.eventhub.event.model.EventCancellation;
+import com.exam.eventhub.event.service.EventCancellationService;
+import com.exam.eventhub.security.AuthenticationMetadata;
+import com.exam.eventhub.user.model.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static com.exam.eventhub.common.Constants.SUCCESS_MESSAGE_ATTR;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AdminEventCancellationController.class)
+@Import({TestMvcConfig.class, TestSecurityConfig.class})
+public class AdminEventCancellationControllerApiTest {
+
+    @MockitoBean
+    private EventCancellationService eventCancellationService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private AuthenticationMetadata adminPrincipal;
+
+    @BeforeEach
+    void setup() {
+        adminPrincipal = new AuthenticationMetadata
+                (UUID.randomUUID(), "adminUser", "admin@mail.com", Role.ADMIN, false, null);
+    }
+
+    @Test
+    void getCancellations_asAdmin_returnsProgressView() throws Exception {
+
+        EventCancellation cancellation = new EventCancellation();
+        cancellation.setId(UUID.randomUUID());
+        cancellation.setEventTitle("Rock Night");
+        cancellation.setRequestedBy("organizer");
+        cancellation.setTotalBookings(10);
+        cancellation.setProcessedBookings(4);
+        cancellation.setCreatedOn(LocalDateTime.now());
+        when(eventCancellationService.getAll()).thenReturn(List.of(cancellation));
+
+        MockHttpServletRequestBuilder request = get("/admin/event-cancellations")
+                .with(user(adminPrincipal));
+
+        ResultActions response = mockMvc.perform(request);
+
+        response.andExpect(status().isOk())
+                .andExpect(view().name("admin/manage-event-cancellations"))
+                .andExpect(model().attribute("cancellations", List.of(cancellation)))
+                .andExpect(model().attribute("anyRunning", true));
+    }
+
+    @Test
+    void retryCancellation_asAdmin_redirectsWithFlashMessage() throws Exception {
+
+        UUID id = UUID.randomUUID();
+        EventCancellation cancellation = new EventCancellation();
+        cancellation.setStatus(CancellationStatus.RUNNING);
+        when(eventCancellationService.retry(id)).thenReturn(cancellation);
+
+        MockHttpServletRequestBuilder request = post("/admin/event-cancellations/{id}/retry", id)
+                .with(user(adminPrincipal))
+                .with(csrf());
+
+        ResultActions response = mockMvc.perform(request);
+
+        response.andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/admin/event-cancellations"))
+                .andExpect(flash().attribute(SUCCESS_MESSAGE_ATTR, "Cancellation restarted!"));
+
+        verify(eventCancellationService, times(1)).retry(id);
+    }
+
+    @Test
+    void getCancellations_asUser_returnsForbidden() throws Exception {
+
+        AuthenticationMetadata userPrincipal = new AuthenticationMetadata
+                (UUID.randomUUID(), "user", "user@mail.com", Role.USER, false, null);
+
+        MockHttpServletRequestBuilder request = get("/admin/event-cancellations")
+                .with(user(userPrincipal));
+
+        ResultActions response = mockMvc.perform(request);
+
+        response.andExpect(status().isForbidden());
+
+        verify(eventCancellationService, never()).getAll();
+    }
+}
@@ -2,6 +2,7 @@ package com.exam.eventhub.web;
 
 import com.exam.eventhub.config.TestMvcConfig;
 import com.exam.eventhub.config.TestSecurityConfig;
+import com.exam.eventhub.notification.client.dto.NotificationPageResponse;
 import com.exam.eventhub.notification.client.dto.NotificationResponse;
 import com.exam.eventhub.notification.service.NotificationService;
 import com.exam.eventhub.security.AuthenticationMetadata;
@@ -23,7 +24,9 @@ import java.util.UUID;
 
 import static com.exam.eventhub.common.Constants.SUCCESS_MESSAGE_ATTR;
 import static com.exam.eventhub.util.AdminNotificationHelper.createMockNotification;
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
@@ -61,7 +64,7 @@ public class AdminNotificationControllerApiTest {
 
         List<NotificationResponse> mockNotifications = Arrays.asList(notification1, notification2, notification3);
 
-        when(notificationService.getAll()).thenReturn(mockNotifications);
+        when(notificationService.getAllPage(null, 50)).thenReturn(new NotificationPageResponse(mockNotifications, null));
 
         MockHttpServletRequestBuilder request = get("/admin/notifications")
                 .with(user(adminPrincipal));
@@ -73,13 +76,30 @@ public class AdminNotificationControllerApiTest {
                 .andExpect(model().attributeExists("notifications"))
                 .andExpect(model().attribute("notifications", mockNotifications));
 
-        verify(notificationService, times(1)).getAll();
+        verify(notificationService, times(1)).getAllPage(null, 50);
+    }
+
+    @Test
+    void getViewNotificationsWithCursor_requestsThatPageAndExposesNextCursor() throws Exception {
+
+        NotificationResponse notification = createMockNotification("Event Reminder", "User event reminder", "SENT");
+        when(notificationService.getAllPage("cursor-1", 50)).thenReturn(new NotificationPageResponse(List.of(notification), "cursor-2"));
+
+        MockHttpServletRequestBuilder request = get("/admin/notifications")
+                .param("cursor", "cursor-1")
+                .with(user(adminPrincipal));
+
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("nextCursor", "cursor-2"))
+                .andExpect(model().attribute("firstPage", false))
+                .andExpect(content().string(containsString("cursor=cursor-2")));
     }
 
     @Test
     void getViewNotificationsWithEmptyList_returnsViewWithEmptyList() throws Exception {
 
-        when(notificationService.getAll()).thenReturn(Collections.emptyList());
+        when(notificationService.getAllPage(null, 50)).thenReturn(new NotificationPageResponse(Collections.emptyList(), null));
 
         MockHttpServletRequestBuilder request = get("/admin/notifications")
                 .with(user(adminPrincipal));
@@ -90,7 +110,7 @@ public class AdminNotificationControllerApiTest {
                 .andExpect(view().name("admin/manage-notifications"))
                 .andExpect(model().attribute("notifications", Collections.emptyList()));
 
-        verify(notificationService, times(1)).getAll();
+        verify(notificationService, times(1)).getAllPage(null, 50);
     }
 
     @Test
@@ -103,15 +123,17 @@ public class AdminNotificationControllerApiTest {
 
         response.andExpect(status().isForbidden());
 
-        verify(notificationService, never()).getAll();
+        verify(notificationService, never()).getAllPage(any(), anyInt());
     }
 
     @Test
     void postAuthenticatedAdminRequestToDeleteNotification_deletesAndRedirects() throws Exception {
 
         UUID notificationId = UUID.randomUUID();
+        UUID recipientId = UUID.randomUUID();
 
         MockHttpServletRequestBuilder request = post("/admin/notifications/" + notificationId)
+                .param("recipientId", recipientId.toString())
                 .with(user(adminPrincipal))
                 .with(csrf());
 
@@ -122,7 +144,7 @@ public class AdminNotificationControllerApiTest {
                 .andExpect(flash().attributeExists(SUCCESS_MESSAGE_ATTR))
                 .andExpect(flash().attribute(SUCCESS_MESSAGE_ATTR, "Notification deleted successfully!"));
 
-        verify(notificationService, times(1)).delete(notificationId);
+        verify(notificationService, times(1)).delete(notificationId, recipientId);
     }
 
     @Test
@@ -137,7 +159,7 @@ public class AdminNotificationControllerApiTest {
 
         response.andExpect(status().isForbidden());
 
-        verify(notificationService, never()).delete(any());
+        verify(notificationService, never()).delete(any(), any());
     }
 
     @Test
@@ -153,7 +175,7 @@ public class AdminNotificationControllerApiTest {
 
         response.andExpect(status().isForbidden());
 
-        verify(notificationService, never()).delete(any());
+        verify(notificationService, never()).delete(any(), any());
     }
 
     @Test
@@ -168,6 +190,6 @@ public class AdminNotificationControllerApiTest {
 
         response.andExpect(status().isForbidden());
 
-        verify(notificationService, never()).delete(any());
+        verify(notificationService, never()).delete(any(), any());
     }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.exam.eventhub.web;
 
 import com.exam.eventhub.config.TestMvcConfig;
 import com.exam.eventhub.config.TestSecurityConfig;
+import com.exam.eventhub.exception.LoginCapacityExceededException;
 import com.exam.eventhub.user.model.Role;
 import com.exam.eventhub.user.service.UserService;
 import com.exam.eventhub.web.dto.LoginRequest;
@@ -16,7 +17,7 @@ import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
 import static com.exam.eventhub.common.Constants.*;
-import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
@@ -88,6 +89,29 @@ public class AuthControllerApiTest {
         verify(userService, times(1)).register(any());
     }
 
+    @Test
+    void processRegistration_whenPasswordHashingIsAtCapacity_shouldRedirectBackToRegisterAsBusy() throws Exception {
+
+        doThrow(new LoginCapacityExceededException("busy")).when(userService).register(any());
+
+        MockHttpServletRequestBuilder request = post("/register")
+                .formField("username", "dimitar_p")
+                .formField("email", "peev@example.com")
+                .formField("password", "test123")
+                .formField("confirmPassword", "test123")
+                .formField("role", "USER")
+                .with(csrf());
+
+        ResultActions response = mockMvc.perform(request);
+
+        response.andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/register"))
+                .andExpect(flash().attribute("registrationBusy", true))
+                .andExpect(flash().attribute("registerRequest", allOf(
+                        hasProperty("username", is("dimitar_p")),
+                        hasProperty("password", nullValue()))));
+    }
+
     @Test
     void processRegistration_withInvalidData_shouldRedirectBackToRegisterWithErrors() throws Exception {
 
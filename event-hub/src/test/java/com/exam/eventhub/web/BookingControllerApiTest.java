@@ -143,8 +143,7 @@ class BookingControllerApiTest {
 
         response.andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/bookings/" + bookingId + "/confirmation"))
-                .andExpect(flash().attributeExists("booking"))
-                .andExpect(flash().attribute("booking", mockBooking));
+                .andExpect(flash().attributeCount(0));
 
         verify(bookingService, times(1)).add(any(BookingCreateRequest.class), eq(principal.getUsername()));
     }
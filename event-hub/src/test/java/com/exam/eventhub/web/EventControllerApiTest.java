@@ -5,11 +5,12 @@ import com.exam.eventhub.category.service.CategoryService;
 import com.exam.eventhub.config.TestMvcConfig;
 import com.exam.eventhub.config.TestSecurityConfig;
 import com.exam.eventhub.event.model.Event;
+import com.exam.eventhub.event.service.EventCancellationService;
 import com.exam.eventhub.event.service.EventService;
 import com.exam.eventhub.security.AuthenticationMetadata;
+import com.exam.eventhub.security.CurrentUser;
 import com.exam.eventhub.user.model.Role;
 import com.exam.eventhub.user.model.User;
-import com.exam.eventhub.user.service.UserService;
 import com.exam.eventhub.venue.service.VenueService;
 import com.exam.eventhub.web.dto.EventCreateRequest;
 import com.exam.eventhub.web.dto.EventEditRequest;
@@ -43,13 +44,15 @@ public class EventControllerApiTest {
     @MockitoBean
     private EventService eventService;
     @MockitoBean
-    private UserService userService;
+    private CurrentUser currentUser;
     @MockitoBean
     private CategoryService categoryService;
     @MockitoBean
     private VenueService venueService;
     @MockitoBean
     private BookingService bookingService;
+    @MockitoBean
+    private EventCancellationService eventCancellationService;
 
     @Autowired
     private MockMvc mockMvc;
@@ -124,7 +127,7 @@ public class EventControllerApiTest {
 
         String username = organizerPrincipal.getUsername();
 
-        when(userService.hasRole(username, Role.ADMIN)).thenReturn(false);
+        when(currentUser.isAdmin()).thenReturn(false);
         when(eventService.getEventsByOrganizer(username)).thenReturn(Collections.emptyList());
 
         MockHttpServletRequestBuilder request = get("/events/my")
@@ -136,7 +139,7 @@ public class EventControllerApiTest {
                 .andExpect(view().name("event/manage-events"))
                 .andExpect(model().attributeExists("myEvents"));
 
-        verify(userService, times(1)).hasRole(username, Role.ADMIN);
+        verify(currentUser, times(1)).isAdmin();
         verify(eventService, times(1)).getEventsByOrganizer(username);
         verify(eventService, never()).getAllWithDetails();
     }
@@ -146,7 +149,7 @@ public class EventControllerApiTest {
 
         String username = adminPrincipal.getUsername();
 
-        when(userService.hasRole(username, Role.ADMIN)).thenReturn(true);
+        when(currentUser.isAdmin()).thenReturn(true);
         when(eventService.getAllWithDetails()).thenReturn(Collections.emptyList());
 
         MockHttpServletRequestBuilder request = get("/events/my")
@@ -158,7 +161,7 @@ public class EventControllerApiTest {
                 .andExpect(view().name("event/manage-events"))
                 .andExpect(model().attributeExists("myEvents"));
 
-        verify(userService, times(1)).hasRole(username, Role.ADMIN);
+        verify(currentUser, times(1)).isAdmin();
         verify(eventService, times(1)).getAllWithDetails();
         verify(eventService, never()).getEventsByOrganizer(any());
     }
@@ -307,7 +310,7 @@ public class EventControllerApiTest {
         mockEvent.setOrganizer(user);
 
         when(eventService.getByIdWithDetails(eventId)).thenReturn(mockEvent);
-        when(userService.hasRole(organizerPrincipal.getUsername(), Role.ADMIN)).thenReturn(false);
+        when(currentUser.isAdmin()).thenReturn(false);
         when(categoryService.getAll()).thenReturn(Collections.emptyList());
         when(venueService.getAll()).thenReturn(Collections.emptyList());
 
@@ -339,7 +342,7 @@ public class EventControllerApiTest {
         mockEvent.setOrganizer(user);
 
         when(eventService.getByIdWithDetails(eventId)).thenReturn(mockEvent);
-        when(userService.hasRole(organizerPrincipal.getUsername(), Role.ADMIN)).thenReturn(false);
+        when(currentUser.isAdmin()).thenReturn(false);
 
         MockHttpServletRequestBuilder request = get("/events/" + eventId + "/edit")
                 .with(user(organizerPrincipal));
@@ -370,7 +373,7 @@ public class EventControllerApiTest {
         mockEvent.setOrganizer(user);
 
         when(eventService.getByIdWithDetails(eventId)).thenReturn(mockEvent);
-        when(userService.hasRole(adminPrincipal.getUsername(), Role.ADMIN)).thenReturn(true);
+        when(currentUser.isAdmin()).thenReturn(true);
         when(categoryService.getAll()).thenReturn(Collections.emptyList());
         when(venueService.getAll()).thenReturn(Collections.emptyList());
 
@@ -406,7 +409,7 @@ public class EventControllerApiTest {
         existingRequest.setTitle("Existing Title");
 
         when(eventService.getByIdWithDetails(eventId)).thenReturn(mockEvent);
-        when(userService.hasRole(organizerPrincipal.getUsername(), Role.ADMIN)).thenReturn(false);
+        when(currentUser.isAdmin()).thenReturn(false);
         when(categoryService.getAll()).thenReturn(Collections.emptyList());
         when(venueService.getAll()).thenReturn(Collections.emptyList());
 
@@ -541,7 +544,7 @@ public class EventControllerApiTest {
         mockEvent.setOrganizer(user);
 
         when(eventService.getByIdWithDetails(eventId)).thenReturn(mockEvent);
-        when(userService.hasRole(organizerPrincipal.getUsername(), Role.ADMIN)).thenReturn(false);
+        when(currentUser.isAdmin()).thenReturn(false);
 
         MockHttpServletRequestBuilder request = delete("/events/" + eventId)
                 .with(user(organizerPrincipal))
@@ -572,7 +575,7 @@ public class EventControllerApiTest {
         mockEvent.setOrganizer(user);
 
         when(eventService.getByIdWithDetails(eventId)).thenReturn(mockEvent);
-        when(userService.hasRole(organizerPrincipal.getUsername(), Role.ADMIN)).thenReturn(false);
+        when(currentUser.isAdmin()).thenReturn(false);
 
         MockHttpServletRequestBuilder request = delete("/events/" + eventId)
                 .with(user(organizerPrincipal))
@@ -603,7 +606,7 @@ public class EventControllerApiTest {
         mockEvent.setOrganizer(user);
 
         when(eventService.getByIdWithDetails(eventId)).thenReturn(mockEvent);
-        when(userService.hasRole(adminPrincipal.getUsername(), Role.ADMIN)).thenReturn(true);
+        when(currentUser.isAdmin()).thenReturn(true);
 
         MockHttpServletRequestBuilder request = delete("/events/" + eventId)
                 .with(user(adminPrincipal))
@@ -634,4 +637,60 @@ public class EventControllerApiTest {
         verify(eventService, never()).deleteEvent(any());
     }
 
+    @Test
+    void postAuthenticatedOrganizerRequestToCancelOwnEvent_startsCancellationAndRedirects() throws Exception {
+
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setUsername(organizerPrincipal.getUsername());
+        user.setRole(Role.EVENT_ORGANIZER);
+
+        UUID eventId = UUID.randomUUID();
+        Event mockEvent = createMockEvent("My Event", "Description");
+        mockEvent.setOrganizer(user);
+
+        when(eventService.getByIdWithDetails(eventId)).thenReturn(mockEvent);
+        when(currentUser.isAdmin()).thenReturn(false);
+
+        MockHttpServletRequestBuilder request = post("/events/{id}/cancellation", eventId)
+                .param("reason", "Venue flooded")
+                .with(user(organizerPrincipal))
+                .with(csrf());
+
+        ResultActions response = mockMvc.perform(request);
+
+        response.andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/events/my"))
+                .andExpect(flash().attributeExists(SUCCESS_MESSAGE_ATTR));
+
+        verify(eventCancellationService, times(1)).start(eventId, organizerPrincipal.getUsername(), "Venue flooded");
+    }
+
+    @Test
+    void postAuthenticatedOrganizerRequestToCancelOthersEvent_redirectsWithError() throws Exception {
+
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setUsername("someOrganizer");
+        user.setRole(Role.EVENT_ORGANIZER);
+
+        UUID eventId = UUID.randomUUID();
+        Event mockEvent = createMockEvent("Other Event", "Description");
+        mockEvent.setOrganizer(user);
+
+        when(eventService.getByIdWithDetails(eventId)).thenReturn(mockEvent);
+        when(currentUser.isAdmin()).thenReturn(false);
+
+        MockHttpServletRequestBuilder request = post("/events/{id}/cancellation", eventId)
+                .with(user(organizerPrincipal))
+                .with(csrf());
+
+        ResultActions response = mockMvc.perform(request);
+
+        response.andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/events/my"))
+                .andExpect(flash().attributeExists(ERROR_MESSAGE_ATTR));
+
+        verify(eventCancellationService, never()).start(any(), any(), any());
+    }
 }
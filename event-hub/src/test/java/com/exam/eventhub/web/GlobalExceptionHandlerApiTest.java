@@ -76,6 +76,15 @@ class GlobalExceptionHandlerApiTest {
                 .andExpect(flash().attribute(ERROR_MESSAGE_ATTR, "Duplicate venue"));
     }
 
+    @Test
+    void whenPaymentIsStillPending_thenRedirectToMyBookingsWithInfo() throws Exception {
+
+        mockMvc.perform(get("/test/payment-pending"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/bookings/my"))
+                .andExpect(flash().attribute(INFO_MESSAGE_ATTR, "Payment still processing"));
+    }
+
     @Test
     void whenEntityNotFound_thenReturnNotFoundView() throws Exception {
 
@@ -96,6 +105,16 @@ class GlobalExceptionHandlerApiTest {
                 .andExpect(model().attribute(ERROR_MESSAGE_ATTR,MICROSERVICE_ERROR));
     }
 
+    @Test
+    void whenCircuitIsOpen_thenReturn503WithRetryAfter() throws Exception {
+
+        mockMvc.perform(get("/test/circuit-open"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "20"))
+                .andExpect(view().name("error"))
+                .andExpect(model().attribute(ERROR_MESSAGE_ATTR, MICROSERVICE_ERROR));
+    }
+
     @Test
     void whenBadRequest_thenReturn400() throws Exception {
 
@@ -3,6 +3,7 @@ package com.exam.eventhub.web;
 import com.exam.eventhub.config.TestMvcConfig;
 import com.exam.eventhub.config.TestSecurityConfig;
 import com.exam.eventhub.security.AuthenticationMetadata;
+import com.exam.eventhub.security.CurrentUser;
 import com.exam.eventhub.user.model.Role;
 import com.exam.eventhub.user.model.User;
 import com.exam.eventhub.user.service.UserService;
@@ -12,6 +13,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
@@ -37,6 +39,8 @@ public class ProfileControllerApiTest {
 
     @MockitoBean
     private UserService userService;
+    @MockitoBean
+    private CurrentUser currentUser;
 
     @Autowired
     private MockMvc mockMvc;
@@ -53,7 +57,7 @@ public class ProfileControllerApiTest {
     void getAuthenticatedRequestToProfile_returnsProfileView() throws Exception {
 
         User mockUser = createMockUser();
-        when(userService.getByUsername("testUser")).thenReturn(mockUser);
+        when(currentUser.getUser()).thenReturn(mockUser);
 
         MockHttpServletRequestBuilder request = get("/profile")
                 .with(user(principal));
@@ -65,14 +69,14 @@ public class ProfileControllerApiTest {
                 .andExpect(model().attributeExists("user"))
                 .andExpect(model().attribute("user", mockUser));
 
-        verify(userService, times(1)).getByUsername("testUser");
+        verify(currentUser, times(1)).getUser();
     }
 
     @Test
     void getAuthenticatedRequestToEditProfile_returnsEditProfileView() throws Exception {
 
         User mockUser = createMockUser();
-        when(userService.getByUsername("testUser")).thenReturn(mockUser);
+        when(currentUser.getUser()).thenReturn(mockUser);
 
         MockHttpServletRequestBuilder request = get("/profile/edit")
                 .with(user(principal));
@@ -83,14 +87,14 @@ public class ProfileControllerApiTest {
                 .andExpect(view().name("user/edit-profile"))
                 .andExpect(model().attributeExists("user"));
 
-        verify(userService, times(1)).getByUsername("testUser");
+        verify(currentUser, times(1)).getUser();
     }
 
     @Test
     void getEditProfileWithExistingUserInModel_doesNotOverrideUserAttribute() throws Exception {
 
         User mockUser = createMockUser();
-        when(userService.getByUsername("testUser")).thenReturn(mockUser);
+        when(currentUser.getUser()).thenReturn(mockUser);
 
         UserEditRequest existingUserRequest = new UserEditRequest();
         existingUserRequest.setUsername("existingUser");
@@ -108,14 +112,14 @@ public class ProfileControllerApiTest {
                 .andExpect(model().attribute("user", existingUserRequest))
                 .andExpect(model().attribute("user", instanceOf(UserEditRequest.class)));
 
-        verify(userService, times(1)).getByUsername("testUser");
+        verify(currentUser, times(1)).getUser();
     }
 
     @Test
     void putValidProfileUpdate_updatesProfileAndRedirectsToProfile() throws Exception {
 
         User mockUser = createMockUser();
-        when(userService.getByUsername("testUser")).thenReturn(mockUser);
+        when(currentUser.getUser()).thenReturn(mockUser);
 
         MockHttpServletRequestBuilder request = put("/profile")
                 .param("id", UUID.randomUUID().toString())
@@ -135,8 +139,8 @@ public class ProfileControllerApiTest {
                 .andExpect(flash().attributeExists(SUCCESS_MESSAGE_ATTR))
                 .andExpect(flash().attribute(SUCCESS_MESSAGE_ATTR, UPDATE_SUCCESSFUL.formatted("Profile")));
 
-        verify(userService, times(1)).updateUserProfile(eq("testUser"), any(UserEditRequest.class));
-        verify(userService, times(1)).getByUsername("testUser");
+        verify(userService, times(1)).updateUserProfile(eq(mockUser), any(UserEditRequest.class));
+        verify(currentUser, times(1)).getUser();
     }
 
     @Test
@@ -162,12 +166,14 @@ public class ProfileControllerApiTest {
                 .andExpect(flash().attributeExists(ERROR_MESSAGE_ATTR))
                 .andExpect(flash().attribute(ERROR_MESSAGE_ATTR, ERROR_MESSAGE));
 
-        verify(userService, never()).updateUserProfile(any(), any());
+        verify(userService, never()).updateUserProfile(any(User.class), any(UserEditRequest.class));
     }
 
     @Test
     void getUnauthenticatedRequestToProfile_returnsInternalServerError() throws Exception {
 
+        when(currentUser.getUser()).thenThrow(new AuthenticationCredentialsNotFoundException("No authenticated user"));
+
         MockHttpServletRequestBuilder request = get("/profile");
 
         ResultActions response = mockMvc.perform(request);
@@ -180,6 +186,8 @@ public class ProfileControllerApiTest {
     @Test
     void getUnauthenticatedRequestToEditProfile_returnsInternalServerError() throws Exception {
 
+        when(currentUser.getUser()).thenThrow(new AuthenticationCredentialsNotFoundException("No authenticated user"));
+
         MockHttpServletRequestBuilder request = get("/profile/edit");
 
         ResultActions response = mockMvc.perform(request);
@@ -192,6 +200,8 @@ public class ProfileControllerApiTest {
     @Test
     void putUnauthenticatedProfileUpdate_returnsInternalServerError() throws Exception {
 
+        when(currentUser.getUser()).thenThrow(new AuthenticationCredentialsNotFoundException("No authenticated user"));
+
         MockHttpServletRequestBuilder request = put("/profile")
                 .param("username", "testUser")
                 .param("email", "test@example.com")
@@ -201,6 +211,6 @@ public class ProfileControllerApiTest {
 
         response.andExpect(status().is5xxServerError());
 
-        verify(userService, never()).updateUserProfile(any(), any());
+        verify(userService, never()).updateUserProfile(any(User.class), any(UserEditRequest.class));
     }
 }
@@ -0,0 +1,68 @@
+package com.exam.eventhub.web;
+
+import com.exam.eventhub.category.service.CategoryService;
+import com.exam.eventhub.config.TestMvcConfig;
+import com.exam.eventhub.config.TestSecurityConfig;
+import com.exam.eventhub.contact.service.ContactService;
+import com.exam.eventhub.event.service.EventService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StreamUtils;
+
+import java.io.InputStream;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(IndexController.class)
+@Import({TestMvcConfig.class, TestSecurityConfig.class})
+public class StaticResourceApiTest {
+
+    @MockitoBean
+    private CategoryService categoryService;
+    @MockitoBean
+    private EventService eventService;
+    @MockitoBean
+    private ContactService contactService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void getCss_withBrotliAcceptEncoding_servesPrecompressedImmutableBytes() throws Exception {
+
+        mockMvc.perform(get("/css/style.css").header(HttpHeaders.ACCEPT_ENCODING, "br, gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "br"))
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT_ENCODING)))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("immutable")));
+    }
+
+    @Test
+    void getCss_withGzipAcceptEncoding_servesGzipVariant() throws Exception {
+
+        mockMvc.perform(get("/css/commons.css").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+    }
+
+    @Test
+    void getCss_withContentHashedName_resolvesToOriginalFile() throws Exception {
+
+        String hash;
+        try (InputStream css = getClass().getResourceAsStream("/static/css/my-bookings.css")) {
+            hash = DigestUtils.md5DigestAsHex(StreamUtils.copyToByteArray(css));
+        }
+
+        mockMvc.perform(get("/css/my-bookings-" + hash + ".css"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("max-age=31536000")));
+    }
+}
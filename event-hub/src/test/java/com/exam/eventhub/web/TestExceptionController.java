@@ -7,6 +7,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.client.ResourceAccessException;
 
+import java.time.Duration;
 import java.util.UUID;
 
 @RestController
@@ -63,6 +64,16 @@ class TestExceptionController {
         throw new ResourceAccessException("Service down");
     }
 
+    @GetMapping("/payment-pending")
+    void paymentPending() {
+        throw new PaymentPendingException("Payment still processing");
+    }
+
+    @GetMapping("/circuit-open")
+    void circuitOpen() {
+        throw new DependencyUnavailableException("payment-service", "circuit breaker is open", Duration.ofSeconds(20));
+    }
+
     @GetMapping("/unexpected")
     void unexpected() {
         throw new RuntimeException("Boom");
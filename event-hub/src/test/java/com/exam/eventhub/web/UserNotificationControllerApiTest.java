@@ -3,9 +3,13 @@ package com.exam.eventhub.web;
 import com.exam.eventhub.config.TestMvcConfig;
 import com.exam.eventhub.config.TestSecurityConfig;
 import com.exam.eventhub.exception.UnauthorizedException;
+import com.exam.eventhub.notification.client.dto.NotificationPageResponse;
+import com.exam.eventhub.notification.client.dto.NotificationPreferenceResponse;
 import com.exam.eventhub.notification.client.dto.NotificationResponse;
 import com.exam.eventhub.notification.service.NotificationService;
+import com.exam.eventhub.notification.service.NotificationStreamRelay;
 import com.exam.eventhub.security.AuthenticationMetadata;
+import com.exam.eventhub.security.CurrentUser;
 import com.exam.eventhub.user.model.Role;
 import com.exam.eventhub.user.model.User;
 import com.exam.eventhub.user.service.UserService;
@@ -14,20 +18,26 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
 
 import static com.exam.eventhub.common.Constants.*;
 import static com.exam.eventhub.util.UserNotificationHelper.createMockNotification;
 import static com.exam.eventhub.util.UserNotificationHelper.createMockUser;
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
@@ -44,9 +54,15 @@ public class UserNotificationControllerApiTest {
     @MockitoBean
     private NotificationService notificationService;
 
+    @MockitoBean
+    private NotificationStreamRelay streamRelay;
+
     @MockitoBean
     private UserService userService;
 
+    @MockitoBean
+    private CurrentUser currentUser;
+
     private NotificationResponse notification1;
     private NotificationResponse notification2;
     private AuthenticationMetadata principal;
@@ -69,8 +85,8 @@ public class UserNotificationControllerApiTest {
 
         List<NotificationResponse> mockNotifications = Arrays.asList(notification1, notification2);
 
-        when(userService.getByUsername(username)).thenReturn(mockUser);
-        when(notificationService.getNotificationsByUser(userId)).thenReturn(mockNotifications);
+        when(currentUser.getUser()).thenReturn(mockUser);
+        when(notificationService.getNotificationsPage(userId, null, 20)).thenReturn(new NotificationPageResponse(mockNotifications, null));
 
         MockHttpServletRequestBuilder request = get("/notifications")
                 .with(user(principal));
@@ -83,8 +99,102 @@ public class UserNotificationControllerApiTest {
                 .andExpect(model().attribute("notifications", mockNotifications))
                 .andExpect(model().attribute("notificationsEnabled", true));
 
-        verify(userService, times(1)).getByUsername(username);
-        verify(notificationService, times(1)).getNotificationsByUser(userId);
+        verify(currentUser, times(1)).getUser();
+        verify(notificationService, times(1)).getNotificationsPage(userId, null, 20);
+    }
+
+    @Test
+    void getViewNotificationsWithCursor_requestsThatPageAndLinksToTheNextOne() throws Exception {
+
+        UUID userId = UUID.randomUUID();
+        User mockUser = createMockUser(username, userId, true);
+
+        when(currentUser.getUser()).thenReturn(mockUser);
+        when(notificationService.getNotificationsPage(userId, "cursor-1", 20))
+                .thenReturn(new NotificationPageResponse(List.of(notification1), "cursor-2"));
+
+        MockHttpServletRequestBuilder request = get("/notifications")
+                .param("cursor", "cursor-1")
+                .with(user(principal));
+
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("nextCursor", "cursor-2"))
+                .andExpect(model().attribute("firstPage", false))
+                .andExpect(content().string(containsString("cursor=cursor-2")));
+    }
+
+    @Test
+    void getUnreadCount_returnsCountForTheCurrentUserAsPrivatelyCachedJson() throws Exception {
+
+        UUID userId = UUID.randomUUID();
+        when(currentUser.getId()).thenReturn(userId);
+        when(notificationService.getUnreadCount(userId)).thenReturn(4L);
+
+        MockHttpServletRequestBuilder request = get("/notifications/unread-count")
+                .with(user(principal));
+
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.unread").value(4))
+                .andExpect(header().string("Cache-Control", containsString("private")));
+
+        verify(currentUser, never()).getUser();
+    }
+
+    @Test
+    void getStream_relaysTheCurrentUsersNotificationStream() throws Exception {
+
+        UUID userId = UUID.randomUUID();
+        when(currentUser.getId()).thenReturn(userId);
+        when(streamRelay.open(eq(userId), any(Locale.class))).thenReturn(new SseEmitter());
+
+        MockHttpServletRequestBuilder request = get("/notifications/stream")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .with(user(principal));
+
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted());
+
+        verify(streamRelay).open(eq(userId), any(Locale.class));
+    }
+
+    @Test
+    void patchMarkRead_withIds_marksThoseAndRedirects() throws Exception {
+
+        UUID userId = UUID.randomUUID();
+        UUID notificationId = UUID.randomUUID();
+        when(currentUser.getId()).thenReturn(userId);
+        when(notificationService.markRead(userId, List.of(notificationId))).thenReturn(1);
+
+        MockHttpServletRequestBuilder request = patch("/notifications/read")
+                .param("ids", notificationId.toString())
+                .with(user(principal))
+                .with(csrf());
+
+        mockMvc.perform(request)
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/notifications"))
+                .andExpect(flash().attribute(SUCCESS_MESSAGE_ATTR, "Marked 1 notification(s) as read."));
+    }
+
+    @Test
+    void patchMarkRead_withoutIds_marksAll() throws Exception {
+
+        UUID userId = UUID.randomUUID();
+        when(currentUser.getId()).thenReturn(userId);
+        when(notificationService.markRead(userId, List.of())).thenReturn(0);
+
+        MockHttpServletRequestBuilder request = patch("/notifications/read")
+                .with(user(principal))
+                .with(csrf());
+
+        mockMvc.perform(request)
+                .andExpect(status().is3xxRedirection())
+                .andExpect(flash().attributeCount(0));
+
+        verify(notificationService, times(1)).markRead(userId, List.of());
     }
 
     @Test
@@ -93,8 +203,8 @@ public class UserNotificationControllerApiTest {
         UUID userId = UUID.randomUUID();
         User mockUser = createMockUser(username, userId, true);
 
-        when(userService.getByUsername(username)).thenReturn(mockUser);
-        when(notificationService.getNotificationsByUser(userId)).thenReturn(Collections.emptyList());
+        when(currentUser.getUser()).thenReturn(mockUser);
+        when(notificationService.getNotificationsPage(userId, null, 20)).thenReturn(new NotificationPageResponse(Collections.emptyList(), null));
 
         MockHttpServletRequestBuilder request = get("/notifications")
                 .with(user(principal));
@@ -106,8 +216,8 @@ public class UserNotificationControllerApiTest {
                 .andExpect(model().attribute("notifications", Collections.emptyList()))
                 .andExpect(model().attribute("notificationsEnabled", true));
 
-        verify(userService, times(1)).getByUsername(username);
-        verify(notificationService, times(1)).getNotificationsByUser(userId);
+        verify(currentUser, times(1)).getUser();
+        verify(notificationService, times(1)).getNotificationsPage(userId, null, 20);
     }
 
     @Test
@@ -116,8 +226,8 @@ public class UserNotificationControllerApiTest {
         UUID userId = UUID.randomUUID();
         User mockUser = createMockUser(username, userId, false);
 
-        when(userService.getByUsername(username)).thenReturn(mockUser);
-        when(notificationService.getNotificationsByUser(userId)).thenReturn(Collections.emptyList());
+        when(currentUser.getUser()).thenReturn(mockUser);
+        when(notificationService.getNotificationsPage(userId, null, 20)).thenReturn(new NotificationPageResponse(Collections.emptyList(), null));
 
         MockHttpServletRequestBuilder request = get("/notifications")
                 .with(user(principal));
@@ -128,7 +238,7 @@ public class UserNotificationControllerApiTest {
                 .andExpect(view().name("notifications"))
                 .andExpect(model().attribute("notificationsEnabled", false));
 
-        verify(userService, times(1)).getByUsername(username);
+        verify(currentUser, times(1)).getUser();
     }
 
     @Test
@@ -140,8 +250,8 @@ public class UserNotificationControllerApiTest {
 
         response.andExpect(status().isForbidden());
 
-        verify(userService, never()).getByUsername(any());
-        verify(notificationService, never()).getNotificationsByUser(any());
+        verify(currentUser, never()).getUser();
+        verify(notificationService, never()).getNotificationsPage(any(), any(), anyInt());
     }
 
     @Test
@@ -149,7 +259,7 @@ public class UserNotificationControllerApiTest {
 
         User mockUser = createMockUser(username, UUID.randomUUID(), true);
 
-        when(userService.getByUsername(username)).thenReturn(mockUser);
+        when(currentUser.getUser()).thenReturn(mockUser);
         when(userService.toggleNotifications(mockUser)).thenReturn(false);
 
         MockHttpServletRequestBuilder request = patch("/notifications/settings")
@@ -163,7 +273,7 @@ public class UserNotificationControllerApiTest {
                 .andExpect(flash().attributeExists(SUCCESS_MESSAGE_ATTR))
                 .andExpect(flash().attribute(SUCCESS_MESSAGE_ATTR, "Notifications have been disabled!"));
 
-        verify(userService, times(1)).getByUsername(username);
+        verify(currentUser, times(1)).getUser();
         verify(userService, times(1)).toggleNotifications(mockUser);
     }
 
@@ -172,7 +282,7 @@ public class UserNotificationControllerApiTest {
 
         User mockUser = createMockUser(username, UUID.randomUUID(), false);
 
-        when(userService.getByUsername(username)).thenReturn(mockUser);
+        when(currentUser.getUser()).thenReturn(mockUser);
         when(userService.toggleNotifications(mockUser)).thenReturn(true);
 
         MockHttpServletRequestBuilder request = patch("/notifications/settings")
@@ -189,6 +299,57 @@ public class UserNotificationControllerApiTest {
         verify(userService, times(1)).toggleNotifications(mockUser);
     }
 
+    @Test
+    void getViewNotifications_showsTheDeliveryPreference() throws Exception {
+
+        UUID userId = UUID.randomUUID();
+        NotificationPreferenceResponse preference = new NotificationPreferenceResponse(userId, NotificationPreferenceResponse.DIGEST, 60);
+
+        when(currentUser.getUser()).thenReturn(createMockUser(username, userId, true));
+        when(notificationService.getNotificationsPage(userId, null, 20)).thenReturn(new NotificationPageResponse(List.of(notification1), null));
+        when(notificationService.getPreference(userId)).thenReturn(preference);
+
+        mockMvc.perform(get("/notifications").with(user(principal)))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("deliveryPreference", preference))
+                .andExpect(content().string(containsString("Group into a digest")));
+    }
+
+    @Test
+    void patchDelivery_toDigest_updatesPreferenceAndRedirects() throws Exception {
+
+        UUID userId = UUID.randomUUID();
+        when(currentUser.getId()).thenReturn(userId);
+
+        MockHttpServletRequestBuilder request = patch("/notifications/delivery")
+                .param("mode", "DIGEST")
+                .param("digestWindowMinutes", "60")
+                .with(user(principal))
+                .with(csrf());
+
+        mockMvc.perform(request)
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/notifications"))
+                .andExpect(flash().attribute(SUCCESS_MESSAGE_ATTR, "Notifications will be grouped into a digest."));
+
+        verify(notificationService, times(1)).updatePreference(userId, "DIGEST", 60);
+    }
+
+    @Test
+    void patchDelivery_unknownMode_fallsBackToImmediate() throws Exception {
+
+        UUID userId = UUID.randomUUID();
+        when(currentUser.getId()).thenReturn(userId);
+
+        mockMvc.perform(patch("/notifications/delivery")
+                        .param("mode", "HOURLY")
+                        .with(user(principal))
+                        .with(csrf()))
+                .andExpect(status().is3xxRedirection());
+
+        verify(notificationService, times(1)).updatePreference(userId, "IMMEDIATE", null);
+    }
+
     @Test
     void patchToggleNotificationsWithoutCsrf_returnsForbidden() throws Exception {
 
@@ -208,10 +369,8 @@ public class UserNotificationControllerApiTest {
         UUID userId = UUID.randomUUID();
         User mockUser = createMockUser(username, userId, true);
 
-        List<NotificationResponse> mockNotifications = Arrays.asList(notification1, notification2);
-
-        when(userService.getByUsername(username)).thenReturn(mockUser);
-        when(notificationService.getNotificationsByUser(userId)).thenReturn(mockNotifications);
+        when(currentUser.getUser()).thenReturn(mockUser);
+        when(notificationService.clearAllNotifications(mockUser)).thenReturn(2);
 
         MockHttpServletRequestBuilder request = delete("/notifications")
                 .with(user(principal))
@@ -224,9 +383,9 @@ public class UserNotificationControllerApiTest {
                 .andExpect(flash().attributeExists(SUCCESS_MESSAGE_ATTR))
                 .andExpect(flash().attribute(SUCCESS_MESSAGE_ATTR, "Notification history cleared successfully!"));
 
-        verify(userService, times(1)).getByUsername(username);
-        verify(notificationService, times(1)).getNotificationsByUser(userId);
-        verify(notificationService, times(1)).clearAllNotifications(mockNotifications, mockUser);
+        verify(currentUser, times(1)).getUser();
+        verify(notificationService, never()).getNotificationsPage(any(), any(), anyInt());
+        verify(notificationService, times(1)).clearAllNotifications(mockUser);
     }
 
     @Test
@@ -235,8 +394,8 @@ public class UserNotificationControllerApiTest {
         UUID userId = UUID.randomUUID();
         User mockUser = createMockUser(username, userId, true);
 
-        when(userService.getByUsername(username)).thenReturn(mockUser);
-        when(notificationService.getNotificationsByUser(userId)).thenReturn(Collections.emptyList());
+        when(currentUser.getUser()).thenReturn(mockUser);
+        when(notificationService.clearAllNotifications(mockUser)).thenReturn(0);
 
         MockHttpServletRequestBuilder request = delete("/notifications")
                 .with(user(principal))
@@ -249,9 +408,8 @@ public class UserNotificationControllerApiTest {
                 .andExpect(flash().attributeExists(INFO_MESSAGE_ATTR))
                 .andExpect(flash().attribute(INFO_MESSAGE_ATTR, "No notifications to clear."));
 
-        verify(userService, times(1)).getByUsername(username);
-        verify(notificationService, times(1)).getNotificationsByUser(userId);
-        verify(notificationService, never()).clearAllNotifications(any(), any());
+        verify(currentUser, times(1)).getUser();
+        verify(notificationService, times(1)).clearAllNotifications(mockUser);
     }
 
     @Test
@@ -264,7 +422,7 @@ public class UserNotificationControllerApiTest {
 
         response.andExpect(status().isForbidden());
 
-        verify(notificationService, never()).clearAllNotifications(any(), any());
+        verify(notificationService, never()).clearAllNotifications(any());
     }
 
     @Test
@@ -273,10 +431,7 @@ public class UserNotificationControllerApiTest {
         UUID notificationId = UUID.randomUUID();
         UUID userId = UUID.randomUUID();
 
-        User mockUser = new User();
-        mockUser.setId(userId);
-        mockUser.setUsername(username);
-        when(userService.getByUsername(username)).thenReturn(mockUser);
+        when(currentUser.getId()).thenReturn(userId);
 
         doNothing().when(notificationService).deleteUserNotification(notificationId, userId);
 
@@ -291,7 +446,7 @@ public class UserNotificationControllerApiTest {
                 .andExpect(flash().attributeExists(SUCCESS_MESSAGE_ATTR))
                 .andExpect(flash().attribute(SUCCESS_MESSAGE_ATTR, "Notification deleted successfully."));
 
-        verify(userService, times(1)).getByUsername(username);
+        verify(currentUser, times(1)).getId();
         verify(notificationService, times(1)).deleteUserNotification(notificationId, userId);
     }
 
@@ -301,10 +456,7 @@ public class UserNotificationControllerApiTest {
         UUID notificationId = UUID.randomUUID();
         UUID userId = UUID.randomUUID();
 
-        User mockUser = new User();
-        mockUser.setId(userId);
-        mockUser.setUsername(username);
-        when(userService.getByUsername(username)).thenReturn(mockUser);
+        when(currentUser.getId()).thenReturn(userId);
 
         doThrow(new UnauthorizedException(NOT_AUTHORIZED))
                 .when(notificationService).deleteUserNotification(notificationId, userId);
@@ -320,7 +472,7 @@ public class UserNotificationControllerApiTest {
                 .andExpect(flash().attributeExists(ERROR_MESSAGE_ATTR))
                 .andExpect(flash().attribute(ERROR_MESSAGE_ATTR, NOT_AUTHORIZED));
 
-        verify(userService, times(1)).getByUsername(username);
+        verify(currentUser, times(1)).getId();
         verify(notificationService, times(1)).deleteUserNotification(notificationId, userId);
     }
 
@@ -336,6 +488,6 @@ public class UserNotificationControllerApiTest {
 
         response.andExpect(status().isForbidden());
 
-        verify(notificationService, never()).delete(any());
+        verify(notificationService, never()).delete(any(), any());
     }
 }
\ No newline at end of file
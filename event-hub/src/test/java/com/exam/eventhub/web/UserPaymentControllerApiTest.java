@@ -5,9 +5,9 @@ import com.exam.eventhub.config.TestSecurityConfig;
 import com.exam.eventhub.exception.PaymentProcessingException;
 import com.exam.eventhub.payment.service.PaymentService;
 import com.exam.eventhub.security.AuthenticationMetadata;
+import com.exam.eventhub.security.CurrentUser;
 import com.exam.eventhub.user.model.Role;
 import com.exam.eventhub.user.model.User;
-import com.exam.eventhub.user.service.UserService;
 import com.exam.eventhub.payment.client.dto.PaymentResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -41,7 +41,7 @@ public class UserPaymentControllerApiTest {
     @MockitoBean
     private PaymentService paymentService;
     @MockitoBean
-    private UserService userService;
+    private CurrentUser currentUser;
 
     @Autowired
     private MockMvc mockMvc;
@@ -90,7 +90,7 @@ public class UserPaymentControllerApiTest {
     @Test
     void getAuthenticatedUserRequestToViewPaymentHistory_returnsPaymentHistoryPage() throws Exception {
 
-        when(userService.getByUsername(username)).thenReturn(user);
+        when(currentUser.getId()).thenReturn(userId);
         when(paymentService.getPaymentsByUser(userId)).thenReturn(payments);
 
         MockHttpServletRequestBuilder request = get("/profile/payments")
@@ -103,14 +103,14 @@ public class UserPaymentControllerApiTest {
                 .andExpect(model().attributeExists("payments"))
                 .andExpect(model().attribute("payments", payments));
 
-        verify(userService, times(1)).getByUsername(username);
+        verify(currentUser, times(1)).getId();
         verify(paymentService, times(1)).getPaymentsByUser(userId);
     }
 
     @Test
     void getAuthenticatedUserRequestToViewPaymentHistory_whenNoPayments_returnsEmptyList() throws Exception {
 
-        when(userService.getByUsername(username)).thenReturn(user);
+        when(currentUser.getId()).thenReturn(userId);
         when(paymentService.getPaymentsByUser(userId)).thenReturn(Collections.emptyList());
 
         MockHttpServletRequestBuilder request = get("/profile/payments")
@@ -123,18 +123,17 @@ public class UserPaymentControllerApiTest {
                 .andExpect(model().attributeExists("payments"))
                 .andExpect(model().attribute("payments", Collections.emptyList()));
 
-        verify(userService, times(1)).getByUsername(username);
+        verify(currentUser, times(1)).getId();
         verify(paymentService, times(1)).getPaymentsByUser(userId);
     }
 
     @Test
     void getAuthenticatedEventOrganizerRequestToViewPaymentHistory_returnsPaymentHistoryPage() throws Exception {
 
-        String username = organizerPrincipal.getUsername();
         User organizer = createUser(organizerPrincipal.getUserId(), organizerPrincipal.getUsername());
         organizer.setRole(Role.EVENT_ORGANIZER);
 
-        when(userService.getByUsername(username)).thenReturn(organizer);
+        when(currentUser.getId()).thenReturn(organizer.getId());
         when(paymentService.getPaymentsByUser(organizer.getId())).thenReturn(payments);
 
         MockHttpServletRequestBuilder request = get("/profile/payments")
@@ -147,18 +146,17 @@ public class UserPaymentControllerApiTest {
                 .andExpect(model().attributeExists("payments"))
                 .andExpect(model().attribute("payments", payments));
 
-        verify(userService, times(1)).getByUsername(username);
+        verify(currentUser, times(1)).getId();
         verify(paymentService, times(1)).getPaymentsByUser(organizer.getId());
     }
 
     @Test
     void getAuthenticatedAdminRequestToViewPaymentHistory_returnsPaymentHistoryPage() throws Exception {
 
-        String username = adminPrincipal.getUsername();
-        User admin = createUser(adminPrincipal.getUserId(), username);
+        User admin = createUser(adminPrincipal.getUserId(), adminPrincipal.getUsername());
         admin.setRole(Role.ADMIN);
 
-        when(userService.getByUsername(username)).thenReturn(admin);
+        when(currentUser.getId()).thenReturn(admin.getId());
         when(paymentService.getPaymentsByUser(admin.getId())).thenReturn(payments);
 
         MockHttpServletRequestBuilder request = get("/profile/payments")
@@ -171,14 +169,14 @@ public class UserPaymentControllerApiTest {
                 .andExpect(model().attributeExists("payments"))
                 .andExpect(model().attribute("payments", payments));
 
-        verify(userService, times(1)).getByUsername(username);
+        verify(currentUser, times(1)).getId();
         verify(paymentService, times(1)).getPaymentsByUser(admin.getId());
     }
 
     @Test
     void getAuthenticatedUserRequestToViewPaymentHistory_whenServiceThrowsException_handledByGlobalExceptionHandler() throws Exception {
 
-        when(userService.getByUsername(username)).thenReturn(user);
+        when(currentUser.getId()).thenReturn(userId);
         when(paymentService.getPaymentsByUser(userId)).thenThrow(new PaymentProcessingException("Service unavailable"));
 
         MockHttpServletRequestBuilder request = get("/profile/payments")
@@ -190,7 +188,7 @@ public class UserPaymentControllerApiTest {
                 .andExpect(redirectedUrl("/bookings/my"))
                 .andExpect(flash().attribute(ERROR_MESSAGE_ATTR, "Payment failed: Service unavailable"));
 
-        verify(userService, times(1)).getByUsername(username);
+        verify(currentUser, times(1)).getId();
         verify(paymentService, times(1)).getPaymentsByUser(userId);
     }
 
@@ -203,7 +201,7 @@ public class UserPaymentControllerApiTest {
 
         response.andExpect(status().isForbidden());
 
-        verify(userService, never()).getByUsername(any());
+        verify(currentUser, never()).getId();
         verify(paymentService, never()).getPaymentsByUser(any());
     }
 }
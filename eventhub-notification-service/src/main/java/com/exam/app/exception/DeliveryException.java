@@ -0,0 +1,18 @@
+package com.exam.app.exception;
+
+import lombok.Getter;
+
+/**
+ * A channel could not deliver a notification. {@code permanent} failures (a malformed address, say) are not
+ * retried; everything else is tried again with back-off.
+ */
+@Getter
+public class DeliveryException extends RuntimeException {
+
+    private final boolean permanent;
+
+    public DeliveryException(String message, boolean permanent, Throwable cause) {
+        super(message, cause);
+        this.permanent = permanent;
+    }
+}
@@ -0,0 +1,7 @@
+package com.exam.app.exception;
+
+public class UnknownTemplateException extends RuntimeException {
+    public UnknownTemplateException(String message) {
+        super(message);
+    }
+}
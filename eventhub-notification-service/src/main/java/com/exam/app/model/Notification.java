@@ -7,13 +7,20 @@ import lombok.Setter;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @Getter
 @Setter
 @NoArgsConstructor
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        @Index(name = "idx_notifications_recipient_feed", columnList = "recipient_id, deleted, created_on, id"),
+        @Index(name = "idx_notifications_recipient_unread", columnList = "recipient_id, deleted, is_read"),
+        @Index(name = "idx_notifications_feed", columnList = "deleted, created_on, id"),
+        @Index(name = "idx_notifications_delivery", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_notifications_open_digest", columnList = "recipient_id, digest_until")
+})
 public class Notification {
 
     @Id
@@ -26,17 +33,63 @@ public class Notification {
     @Column(nullable = false)
     private String recipientEmail;
 
-    @Column(nullable = false)
+    /**
+     * Rendered text of free-form notifications. Notifications sent from a template leave both empty and are
+     * rendered from {@link #templateId} and {@link #templateParams} when they are read or delivered.
+     */
     private String subject;
 
-    @Column(nullable = false, length = 500)
+    @Column(length = 500)
     private String message;
 
+    @Column(length = 64)
+    private String templateId;
+
+    @Convert(converter = TemplateParamsConverter.class)
+    @Column(length = 500)
+    private List<String> templateParams;
+
     @Enumerated(EnumType.STRING)
     private NotificationStatus status = NotificationStatus.PENDING;
 
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private NotificationChannel channel = NotificationChannel.EMAIL;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    private LocalDateTime sentOn;
+
+    /**
+     * Set on digest rows only: the end of the coalescing window, until which new notifications of the recipient
+     * are merged into this row instead of being stored and sent on their own.
+     */
+    private LocalDateTime digestUntil;
+
+    @Column(nullable = false)
+    private int digestCount;
+
+    @Column(columnDefinition = "TEXT")
+    private String digestItems;
+
+    /**
+     * Identifies what a notification is about (a booking, an event), so a digest keeps only the latest
+     * notification per key. Not stored.
+     */
+    @Transient
+    private String coalesceKey;
+
     @CreationTimestamp
     private LocalDateTime createdOn;
 
+    @Column(name = "is_read", nullable = false)
+    private boolean read;
+
     private boolean deleted;
 }
@@ -0,0 +1,5 @@
+package com.exam.app.model;
+
+public enum NotificationChannel {
+    EMAIL, IN_APP
+}
@@ -0,0 +1,31 @@
+package com.exam.app.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "notification_preferences")
+public class NotificationPreference {
+
+    @Id
+    private UUID recipientId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private DeliveryMode mode = DeliveryMode.IMMEDIATE;
+
+    @Column(nullable = false)
+    private int digestWindowMinutes;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedOn;
+}
@@ -0,0 +1,43 @@
+package com.exam.app.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Where the last retention run of a target stopped. {@code lastId} is the highest key already processed, or
+ * {@code null} when the previous pass reached the end of the table; {@code lockedUntil} keeps two instances from
+ * purging the same target at once.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "retention_checkpoints")
+public class RetentionCheckpoint {
+
+    @Id
+    @Column(length = 64)
+    private String target;
+
+    @Column(length = 64)
+    private String lastId;
+
+    private LocalDateTime lockedUntil;
+
+    private LocalDateTime lastRunOn;
+
+    private long lastRunPurged;
+
+    private boolean lastRunCompleted;
+
+    public RetentionCheckpoint(String target) {
+        this.target = target;
+    }
+}
@@ -0,0 +1,46 @@
+package com.exam.app.model;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.List;
+
+/**
+ * Stores template parameters as a compact JSON array, e.g. {@code ["Rock Night"]}.
+ */
+@Converter
+public class TemplateParamsConverter implements AttributeConverter<List<String>, String> {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<List<String>> PARAMS = new TypeReference<>() {
+    };
+
+    @Override
+    public String convertToDatabaseColumn(List<String> params) {
+        if (params == null || params.isEmpty()) {
+            return null;
+        }
+
+        try {
+            return OBJECT_MAPPER.writeValueAsString(params);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Template parameters could not be written.", e);
+        }
+    }
+
+    @Override
+    public List<String> convertToEntityAttribute(String column) {
+        if (column == null || column.isBlank()) {
+            return List.of();
+        }
+
+        try {
+            return OBJECT_MAPPER.readValue(column, PARAMS);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Stored template parameters could not be read.", e);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.exam.app.repository;
+
+import com.exam.app.model.DeliveryMode;
+import com.exam.app.model.NotificationPreference;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface NotificationPreferenceRepository extends JpaRepository<NotificationPreference, UUID> {
+
+    List<NotificationPreference> findByRecipientIdInAndMode(Collection<UUID> recipientIds, DeliveryMode mode);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<NotificationPreference> findForUpdateByRecipientId(UUID recipientId);
+}
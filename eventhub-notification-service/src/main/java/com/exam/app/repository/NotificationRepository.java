@@ -1,13 +1,17 @@
 package com.exam.app.repository;
 
 import com.exam.app.model.Notification;
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
-import org.springframework.data.jpa.repository.Query;
+import com.exam.app.model.NotificationChannel;
+import com.exam.app.model.NotificationStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -18,10 +22,78 @@ public interface NotificationRepository extends JpaRepository<Notification, UUID
 
     List<Notification> findByRecipientIdAndDeletedIsFalse(UUID recipientId);
 
-    @Transactional
+    Slice<Notification> findByRecipientIdAndDeletedIsFalseOrderByCreatedOnDescIdDesc(UUID recipientId, Pageable pageable);
+
+    @Query("""
+            SELECT n FROM Notification n
+            WHERE n.recipientId = :recipientId AND n.deleted = false
+              AND (n.createdOn < :createdOn OR (n.createdOn = :createdOn AND n.id < :id))
+            ORDER BY n.createdOn DESC, n.id DESC""")
+    Slice<Notification> findByRecipientIdBefore(UUID recipientId, LocalDateTime createdOn, UUID id, Pageable pageable);
+
+    Slice<Notification> findByDeletedIsFalseOrderByCreatedOnDescIdDesc(Pageable pageable);
+
+    @Query("""
+            SELECT n FROM Notification n
+            WHERE n.deleted = false
+              AND (n.createdOn < :createdOn OR (n.createdOn = :createdOn AND n.id < :id))
+            ORDER BY n.createdOn DESC, n.id DESC""")
+    Slice<Notification> findAllBefore(LocalDateTime createdOn, UUID id, Pageable pageable);
+
+    long countByRecipientIdAndDeletedIsFalseAndReadIsFalse(UUID recipientId);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.read = true WHERE n.recipientId = :recipientId AND n.id IN :ids AND n.deleted = false AND n.read = false")
+    int markReadByIds(UUID recipientId, Collection<UUID> ids);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.read = true WHERE n.recipientId = :recipientId AND n.deleted = false AND n.read = false")
+    int markAllRead(UUID recipientId);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.deleted = true WHERE n.recipientId = :recipientId AND n.deleted = false")
+    int softDeleteByRecipientId(UUID recipientId);
+
     @Modifying
-    @Query("DELETE FROM Notification n WHERE n.createdOn < :cutoffDate")
-    int deleteByCreatedOnBefore(LocalDateTime cutoffDate);
+    @Query("UPDATE Notification n SET n.deleted = true WHERE n.id = :id AND n.recipientId = :recipientId AND n.deleted = false")
+    int softDeleteByIdAndRecipientId(UUID id, UUID recipientId);
 
+    /**
+     * Locks the due rows so that dispatchers on other instances skip them instead of waiting
+     * ({@code FOR UPDATE SKIP LOCKED} where the database supports it).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT n FROM Notification n WHERE n.status = :status AND n.nextAttemptAt <= :now ORDER BY n.nextAttemptAt")
+    List<Notification> findDueForUpdate(NotificationStatus status, LocalDateTime now, Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            SELECT n FROM Notification n
+            WHERE n.recipientId = :recipientId AND n.channel = :channel
+              AND n.status = com.exam.app.model.NotificationStatus.PENDING
+              AND n.digestUntil > :now AND n.nextAttemptAt = n.digestUntil
+            ORDER BY n.digestUntil DESC""")
+    List<Notification> findOpenDigestsForUpdate(UUID recipientId, NotificationChannel channel, LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.status = :status, n.sentOn = :sentOn, n.lastError = NULL WHERE n.id IN :ids")
+    int markSent(Collection<UUID> ids, NotificationStatus status, LocalDateTime sentOn);
+
+    long countByStatus(NotificationStatus status);
+
+    @Query("SELECT n.id FROM Notification n WHERE n.createdOn < :cutoff AND n.id > :after ORDER BY n.id")
+    List<UUID> findIdsCreatedBefore(LocalDateTime cutoff, UUID after, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.id IN :ids AND n.createdOn < :cutoff")
+    int deleteCreatedBefore(Collection<UUID> ids, LocalDateTime cutoff);
+
+    @Query("SELECT n.id FROM Notification n WHERE n.deleted = true AND n.createdOn < :cutoff AND n.id > :after ORDER BY n.id")
+    List<UUID> findDeletedIdsCreatedBefore(LocalDateTime cutoff, UUID after, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.id IN :ids AND n.deleted = true AND n.createdOn < :cutoff")
+    int deleteDeletedCreatedBefore(Collection<UUID> ids, LocalDateTime cutoff);
 }
 
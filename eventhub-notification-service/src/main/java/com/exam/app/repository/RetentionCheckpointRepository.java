@@ -0,0 +1,19 @@
+package com.exam.app.repository;
+
+import com.exam.app.model.RetentionCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface RetentionCheckpointRepository extends JpaRepository<RetentionCheckpoint, String> {
+
+    @Modifying
+    @Query("""
+            UPDATE RetentionCheckpoint c SET c.lockedUntil = :until
+            WHERE c.target = :target AND (c.lockedUntil IS NULL OR c.lockedUntil < :now)""")
+    int lock(String target, LocalDateTime now, LocalDateTime until);
+}
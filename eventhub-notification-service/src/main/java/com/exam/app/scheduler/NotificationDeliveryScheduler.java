@@ -0,0 +1,32 @@
+package com.exam.app.scheduler;
+
+import com.exam.app.service.delivery.NotificationDeliveryService;
+import com.exam.app.service.delivery.NotificationDispatcher;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+@AllArgsConstructor
+public class NotificationDeliveryScheduler {
+
+    private static final int MAX_BATCHES_PER_RUN = 20;
+
+    private final NotificationDispatcher notificationDispatcher;
+    private final NotificationDeliveryService notificationDeliveryService;
+
+    /**
+     * Keeps taking batches while they come back full, so a backlog drains without waiting a poll interval per
+     * batch, but hands the thread back now and then.
+     */
+    @Scheduled(fixedDelayString = "${eventhub.notification.delivery.poll-interval-ms:1000}")
+    public void deliverPending() {
+        for (int batch = 0; batch < MAX_BATCHES_PER_RUN; batch++) {
+            if (notificationDispatcher.dispatchPending() < notificationDeliveryService.batchSize()) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.exam.app.scheduler;
+
+import com.exam.app.service.stream.NotificationStreamRegistry;
+import lombok.AllArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Service
+@AllArgsConstructor
+public class NotificationStreamHeartbeatScheduler {
+
+    private final NotificationStreamRegistry streamRegistry;
+
+    @Scheduled(fixedDelayString = "${eventhub.notification.stream.heartbeat-ms:15000}")
+    public void sendHeartbeats() {
+        streamRegistry.heartbeat();
+    }
+}
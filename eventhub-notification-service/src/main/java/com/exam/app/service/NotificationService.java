@@ -4,12 +4,25 @@ import com.exam.app.exception.NotificationNotFoundException;
 import com.exam.app.model.Notification;
 import com.exam.app.model.NotificationStatus;
 import com.exam.app.repository.NotificationRepository;
+import com.exam.app.service.digest.NotificationCoalescer;
+import com.exam.app.service.digest.NotificationPreferenceService;
+import com.exam.app.service.stream.NotificationStoredEvent;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Slf4j
@@ -18,19 +31,92 @@ import java.util.UUID;
 public class NotificationService {
 
     private final NotificationRepository notificationRepository;
-
+    private final NotificationPreferenceService preferenceService;
+    private final NotificationCoalescer coalescer;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Stores the notification for delivery, or merges it into the recipient's digest when they asked for digests.
+     * Either way the stored row is pushed to the recipient's open streams.
+     */
     public Notification sendNotification(Notification notification) {
         log.info("Received notification request: recipient [{}], subject [{}]", notification.getRecipientEmail(), notification.getSubject());
 
-        notification.setStatus(NotificationStatus.SENT);
+        Duration window = preferenceService.digestWindows(List.of(notification.getRecipientId())).get(notification.getRecipientId());
+
+        if (window != null) {
+            Notification digest = coalescer.coalesce(List.of(notification), window);
+            eventPublisher.publishEvent(new NotificationStoredEvent(List.of(digest)));
+
+            return digest;
+        }
+
+        queueForDelivery(notification);
 
         Notification saved = notificationRepository.save(notification);
+        eventPublisher.publishEvent(new NotificationStoredEvent(List.of(saved)));
 
         log.info("Notification saved with id [{}] and status[{}]", saved.getId(), saved.getStatus());
 
         return saved;
     }
 
+    /**
+     * Stores a whole batch in one transaction. Ids are generated in memory, so Hibernate groups the
+     * inserts into JDBC batches of {@code hibernate.jdbc.batch_size} instead of one round trip per row.
+     * Notifications of recipients in digest mode are merged into one digest per recipient and channel instead.
+     *
+     * @return the stored row of every notification, in input order; merged notifications share their digest
+     */
+    @Transactional
+    public List<Notification> sendNotifications(List<Notification> notifications) {
+        log.info("Received batch of {} notifications", notifications.size());
+
+        Map<UUID, Duration> windows = preferenceService.digestWindows(
+                notifications.stream().map(Notification::getRecipientId).distinct().toList());
+
+        List<Notification> immediate = new ArrayList<>();
+        Map<String, List<Notification>> digests = new LinkedHashMap<>();
+
+        for (Notification notification : notifications) {
+            if (windows.containsKey(notification.getRecipientId())) {
+                digests.computeIfAbsent(notification.getRecipientId() + "|" + notification.getChannel(), key -> new ArrayList<>())
+                        .add(notification);
+            } else {
+                queueForDelivery(notification);
+                immediate.add(notification);
+            }
+        }
+
+        List<Notification> saved = notificationRepository.saveAll(immediate);
+
+        if (digests.isEmpty()) {
+            eventPublisher.publishEvent(new NotificationStoredEvent(saved));
+            log.info("Batch of {} notifications saved with status [{}]", saved.size(), NotificationStatus.PENDING);
+
+            return saved;
+        }
+
+        Map<Notification, Notification> stored = new IdentityHashMap<>();
+        for (int i = 0; i < immediate.size(); i++) {
+            stored.put(immediate.get(i), saved.get(i));
+        }
+        List<Notification> changed = new ArrayList<>(saved);
+        for (List<Notification> group : digests.values()) {
+            Notification digest = coalescer.coalesce(group, windows.get(group.get(0).getRecipientId()));
+            group.forEach(notification -> stored.put(notification, digest));
+            changed.add(digest);
+        }
+        eventPublisher.publishEvent(new NotificationStoredEvent(changed));
+
+        log.info("Batch of {} notifications saved: {} queued for delivery, the rest merged into {} digests",
+                notifications.size(), saved.size(), digests.size());
+
+        return notifications.stream()
+                .map(stored::get)
+                .toList();
+    }
+
     public List<Notification> getAll() {
         log.info("Fetching all notifications");
 
@@ -43,6 +129,45 @@ public class NotificationService {
         return notificationRepository.findByRecipientIdAndDeletedIsFalse(userId);
     }
 
+    /**
+     * Newest-first page of a user's notifications, starting after the given position; pass {@code null}
+     * for the first page. Keyset pagination, so every page costs the same no matter how deep it is.
+     */
+    public Slice<Notification> getNotificationsPage(UUID userId, LocalDateTime beforeCreatedOn, UUID beforeId, int limit) {
+        PageRequest page = PageRequest.of(0, limit);
+
+        return beforeCreatedOn == null
+                ? notificationRepository.findByRecipientIdAndDeletedIsFalseOrderByCreatedOnDescIdDesc(userId, page)
+                : notificationRepository.findByRecipientIdBefore(userId, beforeCreatedOn, beforeId, page);
+    }
+
+    public Slice<Notification> getAllPage(LocalDateTime beforeCreatedOn, UUID beforeId, int limit) {
+        PageRequest page = PageRequest.of(0, limit);
+
+        return beforeCreatedOn == null
+                ? notificationRepository.findByDeletedIsFalseOrderByCreatedOnDescIdDesc(page)
+                : notificationRepository.findAllBefore(beforeCreatedOn, beforeId, page);
+    }
+
+    public long countUnread(UUID userId) {
+        return notificationRepository.countByRecipientIdAndDeletedIsFalseAndReadIsFalse(userId);
+    }
+
+    /**
+     * Marks the given notifications of the user as read, or all of them when {@code ids} is empty.
+     * Ids of other users' notifications are ignored.
+     */
+    @Transactional
+    public int markRead(UUID userId, Collection<UUID> ids) {
+        int updated = ids == null || ids.isEmpty()
+                ? notificationRepository.markAllRead(userId)
+                : notificationRepository.markReadByIds(userId, ids);
+
+        log.info("Marked {} notifications as read for userId [{}]", updated, userId);
+
+        return updated;
+    }
+
     public void deleteNotification(UUID id) {
         log.info("Deleting notification with id [{}]", id);
         Notification notification = getNotificationById(id);
@@ -52,18 +177,38 @@ public class NotificationService {
         log.info("Notification deleted.");
     }
 
-    public void clearNotifications(UUID userId) {
-
-        List<Notification> notifications = getNotificationsByUser(userId);
+    /**
+     * Soft-deletes a notification only if it belongs to {@code userId}. A notification of another user
+     * is reported as not found, so callers cannot probe for ids they do not own.
+     */
+    @Transactional
+    public void deleteNotification(UUID id, UUID userId) {
+        log.info("Deleting notification with id [{}] for user [{}]", id, userId);
 
-        for (Notification notification : notifications) {
-            deleteNotification(notification.getId());
+        if (notificationRepository.softDeleteByIdAndRecipientId(id, userId) == 0) {
+            throw new NotificationNotFoundException("Notification with ID [%s] was not found.".formatted(id));
         }
+
+        log.info("Notification deleted.");
+    }
+
+    @Transactional
+    public int clearNotifications(UUID userId) {
+
+        int cleared = notificationRepository.softDeleteByRecipientId(userId);
+
+        log.info("Cleared {} notifications for userId [{}]", cleared, userId);
+
+        return cleared;
     }
 
-    public int deleteOldNotifications(int days) {
-        LocalDateTime cutoffDate = LocalDateTime.now().minusDays(days);
-        return notificationRepository.deleteByCreatedOnBefore(cutoffDate);
+    /**
+     * Notifications are stored {@code PENDING} and sent by the delivery scheduler, so a slow or unreachable
+     * channel never holds up the caller.
+     */
+    private static void queueForDelivery(Notification notification) {
+        notification.setStatus(NotificationStatus.PENDING);
+        notification.setNextAttemptAt(LocalDateTime.now());
     }
 
     private Notification getNotificationById(UUID id) {
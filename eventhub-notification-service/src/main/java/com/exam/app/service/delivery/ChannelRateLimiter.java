@@ -0,0 +1,55 @@
+package com.exam.app.service.delivery;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket in reservation form: every caller reserves the next free slot and waits until it comes, so a
+ * channel never sends faster than {@code permitsPerSecond}, with bursts of up to one second's worth after a quiet
+ * period. A rate of zero or less means unlimited.
+ */
+public class ChannelRateLimiter {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final LongSupplier nanoTime;
+
+    private long nextFreeNanos;
+
+    public ChannelRateLimiter(double permitsPerSecond) {
+        this(permitsPerSecond, System::nanoTime);
+    }
+
+    ChannelRateLimiter(double permitsPerSecond, LongSupplier nanoTime) {
+        this.intervalNanos = permitsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond) : 0;
+        this.burstNanos = permitsPerSecond > 1 ? TimeUnit.SECONDS.toNanos(1) - intervalNanos : 0;
+        this.nanoTime = nanoTime;
+        this.nextFreeNanos = nanoTime.getAsLong();
+    }
+
+    /**
+     * Blocks until the caller may send.
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos = reserve();
+
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * @return how long the caller has to wait for its slot, in nanoseconds
+     */
+    synchronized long reserve() {
+        if (intervalNanos == 0) {
+            return 0;
+        }
+
+        long now = nanoTime.getAsLong();
+        long slot = Math.max(nextFreeNanos, now - burstNanos);
+        nextFreeNanos = slot + intervalNanos;
+
+        return Math.max(0, slot - now);
+    }
+}
@@ -0,0 +1,19 @@
+package com.exam.app.service.delivery;
+
+import com.exam.app.exception.DeliveryException;
+import com.exam.app.model.Notification;
+import com.exam.app.model.NotificationChannel;
+
+/**
+ * One way of getting a notification to its recipient. Implementations are picked up as beans and selected by
+ * {@link Notification#getChannel()}; they are called from the delivery worker pool, so they must be thread-safe.
+ */
+public interface DeliveryChannel {
+
+    NotificationChannel channel();
+
+    /**
+     * @throws DeliveryException when the notification could not be delivered
+     */
+    void deliver(Notification notification);
+}
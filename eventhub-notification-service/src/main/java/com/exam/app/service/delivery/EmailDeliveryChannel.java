@@ -0,0 +1,64 @@
+package com.exam.app.service.delivery;
+
+import com.exam.app.exception.DeliveryException;
+import com.exam.app.model.Notification;
+import com.exam.app.model.NotificationChannel;
+import com.exam.app.service.digest.DigestItemCodec;
+import com.exam.app.service.template.NotificationTemplateRenderer;
+import com.exam.app.service.template.RenderedNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+@Component
+public class EmailDeliveryChannel implements DeliveryChannel {
+
+    private final JavaMailSender mailSender;
+    private final DigestItemCodec digestItemCodec;
+    private final NotificationTemplateRenderer templateRenderer;
+    private final String from;
+
+    public EmailDeliveryChannel(JavaMailSender mailSender,
+                                DigestItemCodec digestItemCodec,
+                                NotificationTemplateRenderer templateRenderer,
+                                @Value("${eventhub.notification.delivery.email.from:no-reply@eventhub.local}") String from) {
+        this.mailSender = mailSender;
+        this.digestItemCodec = digestItemCodec;
+        this.templateRenderer = templateRenderer;
+        this.from = from;
+    }
+
+    @Override
+    public NotificationChannel channel() {
+        return NotificationChannel.EMAIL;
+    }
+
+    @Override
+    public void deliver(Notification notification) {
+        RenderedNotification rendered = templateRenderer.render(notification);
+
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(from);
+        message.setTo(notification.getRecipientEmail());
+        message.setSubject(rendered.subject());
+
+        try {
+            // The inbox shows a short summary of a digest; the e-mail carries every item in full.
+            message.setText(notification.getDigestItems() == null
+                    ? rendered.message()
+                    : digestItemCodec.render(digestItemCodec.read(notification.getDigestItems())));
+            mailSender.send(message);
+        } catch (MailParseException | MailPreparationException e) {
+            throw new DeliveryException("Message could not be built: " + e.getMessage(), true, e);
+        } catch (MailException e) {
+            throw new DeliveryException("SMTP delivery failed: " + e.getMessage(), false, e);
+        } catch (IllegalStateException e) {
+            throw new DeliveryException(e.getMessage(), true, e);
+        }
+    }
+
+}
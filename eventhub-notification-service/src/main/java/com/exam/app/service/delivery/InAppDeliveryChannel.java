@@ -0,0 +1,34 @@
+package com.exam.app.service.delivery;
+
+import com.exam.app.model.Notification;
+import com.exam.app.model.NotificationChannel;
+import com.exam.app.service.template.NotificationTemplateRenderer;
+import com.exam.app.service.template.RenderedNotification;
+import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-app notifications live in the inbox, which already reads them from the database; delivering one only tells
+ * in-process listeners that it is there.
+ */
+@Component
+@AllArgsConstructor
+public class InAppDeliveryChannel implements DeliveryChannel {
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final NotificationTemplateRenderer templateRenderer;
+
+    @Override
+    public NotificationChannel channel() {
+        return NotificationChannel.IN_APP;
+    }
+
+    @Override
+    public void deliver(Notification notification) {
+        RenderedNotification rendered = templateRenderer.render(notification);
+
+        eventPublisher.publishEvent(new InAppNotificationEvent(notification.getId(), notification.getRecipientId(),
+                rendered.subject(), rendered.message()));
+    }
+}
@@ -0,0 +1,9 @@
+package com.exam.app.service.delivery;
+
+import java.util.UUID;
+
+/**
+ * Published when an in-app notification is delivered, for listeners that push it to the user's open sessions.
+ */
+public record InAppNotificationEvent(UUID notificationId, UUID recipientId, String subject, String message) {
+}
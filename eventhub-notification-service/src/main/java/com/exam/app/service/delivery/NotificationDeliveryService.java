@@ -0,0 +1,108 @@
+package com.exam.app.service.delivery;
+
+import com.exam.app.model.Notification;
+import com.exam.app.model.NotificationStatus;
+import com.exam.app.repository.NotificationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Delivery state of stored notifications: which ones are due, and what happened to each attempt.
+ * {@link NotificationDispatcher} does the actual sending.
+ */
+@Slf4j
+@Service
+public class NotificationDeliveryService {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final NotificationRepository notificationRepository;
+    private final int batchSize;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final Duration backoffBase;
+    private final Duration backoffMax;
+
+    public NotificationDeliveryService(NotificationRepository notificationRepository,
+                                       @Value("${eventhub.notification.delivery.batch-size:100}") int batchSize,
+                                       @Value("${eventhub.notification.delivery.lease-seconds:60}") long leaseSeconds,
+                                       @Value("${eventhub.notification.delivery.max-attempts:8}") int maxAttempts,
+                                       @Value("${eventhub.notification.delivery.backoff-base-seconds:10}") long backoffBaseSeconds,
+                                       @Value("${eventhub.notification.delivery.backoff-max-seconds:3600}") long backoffMaxSeconds) {
+        this.notificationRepository = notificationRepository;
+        this.batchSize = batchSize;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.maxAttempts = maxAttempts;
+        this.backoffBase = Duration.ofSeconds(backoffBaseSeconds);
+        this.backoffMax = Duration.ofSeconds(backoffMaxSeconds);
+    }
+
+    public int batchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Takes the next batch of due notifications and pushes their next attempt past the lease, so no other
+     * dispatcher picks them up while they are being sent. A dispatcher that dies mid-batch leaves them to be
+     * retried once the lease runs out.
+     */
+    @Transactional
+    public List<Notification> claimDue() {
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Notification> due = notificationRepository.findDueForUpdate(NotificationStatus.PENDING, now, PageRequest.of(0, batchSize));
+        due.forEach(notification -> notification.setNextAttemptAt(now.plus(lease)));
+
+        return due;
+    }
+
+    @Transactional
+    public void markSent(Collection<UUID> ids) {
+        if (!ids.isEmpty()) {
+            notificationRepository.markSent(ids, NotificationStatus.SENT, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * @return {@code true} when the notification will be retried, {@code false} when it was given up on
+     */
+    @Transactional
+    public boolean markAttemptFailed(UUID id, String error, boolean permanent) {
+        Notification notification = notificationRepository.findById(id).orElse(null);
+
+        if (notification == null) {
+            return false;
+        }
+
+        notification.setAttempts(notification.getAttempts() + 1);
+        notification.setLastError(error == null || error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH));
+
+        if (permanent || notification.getAttempts() >= maxAttempts) {
+            notification.setStatus(NotificationStatus.FAILED);
+            log.error("Giving up on notification [{}] to {} after {} attempts: {}",
+                    id, notification.getRecipientEmail(), notification.getAttempts(), error);
+            return false;
+        }
+
+        notification.setNextAttemptAt(LocalDateTime.now().plus(backoff(notification.getAttempts())));
+        return true;
+    }
+
+    Duration backoff(int attempts) {
+        long base = backoffBase.toMillis() << Math.min(attempts - 1, 20);
+        long capped = Math.min(base, backoffMax.toMillis());
+        long jitter = ThreadLocalRandom.current().nextLong(capped / 5 + 1);
+
+        return Duration.ofMillis(capped + jitter);
+    }
+}
@@ -0,0 +1,165 @@
+package com.exam.app.service.delivery;
+
+import com.exam.app.exception.DeliveryException;
+import com.exam.app.model.Notification;
+import com.exam.app.model.NotificationChannel;
+import com.exam.app.model.NotificationStatus;
+import com.exam.app.repository.NotificationRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends claimed notifications through their {@link DeliveryChannel} on a bounded worker pool. Each channel has its
+ * own rate limit, so a burst of e-mails cannot exceed what the SMTP relay accepts while in-app notifications keep
+ * flowing. Results are written back per batch: one UPDATE for everything that was sent, one row per failure.
+ */
+@Slf4j
+@Service
+public class NotificationDispatcher implements DisposableBean {
+
+    private final NotificationDeliveryService deliveryService;
+    private final Map<NotificationChannel, DeliveryChannel> channels = new EnumMap<>(NotificationChannel.class);
+    private final Map<NotificationChannel, ChannelRateLimiter> rateLimiters = new EnumMap<>(NotificationChannel.class);
+    private final ThreadPoolExecutor executor;
+    private final MeterRegistry meterRegistry;
+
+    public NotificationDispatcher(NotificationDeliveryService deliveryService,
+                                  NotificationRepository notificationRepository,
+                                  List<DeliveryChannel> deliveryChannels,
+                                  @Value("${eventhub.notification.delivery.workers:4}") int workers,
+                                  @Value("${eventhub.notification.delivery.channels.email.rate-per-second:20}") double emailRate,
+                                  @Value("${eventhub.notification.delivery.channels.in-app.rate-per-second:200}") double inAppRate,
+                                  MeterRegistry meterRegistry) {
+        this.deliveryService = deliveryService;
+        this.meterRegistry = meterRegistry;
+
+        deliveryChannels.forEach(channel -> channels.put(channel.channel(), channel));
+        rateLimiters.put(NotificationChannel.EMAIL, new ChannelRateLimiter(emailRate));
+        rateLimiters.put(NotificationChannel.IN_APP, new ChannelRateLimiter(inAppRate));
+
+        this.executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(deliveryService.batchSize(), 1)), workerThreads(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        new ExecutorServiceMetrics(executor, "notification.delivery", Tags.empty()).bindTo(meterRegistry);
+        Gauge.builder("eventhub.notification.delivery.pending", notificationRepository,
+                        repository -> repository.countByStatus(NotificationStatus.PENDING))
+                .description("Notifications waiting to be delivered")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Claims one batch of due notifications and waits until every one of them has been attempted.
+     *
+     * @return number of notifications claimed
+     */
+    public int dispatchPending() {
+        List<Notification> due = deliveryService.claimDue();
+
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        List<CompletableFuture<Attempt>> attempts = due.stream()
+                .map(notification -> CompletableFuture.supplyAsync(() -> attempt(notification), executor))
+                .toList();
+
+        List<UUID> sent = new ArrayList<>();
+        for (CompletableFuture<Attempt> future : attempts) {
+            Attempt attempt = future.join();
+
+            if (attempt.error() == null) {
+                sent.add(attempt.id());
+                count(attempt.channel(), "sent");
+            } else {
+                boolean retried = deliveryService.markAttemptFailed(attempt.id(), attempt.error(), attempt.permanent());
+                count(attempt.channel(), retried ? "retry" : "failed");
+            }
+        }
+
+        deliveryService.markSent(sent);
+
+        log.info("Dispatched {} notifications: {} sent, {} failed.", due.size(), sent.size(), due.size() - sent.size());
+
+        return due.size();
+    }
+
+    private Attempt attempt(Notification notification) {
+        NotificationChannel type = notification.getChannel() == null ? NotificationChannel.EMAIL : notification.getChannel();
+        DeliveryChannel channel = channels.get(type);
+
+        if (channel == null) {
+            return new Attempt(notification.getId(), type, "No delivery channel for " + type, true);
+        }
+
+        try {
+            rateLimiters.get(type).acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Attempt(notification.getId(), type, "Interrupted before delivery", false);
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            channel.deliver(notification);
+            return new Attempt(notification.getId(), type, null, false);
+        } catch (DeliveryException e) {
+            return new Attempt(notification.getId(), type, e.getMessage(), e.isPermanent());
+        } catch (RuntimeException e) {
+            return new Attempt(notification.getId(), type, e.toString(), false);
+        } finally {
+            sample.stop(Timer.builder("eventhub.notification.delivery.duration")
+                    .description("Time spent handing a notification to its channel")
+                    .tag("channel", key(type))
+                    .register(meterRegistry));
+        }
+    }
+
+    private void count(NotificationChannel channel, String result) {
+        meterRegistry.counter("eventhub.notification.delivery", "channel", key(channel), "result", result).increment();
+    }
+
+    private static String key(NotificationChannel channel) {
+        return channel.name().toLowerCase().replace('_', '-');
+    }
+
+    private static ThreadFactory workerThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "notification-delivery-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        executor.shutdown();
+
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    private record Attempt(UUID id, NotificationChannel channel, String error, boolean permanent) {
+    }
+}
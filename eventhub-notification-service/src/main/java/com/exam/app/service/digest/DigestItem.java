@@ -0,0 +1,10 @@
+package com.exam.app.service.digest;
+
+import java.time.LocalDateTime;
+
+/**
+ * One notification merged into a digest. Items with the same {@code key} replace each other, so the digest
+ * carries only the latest state of every booking or event it mentions.
+ */
+public record DigestItem(String key, String subject, String message, LocalDateTime receivedOn) {
+}
@@ -0,0 +1,63 @@
+package com.exam.app.service.digest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Stores the items of a digest as JSON on the digest row and renders them as text.
+ */
+@Component
+@AllArgsConstructor
+public class DigestItemCodec {
+
+    private static final TypeReference<List<DigestItem>> ITEMS = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+
+    public List<DigestItem> read(String json) {
+        if (json == null || json.isBlank()) {
+            return List.of();
+        }
+
+        try {
+            return objectMapper.readValue(json, ITEMS);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored digest items could not be read.", e);
+        }
+    }
+
+    public String write(List<DigestItem> items) {
+        try {
+            return objectMapper.writeValueAsString(items);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Digest items could not be written.", e);
+        }
+    }
+
+    /**
+     * Full text of a digest, one block per item, newest last.
+     */
+    public String render(List<DigestItem> items) {
+        return items.stream()
+                .map(item -> item.subject() + "\n" + item.message())
+                .collect(Collectors.joining("\n\n"));
+    }
+
+    /**
+     * One line per item, short enough for the inbox, which only has room for {@code maxLength} characters.
+     */
+    public String summarize(List<DigestItem> items, int maxLength) {
+        String summary = items.stream()
+                .map(item -> "- " + item.subject())
+                .collect(Collectors.joining("\n"));
+
+        return summary.length() <= maxLength ? summary : summary.substring(0, maxLength - 3) + "...";
+    }
+}
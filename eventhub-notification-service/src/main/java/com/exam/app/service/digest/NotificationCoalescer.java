@@ -0,0 +1,138 @@
+package com.exam.app.service.digest;
+
+import com.exam.app.model.Notification;
+import com.exam.app.model.NotificationChannel;
+import com.exam.app.model.NotificationStatus;
+import com.exam.app.repository.NotificationPreferenceRepository;
+import com.exam.app.repository.NotificationRepository;
+import com.exam.app.service.template.NotificationTemplateRenderer;
+import com.exam.app.service.template.RenderedNotification;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Merges notifications of a recipient into one digest row per channel. The first notification opens a digest that is
+ * due at the end of the window; everything arriving before then updates that row instead of inserting and sending a
+ * new one. The delivery scheduler picks the digest up like any other notification once the window closes.
+ */
+@Slf4j
+@Service
+public class NotificationCoalescer {
+
+    private static final int MESSAGE_LENGTH = 500;
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationPreferenceRepository preferenceRepository;
+    private final DigestItemCodec codec;
+    private final NotificationTemplateRenderer templateRenderer;
+    private final MeterRegistry meterRegistry;
+    private final int maxItems;
+
+    public NotificationCoalescer(NotificationRepository notificationRepository,
+                                 NotificationPreferenceRepository preferenceRepository,
+                                 DigestItemCodec codec,
+                                 NotificationTemplateRenderer templateRenderer,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${eventhub.notification.digest.max-items:50}") int maxItems) {
+        this.notificationRepository = notificationRepository;
+        this.preferenceRepository = preferenceRepository;
+        this.codec = codec;
+        this.templateRenderer = templateRenderer;
+        this.meterRegistry = meterRegistry;
+        this.maxItems = maxItems;
+    }
+
+    /**
+     * Adds notifications of one recipient and channel to the recipient's open digest, opening one if there is none.
+     *
+     * @return the digest row that now carries the notifications
+     */
+    @Transactional
+    public Notification coalesce(List<Notification> incoming, Duration window) {
+        Notification latest = incoming.get(incoming.size() - 1);
+        UUID recipientId = latest.getRecipientId();
+        NotificationChannel channel = latest.getChannel() == null ? NotificationChannel.EMAIL : latest.getChannel();
+        LocalDateTime now = LocalDateTime.now();
+
+        // Serialises concurrent senders of the same recipient, so only one of them opens a digest.
+        preferenceRepository.findForUpdateByRecipientId(recipientId);
+
+        Notification digest = notificationRepository.findOpenDigestsForUpdate(recipientId, channel, now, PageRequest.of(0, 1))
+                .stream()
+                .findFirst()
+                .orElseGet(() -> openDigest(recipientId, channel, now.plus(window)));
+
+        Map<String, DigestItem> items = new LinkedHashMap<>();
+        codec.read(digest.getDigestItems()).forEach(item -> items.put(item.key(), item));
+
+        for (Notification notification : incoming) {
+            RenderedNotification rendered = templateRenderer.render(notification);
+            DigestItem item = new DigestItem(key(notification), rendered.subject(), rendered.message(), now);
+
+            items.remove(item.key());
+            items.put(item.key(), item);
+        }
+
+        Iterator<String> oldest = items.keySet().iterator();
+        while (items.size() > maxItems) {
+            oldest.next();
+            oldest.remove();
+        }
+
+        List<DigestItem> merged = new ArrayList<>(items.values());
+
+        digest.setRecipientEmail(latest.getRecipientEmail());
+        digest.setDigestCount(digest.getDigestCount() + incoming.size());
+        digest.setDigestItems(codec.write(merged));
+        digest.setSubject(merged.size() == 1 ? merged.get(0).subject() : "You have %d new updates".formatted(merged.size()));
+        digest.setMessage(merged.size() == 1 ? truncate(merged.get(0).message()) : codec.summarize(merged, MESSAGE_LENGTH));
+
+        Notification saved = notificationRepository.save(digest);
+
+        meterRegistry.counter("eventhub.notification.coalesced", "channel", channel.name().toLowerCase().replace('_', '-'))
+                .increment(incoming.size());
+        log.info("Coalesced {} notifications for recipient [{}] into digest [{}] due at {}",
+                incoming.size(), recipientId, saved.getId(), saved.getDigestUntil());
+
+        return saved;
+    }
+
+    private static Notification openDigest(UUID recipientId, NotificationChannel channel, LocalDateTime until) {
+        Notification digest = new Notification();
+
+        digest.setRecipientId(recipientId);
+        digest.setChannel(channel);
+        digest.setStatus(NotificationStatus.PENDING);
+        digest.setDigestUntil(until);
+        digest.setNextAttemptAt(until);
+
+        return digest;
+    }
+
+    private static String key(Notification notification) {
+        if (notification.getCoalesceKey() != null && !notification.getCoalesceKey().isBlank()) {
+            return notification.getCoalesceKey();
+        }
+
+        return notification.getTemplateId() != null
+                ? notification.getTemplateId() + "|" + notification.getTemplateParams()
+                : notification.getSubject() + "|" + notification.getMessage();
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= MESSAGE_LENGTH ? message : message.substring(0, MESSAGE_LENGTH - 3) + "...";
+    }
+}
@@ -0,0 +1,75 @@
+package com.exam.app.service.digest;
+
+import com.exam.app.model.DeliveryMode;
+import com.exam.app.model.NotificationPreference;
+import com.exam.app.repository.NotificationPreferenceRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class NotificationPreferenceService {
+
+    private final NotificationPreferenceRepository preferenceRepository;
+    private final int defaultWindowMinutes;
+
+    public NotificationPreferenceService(NotificationPreferenceRepository preferenceRepository,
+                                         @Value("${eventhub.notification.digest.default-window-minutes:15}") int defaultWindowMinutes) {
+        this.preferenceRepository = preferenceRepository;
+        this.defaultWindowMinutes = defaultWindowMinutes;
+    }
+
+    /**
+     * Users without a stored preference get immediate delivery.
+     */
+    public NotificationPreference getPreference(UUID recipientId) {
+        return preferenceRepository.findById(recipientId)
+                .orElseGet(() -> defaultPreference(recipientId));
+    }
+
+    public NotificationPreference updatePreference(UUID recipientId, DeliveryMode mode, Integer digestWindowMinutes) {
+        NotificationPreference preference = preferenceRepository.findById(recipientId)
+                .orElseGet(() -> defaultPreference(recipientId));
+
+        preference.setMode(mode);
+        if (digestWindowMinutes != null) {
+            preference.setDigestWindowMinutes(digestWindowMinutes);
+        }
+
+        NotificationPreference saved = preferenceRepository.save(preference);
+
+        log.info("Delivery preference of user [{}] set to [{}] with a {} minute window", recipientId, mode, saved.getDigestWindowMinutes());
+
+        return saved;
+    }
+
+    /**
+     * Digest windows of those recipients that want digests; everyone missing from the result is notified immediately.
+     * One query for the whole batch.
+     */
+    public Map<UUID, Duration> digestWindows(Collection<UUID> recipientIds) {
+        if (recipientIds.isEmpty()) {
+            return Map.of();
+        }
+
+        return preferenceRepository.findByRecipientIdInAndMode(recipientIds, DeliveryMode.DIGEST).stream()
+                .collect(Collectors.toMap(NotificationPreference::getRecipientId,
+                        preference -> Duration.ofMinutes(preference.getDigestWindowMinutes())));
+    }
+
+    private NotificationPreference defaultPreference(UUID recipientId) {
+        NotificationPreference preference = new NotificationPreference();
+        preference.setRecipientId(recipientId);
+        preference.setMode(DeliveryMode.IMMEDIATE);
+        preference.setDigestWindowMinutes(defaultWindowMinutes);
+
+        return preference;
+    }
+}
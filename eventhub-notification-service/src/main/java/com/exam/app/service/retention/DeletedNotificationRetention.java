@@ -0,0 +1,61 @@
+package com.exam.app.service.retention;
+
+import com.exam.app.repository.NotificationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Notifications the user already deleted or cleared. They are never shown again, so they are dropped well before
+ * the general retention period.
+ */
+@Component
+public class DeletedNotificationRetention implements RetentionTarget<UUID> {
+
+    private final NotificationRepository notificationRepository;
+    private final RetentionPolicy policy;
+
+    public DeletedNotificationRetention(NotificationRepository notificationRepository,
+                                        @Value("${eventhub.retention.deleted-notifications.enabled:true}") boolean enabled,
+                                        @Value("${eventhub.retention.deleted-notifications.retention-days:7}") long retentionDays,
+                                        @Value("${eventhub.retention.deleted-notifications.chunk-size:500}") int chunkSize,
+                                        @Value("${eventhub.retention.deleted-notifications.pause-ms:200}") long pauseMs,
+                                        @Value("${eventhub.retention.deleted-notifications.time-budget-seconds:60}") long timeBudgetSeconds) {
+        this.notificationRepository = notificationRepository;
+        this.policy = RetentionPolicy.of(enabled, retentionDays, chunkSize, pauseMs, timeBudgetSeconds);
+    }
+
+    @Override
+    public String name() {
+        return "deleted-notifications";
+    }
+
+    @Override
+    public RetentionPolicy policy() {
+        return policy;
+    }
+
+    @Override
+    public UUID start() {
+        return new UUID(0, 0);
+    }
+
+    @Override
+    public UUID parseId(String value) {
+        return UUID.fromString(value);
+    }
+
+    @Override
+    public List<UUID> findExpiredIds(LocalDateTime cutoff, UUID after, int limit) {
+        return notificationRepository.findDeletedIdsCreatedBefore(cutoff, after, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public int purge(List<UUID> ids, LocalDateTime cutoff) {
+        return notificationRepository.deleteDeletedCreatedBefore(ids, cutoff);
+    }
+}
@@ -0,0 +1,60 @@
+package com.exam.app.service.retention;
+
+import com.exam.app.repository.NotificationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Every notification, read or not, once it is older than the retention period.
+ */
+@Component
+public class ExpiredNotificationRetention implements RetentionTarget<UUID> {
+
+    private final NotificationRepository notificationRepository;
+    private final RetentionPolicy policy;
+
+    public ExpiredNotificationRetention(NotificationRepository notificationRepository,
+                                        @Value("${eventhub.retention.notifications.enabled:true}") boolean enabled,
+                                        @Value("${eventhub.retention.notifications.retention-days:30}") long retentionDays,
+                                        @Value("${eventhub.retention.notifications.chunk-size:500}") int chunkSize,
+                                        @Value("${eventhub.retention.notifications.pause-ms:200}") long pauseMs,
+                                        @Value("${eventhub.retention.notifications.time-budget-seconds:120}") long timeBudgetSeconds) {
+        this.notificationRepository = notificationRepository;
+        this.policy = RetentionPolicy.of(enabled, retentionDays, chunkSize, pauseMs, timeBudgetSeconds);
+    }
+
+    @Override
+    public String name() {
+        return "notifications";
+    }
+
+    @Override
+    public RetentionPolicy policy() {
+        return policy;
+    }
+
+    @Override
+    public UUID start() {
+        return new UUID(0, 0);
+    }
+
+    @Override
+    public UUID parseId(String value) {
+        return UUID.fromString(value);
+    }
+
+    @Override
+    public List<UUID> findExpiredIds(LocalDateTime cutoff, UUID after, int limit) {
+        return notificationRepository.findIdsCreatedBefore(cutoff, after, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public int purge(List<UUID> ids, LocalDateTime cutoff) {
+        return notificationRepository.deleteCreatedBefore(ids, cutoff);
+    }
+}
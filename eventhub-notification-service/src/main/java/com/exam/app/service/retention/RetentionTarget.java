@@ -0,0 +1,41 @@
+package com.exam.app.service.retention;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A table the {@link RetentionEngine} keeps trimmed. Expired rows are walked in ascending primary key order, so a
+ * run can stop anywhere and the next one carries on after the last key it saw.
+ *
+ * @param <ID> primary key type
+ */
+public interface RetentionTarget<ID> {
+
+    /**
+     * Stable name, used for the checkpoint row, metric tags and configuration keys.
+     */
+    String name();
+
+    RetentionPolicy policy();
+
+    /**
+     * A key that sorts before every real key, used when a pass starts from the beginning.
+     */
+    ID start();
+
+    ID parseId(String value);
+
+    /**
+     * @return at most {@code limit} keys greater than {@code after} whose rows are older than {@code cutoff},
+     * in ascending order
+     */
+    List<ID> findExpiredIds(LocalDateTime cutoff, ID after, int limit);
+
+    /**
+     * Removes the given rows, re-checking the cutoff so a row touched since it was selected is left alone. Runs in
+     * the engine's transaction for the chunk.
+     *
+     * @return number of rows removed
+     */
+    int purge(List<ID> ids, LocalDateTime cutoff);
+}
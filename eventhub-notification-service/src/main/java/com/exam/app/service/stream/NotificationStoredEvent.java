@@ -0,0 +1,12 @@
+package com.exam.app.service.stream;
+
+import com.exam.app.model.Notification;
+
+import java.util.List;
+
+/**
+ * Published when notifications were stored, or a digest was updated; streamed to connected recipients once the
+ * transaction that stored them has committed.
+ */
+public record NotificationStoredEvent(List<Notification> notifications) {
+}
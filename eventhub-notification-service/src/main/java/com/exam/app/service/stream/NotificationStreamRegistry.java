@@ -0,0 +1,175 @@
+package com.exam.app.service.stream;
+
+import com.exam.app.model.Notification;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Fans stored notifications out to the open streams of their recipients. Every stream has its own bounded buffer
+ * drained by a small sender pool, so publishing only enqueues and a stalled browser costs at most its buffer.
+ * Notifications are published once the transaction that stored them has committed, so a client that reacts by
+ * fetching its inbox always sees them.
+ */
+@Slf4j
+@Service
+public class NotificationStreamRegistry implements DisposableBean {
+
+    private final Map<UUID, List<StreamSubscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor sender;
+    private final long timeoutMs;
+    private final int maxConnectionsPerUser;
+    private final int bufferSize;
+    private final Counter dropped;
+
+    public NotificationStreamRegistry(@Value("${eventhub.notification.stream.timeout-ms:1800000}") long timeoutMs,
+                                      @Value("${eventhub.notification.stream.max-connections-per-user:5}") int maxConnectionsPerUser,
+                                      @Value("${eventhub.notification.stream.buffer-size:64}") int bufferSize,
+                                      @Value("${eventhub.notification.stream.senders:2}") int senders,
+                                      MeterRegistry meterRegistry) {
+        this.timeoutMs = timeoutMs;
+        this.maxConnectionsPerUser = maxConnectionsPerUser;
+        this.bufferSize = bufferSize;
+        this.sender = new ThreadPoolExecutor(senders, senders, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), senderThreads());
+
+        new ExecutorServiceMetrics(sender, "notification.stream", Tags.empty()).bindTo(meterRegistry);
+        Gauge.builder("eventhub.notification.stream.subscribers", this, NotificationStreamRegistry::subscriberCount)
+                .description("Open notification streams")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("eventhub.notification.stream.dropped")
+                .description("Notifications dropped because a stream's buffer was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream for the user. When the user already has the maximum number of streams open, the oldest one is
+     * closed, so a user reloading tabs cannot pile up connections.
+     *
+     * @param payload turns a notification into the event data of this stream, e.g. rendered in the client's locale
+     */
+    public SseEmitter subscribe(UUID userId, Function<Notification, Object> payload) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        StreamSubscriber subscriber = new StreamSubscriber(userId, emitter, payload, bufferSize, sender);
+
+        List<StreamSubscriber> evicted = new ArrayList<>();
+        subscribers.compute(userId, (id, streams) -> {
+            List<StreamSubscriber> open = streams == null ? new CopyOnWriteArrayList<>() : streams;
+
+            open.add(subscriber);
+            while (open.size() > maxConnectionsPerUser) {
+                evicted.add(open.remove(0));
+            }
+
+            return open;
+        });
+        evicted.forEach(StreamSubscriber::close);
+
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+
+        // Commits the response headers right away instead of with the first notification.
+        subscriber.heartbeat();
+
+        log.debug("Opened notification stream for user [{}]", userId);
+
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStored(NotificationStoredEvent event) {
+        publish(event.notifications());
+    }
+
+    public void publish(List<Notification> notifications) {
+        for (Notification notification : notifications) {
+            List<StreamSubscriber> streams = subscribers.get(notification.getRecipientId());
+
+            if (streams == null) {
+                continue;
+            }
+
+            for (StreamSubscriber subscriber : streams) {
+                if (subscriber.isClosed()) {
+                    remove(subscriber);
+                    continue;
+                }
+
+                int evicted = subscriber.offer(notification);
+
+                if (evicted > 0) {
+                    dropped.increment(evicted);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a comment to every stream, which keeps proxies from closing idle connections and surfaces clients that
+     * went away without closing theirs.
+     */
+    public void heartbeat() {
+        for (List<StreamSubscriber> streams : subscribers.values()) {
+            for (StreamSubscriber subscriber : streams) {
+                if (subscriber.isClosed()) {
+                    remove(subscriber);
+                } else {
+                    subscriber.heartbeat();
+                }
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.values().stream()
+                .mapToInt(List::size)
+                .sum();
+    }
+
+    private void remove(StreamSubscriber subscriber) {
+        subscriber.close();
+        subscribers.computeIfPresent(subscriber.userId(), (id, streams) -> {
+            streams.remove(subscriber);
+
+            return streams.isEmpty() ? null : streams;
+        });
+    }
+
+    private static ThreadFactory senderThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "notification-stream-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public void destroy() {
+        subscribers.values().forEach(streams -> streams.forEach(StreamSubscriber::close));
+        subscribers.clear();
+        sender.shutdownNow();
+    }
+}
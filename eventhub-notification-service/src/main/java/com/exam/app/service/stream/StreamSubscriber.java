@@ -0,0 +1,133 @@
+package com.exam.app.service.stream;
+
+import com.exam.app.model.Notification;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * One open stream. Notifications are buffered in a bounded queue and written by a sender thread, so a slow client
+ * never holds up whoever stored them; when the buffer is full the oldest notification is dropped and the client is
+ * told to resync. At most one drain runs at a time, which also keeps writes to the emitter sequential.
+ */
+class StreamSubscriber {
+
+    static final String NOTIFICATION = "notification";
+    static final String RESYNC = "resync";
+
+    private final UUID userId;
+    private final SseEmitter emitter;
+    private final Function<Notification, Object> payload;
+    private final BlockingQueue<Notification> buffer;
+    private final Executor sender;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean heartbeatDue = new AtomicBoolean();
+    private final AtomicBoolean overflowed = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final AtomicLong dropped = new AtomicLong();
+
+    StreamSubscriber(UUID userId, SseEmitter emitter, Function<Notification, Object> payload, int bufferSize, Executor sender) {
+        this.userId = userId;
+        this.emitter = emitter;
+        this.payload = payload;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.sender = sender;
+    }
+
+    UUID userId() {
+        return userId;
+    }
+
+    SseEmitter emitter() {
+        return emitter;
+    }
+
+    boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * @return number of older notifications dropped to make room
+     */
+    int offer(Notification notification) {
+        if (closed.get()) {
+            return 0;
+        }
+
+        int evicted = 0;
+        while (!buffer.offer(notification)) {
+            if (buffer.poll() != null) {
+                evicted++;
+            }
+        }
+
+        if (evicted > 0) {
+            dropped.addAndGet(evicted);
+            overflowed.set(true);
+        }
+
+        scheduleDrain();
+
+        return evicted;
+    }
+
+    void heartbeat() {
+        if (!closed.get()) {
+            heartbeatDue.set(true);
+            scheduleDrain();
+        }
+    }
+
+    void close() {
+        if (closed.compareAndSet(false, true)) {
+            buffer.clear();
+            emitter.complete();
+        }
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            try {
+                sender.execute(this::drain);
+            } catch (RuntimeException e) {
+                draining.set(false);
+                close();
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            Notification notification;
+            while (!closed.get() && (notification = buffer.poll()) != null) {
+                emitter.send(SseEmitter.event()
+                        .name(NOTIFICATION)
+                        .id(String.valueOf(notification.getId()))
+                        .data(payload.apply(notification)));
+
+                if (overflowed.compareAndSet(true, false)) {
+                    emitter.send(SseEmitter.event().name(RESYNC).data(dropped.get()));
+                }
+            }
+
+            if (!closed.get() && heartbeatDue.compareAndSet(true, false)) {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            }
+        } catch (IOException | RuntimeException e) {
+            close();
+        } finally {
+            draining.set(false);
+        }
+
+        if (!closed.get() && (!buffer.isEmpty() || heartbeatDue.get())) {
+            scheduleDrain();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.exam.app.service.template;
+
+import com.exam.app.model.Notification;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.NoSuchMessageException;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+/**
+ * Renders notifications stored as a template id plus parameters. Templates live in {@code i18n/notifications*.properties};
+ * the base file is the default locale. When the service starts, every supported locale other than the default must
+ * have its own file with a subject and a message for every template, since the message source would otherwise quietly
+ * fall back to the default language; a missing translation fails the startup instead. Every template is then compiled
+ * for every locale, so rendering afterwards only formats an already parsed {@link java.text.MessageFormat}.
+ */
+@Slf4j
+@Service
+public class NotificationTemplateRenderer {
+
+    static final String BASENAME = "i18n/notifications";
+    private static final String SUBJECT = ".subject";
+    private static final String MESSAGE = ".message";
+
+    private final ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+    private final Locale defaultLocale;
+    private final Set<String> templateIds;
+
+    @Autowired
+    public NotificationTemplateRenderer(@Value("${eventhub.notification.templates.default-locale:en}") String defaultLocale,
+                                        @Value("${eventhub.notification.templates.locales:en,bg}") List<String> locales) {
+        this(BASENAME, defaultLocale, locales);
+    }
+
+    NotificationTemplateRenderer(String basename, String defaultLocale, List<String> locales) {
+        this.defaultLocale = Locale.forLanguageTag(defaultLocale);
+
+        messageSource.setBasename(basename);
+        messageSource.setDefaultEncoding("UTF-8");
+        messageSource.setDefaultLocale(this.defaultLocale);
+        messageSource.setFallbackToSystemLocale(false);
+        messageSource.setAlwaysUseMessageFormat(true);
+
+        this.templateIds = Collections.unmodifiableSet(loadTemplateIds(basename));
+
+        for (String locale : locales) {
+            if (!Locale.forLanguageTag(locale).equals(this.defaultLocale)) {
+                checkTranslated(basename, Locale.forLanguageTag(locale));
+            }
+        }
+
+        for (String locale : locales) {
+            for (String templateId : templateIds) {
+                messageSource.getMessage(templateId + SUBJECT, null, Locale.forLanguageTag(locale));
+                messageSource.getMessage(templateId + MESSAGE, null, Locale.forLanguageTag(locale));
+            }
+        }
+
+        log.info("Compiled {} notification templates for locales {}", templateIds.size(), locales);
+    }
+
+    public boolean isKnown(String templateId) {
+        return templateIds.contains(templateId);
+    }
+
+    public Set<String> templateIds() {
+        return templateIds;
+    }
+
+    /**
+     * Renders in the default locale; used when delivering, where there is no reader to ask.
+     */
+    public RenderedNotification render(Notification notification) {
+        return render(notification, defaultLocale);
+    }
+
+    /**
+     * Free-form notifications are returned as stored. A template that no longer exists is shown by its id and
+     * parameters instead of failing the whole inbox.
+     */
+    public RenderedNotification render(Notification notification, Locale locale) {
+        String templateId = notification.getTemplateId();
+
+        if (templateId == null) {
+            return new RenderedNotification(notification.getSubject(), notification.getMessage());
+        }
+
+        List<String> params = notification.getTemplateParams() == null ? List.of() : notification.getTemplateParams();
+        Object[] args = params.toArray();
+        Locale target = locale == null ? defaultLocale : locale;
+
+        try {
+            return new RenderedNotification(messageSource.getMessage(templateId + SUBJECT, args, target),
+                    messageSource.getMessage(templateId + MESSAGE, args, target));
+        } catch (NoSuchMessageException e) {
+            log.warn("Notification [{}] refers to unknown template [{}]", notification.getId(), templateId);
+            return new RenderedNotification(templateId, String.join(", ", params));
+        }
+    }
+
+    /**
+     * Checks the locale's own file only; {@link ResourceBundle#keySet()} would include the keys of the base file.
+     */
+    private void checkTranslated(String basename, Locale locale) {
+        ResourceBundle.Control control = ResourceBundle.Control.getControl(ResourceBundle.Control.FORMAT_PROPERTIES);
+        String resource = control.toResourceName(control.toBundleName(basename, locale), "properties");
+        Properties translation = new Properties();
+
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("No notification templates for locale [%s] (%s)".formatted(locale, resource));
+            }
+            translation.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        List<String> missing = templateIds.stream()
+                .flatMap(templateId -> Stream.of(templateId + SUBJECT, templateId + MESSAGE))
+                .filter(key -> !translation.containsKey(key))
+                .toList();
+
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Notification templates missing for locale [%s]: %s".formatted(locale, missing));
+        }
+    }
+
+    private static Set<String> loadTemplateIds(String basename) {
+        ResourceBundle bundle = ResourceBundle.getBundle(basename, Locale.ROOT);
+        Set<String> ids = new TreeSet<>();
+
+        for (String key : bundle.keySet()) {
+            if (key.endsWith(SUBJECT)) {
+                ids.add(key.substring(0, key.length() - SUBJECT.length()));
+            }
+        }
+
+        return ids;
+    }
+}
@@ -0,0 +1,4 @@
+package com.exam.app.service.template;
+
+public record RenderedNotification(String subject, String message) {
+}
@@ -1,18 +1,37 @@
 package com.exam.app.web;
 
+import com.exam.app.exception.UnknownTemplateException;
 import com.exam.app.model.Notification;
 import com.exam.app.service.NotificationService;
+import com.exam.app.service.digest.NotificationPreferenceService;
+import com.exam.app.service.stream.NotificationStreamRegistry;
+import com.exam.app.service.template.NotificationTemplateRenderer;
+import com.exam.app.web.dto.NotificationBatchRequest;
+import com.exam.app.web.dto.NotificationBatchResponse;
+import com.exam.app.web.dto.MarkReadRequest;
+import com.exam.app.web.dto.MarkReadResponse;
+import com.exam.app.web.dto.NotificationClearResponse;
+import com.exam.app.web.dto.NotificationCursor;
+import com.exam.app.web.dto.NotificationPageResponse;
+import com.exam.app.web.dto.NotificationPreferenceRequest;
+import com.exam.app.web.dto.NotificationPreferenceResponse;
 import com.exam.app.web.dto.NotificationRequest;
 import com.exam.app.web.dto.NotificationResponse;
+import com.exam.app.web.dto.UnreadCountResponse;
 import com.exam.app.web.mapper.DtoMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
 
 @RestController
@@ -21,25 +40,50 @@ import java.util.UUID;
 @Tag(name = "Notification Controller", description = "Notification Controller")
 public class NotificationController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final NotificationService notificationService;
+    private final NotificationPreferenceService preferenceService;
+    private final NotificationTemplateRenderer templateRenderer;
+    private final NotificationStreamRegistry streamRegistry;
 
     @Operation(summary = "Send notification", description = "Send notification to a user.")
     @PostMapping
-    public ResponseEntity<NotificationResponse> sendNotification(@RequestBody NotificationRequest notificationRequest) {
+    public ResponseEntity<NotificationResponse> sendNotification(@Valid @RequestBody NotificationRequest notificationRequest, Locale locale) {
+
+        requireKnownTemplate(notificationRequest);
 
         Notification saved = notificationService.sendNotification(DtoMapper.mapToEntity(notificationRequest));
 
-        NotificationResponse response = DtoMapper.mapToResponse(saved);
+        NotificationResponse response = toResponse(saved, locale);
 
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @Operation(summary = "Send notifications in bulk",
+            description = "Stores up to " + NotificationBatchRequest.MAX_SIZE + " notifications in one transaction; either all of them are stored or none.")
+    @PostMapping("/batch")
+    public ResponseEntity<NotificationBatchResponse> sendNotifications(@Valid @RequestBody NotificationBatchRequest batchRequest) {
+
+        batchRequest.getNotifications().forEach(this::requireKnownTemplate);
+
+        List<Notification> notifications = batchRequest.getNotifications().stream()
+                .map(DtoMapper::mapToEntity)
+                .toList();
+
+        List<UUID> ids = notificationService.sendNotifications(notifications).stream()
+                .map(Notification::getId)
+                .toList();
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(new NotificationBatchResponse(ids.size(), ids));
+    }
+
     @Operation(summary = "Get all notifications", description = "Get all notifications.")
     @GetMapping
-    public ResponseEntity<List<NotificationResponse>> getAllNotifications() {
+    public ResponseEntity<List<NotificationResponse>> getAllNotifications(Locale locale) {
 
         List<NotificationResponse> responseList = notificationService.getAll().stream()
-                .map(DtoMapper::mapToResponse)
+                .map(notification -> toResponse(notification, locale))
                 .toList();
 
         return ResponseEntity.ok(responseList);
@@ -47,31 +91,143 @@ public class NotificationController {
 
     @Operation(summary = "Get notifications by user", description = "Get notifications by user.")
     @GetMapping("/{userId}")
-    public ResponseEntity<List<NotificationResponse>> getNotificationsByUser(@PathVariable UUID userId) {
+    public ResponseEntity<List<NotificationResponse>> getNotificationsByUser(@PathVariable UUID userId, Locale locale) {
 
         List<NotificationResponse> responseList = notificationService.getNotificationsByUser(userId)
                 .stream()
-                .map(DtoMapper::mapToResponse)
+                .map(notification -> toResponse(notification, locale))
                 .toList();
 
         return ResponseEntity.ok(responseList);
     }
 
-    @Operation(summary = "Delete notification", description = "Delete notification by id.")
+    @Operation(summary = "Get a page of all notifications",
+            description = "Newest first. Pass the returned nextCursor to get the following page.")
+    @GetMapping("/page")
+    public ResponseEntity<NotificationPageResponse> getAllNotificationsPage(@RequestParam(name = "cursor", required = false) String cursor,
+                                                                            @RequestParam(name = "limit", defaultValue = "20") int limit,
+                                                                            Locale locale) {
+
+        NotificationCursor position = cursor == null ? null : NotificationCursor.decode(cursor);
+
+        Slice<Notification> page = notificationService.getAllPage(
+                position == null ? null : position.createdOn(), position == null ? null : position.id(), pageSize(limit));
+
+        return ResponseEntity.ok(toPageResponse(page, locale));
+    }
+
+    @Operation(summary = "Get a page of notifications by user",
+            description = "Newest first. Pass the returned nextCursor to get the following page.")
+    @GetMapping("/{userId}/page")
+    public ResponseEntity<NotificationPageResponse> getNotificationsPage(@PathVariable UUID userId,
+                                                                         @RequestParam(name = "cursor", required = false) String cursor,
+                                                                         @RequestParam(name = "limit", defaultValue = "20") int limit,
+                                                                         Locale locale) {
+
+        NotificationCursor position = cursor == null ? null : NotificationCursor.decode(cursor);
+
+        Slice<Notification> page = notificationService.getNotificationsPage(userId,
+                position == null ? null : position.createdOn(), position == null ? null : position.id(), pageSize(limit));
+
+        return ResponseEntity.ok(toPageResponse(page, locale));
+    }
+
+    @Operation(summary = "Count unread notifications", description = "Number of unread notifications of a user.")
+    @GetMapping("/{userId}/unread-count")
+    public ResponseEntity<UnreadCountResponse> getUnreadCount(@PathVariable UUID userId) {
+
+        return ResponseEntity.ok(new UnreadCountResponse(notificationService.countUnread(userId)));
+    }
+
+    @Operation(summary = "Stream new notifications",
+            description = "Server-sent events: a \"notification\" event for every notification stored for the user, "
+                    + "and a \"resync\" event when some were dropped because the client fell behind.")
+    @GetMapping(value = "/{userId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamNotifications(@PathVariable UUID userId, Locale locale) {
+
+        return streamRegistry.subscribe(userId, notification -> toResponse(notification, locale));
+    }
+
+    @Operation(summary = "Mark notifications as read",
+            description = "Marks the given notifications of the user as read, or all of them when no ids are sent.")
+    @PostMapping("/{userId}/mark-read")
+    public ResponseEntity<MarkReadResponse> markRead(@PathVariable UUID userId, @Valid @RequestBody MarkReadRequest markReadRequest) {
+
+        int updated = notificationService.markRead(userId, markReadRequest.getIds());
+
+        return ResponseEntity.ok(new MarkReadResponse(updated));
+    }
+
+    @Operation(summary = "Get delivery preference",
+            description = "Whether the user gets every notification immediately or a digest per window.")
+    @GetMapping("/{userId}/preferences")
+    public ResponseEntity<NotificationPreferenceResponse> getPreference(@PathVariable UUID userId) {
+
+        return ResponseEntity.ok(DtoMapper.mapToResponse(preferenceService.getPreference(userId)));
+    }
+
+    @Operation(summary = "Update delivery preference",
+            description = "In DIGEST mode, notifications arriving within the window are merged and sent as one.")
+    @PutMapping("/{userId}/preferences")
+    public ResponseEntity<NotificationPreferenceResponse> updatePreference(@PathVariable UUID userId,
+                                                                           @Valid @RequestBody NotificationPreferenceRequest preferenceRequest) {
+
+        return ResponseEntity.ok(DtoMapper.mapToResponse(preferenceService.updatePreference(
+                userId, preferenceRequest.getMode(), preferenceRequest.getDigestWindowMinutes())));
+    }
+
+    @Operation(summary = "Delete notification",
+            description = "Delete notification by id. With userId the notification is deleted only if it belongs to that user.")
     @DeleteMapping("/{id}")
-    public ResponseEntity<String> deleteNotification(@PathVariable UUID id) {
+    public ResponseEntity<String> deleteNotification(@PathVariable UUID id,
+                                                     @RequestParam(name = "userId", required = false) UUID userId) {
 
-        notificationService.deleteNotification(id);
+        if (userId == null) {
+            notificationService.deleteNotification(id);
+        } else {
+            notificationService.deleteNotification(id, userId);
+        }
 
         return ResponseEntity.ok("Notification deleted.");
     }
 
     @Operation(summary = "Clear notification history", description = "Clear notification history by user id.")
     @DeleteMapping
-    public ResponseEntity<String> clearHistory(@RequestParam(name = "userId") UUID userId) {
+    public ResponseEntity<NotificationClearResponse> clearHistory(@RequestParam(name = "userId") UUID userId) {
+
+        int cleared = notificationService.clearNotifications(userId);
+
+        return ResponseEntity.ok(new NotificationClearResponse("Notification history cleared.", cleared));
+    }
+
+    /**
+     * Notifications sent from a template are rendered in the caller's {@code Accept-Language}.
+     */
+    private NotificationResponse toResponse(Notification notification, Locale locale) {
+        return DtoMapper.mapToResponse(notification, templateRenderer.render(notification, locale));
+    }
+
+    private void requireKnownTemplate(NotificationRequest notificationRequest) {
+        String templateId = notificationRequest.getTemplateId();
+
+        if (templateId != null && !templateRenderer.isKnown(templateId)) {
+            throw new UnknownTemplateException("Notification template [%s] does not exist.".formatted(templateId));
+        }
+    }
+
+    private static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    private NotificationPageResponse toPageResponse(Slice<Notification> page, Locale locale) {
+        List<NotificationResponse> items = page.getContent().stream()
+                .map(notification -> toResponse(notification, locale))
+                .toList();
 
-        notificationService.clearNotifications(userId);
+        String nextCursor = page.hasNext()
+                ? NotificationCursor.of(page.getContent().get(page.getContent().size() - 1)).encode()
+                : null;
 
-        return ResponseEntity.ok("Notification history cleared.");
+        return new NotificationPageResponse(items, nextCursor);
     }
 }
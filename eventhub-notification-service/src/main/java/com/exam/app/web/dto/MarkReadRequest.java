@@ -0,0 +1,23 @@
+package com.exam.app.web.dto;
+
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class MarkReadRequest {
+
+    public static final int MAX_SIZE = 500;
+
+    /**
+     * Notifications to mark as read; when empty, all of the user's notifications are marked.
+     */
+    @Size(max = MAX_SIZE)
+    private List<UUID> ids;
+}
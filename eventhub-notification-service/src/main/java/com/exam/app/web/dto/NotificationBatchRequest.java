@@ -0,0 +1,22 @@
+package com.exam.app.web.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class NotificationBatchRequest {
+
+    public static final int MAX_SIZE = 500;
+
+    @NotEmpty
+    @Size(max = MAX_SIZE)
+    private List<@Valid NotificationRequest> notifications;
+}
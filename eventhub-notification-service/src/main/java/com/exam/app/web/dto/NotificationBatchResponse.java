@@ -0,0 +1,19 @@
+package com.exam.app.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationBatchResponse {
+
+    private int count;
+    private List<UUID> ids;
+}
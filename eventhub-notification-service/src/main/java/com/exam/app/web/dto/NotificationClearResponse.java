@@ -0,0 +1,16 @@
+package com.exam.app.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationClearResponse {
+
+    private String message;
+    private int cleared;
+}
@@ -0,0 +1,39 @@
+package com.exam.app.web.dto;
+
+import com.exam.app.exception.InvalidCursorException;
+import com.exam.app.model.Notification;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in a notification feed ordered by {@code (createdOn, id)} descending. Clients get it as an
+ * opaque string and pass it back unchanged to fetch the next page.
+ */
+public record NotificationCursor(LocalDateTime createdOn, UUID id) {
+
+    private static final String SEPARATOR = "|";
+
+    public static NotificationCursor of(Notification notification) {
+        return new NotificationCursor(notification.getCreatedOn(), notification.getId());
+    }
+
+    public String encode() {
+        String raw = createdOn + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static NotificationCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+
+            return new NotificationCursor(LocalDateTime.parse(raw.substring(0, separator)), UUID.fromString(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new InvalidCursorException("Invalid cursor [%s].".formatted(cursor));
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.exam.app.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationPageResponse {
+
+    private List<NotificationResponse> items;
+
+    /**
+     * Cursor of the next page, {@code null} on the last page.
+     */
+    private String nextCursor;
+}
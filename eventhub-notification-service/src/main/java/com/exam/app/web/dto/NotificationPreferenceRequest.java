@@ -0,0 +1,25 @@
+package com.exam.app.web.dto;
+
+import com.exam.app.model.DeliveryMode;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class NotificationPreferenceRequest {
+
+    @NotNull
+    private DeliveryMode mode;
+
+    /**
+     * How long notifications are collected before a digest is sent; the current window is kept when omitted.
+     */
+    @Min(1)
+    @Max(1440)
+    private Integer digestWindowMinutes;
+}
@@ -0,0 +1,17 @@
+package com.exam.app.web.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class NotificationPreferenceResponse {
+
+    private UUID recipientId;
+    private String mode;
+    private int digestWindowMinutes;
+}
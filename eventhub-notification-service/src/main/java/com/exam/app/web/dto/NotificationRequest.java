@@ -1,12 +1,16 @@
 package com.exam.app.web.dto;
 
+import com.exam.app.model.NotificationChannel;
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.util.List;
 import java.util.UUID;
 
 @Getter
@@ -21,9 +25,27 @@ public class NotificationRequest {
     @Email
     private String recipientEmail;
 
-    @NotBlank
     private String subject;
 
-    @NotBlank
+    @Size(max = 500)
     private String message;
+
+    /**
+     * Template to render instead of {@code subject} and {@code message}, e.g. {@code payment.successful}.
+     */
+    @Size(max = 64)
+    private String templateId;
+
+    @Size(max = 10)
+    private List<@Size(max = 200) String> templateParams;
+
+    private NotificationChannel channel = NotificationChannel.EMAIL;
+
+    @Size(max = 128)
+    private String coalesceKey;
+
+    @AssertTrue(message = "needs a templateId or both subject and message")
+    public boolean isContentPresent() {
+        return templateId != null || (subject != null && !subject.isBlank() && message != null && !message.isBlank());
+    }
 }
@@ -15,6 +15,11 @@ public class NotificationResponse {
     private String recipientEmail;
     private String subject;
     private String message;
+    private String templateId;
     private String status;
+    private String channel;
+    private boolean read;
     private LocalDateTime createdOn;
+    private LocalDateTime sentOn;
+    private int digestCount;
 }
@@ -1,6 +1,10 @@
 package com.exam.app.web.mapper;
 
 import com.exam.app.model.Notification;
+import com.exam.app.model.NotificationChannel;
+import com.exam.app.model.NotificationPreference;
+import com.exam.app.service.template.RenderedNotification;
+import com.exam.app.web.dto.NotificationPreferenceResponse;
 import com.exam.app.web.dto.NotificationRequest;
 import com.exam.app.web.dto.NotificationResponse;
 import lombok.experimental.UtilityClass;
@@ -13,8 +17,15 @@ public class DtoMapper {
 
         notification.setRecipientId(notificationRequest.getRecipientId());
         notification.setRecipientEmail(notificationRequest.getRecipientEmail());
-        notification.setSubject(notificationRequest.getSubject());
-        notification.setMessage(notificationRequest.getMessage());
+        if (notificationRequest.getTemplateId() == null) {
+            notification.setSubject(notificationRequest.getSubject());
+            notification.setMessage(notificationRequest.getMessage());
+        } else {
+            notification.setTemplateId(notificationRequest.getTemplateId());
+            notification.setTemplateParams(notificationRequest.getTemplateParams());
+        }
+        notification.setChannel(notificationRequest.getChannel() == null ? NotificationChannel.EMAIL : notificationRequest.getChannel());
+        notification.setCoalesceKey(notificationRequest.getCoalesceKey());
 
         return notification;
     }
@@ -27,10 +38,33 @@ public class DtoMapper {
         response.setRecipientEmail(notification.getRecipientEmail());
         response.setSubject(notification.getSubject());
         response.setMessage(notification.getMessage());
+        response.setTemplateId(notification.getTemplateId());
         response.setStatus(notification.getStatus().name());
+        response.setChannel(notification.getChannel() == null ? null : notification.getChannel().name());
+        response.setSentOn(notification.getSentOn());
+        response.setDigestCount(notification.getDigestCount());
+        response.setRead(notification.isRead());
         response.setCreatedOn(notification.getCreatedOn());
 
         return response;
     }
-}
 
+    public static NotificationResponse mapToResponse(Notification notification, RenderedNotification rendered) {
+        NotificationResponse response = mapToResponse(notification);
+
+        response.setSubject(rendered.subject());
+        response.setMessage(rendered.message());
+
+        return response;
+    }
+
+    public static NotificationPreferenceResponse mapToResponse(NotificationPreference preference) {
+        NotificationPreferenceResponse response = new NotificationPreferenceResponse();
+
+        response.setRecipientId(preference.getRecipientId());
+        response.setMode(preference.getMode().name());
+        response.setDigestWindowMinutes(preference.getDigestWindowMinutes());
+
+        return response;
+    }
+}
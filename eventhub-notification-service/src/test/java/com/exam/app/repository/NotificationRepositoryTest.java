@@ -7,8 +7,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.UUID;
 
@@ -79,48 +83,90 @@ class NotificationRepositoryTest {
     }
 
     @Test
-    void deleteByCreatedOnBefore_shouldDeleteOldNotifications() {
-
-        Notification oldNotification = createNotification(recipientId1, "old@example.com", false);
-        Notification recentNotification = createNotification(recipientId2, "recent@example.com", false);
+    void save_shouldPersistNotificationWithGeneratedId() {
 
-        notificationRepository.save(oldNotification);
-        notificationRepository.save(recentNotification);
+        Notification notification = createNotification(recipientId1, "test@example.com", false);
 
+        Notification saved = notificationRepository.save(notification);
         notificationRepository.flush();
+        
+        assertNotNull(saved.getId());
+        assertNotNull(saved.getCreatedOn());
+        assertEquals(recipientId1, saved.getRecipientId());
+        assertEquals("test@example.com", saved.getRecipientEmail());
+    }
+
+    @Test
+    void softDeleteByRecipientId_shouldMarkOnlyThatUsersNotificationsDeleted() {
 
-        LocalDateTime cutoffDate = LocalDateTime.now().plusDays(1);
+        notificationRepository.save(createNotification(recipientId1, "a@example.com", false));
+        notificationRepository.save(createNotification(recipientId1, "b@example.com", false));
+        notificationRepository.save(createNotification(recipientId1, "c@example.com", true));
+        notificationRepository.save(createNotification(recipientId2, "d@example.com", false));
+        notificationRepository.flush();
 
-        int deletedCount = notificationRepository.deleteByCreatedOnBefore(cutoffDate);
+        int cleared = notificationRepository.softDeleteByRecipientId(recipientId1);
 
-        assertTrue(deletedCount >= 0);
+        assertEquals(2, cleared);
+        assertTrue(notificationRepository.findByRecipientIdAndDeletedIsFalse(recipientId1).isEmpty());
+        assertEquals(1, notificationRepository.findByRecipientIdAndDeletedIsFalse(recipientId2).size());
     }
 
     @Test
-    void deleteByCreatedOnBefore_whenNoOldNotifications_shouldReturnZero() {
+    void softDeleteByIdAndRecipientId_shouldIgnoreNotificationsOfOtherUsers() {
 
-        Notification recentNotification = createNotification(recipientId1, "recent@example.com", false);
-        notificationRepository.save(recentNotification);
-        notificationRepository.flush();
+        Notification notification = notificationRepository.saveAndFlush(createNotification(recipientId1, "a@example.com", false));
 
-        LocalDateTime cutoffDate = LocalDateTime.now().minusDays(1);
+        assertEquals(0, notificationRepository.softDeleteByIdAndRecipientId(notification.getId(), recipientId2));
+        assertEquals(1, notificationRepository.softDeleteByIdAndRecipientId(notification.getId(), recipientId1));
+        assertEquals(0, notificationRepository.softDeleteByIdAndRecipientId(notification.getId(), recipientId1));
+    }
 
-        int deletedCount = notificationRepository.deleteByCreatedOnBefore(cutoffDate);
+    @Test
+    void keysetPages_walkTheWholeFeedNewestFirstWithoutGapsOrDuplicates() {
 
-        assertEquals(0, deletedCount);
+        for (int i = 0; i < 25; i++) {
+            notificationRepository.save(createNotification(recipientId1, "user" + i + "@example.com", false));
+        }
+        notificationRepository.save(createNotification(recipientId1, "deleted@example.com", true));
+        notificationRepository.save(createNotification(recipientId2, "other@example.com", false));
+        notificationRepository.flush();
+
+        List<Notification> walked = new ArrayList<>();
+        Slice<Notification> page = notificationRepository.findByRecipientIdAndDeletedIsFalseOrderByCreatedOnDescIdDesc(recipientId1, PageRequest.of(0, 10));
+        walked.addAll(page.getContent());
+
+        while (page.hasNext()) {
+            Notification last = page.getContent().get(page.getContent().size() - 1);
+            page = notificationRepository.findByRecipientIdBefore(recipientId1, last.getCreatedOn(), last.getId(), PageRequest.of(0, 10));
+            walked.addAll(page.getContent());
+        }
+
+        assertEquals(25, walked.size());
+        assertEquals(25, new HashSet<>(walked.stream().map(Notification::getId).toList()).size());
+        for (int i = 1; i < walked.size(); i++) {
+            assertFalse(walked.get(i).getCreatedOn().isAfter(walked.get(i - 1).getCreatedOn()));
+        }
     }
 
     @Test
-    void save_shouldPersistNotificationWithGeneratedId() {
-
-        Notification notification = createNotification(recipientId1, "test@example.com", false);
+    void markReadByIds_shouldOnlyTouchTheUsersUnreadNotificationsAndUpdateTheCount() {
 
-        Notification saved = notificationRepository.save(notification);
+        Notification first = notificationRepository.save(createNotification(recipientId1, "a@example.com", false));
+        Notification second = notificationRepository.save(createNotification(recipientId1, "b@example.com", false));
+        Notification foreign = notificationRepository.save(createNotification(recipientId2, "c@example.com", false));
         notificationRepository.flush();
-        
-        assertNotNull(saved.getId());
-        assertNotNull(saved.getCreatedOn());
-        assertEquals(recipientId1, saved.getRecipientId());
-        assertEquals("test@example.com", saved.getRecipientEmail());
+
+        assertEquals(2, notificationRepository.countByRecipientIdAndDeletedIsFalseAndReadIsFalse(recipientId1));
+
+        int updated = notificationRepository.markReadByIds(recipientId1, List.of(first.getId(), foreign.getId()));
+
+        assertEquals(1, updated);
+        assertEquals(1, notificationRepository.countByRecipientIdAndDeletedIsFalseAndReadIsFalse(recipientId1));
+        assertEquals(1, notificationRepository.countByRecipientIdAndDeletedIsFalseAndReadIsFalse(recipientId2));
+
+        assertEquals(1, notificationRepository.markAllRead(recipientId1));
+        assertEquals(0, notificationRepository.countByRecipientIdAndDeletedIsFalseAndReadIsFalse(recipientId1));
+        assertNotNull(second.getId());
     }
 }
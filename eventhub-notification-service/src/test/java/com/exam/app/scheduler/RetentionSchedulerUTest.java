@@ -0,0 +1,28 @@
+package com.exam.app.scheduler;
+
+import com.exam.app.service.retention.RetentionEngine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RetentionSchedulerUTest {
+
+    @Mock
+    private RetentionEngine retentionEngine;
+
+    @InjectMocks
+    private RetentionScheduler scheduler;
+
+    @Test
+    void purgeExpired_shouldRunEveryRetentionTarget() {
+
+        scheduler.purgeExpired();
+
+        verify(retentionEngine, times(1)).runAll();
+    }
+}
@@ -0,0 +1,66 @@
+package com.exam.app.service;
+
+import com.exam.app.model.Notification;
+import com.exam.app.repository.NotificationRepository;
+import com.exam.app.service.digest.NotificationCoalescer;
+import com.exam.app.service.digest.NotificationPreferenceService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static com.exam.app.util.TestBuilder.createNotification;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({NotificationService.class, NotificationPreferenceService.class})
+class NotificationBatchInsertTest {
+
+    private static final int BATCH = 250;
+
+    @MockitoBean
+    private NotificationCoalescer coalescer;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void sendNotifications_insertsTheBatchWithAHandfulOfStatements() {
+
+        UUID recipientId = UUID.randomUUID();
+        List<Notification> batch = IntStream.range(0, BATCH)
+                .mapToObj(i -> createNotification(recipientId, "user" + i + "@example.com", false))
+                .toList();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        notificationService.sendNotifications(batch);
+        entityManager.flush();
+
+        assertEquals(BATCH, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 3,
+                "expected batched inserts, got " + statistics.getPrepareStatementCount() + " statements");
+        assertEquals(BATCH, notificationRepository.findByRecipientIdAndDeletedIsFalse(recipientId).size());
+    }
+}
@@ -4,6 +4,9 @@ import com.exam.app.exception.NotificationNotFoundException;
 import com.exam.app.model.Notification;
 import com.exam.app.model.NotificationStatus;
 import com.exam.app.repository.NotificationRepository;
+import com.exam.app.service.digest.NotificationCoalescer;
+import com.exam.app.service.digest.NotificationPreferenceService;
+import com.exam.app.service.stream.NotificationStoredEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,10 +14,16 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -28,6 +37,15 @@ public class NotificationServiceUTest {
     @Mock
     private NotificationRepository notificationRepository;
 
+    @Mock
+    private NotificationPreferenceService preferenceService;
+
+    @Mock
+    private NotificationCoalescer coalescer;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private NotificationService notificationService;
 
@@ -49,15 +67,70 @@ public class NotificationServiceUTest {
     }
 
     @Test
-    void givenNotification_whenSendNotification_thenSaveWithSentStatus() {
+    void givenNotification_whenSendNotification_thenSaveAsPendingForDelivery() {
 
         when(notificationRepository.save(any(Notification.class))).thenReturn(testNotification);
 
         Notification result = notificationService.sendNotification(testNotification);
 
         assertNotNull(result);
-        assertEquals(NotificationStatus.SENT, testNotification.getStatus());
+        assertEquals(NotificationStatus.PENDING, testNotification.getStatus());
+        assertNotNull(testNotification.getNextAttemptAt());
         verify(notificationRepository, times(1)).save(testNotification);
+        verify(eventPublisher).publishEvent(new NotificationStoredEvent(List.of(testNotification)));
+    }
+
+    @Test
+    void sendNotifications_shouldSaveWholeBatchAsPendingInOneCall() {
+
+        Notification second = new Notification();
+        second.setRecipientId(testUserId);
+        List<Notification> batch = List.of(testNotification, second);
+        when(notificationRepository.saveAll(batch)).thenReturn(batch);
+
+        List<Notification> result = notificationService.sendNotifications(batch);
+
+        assertEquals(2, result.size());
+        assertTrue(batch.stream().allMatch(n -> n.getStatus() == NotificationStatus.PENDING && n.getNextAttemptAt() != null));
+        verify(notificationRepository, times(1)).saveAll(batch);
+        verify(notificationRepository, never()).save(any(Notification.class));
+    }
+
+    @Test
+    void givenRecipientInDigestMode_whenSendNotification_thenCoalesceInsteadOfSaving() {
+
+        Notification digest = new Notification();
+        when(preferenceService.digestWindows(List.of(testUserId))).thenReturn(Map.of(testUserId, Duration.ofMinutes(15)));
+        when(coalescer.coalesce(List.of(testNotification), Duration.ofMinutes(15))).thenReturn(digest);
+
+        Notification result = notificationService.sendNotification(testNotification);
+
+        assertSame(digest, result);
+        verify(notificationRepository, never()).save(any(Notification.class));
+    }
+
+    @Test
+    void sendNotifications_mixedBatch_savesImmediateOnesAndCoalescesTheRestInInputOrder() {
+
+        UUID digestUserId = UUID.randomUUID();
+        Notification first = new Notification();
+        first.setRecipientId(digestUserId);
+        Notification second = new Notification();
+        second.setRecipientId(digestUserId);
+        Notification digest = new Notification();
+        List<Notification> batch = List.of(first, testNotification, second);
+        when(preferenceService.digestWindows(List.of(digestUserId, testUserId))).thenReturn(Map.of(digestUserId, Duration.ofMinutes(5)));
+        when(notificationRepository.saveAll(List.of(testNotification))).thenReturn(List.of(testNotification));
+        when(coalescer.coalesce(List.of(first, second), Duration.ofMinutes(5))).thenReturn(digest);
+
+        List<Notification> result = notificationService.sendNotifications(batch);
+
+        assertEquals(3, result.size());
+        assertSame(digest, result.get(0));
+        assertSame(testNotification, result.get(1));
+        assertSame(digest, result.get(2));
+        assertEquals(NotificationStatus.PENDING, testNotification.getStatus());
+        verify(eventPublisher).publishEvent(new NotificationStoredEvent(List.of(testNotification, digest)));
     }
 
     @Test
@@ -166,67 +239,86 @@ public class NotificationServiceUTest {
     }
 
     @Test
-    void clearNotifications_shouldDeleteAllUserNotifications() {
+    void clearNotifications_shouldSoftDeleteAllUserNotificationsWithOneUpdate() {
 
-        Notification notification1 = new Notification();
-        notification1.setId(UUID.randomUUID());
-        notification1.setRecipientId(testUserId);
-        notification1.setDeleted(false);
+        when(notificationRepository.softDeleteByRecipientId(testUserId)).thenReturn(2);
 
-        Notification notification2 = new Notification();
-        notification2.setId(UUID.randomUUID());
-        notification2.setRecipientId(testUserId);
-        notification2.setDeleted(false);
+        int cleared = notificationService.clearNotifications(testUserId);
 
-        List<Notification> userNotifications = Arrays.asList(notification1, notification2);
+        assertEquals(2, cleared);
+        verify(notificationRepository, times(1)).softDeleteByRecipientId(testUserId);
+        verify(notificationRepository, never()).findByRecipientIdAndDeletedIsFalse(any());
+        verify(notificationRepository, never()).save(any());
+    }
 
-        when(notificationRepository.findByRecipientIdAndDeletedIsFalse(testUserId)).thenReturn(userNotifications);
-        when(notificationRepository.findById(notification1.getId())).thenReturn(Optional.of(notification1));
-        when(notificationRepository.findById(notification2.getId())).thenReturn(Optional.of(notification2));
+    @Test
+    void clearNotifications_shouldReturnZeroWhenNoNotifications() {
 
-        notificationService.clearNotifications(testUserId);
+        when(notificationRepository.softDeleteByRecipientId(testUserId)).thenReturn(0);
 
-        verify(notificationRepository, times(2)).save(any(Notification.class));
+        assertEquals(0, notificationService.clearNotifications(testUserId));
+        verify(notificationRepository, never()).save(any());
     }
 
     @Test
-    void clearNotifications_shouldDoNothingWhenNoNotifications() {
+    void getNotificationsPage_withoutCursor_shouldReadTheFirstPage() {
 
-        when(notificationRepository.findByRecipientIdAndDeletedIsFalse(testUserId)).thenReturn(List.of());
+        Slice<Notification> slice = new SliceImpl<>(List.of(testNotification));
+        when(notificationRepository.findByRecipientIdAndDeletedIsFalseOrderByCreatedOnDescIdDesc(testUserId, PageRequest.of(0, 20)))
+                .thenReturn(slice);
+
+        assertSame(slice, notificationService.getNotificationsPage(testUserId, null, null, 20));
+        verify(notificationRepository, never()).findByRecipientIdBefore(any(), any(), any(), any());
+    }
+
+    @Test
+    void getNotificationsPage_withCursor_shouldContinueAfterIt() {
 
-        notificationService.clearNotifications(testUserId);
+        LocalDateTime createdOn = LocalDateTime.now();
+        Slice<Notification> slice = new SliceImpl<>(List.of(testNotification));
+        when(notificationRepository.findByRecipientIdBefore(testUserId, createdOn, testNotificationId, PageRequest.of(0, 20)))
+                .thenReturn(slice);
 
-        verify(notificationRepository, never()).save(any());
+        assertSame(slice, notificationService.getNotificationsPage(testUserId, createdOn, testNotificationId, 20));
     }
 
     @Test
-    void deleteOldNotifications_shouldDeleteOldNotifications() {
+    void markRead_withoutIds_shouldMarkAllRead() {
 
-        int days = 30;
-        int deletedCount = 5;
-        when(notificationRepository.deleteByCreatedOnBefore(any(LocalDateTime.class))).thenReturn(deletedCount);
+        when(notificationRepository.markAllRead(testUserId)).thenReturn(4);
 
-        int result = notificationService.deleteOldNotifications(days);
+        assertEquals(4, notificationService.markRead(testUserId, List.of()));
+        verify(notificationRepository, never()).markReadByIds(any(), any());
+    }
 
-        assertEquals(deletedCount, result);
-        ArgumentCaptor<LocalDateTime> captor = ArgumentCaptor.forClass(LocalDateTime.class);
-        verify(notificationRepository).deleteByCreatedOnBefore(captor.capture());
+    @Test
+    void markRead_withIds_shouldMarkOnlyThose() {
 
-        LocalDateTime capturedDate = captor.getValue();
-        LocalDateTime expectedDate = LocalDateTime.now().minusDays(days);
+        List<UUID> ids = List.of(testNotificationId);
+        when(notificationRepository.markReadByIds(testUserId, ids)).thenReturn(1);
 
-        assertTrue(capturedDate.isBefore(expectedDate.plusSeconds(1)));
-        assertTrue(capturedDate.isAfter(expectedDate.minusSeconds(1)));
+        assertEquals(1, notificationService.markRead(testUserId, ids));
+        verify(notificationRepository, never()).markAllRead(any());
+    }
+
+    @Test
+    void deleteNotificationForUser_whenOwned_shouldSoftDeleteWithoutLoadingIt() {
+
+        when(notificationRepository.softDeleteByIdAndRecipientId(testNotificationId, testUserId)).thenReturn(1);
+
+        notificationService.deleteNotification(testNotificationId, testUserId);
+
+        verify(notificationRepository, never()).findById(any());
+        verify(notificationRepository, never()).save(any());
     }
 
     @Test
-    void deleteOldNotifications_shouldReturnZeroWhenNoOldNotifications() {
+    void deleteNotificationForUser_whenNotOwnedOrMissing_shouldThrowNotFound() {
 
-        int days = 30;
-        when(notificationRepository.deleteByCreatedOnBefore(any(LocalDateTime.class))).thenReturn(0);
+        UUID otherUserId = UUID.randomUUID();
+        when(notificationRepository.softDeleteByIdAndRecipientId(testNotificationId, otherUserId)).thenReturn(0);
 
-        int result = notificationService.deleteOldNotifications(days);
-        
-        assertEquals(0, result);
+        assertThrows(NotificationNotFoundException.class,
+                () -> notificationService.deleteNotification(testNotificationId, otherUserId));
     }
 }
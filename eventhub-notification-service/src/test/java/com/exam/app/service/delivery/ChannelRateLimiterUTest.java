@@ -0,0 +1,45 @@
+package com.exam.app.service.delivery;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ChannelRateLimiterUTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+
+    @Test
+    void reserve_spacesCallsByTheRate() {
+
+        ChannelRateLimiter limiter = new ChannelRateLimiter(1, now::get);
+
+        assertEquals(0, limiter.reserve());
+        assertEquals(TimeUnit.SECONDS.toNanos(1), limiter.reserve());
+        assertEquals(TimeUnit.SECONDS.toNanos(2), limiter.reserve());
+    }
+
+    @Test
+    void reserve_afterAQuietPeriod_allowsABurstOfOneSecond() {
+
+        ChannelRateLimiter limiter = new ChannelRateLimiter(10, now::get);
+        now.addAndGet(TimeUnit.SECONDS.toNanos(5));
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, limiter.reserve());
+        }
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), limiter.reserve());
+    }
+
+    @Test
+    void reserve_withoutARate_neverWaits() {
+
+        ChannelRateLimiter limiter = new ChannelRateLimiter(0, now::get);
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(0, limiter.reserve());
+        }
+    }
+}
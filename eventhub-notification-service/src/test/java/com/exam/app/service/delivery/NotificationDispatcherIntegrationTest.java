@@ -0,0 +1,156 @@
+package com.exam.app.service.delivery;
+
+import com.exam.app.model.Notification;
+import com.exam.app.model.NotificationChannel;
+import com.exam.app.model.NotificationStatus;
+import com.exam.app.repository.NotificationRepository;
+import com.exam.app.service.NotificationService;
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.PayloadApplicationEvent;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static com.exam.app.util.TestBuilder.createNotification;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@SpringBootTest
+class NotificationDispatcherIntegrationTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP)
+            .withConfiguration(GreenMailConfiguration.aConfig().withDisabledAuthentication());
+
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ConfigurableApplicationContext applicationContext;
+
+    @BeforeEach
+    void setUp() {
+        notificationRepository.deleteAll();
+    }
+
+    @Test
+    void pendingEmailNotification_isSentOverSmtpAndMarkedSent() throws Exception {
+
+        Notification notification = notificationService.sendNotification(
+                createNotification(UUID.randomUUID(), "user@example.com", false));
+
+        int dispatched = notificationDispatcher.dispatchPending();
+
+        assertEquals(1, dispatched);
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(1, received.length);
+        assertEquals("Test Subject", received[0].getSubject());
+        assertEquals("user@example.com", received[0].getAllRecipients()[0].toString());
+
+        Notification stored = notificationRepository.findById(notification.getId()).orElseThrow();
+        assertEquals(NotificationStatus.SENT, stored.getStatus());
+        assertNotNull(stored.getSentOn());
+    }
+
+    @Test
+    void templatedNotification_isStoredWithoutTextAndRenderedForTheEmail() throws Exception {
+
+        Notification notification = createNotification(UUID.randomUUID(), "user@example.com", false);
+        notification.setSubject(null);
+        notification.setMessage(null);
+        notification.setTemplateId("booking.auto-cancelled");
+        notification.setTemplateParams(List.of("Rock Night"));
+        notificationService.sendNotification(notification);
+
+        notificationDispatcher.dispatchPending();
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(1, received.length);
+        assertEquals("Booking Cancelled", received[0].getSubject());
+        assertTrue(GreenMailUtil.getBody(received[0]).contains("\"Rock Night\""));
+
+        Notification stored = notificationRepository.findById(notification.getId()).orElseThrow();
+        assertNull(stored.getSubject());
+        assertEquals(List.of("Rock Night"), stored.getTemplateParams());
+    }
+
+    @Test
+    void batchOfNotifications_isDeliveredByTheWorkerPool() {
+
+        List<Notification> batch = IntStream.range(0, 30)
+                .mapToObj(i -> createNotification(UUID.randomUUID(), "user" + i + "@example.com", false))
+                .toList();
+        notificationService.sendNotifications(batch);
+        double sentBefore = sentCount("email");
+
+        notificationDispatcher.dispatchPending();
+
+        assertEquals(30, greenMail.getReceivedMessages().length);
+        assertEquals(30, notificationRepository.countByStatus(NotificationStatus.SENT));
+        assertEquals(30.0, sentCount("email") - sentBefore);
+    }
+
+    @Test
+    void inAppNotification_isPublishedWithoutSendingMail() {
+
+        Notification notification = createNotification(UUID.randomUUID(), "user@example.com", false);
+        notification.setChannel(NotificationChannel.IN_APP);
+        notificationService.sendNotification(notification);
+        List<InAppNotificationEvent> published = new CopyOnWriteArrayList<>();
+        applicationContext.addApplicationListener((PayloadApplicationEvent<InAppNotificationEvent> event) ->
+                published.add(event.getPayload()));
+
+        notificationDispatcher.dispatchPending();
+
+        assertEquals(0, greenMail.getReceivedMessages().length);
+        assertEquals(1, published.stream()
+                .filter(event -> event.notificationId().equals(notification.getId()))
+                .count());
+        assertEquals(NotificationStatus.SENT, notificationRepository.findById(notification.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void unreachableSmtpServer_keepsTheNotificationPendingWithBackOff() {
+
+        greenMail.stop();
+        Notification notification = notificationService.sendNotification(
+                createNotification(UUID.randomUUID(), "user@example.com", false));
+
+        notificationDispatcher.dispatchPending();
+
+        Notification stored = notificationRepository.findById(notification.getId()).orElseThrow();
+        assertEquals(NotificationStatus.PENDING, stored.getStatus());
+        assertEquals(1, stored.getAttempts());
+        assertNotNull(stored.getLastError());
+        assertTrue(stored.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        assertEquals(0, notificationDispatcher.dispatchPending());
+    }
+
+    private double sentCount(String channel) {
+        return meterRegistry.counter("eventhub.notification.delivery", "channel", channel, "result", "sent").count();
+    }
+}
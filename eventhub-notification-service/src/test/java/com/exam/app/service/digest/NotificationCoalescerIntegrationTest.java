@@ -0,0 +1,148 @@
+package com.exam.app.service.digest;
+
+import com.exam.app.model.DeliveryMode;
+import com.exam.app.model.Notification;
+import com.exam.app.model.NotificationStatus;
+import com.exam.app.repository.NotificationPreferenceRepository;
+import com.exam.app.repository.NotificationRepository;
+import com.exam.app.service.NotificationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static com.exam.app.util.TestBuilder.createNotification;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@SpringBootTest
+class NotificationCoalescerIntegrationTest {
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private NotificationPreferenceService preferenceService;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private NotificationPreferenceRepository preferenceRepository;
+
+    @Autowired
+    private DigestItemCodec digestItemCodec;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID recipientId;
+
+    @BeforeEach
+    void setUp() {
+        notificationRepository.deleteAll();
+        preferenceRepository.deleteAll();
+        recipientId = UUID.randomUUID();
+    }
+
+    @Test
+    void immediateRecipient_getsOneRowPerNotification() {
+
+        notificationService.sendNotification(createNotification(recipientId, "user@example.com", false));
+        notificationService.sendNotification(createNotification(recipientId, "user@example.com", false));
+
+        assertEquals(2, notificationRepository.count());
+    }
+
+    @Test
+    void digestRecipient_notificationsWithinTheWindowShareOneDelayedRow() {
+
+        preferenceService.updatePreference(recipientId, DeliveryMode.DIGEST, 15);
+
+        Notification first = notificationService.sendNotification(notification("Booking Cancelled", "booking-1"));
+        Notification second = notificationService.sendNotification(notification("Event Updated", "event-1"));
+
+        assertEquals(first.getId(), second.getId());
+        assertEquals(1, notificationRepository.count());
+
+        Notification digest = notificationRepository.findById(first.getId()).orElseThrow();
+        assertEquals(NotificationStatus.PENDING, digest.getStatus());
+        assertEquals(2, digest.getDigestCount());
+        assertEquals("You have 2 new updates", digest.getSubject());
+        assertEquals(digest.getDigestUntil(), digest.getNextAttemptAt());
+        assertTrue(digest.getNextAttemptAt().isAfter(LocalDateTime.now().plusMinutes(14)));
+    }
+
+    @Test
+    void digestRecipient_sameKeyKeepsOnlyTheLatestState() {
+
+        preferenceService.updatePreference(recipientId, DeliveryMode.DIGEST, 15);
+
+        List<Notification> batch = IntStream.range(0, 20)
+                .mapToObj(i -> {
+                    Notification notification = notification("Booking status", "booking-1");
+                    notification.setMessage("Status update " + i);
+                    return notification;
+                })
+                .toList();
+
+        List<Notification> stored = notificationService.sendNotifications(batch);
+
+        assertEquals(20, stored.size());
+        assertEquals(1, stored.stream().map(Notification::getId).distinct().count());
+
+        Notification digest = notificationRepository.findById(stored.get(0).getId()).orElseThrow();
+        List<DigestItem> items = digestItemCodec.read(digest.getDigestItems());
+        assertEquals(20, digest.getDigestCount());
+        assertEquals(1, items.size());
+        assertEquals("Status update 19", items.get(0).message());
+        assertEquals("Booking status", digest.getSubject());
+    }
+
+    @Test
+    void digestRecipient_closedWindowStartsANewDigest() {
+
+        preferenceService.updatePreference(recipientId, DeliveryMode.DIGEST, 15);
+        Notification first = notificationService.sendNotification(notification("Booking Cancelled", "booking-1"));
+        jdbcTemplate.update("UPDATE notifications SET digest_until = ?, next_attempt_at = ? WHERE id = ?",
+                LocalDateTime.now().minusSeconds(1), LocalDateTime.now().minusSeconds(1), first.getId());
+
+        Notification second = notificationService.sendNotification(notification("Booking Cancelled", "booking-2"));
+
+        assertNotEquals(first.getId(), second.getId());
+        assertEquals(2, notificationRepository.count());
+    }
+
+    @Test
+    void mixedBatch_onlyDigestRecipientsAreCoalesced() {
+
+        preferenceService.updatePreference(recipientId, DeliveryMode.DIGEST, 15);
+        UUID otherRecipient = UUID.randomUUID();
+
+        List<Notification> stored = notificationService.sendNotifications(List.of(
+                notification("Booking Cancelled", "booking-1"),
+                createNotification(otherRecipient, "other@example.com", false),
+                notification("Booking Cancelled", "booking-2"),
+                createNotification(otherRecipient, "other@example.com", false)));
+
+        assertEquals(4, stored.size());
+        assertEquals(stored.get(0).getId(), stored.get(2).getId());
+        assertNotEquals(stored.get(1).getId(), stored.get(3).getId());
+        assertEquals(3, notificationRepository.count());
+        assertEquals(otherRecipient, stored.get(1).getRecipientId());
+    }
+
+    private Notification notification(String subject, String coalesceKey) {
+        Notification notification = createNotification(recipientId, "user@example.com", false);
+        notification.setSubject(subject);
+        notification.setCoalesceKey(coalesceKey);
+        return notification;
+    }
+}
@@ -0,0 +1,221 @@
+package com.exam.app.service.retention;
+
+import com.exam.app.model.Notification;
+import com.exam.app.model.RetentionCheckpoint;
+import com.exam.app.repository.NotificationRepository;
+import com.exam.app.repository.RetentionCheckpointRepository;
+import com.exam.app.service.retention.RetentionRun.Outcome;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.exam.app.util.TestBuilder.createNotification;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@SpringBootTest
+class RetentionEngineIntegrationTest {
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private RetentionCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TestClock clock;
+
+    @BeforeEach
+    void setUp() {
+        notificationRepository.deleteAll();
+        checkpointRepository.deleteAll();
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new TestClock();
+    }
+
+    @Test
+    void run_purgesOnlyExpiredRowsInKeyOrderedChunks() {
+
+        List<UUID> expired = save(25, 40, false);
+        List<UUID> recent = save(5, 1, false);
+
+        RetentionRun run = engine().run(expiredTarget(10, 60));
+
+        assertEquals(Outcome.COMPLETED, run.outcome());
+        assertEquals(25, run.purged());
+        assertEquals(3, run.chunks());
+        assertTrue(expired.stream().noneMatch(notificationRepository::existsById));
+        assertTrue(recent.stream().allMatch(notificationRepository::existsById));
+        assertEquals(25.0, meterRegistry.get("eventhub.retention.purged").tag("target", "notifications").counter().count());
+        assertEquals(3.0, meterRegistry.get("eventhub.retention.chunks").tag("target", "notifications").counter().count());
+
+        RetentionCheckpoint checkpoint = checkpointRepository.findById("notifications").orElseThrow();
+        assertNull(checkpoint.getLastId());
+        assertNull(checkpoint.getLockedUntil());
+        assertTrue(checkpoint.isLastRunCompleted());
+        assertEquals(25, checkpoint.getLastRunPurged());
+    }
+
+    @Test
+    void run_whenTimeBudgetIsSpent_leavesCheckpointAndNextRunResumesFromIt() {
+
+        List<UUID> expired = save(25, 40, false);
+        RetentionTarget<UUID> target = advancingClockOnPurge(expiredTarget(10, 1), Duration.ofSeconds(1));
+
+        RetentionRun first = engine().run(target);
+
+        assertEquals(Outcome.BUDGET_EXHAUSTED, first.outcome());
+        assertEquals(10, first.purged());
+        RetentionCheckpoint checkpoint = checkpointRepository.findById("notifications").orElseThrow();
+        assertFalse(checkpoint.isLastRunCompleted());
+        assertNotNull(checkpoint.getLastId());
+        assertEquals(15, notificationRepository.count());
+
+        RetentionRun second = engine().run(target);
+        RetentionRun third = engine().run(target);
+
+        assertEquals(Outcome.BUDGET_EXHAUSTED, second.outcome());
+        assertEquals(Outcome.COMPLETED, third.outcome());
+        assertEquals(25, first.purged() + second.purged() + third.purged());
+        assertTrue(expired.stream().noneMatch(notificationRepository::existsById));
+        assertNull(checkpointRepository.findById("notifications").orElseThrow().getLastId());
+    }
+
+    @Test
+    void run_deletedNotificationsTarget_purgesOnlySoftDeletedRows() {
+
+        List<UUID> deleted = save(4, 10, true);
+        List<UUID> visible = save(3, 10, false);
+
+        RetentionRun run = engine().run(new DeletedNotificationRetention(notificationRepository, true, 7, 100, 0, 60));
+
+        assertEquals(4, run.purged());
+        assertTrue(deleted.stream().noneMatch(notificationRepository::existsById));
+        assertTrue(visible.stream().allMatch(notificationRepository::existsById));
+    }
+
+    @Test
+    void run_whenAnotherInstanceHoldsTheLock_skipsTheTarget() {
+
+        save(3, 40, false);
+        RetentionCheckpoint checkpoint = new RetentionCheckpoint("notifications");
+        checkpoint.setLockedUntil(LocalDateTime.now(clock).plusMinutes(5));
+        checkpointRepository.save(checkpoint);
+
+        RetentionRun run = engine().run(expiredTarget(10, 60));
+
+        assertEquals(Outcome.LOCKED, run.outcome());
+        assertEquals(3, notificationRepository.count());
+    }
+
+    @Test
+    void run_whenTargetIsDisabled_doesNothing() {
+
+        save(3, 40, false);
+
+        RetentionRun run = engine().run(new ExpiredNotificationRetention(notificationRepository, false, 30, 10, 0, 60));
+
+        assertEquals(Outcome.DISABLED, run.outcome());
+        assertEquals(3, notificationRepository.count());
+        assertFalse(checkpointRepository.existsById("notifications"));
+    }
+
+    private RetentionEngine engine() {
+        return new RetentionEngine(List.of(), checkpointRepository, transactionManager, meterRegistry, clock);
+    }
+
+    private ExpiredNotificationRetention expiredTarget(int chunkSize, long timeBudgetSeconds) {
+        return new ExpiredNotificationRetention(notificationRepository, true, 30, chunkSize, 0, timeBudgetSeconds);
+    }
+
+    private List<UUID> save(int count, int daysOld, boolean deleted) {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Notification notification = notificationRepository.save(
+                    createNotification(UUID.randomUUID(), "user" + i + "@example.com", deleted));
+            jdbcTemplate.update("UPDATE notifications SET created_on = ? WHERE id = ?",
+                    LocalDateTime.now(clock).minusDays(daysOld), notification.getId());
+            ids.add(notification.getId());
+        }
+        return ids;
+    }
+
+    private RetentionTarget<UUID> advancingClockOnPurge(RetentionTarget<UUID> delegate, Duration step) {
+        return new RetentionTarget<>() {
+            @Override
+            public String name() {
+                return delegate.name();
+            }
+
+            @Override
+            public RetentionPolicy policy() {
+                return delegate.policy();
+            }
+
+            @Override
+            public UUID start() {
+                return delegate.start();
+            }
+
+            @Override
+            public UUID parseId(String value) {
+                return delegate.parseId(value);
+            }
+
+            @Override
+            public List<UUID> findExpiredIds(LocalDateTime cutoff, UUID after, int limit) {
+                return delegate.findExpiredIds(cutoff, after, limit);
+            }
+
+            @Override
+            public int purge(List<UUID> ids, LocalDateTime cutoff) {
+                clock.advance(step);
+                return delegate.purge(ids, cutoff);
+            }
+        };
+    }
+
+    private static class TestClock extends Clock {
+
+        private Instant now = Instant.now();
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.systemDefault();
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
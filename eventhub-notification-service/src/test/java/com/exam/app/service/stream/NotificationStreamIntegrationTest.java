@@ -0,0 +1,100 @@
+package com.exam.app.service.stream;
+
+import com.exam.app.model.Notification;
+import com.exam.app.service.NotificationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.exam.app.util.TestBuilder.createNotification;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class NotificationStreamIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private NotificationStreamRegistry streamRegistry;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @Test
+    void storedNotification_isPushedToTheRecipientsOpenStreamOnly() throws Exception {
+
+        UUID userId = UUID.randomUUID();
+        HttpResponse<InputStream> response = openStream(userId);
+        awaitSubscribers(1);
+
+        notificationService.sendNotification(createNotification(UUID.randomUUID(), "other@example.com", false));
+        Notification stored = notificationService.sendNotification(createNotification(userId, "user@example.com", false));
+
+        List<String> event = CompletableFuture.supplyAsync(() -> readEvent(response.body()))
+                .get(10, TimeUnit.SECONDS);
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElseThrow().startsWith("text/event-stream"));
+        assertTrue(event.contains("event:notification"));
+        assertTrue(event.contains("id:" + stored.getId()));
+        assertTrue(event.stream().anyMatch(line -> line.startsWith("data:") && line.contains("\"subject\":\"Test Subject\"")));
+
+        response.body().close();
+    }
+
+    private HttpResponse<InputStream> openStream(UUID userId) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:%d/api/v1/notifications/%s/stream".formatted(port, userId)))
+                .header("Accept", "text/event-stream")
+                .timeout(Duration.ofSeconds(10))
+                .build();
+
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+    }
+
+    private void awaitSubscribers(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (streamRegistry.subscriberCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+
+    private static List<String> readEvent(InputStream body) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        List<String> lines = new ArrayList<>();
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() && !lines.isEmpty()) {
+                    return lines;
+                }
+                if (!line.isEmpty() && !line.startsWith(":")) {
+                    lines.add(line);
+                }
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return lines;
+    }
+}
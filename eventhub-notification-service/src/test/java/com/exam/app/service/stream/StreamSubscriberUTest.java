@@ -0,0 +1,110 @@
+package com.exam.app.service.stream;
+
+import com.exam.app.model.Notification;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamSubscriberUTest {
+
+    private final ManualExecutor sender = new ManualExecutor();
+    private final RecordingEmitter emitter = new RecordingEmitter();
+
+    @Test
+    void offer_whenBufferIsFull_dropsTheOldestAndSendsAResync() {
+
+        StreamSubscriber subscriber = new StreamSubscriber(UUID.randomUUID(), emitter, Notification::getSubject, 2, sender);
+        List<Notification> notifications = List.of(notification("a"), notification("b"), notification("c"), notification("d"));
+
+        int dropped = notifications.stream().mapToInt(subscriber::offer).sum();
+        sender.runAll();
+
+        assertEquals(2, dropped);
+        assertEquals(1, sender.executed);
+        assertEquals(3, emitter.events.size());
+        assertTrue(emitter.events.get(0).contains("data:c"));
+        assertTrue(emitter.events.get(1).contains("event:resync"));
+        assertTrue(emitter.events.get(2).contains("data:d"));
+    }
+
+    @Test
+    void heartbeat_isWrittenAfterPendingNotifications() {
+
+        StreamSubscriber subscriber = new StreamSubscriber(UUID.randomUUID(), emitter, Notification::getSubject, 8, sender);
+
+        subscriber.offer(notification("a"));
+        subscriber.heartbeat();
+        sender.runAll();
+
+        assertEquals(2, emitter.events.size());
+        assertTrue(emitter.events.get(0).contains("event:notification"));
+        assertTrue(emitter.events.get(1).startsWith(":heartbeat"));
+    }
+
+    @Test
+    void failedWrite_closesTheSubscriberAndStopsBuffering() {
+
+        emitter.failing = true;
+        StreamSubscriber subscriber = new StreamSubscriber(UUID.randomUUID(), emitter, Notification::getSubject, 8, sender);
+
+        subscriber.offer(notification("a"));
+        sender.runAll();
+        subscriber.offer(notification("b"));
+        sender.runAll();
+
+        assertTrue(subscriber.isClosed());
+        assertEquals(1, sender.executed);
+    }
+
+    private static Notification notification(String subject) {
+        Notification notification = new Notification();
+        notification.setId(UUID.randomUUID());
+        notification.setSubject(subject);
+        return notification;
+    }
+
+    private static class ManualExecutor implements Executor {
+
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+        private int executed;
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        void runAll() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                executed++;
+                task.run();
+            }
+        }
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<String> events = new ArrayList<>();
+        private boolean failing;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+
+            StringBuilder event = new StringBuilder();
+            builder.build().forEach(part -> event.append(part.getData()));
+            events.add(event.toString());
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.exam.app.service.template;
+
+import com.exam.app.model.Notification;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationTemplateRendererUTest {
+
+    private final NotificationTemplateRenderer renderer = new NotificationTemplateRenderer("en", List.of("en", "bg"));
+
+    @Test
+    void templates_areDiscoveredFromTheBundle() {
+
+        assertTrue(renderer.isKnown("payment.successful"));
+        assertTrue(renderer.isKnown("booking.auto-cancelled"));
+        assertFalse(renderer.isKnown("payment"));
+        assertFalse(renderer.isKnown("unknown.template"));
+    }
+
+    @Test
+    void constructor_whenALocaleIsMissingATranslation_failsInsteadOfFallingBackToTheDefault() {
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> new NotificationTemplateRenderer("i18n/incomplete", "en", List.of("en", "bg")));
+
+        assertTrue(exception.getMessage().contains("farewell.message"));
+        assertFalse(exception.getMessage().contains("greeting"));
+    }
+
+    @Test
+    void constructor_whenALocaleHasNoTemplatesAtAll_fails() {
+
+        assertThrows(IllegalStateException.class, () -> new NotificationTemplateRenderer("en", List.of("en", "de")));
+    }
+
+    @Test
+    void render_fillsParametersInTheDefaultLocale() {
+
+        RenderedNotification rendered = renderer.render(templated("payment.successful", "Rock Night"));
+
+        assertEquals("Payment Successful", rendered.subject());
+        assertEquals("Your payment for \"Rock Night\" was successful! Enjoy the event 🎉", rendered.message());
+    }
+
+    @Test
+    void render_keepsQuotedParametersIntact() {
+
+        RenderedNotification rendered = renderer.render(templated("refund.processed", "Jazz Evening"));
+
+        assertEquals("Your payment for event 'Jazz Evening' has been refunded successfully.", rendered.message());
+    }
+
+    @Test
+    void render_usesTheRequestedLocale() {
+
+        RenderedNotification rendered = renderer.render(templated("payment.failed", "Rock Night"), Locale.forLanguageTag("bg-BG"));
+
+        assertEquals("Неуспешно плащане", rendered.subject());
+        assertTrue(rendered.message().contains("\"Rock Night\""));
+    }
+
+    @Test
+    void render_unsupportedLocaleFallsBackToDefault() {
+
+        RenderedNotification rendered = renderer.render(templated("payment.failed", "Rock Night"), Locale.GERMAN);
+
+        assertEquals("Payment Failed", rendered.subject());
+    }
+
+    @Test
+    void render_freeFormNotificationIsReturnedAsStored() {
+
+        Notification notification = new Notification();
+        notification.setSubject("Welcome");
+        notification.setMessage("Hello there");
+
+        RenderedNotification rendered = renderer.render(notification);
+
+        assertEquals("Welcome", rendered.subject());
+        assertEquals("Hello there", rendered.message());
+    }
+
+    @Test
+    void render_removedTemplateFallsBackToIdAndParameters() {
+
+        RenderedNotification rendered = renderer.render(templated("event.rescheduled", "Rock Night", "2026-12-01"));
+
+        assertEquals("event.rescheduled", rendered.subject());
+        assertEquals("Rock Night, 2026-12-01", rendered.message());
+    }
+
+    private static Notification templated(String templateId, String... params) {
+        Notification notification = new Notification();
+        notification.setTemplateId(templateId);
+        notification.setTemplateParams(List.of(params));
+        return notification;
+    }
+}
@@ -1,24 +1,44 @@
 package com.exam.app.web;
 
+import com.exam.app.exception.NotificationNotFoundException;
 import com.exam.app.model.Notification;
 import com.exam.app.model.NotificationStatus;
+import com.exam.app.model.DeliveryMode;
+import com.exam.app.model.NotificationPreference;
 import com.exam.app.service.NotificationService;
+import com.exam.app.service.digest.NotificationPreferenceService;
+import com.exam.app.service.stream.NotificationStreamRegistry;
+import com.exam.app.service.template.NotificationTemplateRenderer;
+import com.exam.app.web.dto.MarkReadRequest;
+import com.exam.app.web.dto.NotificationBatchRequest;
+import com.exam.app.web.dto.NotificationCursor;
+import com.exam.app.web.dto.NotificationPreferenceRequest;
+import com.exam.app.web.dto.NotificationRequest;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 
 import static com.exam.app.util.TestBuilder.createMockNotification;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -26,11 +46,18 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @WebMvcTest(NotificationController.class)
 @AutoConfigureMockMvc
+@Import(NotificationTemplateRenderer.class)
 public class NotificationControllerApiTest {
 
     @MockitoBean
     private NotificationService notificationService;
 
+    @MockitoBean
+    private NotificationPreferenceService preferenceService;
+
+    @MockitoBean
+    private NotificationStreamRegistry streamRegistry;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -68,6 +95,73 @@ public class NotificationControllerApiTest {
         verify(notificationService, times(1)).sendNotification(any(Notification.class));
     }
 
+    @Test
+    void sendNotifications_happyPath_returnsCreatedIds() throws Exception {
+
+        Notification first = createMockNotification();
+        Notification second = createMockNotification();
+        when(notificationService.sendNotifications(anyList())).thenReturn(List.of(first, second));
+
+        MockHttpServletRequestBuilder request = post("/api/v1/notifications/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsBytes(batchOf(validRequest(), validRequest())));
+
+        ResultActions response = mockMvc.perform(request);
+
+        response.andExpect(status().isCreated())
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.ids[0]").value(first.getId().toString()))
+                .andExpect(jsonPath("$.ids[1]").value(second.getId().toString()));
+
+        verify(notificationService, times(1)).sendNotifications(anyList());
+    }
+
+    @Test
+    void sendNotifications_withInvalidItem_isRejectedWithoutStoringAnything() throws Exception {
+
+        NotificationRequest invalid = validRequest();
+        invalid.setRecipientEmail("not-an-email");
+
+        MockHttpServletRequestBuilder request = post("/api/v1/notifications/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsBytes(batchOf(validRequest(), invalid)));
+
+        mockMvc.perform(request)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400));
+
+        verify(notificationService, never()).sendNotifications(anyList());
+    }
+
+    @Test
+    void sendNotifications_overMaxSize_isRejected() throws Exception {
+
+        NotificationRequest[] requests = Collections.nCopies(NotificationBatchRequest.MAX_SIZE + 1, validRequest())
+                .toArray(NotificationRequest[]::new);
+
+        MockHttpServletRequestBuilder request = post("/api/v1/notifications/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsBytes(batchOf(requests)));
+
+        mockMvc.perform(request)
+                .andExpect(status().isBadRequest());
+
+        verify(notificationService, never()).sendNotifications(anyList());
+    }
+
+    @Test
+    void sendNotifications_emptyBatch_isRejected() throws Exception {
+
+        MockHttpServletRequestBuilder request = post("/api/v1/notifications/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsBytes(batchOf()));
+
+        mockMvc.perform(request)
+                .andExpect(status().isBadRequest());
+
+        verify(notificationService, never()).sendNotifications(anyList());
+    }
+
     @Test
     void getAllNotificationsNotifications_happyPath() throws Exception {
 
@@ -147,6 +241,97 @@ public class NotificationControllerApiTest {
                 .andExpect(jsonPath("$.length()").value(0));
     }
 
+    @Test
+    void getNotificationsPage_withMoreResults_returnsCursorOfTheLastItem() throws Exception {
+
+        UUID userId = UUID.randomUUID();
+        Notification first = createMockNotification();
+        Notification last = createMockNotification();
+        when(notificationService.getNotificationsPage(userId, null, null, 2))
+                .thenReturn(new SliceImpl<>(List.of(first, last), PageRequest.of(0, 2), true));
+
+        MockHttpServletRequestBuilder request = get("/api/v1/notifications/{userId}/page", userId)
+                .param("limit", "2");
+
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].read").value(false))
+                .andExpect(jsonPath("$.nextCursor").value(NotificationCursor.of(last).encode()));
+    }
+
+    @Test
+    void getNotificationsPage_withCursor_continuesAfterItAndClampsLimit() throws Exception {
+
+        UUID userId = UUID.randomUUID();
+        Notification previous = createMockNotification();
+        String cursor = NotificationCursor.of(previous).encode();
+        when(notificationService.getNotificationsPage(userId, previous.getCreatedOn(), previous.getId(), 100))
+                .thenReturn(new SliceImpl<>(List.of(createMockNotification())));
+
+        MockHttpServletRequestBuilder request = get("/api/v1/notifications/{userId}/page", userId)
+                .param("cursor", cursor)
+                .param("limit", "5000");
+
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void getNotificationsPage_withInvalidCursor_returnsBadRequest() throws Exception {
+
+        MockHttpServletRequestBuilder request = get("/api/v1/notifications/{userId}/page", UUID.randomUUID())
+                .param("cursor", "not-a-cursor");
+
+        mockMvc.perform(request)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400));
+
+        verify(notificationService, never()).getNotificationsPage(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void getAllNotificationsPage_happyPath() throws Exception {
+
+        when(notificationService.getAllPage(isNull(), isNull(), eq(20)))
+                .thenReturn(new SliceImpl<>(List.of(createMockNotification())));
+
+        mockMvc.perform(get("/api/v1/notifications/page"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1));
+    }
+
+    @Test
+    void getUnreadCount_happyPath() throws Exception {
+
+        UUID userId = UUID.randomUUID();
+        when(notificationService.countUnread(userId)).thenReturn(7L);
+
+        mockMvc.perform(get("/api/v1/notifications/{userId}/unread-count", userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.unread").value(7));
+    }
+
+    @Test
+    void markRead_happyPath() throws Exception {
+
+        UUID userId = UUID.randomUUID();
+        UUID notificationId = UUID.randomUUID();
+        MarkReadRequest markReadRequest = new MarkReadRequest();
+        markReadRequest.setIds(List.of(notificationId));
+        when(notificationService.markRead(userId, List.of(notificationId))).thenReturn(1);
+
+        MockHttpServletRequestBuilder request = post("/api/v1/notifications/{userId}/mark-read", userId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsBytes(markReadRequest));
+
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1));
+    }
+
     @Test
     void deleteNotification_happyPath() throws Exception {
 
@@ -167,6 +352,7 @@ public class NotificationControllerApiTest {
     void clearHistory_happyPath() throws Exception {
 
         UUID userId = UUID.randomUUID();
+        when(notificationService.clearNotifications(userId)).thenReturn(3);
 
         MockHttpServletRequestBuilder request = delete("/api/v1/notifications")
                 .param("userId", userId.toString());
@@ -174,8 +360,182 @@ public class NotificationControllerApiTest {
         ResultActions response = mockMvc.perform(request);
 
         response.andExpect(status().isOk())
-                .andExpect(content().string("Notification history cleared."));
+                .andExpect(jsonPath("$.message").value("Notification history cleared."))
+                .andExpect(jsonPath("$.cleared").value(3));
 
         verify(notificationService, times(1)).clearNotifications(userId);
     }
+
+    @Test
+    void deleteNotificationWithUserId_deletesOnlyForThatUser() throws Exception {
+
+        UUID notificationId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+
+        MockHttpServletRequestBuilder request = delete("/api/v1/notifications/{id}", notificationId)
+                .param("userId", userId.toString());
+
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(content().string("Notification deleted."));
+
+        verify(notificationService, times(1)).deleteNotification(notificationId, userId);
+        verify(notificationService, never()).deleteNotification(notificationId);
+    }
+
+    @Test
+    void deleteNotificationWithUserId_notOwned_returnsNotFound() throws Exception {
+
+        UUID notificationId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        doThrow(new NotificationNotFoundException("Notification with ID [%s] was not found.".formatted(notificationId)))
+                .when(notificationService).deleteNotification(notificationId, userId);
+
+        MockHttpServletRequestBuilder request = delete("/api/v1/notifications/{id}", notificationId)
+                .param("userId", userId.toString());
+
+        mockMvc.perform(request)
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.status").value(404));
+    }
+
+    private static NotificationRequest validRequest() {
+        NotificationRequest request = new NotificationRequest();
+        request.setRecipientId(UUID.randomUUID());
+        request.setRecipientEmail("test@test.com");
+        request.setSubject("Test Subject");
+        request.setMessage("Test message content");
+        return request;
+    }
+
+    private static NotificationBatchRequest batchOf(NotificationRequest... requests) {
+        NotificationBatchRequest batch = new NotificationBatchRequest();
+        batch.setNotifications(List.of(requests));
+        return batch;
+    }
+
+    @Test
+    void getPreference_returnsModeAndWindow() throws Exception {
+
+        UUID userId = UUID.randomUUID();
+        NotificationPreference preference = new NotificationPreference();
+        preference.setRecipientId(userId);
+        preference.setMode(DeliveryMode.IMMEDIATE);
+        preference.setDigestWindowMinutes(15);
+        when(preferenceService.getPreference(userId)).thenReturn(preference);
+
+        mockMvc.perform(get("/api/v1/notifications/{userId}/preferences", userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.recipientId").value(userId.toString()))
+                .andExpect(jsonPath("$.mode").value("IMMEDIATE"))
+                .andExpect(jsonPath("$.digestWindowMinutes").value(15));
+    }
+
+    @Test
+    void updatePreference_switchesToDigest() throws Exception {
+
+        UUID userId = UUID.randomUUID();
+        NotificationPreference preference = new NotificationPreference();
+        preference.setRecipientId(userId);
+        preference.setMode(DeliveryMode.DIGEST);
+        preference.setDigestWindowMinutes(30);
+        when(preferenceService.updatePreference(userId, DeliveryMode.DIGEST, 30)).thenReturn(preference);
+
+        NotificationPreferenceRequest request = new NotificationPreferenceRequest();
+        request.setMode(DeliveryMode.DIGEST);
+        request.setDigestWindowMinutes(30);
+
+        mockMvc.perform(put("/api/v1/notifications/{userId}/preferences", userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.mode").value("DIGEST"))
+                .andExpect(jsonPath("$.digestWindowMinutes").value(30));
+    }
+
+    @Test
+    void updatePreference_windowOutOfRange_returnsBadRequest() throws Exception {
+
+        NotificationPreferenceRequest request = new NotificationPreferenceRequest();
+        request.setMode(DeliveryMode.DIGEST);
+        request.setDigestWindowMinutes(0);
+
+        mockMvc.perform(put("/api/v1/notifications/{userId}/preferences", UUID.randomUUID())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(request)))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(preferenceService);
+    }
+
+    @Test
+    void sendNotification_fromTemplate_isRenderedInTheCallersLanguage() throws Exception {
+
+        when(notificationService.sendNotification(any(Notification.class))).thenAnswer(invocation -> {
+            Notification notification = invocation.getArgument(0);
+            notification.setId(UUID.randomUUID());
+            notification.setStatus(NotificationStatus.PENDING);
+            return notification;
+        });
+
+        NotificationRequest request = templatedRequest("payment.successful");
+
+        mockMvc.perform(post("/api/v1/notifications")
+                        .header("Accept-Language", "bg")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.templateId").value("payment.successful"))
+                .andExpect(jsonPath("$.subject").value("Успешно плащане"));
+
+        verify(notificationService).sendNotification(argThat(notification ->
+                notification.getSubject() == null && notification.getTemplateParams().equals(List.of("Rock Night"))));
+    }
+
+    @Test
+    void sendNotification_unknownTemplate_returnsBadRequest() throws Exception {
+
+        mockMvc.perform(post("/api/v1/notifications")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(templatedRequest("no.such.template"))))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    void sendNotification_withoutTemplateOrText_returnsBadRequest() throws Exception {
+
+        NotificationRequest request = templatedRequest(null);
+
+        mockMvc.perform(post("/api/v1/notifications")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(request)))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(notificationService);
+    }
+
+    private static NotificationRequest templatedRequest(String templateId) {
+        NotificationRequest request = new NotificationRequest();
+        request.setRecipientId(UUID.randomUUID());
+        request.setRecipientEmail("user@example.com");
+        request.setTemplateId(templateId);
+        request.setTemplateParams(List.of("Rock Night"));
+        return request;
+    }
+
+    @Test
+    void streamNotifications_opensAnEventStreamForTheUser() throws Exception {
+
+        UUID userId = UUID.randomUUID();
+        when(streamRegistry.subscribe(eq(userId), any())).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/v1/notifications/{userId}/stream", userId)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted());
+
+        verify(streamRegistry).subscribe(eq(userId), any());
+    }
 }
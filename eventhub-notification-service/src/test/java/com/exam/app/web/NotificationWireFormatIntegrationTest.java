@@ -0,0 +1,94 @@
+package com.exam.app.web;
+
+import com.exam.app.config.CborMessageConverter;
+import com.exam.app.repository.NotificationRepository;
+import com.exam.app.service.NotificationService;
+import com.exam.app.web.dto.NotificationResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static com.exam.app.util.TestBuilder.createNotification;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "server.compression.enabled=true",
+        "server.compression.mime-types=application/json,application/cbor",
+        "server.compression.min-response-size=2048"
+})
+class NotificationWireFormatIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private CborMessageConverter cborMessageConverter;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() {
+        notificationRepository.deleteAll();
+    }
+
+    @Test
+    void largeList_isSentAsGzippedCborWhenAskedFor() throws Exception {
+
+        UUID userId = UUID.randomUUID();
+        for (int i = 0; i < 50; i++) {
+            notificationService.sendNotification(createNotification(userId, "user@example.com", false));
+        }
+
+        HttpResponse<InputStream> response = get(userId, "application/cbor, application/json;q=0.9");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("application/cbor", response.headers().firstValue("Content-Type").orElseThrow());
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElseThrow());
+        try (InputStream body = new GZIPInputStream(response.body())) {
+            NotificationResponse[] notifications = cborMessageConverter.getObjectMapper().readValue(body, NotificationResponse[].class);
+            assertEquals(50, notifications.length);
+            assertEquals("Test Subject", notifications[0].getSubject());
+        }
+    }
+
+    @Test
+    void callerWithoutPreference_getsJson() throws Exception {
+
+        UUID userId = UUID.randomUUID();
+        notificationService.sendNotification(createNotification(userId, "user@example.com", false));
+
+        HttpResponse<InputStream> response = get(userId, "*/*");
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElseThrow().startsWith("application/json"));
+        response.body().close();
+    }
+
+    private HttpResponse<InputStream> get(UUID userId, String accept) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:%d/api/v1/notifications/%s".formatted(port, userId)))
+                .header("Accept", accept)
+                .header("Accept-Encoding", "gzip")
+                .build();
+
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+    }
+}
@@ -7,10 +7,12 @@ import com.exam.app.web.dto.NotificationResponse;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 public class DtoMapperUTest {
 
@@ -55,4 +57,22 @@ public class DtoMapperUTest {
         assertEquals(notification.getStatus().name(), resultDto.getStatus());
         assertEquals(notification.getCreatedOn(), resultDto.getCreatedOn());
     }
+
+    @Test
+    void givenTemplatedRequest_whenMappingToNotification_thenOnlyTemplateIsStored() {
+
+        NotificationRequest notificationRequest = new NotificationRequest();
+        notificationRequest.setRecipientId(UUID.randomUUID());
+        notificationRequest.setRecipientEmail("test@test.bg");
+        notificationRequest.setSubject("Payment Successful");
+        notificationRequest.setTemplateId("payment.successful");
+        notificationRequest.setTemplateParams(List.of("Rock Night"));
+
+        Notification result = DtoMapper.mapToEntity(notificationRequest);
+
+        assertEquals("payment.successful", result.getTemplateId());
+        assertEquals(List.of("Rock Night"), result.getTemplateParams());
+        assertNull(result.getSubject());
+        assertNull(result.getMessage());
+    }
 }
@@ -0,0 +1,7 @@
+package com.exam.app.exception;
+
+public class PaymentNotRefundableException extends RuntimeException {
+    public PaymentNotRefundableException(String message) {
+        super(message);
+    }
+}
@@ -13,7 +13,10 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_payments_booking_id", columnNames = "booking_id"),
+        @UniqueConstraint(name = "uk_payments_idempotency_key", columnNames = "idempotency_key")
+}, indexes = @Index(name = "idx_payments_status_charge_started", columnList = "status, charge_started_on"))
 public class Payment {
 
     @Id
@@ -26,6 +29,9 @@ public class Payment {
     @Column(nullable = false)
     private UUID userId;
 
+    @Column(length = 64)
+    private String idempotencyKey;
+
     @Column(nullable = false, precision = 10, scale = 2)
     private BigDecimal amount;
 
@@ -37,4 +43,15 @@ public class Payment {
     private LocalDateTime createdOn;
 
     private LocalDateTime completedOn;
+
+    /**
+     * When the current charge attempt was queued or picked up by a worker. A PENDING payment whose attempt is older
+     * than the charge lease was lost, e.g. by a restart, and is taken over by {@code PaymentCharger}.
+     */
+    private LocalDateTime chargeStartedOn;
+
+    /**
+     * Number of the current charge attempt. Only the worker holding this attempt may charge and record the outcome.
+     */
+    private int chargeAttempt;
 }
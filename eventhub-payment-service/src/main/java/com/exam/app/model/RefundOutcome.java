@@ -0,0 +1,5 @@
+package com.exam.app.model;
+
+public enum RefundOutcome {
+    REFUNDED, ALREADY_REFUNDED, NOT_REFUNDABLE, NOT_FOUND, DUPLICATE, ERROR
+}
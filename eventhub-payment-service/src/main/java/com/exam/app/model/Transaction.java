@@ -3,17 +3,24 @@ package com.exam.app.model;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Immutable;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
+/**
+ * One entry of the payment ledger. Entries are only ever appended: the entity is immutable, and rows leave the table
+ * only through retention: in chunks, or by archiving whole months once the ledger is partitioned (see
+ * {@link com.exam.app.service.retention.TransactionPartitions}).
+ */
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "transactions")
+@Immutable
+@Table(name = "transactions", indexes = @Index(name = "idx_transactions_payment_timestamp", columnList = "payment_id, timestamp"))
 public class Transaction {
 
     @Id
@@ -32,6 +39,6 @@ public class Transaction {
     private String message;
 
     @CreationTimestamp
-    @Column(updatable = false)
+    @Column(nullable = false, updatable = false)
     private LocalDateTime timestamp;
 }
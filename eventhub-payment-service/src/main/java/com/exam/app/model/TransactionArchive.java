@@ -0,0 +1,40 @@
+package com.exam.app.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Transactions moved out of {@code transactions} by the retention job. Same columns, keyed by the original id, so an
+ * archived transaction can still be traced back to its payment.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "transactions_archive", indexes = @Index(name = "idx_transactions_archive_payment", columnList = "payment_id"))
+public class TransactionArchive {
+
+    @Id
+    private UUID id;
+
+    private UUID paymentId;
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    private TransactionType type;
+
+    @Enumerated(EnumType.STRING)
+    private TransactionStatus status;
+
+    private String message;
+
+    private LocalDateTime timestamp;
+
+    private LocalDateTime archivedOn;
+}
@@ -1,9 +1,18 @@
 package com.exam.app.repository;
 
 import com.exam.app.model.Payment;
+import com.exam.app.model.PaymentStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -13,5 +22,81 @@ public interface PaymentRepository extends JpaRepository<Payment, UUID> {
 
     Optional<Payment> findByBookingId(UUID bookingId);
 
+    Optional<Payment> findByIdempotencyKey(String idempotencyKey);
+
+    /**
+     * Hands a failed payment to a new attempt. Only one of several concurrent retries can move the row out of
+     * {@code from}, so only that one charges the gateway.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            UPDATE Payment p SET p.status = :to, p.idempotencyKey = :idempotencyKey, p.completedOn = NULL,
+                p.chargeStartedOn = :now, p.chargeAttempt = p.chargeAttempt + 1
+            WHERE p.id = :id AND p.status = :from""")
+    int claimForRetry(UUID id, String idempotencyKey, PaymentStatus from, PaymentStatus to, LocalDateTime now);
+
+    /**
+     * Starts a new charge attempt of a payment still in {@code status} whose last attempt began before
+     * {@code staleBefore}. Only one caller can take a stale attempt over.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            UPDATE Payment p SET p.chargeStartedOn = :now, p.chargeAttempt = p.chargeAttempt + 1
+            WHERE p.id = :id AND p.status = :status AND (p.chargeStartedOn IS NULL OR p.chargeStartedOn < :staleBefore)""")
+    int reclaimStale(UUID id, PaymentStatus status, LocalDateTime staleBefore, LocalDateTime now);
+
+    /**
+     * Renews the lease of a charge attempt right before the gateway is called. Fails once the attempt has been taken
+     * over or the payment is no longer in {@code status}, in which case the worker must not charge.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE Payment p SET p.chargeStartedOn = :now
+            WHERE p.id = :id AND p.status = :status AND p.chargeAttempt = :attempt""")
+    int renewCharge(UUID id, int attempt, PaymentStatus status, LocalDateTime now);
+
+    /**
+     * Records the outcome of a charge attempt unless the payment has left {@code from} or moved on to a newer attempt
+     * in the meantime.
+     */
+    @Modifying
+    @Query("""
+            UPDATE Payment p SET p.status = :to, p.completedOn = :completedOn
+            WHERE p.id = :id AND p.chargeAttempt = :attempt AND p.status = :from""")
+    int complete(UUID id, int attempt, PaymentStatus from, PaymentStatus to, LocalDateTime completedOn);
+
+    /**
+     * Gives up a charge attempt that began before {@code staleBefore} and was not taken over since.
+     */
+    @Modifying
+    @Query("""
+            UPDATE Payment p SET p.status = :to, p.completedOn = :completedOn
+            WHERE p.id = :id AND p.chargeAttempt = :attempt AND p.status = :from
+                AND (p.chargeStartedOn IS NULL OR p.chargeStartedOn < :staleBefore)""")
+    int abandon(UUID id, int attempt, PaymentStatus from, PaymentStatus to, LocalDateTime staleBefore, LocalDateTime completedOn);
+
+    @Query("""
+            SELECT p FROM Payment p
+            WHERE p.status = :status AND (p.chargeStartedOn IS NULL OR p.chargeStartedOn < :staleBefore)
+            ORDER BY p.chargeStartedOn""")
+    List<Payment> findStale(PaymentStatus status, LocalDateTime staleBefore, Pageable pageable);
+
     List<Payment> findAllByUserId(UUID userId);
+
+    /**
+     * One keyset page of payments in booking order, read from the unique {@code booking_id} index.
+     */
+    @Query("SELECT p FROM Payment p WHERE p.bookingId > :after ORDER BY p.bookingId")
+    List<Payment> findPageAfterBooking(UUID after, Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Payment p WHERE p.id IN :ids ORDER BY p.id")
+    List<Payment> lockAllById(Collection<UUID> ids);
+
+    @Modifying
+    @Query("UPDATE Payment p SET p.status = :to WHERE p.id IN :ids AND p.status = :from")
+    int transitionAll(Collection<UUID> ids, PaymentStatus from, PaymentStatus to);
 }
\ No newline at end of file
@@ -1,11 +1,38 @@
 package com.exam.app.repository;
 
 import com.exam.app.model.Transaction;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, UUID> {
-}
\ No newline at end of file
+
+    /**
+     * Ledger entries of one payment in the order they were written. {@code from} is the creation time of the payment:
+     * no entry can be older, and the lower bound lets a partitioned table skip every month before it.
+     */
+    @Query("SELECT t FROM Transaction t WHERE t.paymentId = :paymentId AND t.timestamp >= :from ORDER BY t.timestamp, t.id")
+    List<Transaction> findTimeline(UUID paymentId, LocalDateTime from);
+
+    @Query("SELECT t.id FROM Transaction t WHERE t.timestamp < :cutoff AND t.id > :after ORDER BY t.id")
+    List<UUID> findIdsCreatedBefore(LocalDateTime cutoff, UUID after, Pageable pageable);
+
+    @Modifying
+    @Query("""
+            INSERT INTO TransactionArchive (id, paymentId, amount, type, status, message, timestamp, archivedOn)
+            SELECT t.id, t.paymentId, t.amount, t.type, t.status, t.message, t.timestamp, :archivedOn
+            FROM Transaction t WHERE t.id IN :ids AND t.timestamp < :cutoff""")
+    int archiveCreatedBefore(Collection<UUID> ids, LocalDateTime cutoff, LocalDateTime archivedOn);
+
+    @Modifying
+    @Query("DELETE FROM Transaction t WHERE t.id IN :ids AND t.timestamp < :cutoff")
+    int deleteCreatedBefore(Collection<UUID> ids, LocalDateTime cutoff);
+}
@@ -0,0 +1,25 @@
+package com.exam.app.scheduler;
+
+import com.exam.app.service.PaymentCharger;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+@Slf4j
+@Service
+@AllArgsConstructor
+public class ChargeRecoveryScheduler {
+
+    private final PaymentCharger paymentCharger;
+
+    @Scheduled(fixedDelayString = "${eventhub.payment.charge.recovery-interval-ms:60000}",
+            initialDelayString = "${eventhub.payment.charge.recovery-initial-delay-ms:60000}")
+    public void abandonStaleCharges() {
+        log.debug("Charge recovery scheduler triggered at {}", LocalDateTime.now());
+
+        paymentCharger.abandonStale();
+    }
+}
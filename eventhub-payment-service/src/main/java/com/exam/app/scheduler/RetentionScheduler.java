@@ -0,0 +1,28 @@
+package com.exam.app.scheduler;
+
+import com.exam.app.service.retention.RetentionEngine;
+import com.exam.app.service.retention.TransactionPartitions;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+@Slf4j
+@Service
+@AllArgsConstructor
+public class RetentionScheduler {
+
+    private final RetentionEngine retentionEngine;
+    private final TransactionPartitions transactionPartitions;
+
+    @Scheduled(fixedDelayString = "${eventhub.retention.interval-ms:3600000}",
+            initialDelayString = "${eventhub.retention.initial-delay-ms:60000}")
+    public void purgeExpired() {
+        log.debug("Retention scheduler triggered at {}", LocalDateTime.now());
+
+        transactionPartitions.maintain();
+        retentionEngine.runAll();
+    }
+}
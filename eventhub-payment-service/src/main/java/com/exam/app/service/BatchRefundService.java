@@ -0,0 +1,149 @@
+package com.exam.app.service;
+
+import com.exam.app.model.*;
+import com.exam.app.repository.PaymentRepository;
+import com.exam.app.repository.TransactionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Refunds many payments in one request. The items are handled in chunks, each in its own short transaction: one query
+ * reads and locks the payments of the chunk, one UPDATE switches the refundable ones to REFUNDED and their refund
+ * transactions are inserted as a JDBC batch. A failing chunk reports its items as ERROR without stopping the rest, and
+ * an already refunded payment reports ALREADY_REFUNDED, so a batch that was cut short can simply be sent again.
+ */
+@Slf4j
+@Service
+public class BatchRefundService {
+
+    private final PaymentRepository paymentRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int chunkSize;
+
+    public BatchRefundService(PaymentRepository paymentRepository,
+                              TransactionRepository transactionRepository,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${eventhub.payment.refund.chunk-size:500}") int chunkSize) {
+        this.paymentRepository = paymentRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.chunkSize = Math.max(chunkSize, 1);
+    }
+
+    /**
+     * @return one result per item, in the order of {@code items}
+     */
+    public List<RefundResult> refund(List<RefundItem> items) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        RefundResult[] results = new RefundResult[items.size()];
+        List<Integer> pending = new ArrayList<>(items.size());
+        Set<UUID> seen = new HashSet<>();
+
+        for (int i = 0; i < items.size(); i++) {
+            UUID paymentId = items.get(i).paymentId();
+
+            if (seen.add(paymentId)) {
+                pending.add(i);
+            } else {
+                results[i] = new RefundResult(paymentId, RefundOutcome.DUPLICATE, "Payment is listed more than once.");
+            }
+        }
+
+        int chunks = (pending.size() + chunkSize - 1) / chunkSize;
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            List<Integer> indexes = pending.subList(chunk * chunkSize, Math.min((chunk + 1) * chunkSize, pending.size()));
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> refundChunk(items, indexes, results));
+            } catch (RuntimeException e) {
+                log.error("Refund chunk {}/{} failed, its {} payments were not refunded", chunk + 1, chunks, indexes.size(), e);
+                indexes.forEach(i -> results[i] = new RefundResult(items.get(i).paymentId(), RefundOutcome.ERROR, e.getMessage()));
+            }
+
+            log.debug("Refund batch: chunk {}/{} done", chunk + 1, chunks);
+        }
+
+        List<RefundResult> refundResults = List.of(results);
+        Map<RefundOutcome, Long> outcomes = refundResults.stream()
+                .collect(Collectors.groupingBy(RefundResult::outcome, () -> new EnumMap<>(RefundOutcome.class), Collectors.counting()));
+
+        outcomes.forEach((outcome, count) -> meterRegistry.counter("eventhub.payment.refund.batch.items",
+                "outcome", outcome.name().toLowerCase()).increment(count));
+        sample.stop(Timer.builder("eventhub.payment.refund.batch.duration")
+                .description("Time to process one batch refund request")
+                .register(meterRegistry));
+
+        log.info("Refund batch of {} payments in {} chunks: {}", items.size(), chunks, outcomes);
+
+        return refundResults;
+    }
+
+    private void refundChunk(List<RefundItem> items, List<Integer> indexes, RefundResult[] results) {
+        List<UUID> ids = indexes.stream().map(i -> items.get(i).paymentId()).toList();
+        Map<UUID, Payment> payments = paymentRepository.lockAllById(ids).stream()
+                .collect(Collectors.toMap(Payment::getId, Function.identity()));
+
+        List<UUID> refundable = new ArrayList<>();
+        List<Transaction> transactions = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int i : indexes) {
+            RefundItem item = items.get(i);
+            Payment payment = payments.get(item.paymentId());
+            RefundResult result;
+
+            if (payment == null) {
+                result = new RefundResult(item.paymentId(), RefundOutcome.NOT_FOUND,
+                        "Payment with ID [%s] was not found.".formatted(item.paymentId()));
+
+            } else if (payment.getStatus() == PaymentStatus.REFUNDED) {
+                result = new RefundResult(item.paymentId(), RefundOutcome.ALREADY_REFUNDED, "Payment was already refunded.");
+
+            } else if (payment.getStatus() != PaymentStatus.SUCCESS) {
+                result = new RefundResult(item.paymentId(), RefundOutcome.NOT_REFUNDABLE,
+                        "Payment is %s.".formatted(payment.getStatus()));
+
+            } else if (item.amount().compareTo(payment.getAmount()) > 0) {
+                result = new RefundResult(item.paymentId(), RefundOutcome.NOT_REFUNDABLE,
+                        "Refund amount exceeds the payment amount.");
+
+            } else {
+                refundable.add(payment.getId());
+                transactions.add(refundTransaction(payment.getId(), item, now));
+                result = new RefundResult(item.paymentId(), RefundOutcome.REFUNDED, "Refund processed successfully");
+            }
+
+            results[i] = result;
+        }
+
+        if (!refundable.isEmpty()) {
+            paymentRepository.transitionAll(refundable, PaymentStatus.SUCCESS, PaymentStatus.REFUNDED);
+            transactionRepository.saveAll(transactions);
+        }
+    }
+
+    private static Transaction refundTransaction(UUID paymentId, RefundItem item, LocalDateTime now) {
+        Transaction refundTx = new Transaction();
+        refundTx.setPaymentId(paymentId);
+        refundTx.setAmount(item.amount());
+        refundTx.setType(TransactionType.REFUND);
+        refundTx.setStatus(TransactionStatus.SUCCESS);
+        refundTx.setMessage("Refund processed successfully");
+        refundTx.setTimestamp(now);
+        return refundTx;
+    }
+}
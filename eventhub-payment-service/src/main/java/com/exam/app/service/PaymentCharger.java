@@ -0,0 +1,263 @@
+package com.exam.app.service;
+
+import com.exam.app.model.*;
+import com.exam.app.repository.PaymentRepository;
+import com.exam.app.repository.TransactionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Charges PENDING payments on a bounded worker pool, after the row has been committed and outside of any database
+ * transaction, so a slow gateway holds a worker thread but never a pooled connection. The outcome is written in one
+ * short transaction together with its {@link Transaction}, and only while the payment is still PENDING. When the queue
+ * is full the payment fails right away and can be retried; charges still queued at shutdown fail the same way.
+ * <p>
+ * The queue lives in memory, so a charge that was queued or running when the process died is lost. Each attempt
+ * therefore holds a lease: a worker renews it right before calling the gateway, and {@link #abandonStale()} fails
+ * PENDING payments whose attempt is older than the lease. A new request for such a payment takes the attempt over
+ * instead, see {@link #reclaim(Payment)}. Attempts are numbered, and a worker whose attempt was taken over neither
+ * charges nor records an outcome.
+ */
+@Slf4j
+@Service
+public class PaymentCharger implements DisposableBean {
+
+    private final PaymentGateway paymentGateway;
+    private final PaymentRepository paymentRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+    private final MeterRegistry meterRegistry;
+    private final Duration lease;
+    private final int recoveryBatchSize;
+
+    public PaymentCharger(PaymentGateway paymentGateway,
+                          PaymentRepository paymentRepository,
+                          TransactionRepository transactionRepository,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${eventhub.payment.charge.workers:8}") int workers,
+                          @Value("${eventhub.payment.charge.queue-capacity:200}") int queueCapacity,
+                          @Value("${eventhub.payment.charge.lease-seconds:120}") long leaseSeconds,
+                          @Value("${eventhub.payment.charge.recovery-batch-size:500}") int recoveryBatchSize,
+                          MeterRegistry meterRegistry) {
+        this.paymentGateway = paymentGateway;
+        this.paymentRepository = paymentRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.recoveryBatchSize = Math.max(recoveryBatchSize, 1);
+
+        this.executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(queueCapacity, 1)), workerThreads());
+
+        new ExecutorServiceMetrics(executor, "payment.charge", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    /**
+     * Queues the charge of a committed PENDING payment and returns immediately.
+     */
+    public void submit(Payment payment) {
+        ChargeTask task = new ChargeTask(payment);
+
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            log.warn("Charge queue is full, payment id [{}] fails without charging", payment.getId());
+            complete(task, PaymentStatus.FAILED, "Payment error: payment queue is full");
+            count("rejected");
+        }
+    }
+
+    /**
+     * Starts a new attempt for a PENDING payment whose last attempt is older than the lease and queues it.
+     *
+     * @return whether the payment was taken over; {@code false} while its attempt is still within the lease
+     */
+    public boolean reclaim(Payment payment) {
+        LocalDateTime now = LocalDateTime.now();
+
+        if (paymentRepository.reclaimStale(payment.getId(), PaymentStatus.PENDING, now.minus(lease), now) == 0) {
+            return false;
+        }
+
+        log.warn("Charge of payment id [{}] outlived its lease, starting a new attempt", payment.getId());
+        payment.setChargeStartedOn(now);
+        payment.setChargeAttempt(payment.getChargeAttempt() + 1);
+        count("reclaimed");
+        submit(payment);
+        return true;
+    }
+
+    /**
+     * Fails PENDING payments whose charge attempt is older than the lease, which happens when the instance that
+     * queued or ran it stopped. Safe to run on every instance at once.
+     *
+     * @return number of payments failed
+     */
+    public int abandonStale() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime staleBefore = now.minus(lease);
+        int abandoned = 0;
+
+        for (Payment payment : paymentRepository.findStale(PaymentStatus.PENDING, staleBefore, PageRequest.of(0, recoveryBatchSize))) {
+            ChargeTask task = new ChargeTask(payment);
+
+            Boolean failed = transactionTemplate.execute(tx -> {
+                if (paymentRepository.abandon(task.paymentId, task.attempt, PaymentStatus.PENDING, PaymentStatus.FAILED, staleBefore, now) == 0) {
+                    return false;
+                }
+
+                record(task, PaymentStatus.FAILED, "Payment error: charge did not finish", now);
+                return true;
+            });
+
+            if (Boolean.TRUE.equals(failed)) {
+                abandoned++;
+            }
+        }
+
+        if (abandoned > 0) {
+            log.warn("Failed {} payments whose charge did not finish within {}", abandoned, lease);
+            count("abandoned", abandoned);
+        }
+
+        return abandoned;
+    }
+
+    private void charge(ChargeTask task) {
+        if (paymentRepository.renewCharge(task.paymentId, task.attempt, PaymentStatus.PENDING, LocalDateTime.now()) == 0) {
+            log.info("Charge attempt {} of payment id [{}] was taken over, not charging", task.attempt, task.paymentId);
+            count("superseded");
+            return;
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+
+        try {
+            boolean success = paymentGateway.charge(task.userId, task.amount);
+            outcome = success ? "success" : "declined";
+
+            complete(task, success ? PaymentStatus.SUCCESS : PaymentStatus.FAILED,
+                    success ? "Payment completed successfully" : "Payment failed");
+
+        } catch (Exception ex) {
+            log.error("Payment processing error: {}", ex.getMessage(), ex);
+            complete(task, PaymentStatus.FAILED, "Payment error: " + ex.getMessage());
+
+        } finally {
+            sample.stop(Timer.builder("eventhub.payment.charge.duration")
+                    .description("Time from picking a payment off the queue until its outcome is stored")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    private void complete(ChargeTask task, PaymentStatus status, String message) {
+        Boolean completed = transactionTemplate.execute(tx -> {
+            LocalDateTime now = LocalDateTime.now();
+
+            if (paymentRepository.complete(task.paymentId, task.attempt, PaymentStatus.PENDING, status, now) == 0) {
+                return false;
+            }
+
+            record(task, status, message, now);
+            return true;
+        });
+
+        if (Boolean.TRUE.equals(completed)) {
+            log.info("Payment id [{}] - status [{}]", task.paymentId, status);
+        } else if (status == PaymentStatus.SUCCESS) {
+            log.error("Payment id [{}] was charged after its attempt {} had been given up, the charge has to be refunded",
+                    task.paymentId, task.attempt);
+            count("late");
+        } else {
+            log.warn("Payment id [{}] was no longer pending, outcome [{}] dropped", task.paymentId, status);
+        }
+    }
+
+    private void record(ChargeTask task, PaymentStatus status, String message, LocalDateTime now) {
+        Transaction transaction = new Transaction();
+        transaction.setPaymentId(task.paymentId);
+        transaction.setAmount(task.amount);
+        transaction.setType(TransactionType.PAYMENT);
+        transaction.setStatus(status == PaymentStatus.SUCCESS ? TransactionStatus.SUCCESS : TransactionStatus.FAILED);
+        transaction.setMessage(message);
+        transaction.setTimestamp(now);
+        transactionRepository.save(transaction);
+    }
+
+    private void count(String result) {
+        count(result, 1);
+    }
+
+    private void count(String result, int payments) {
+        meterRegistry.counter("eventhub.payment.charge", "result", result).increment(payments);
+    }
+
+    private static ThreadFactory workerThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "payment-charge-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        executor.shutdown();
+
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            List<Runnable> queued = executor.shutdownNow();
+
+            for (Runnable runnable : queued) {
+                if (runnable instanceof ChargeTask task) {
+                    complete(task, PaymentStatus.FAILED, "Payment error: service stopped before charging");
+                }
+            }
+        }
+    }
+
+    private final class ChargeTask implements Runnable {
+
+        private final UUID paymentId;
+        private final int attempt;
+        private final UUID userId;
+        private final BigDecimal amount;
+
+        private ChargeTask(Payment payment) {
+            this.paymentId = payment.getId();
+            this.attempt = payment.getChargeAttempt();
+            this.userId = payment.getUserId();
+            this.amount = payment.getAmount();
+        }
+
+        @Override
+        public void run() {
+            charge(this);
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package com.exam.app.service;
 
+import com.exam.app.exception.IdempotencyKeyConflictException;
 import com.exam.app.exception.PaymentNotFoundException;
+import com.exam.app.exception.PaymentNotRefundableException;
 import com.exam.app.model.*;
 import com.exam.app.repository.PaymentRepository;
 import com.exam.app.repository.TransactionRepository;
 import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -20,69 +24,122 @@ import java.util.UUID;
 @AllArgsConstructor
 public class PaymentService {
 
+    public static final int MAX_PAGE_SIZE = 5000;
+
+    private static final int MAX_CREATE_ATTEMPTS = 3;
+
     private final PaymentRepository paymentRepository;
     private final TransactionRepository transactionRepository;
-    private final PaymentGateway paymentGateway;
-
-    @Transactional
+    private final PaymentCharger paymentCharger;
+
+    /**
+     * Creates the payment of a booking and hands it to {@link PaymentCharger}, which charges the gateway once in the
+     * background; the caller gets the PENDING payment and polls it for the outcome. The PENDING row is committed before
+     * the charge is queued; {@code booking_id} and {@code idempotency_key} are unique, so a concurrent or repeated
+     * request loses the insert and gets the existing payment back instead of charging again. A FAILED payment can be
+     * retried with a new idempotency key (or without one); replaying the key of the failed attempt returns that attempt.
+     * A PENDING payment whose charge outlived its lease (the instance charging it stopped) is charged again.
+     */
     public Payment processPayment(Payment payment) {
         log.info("Processing payment for booking [{}]", payment.getBookingId());
 
-        Optional<Payment> existing = paymentRepository.findByBookingId(payment.getBookingId());
-        if (existing.isPresent() && existing.get().getStatus() == PaymentStatus.SUCCESS) {
-            log.info("Payment already exists for booking [{}]", payment.getBookingId());
-            return existing.get();
+        for (int attempt = 1; attempt <= MAX_CREATE_ATTEMPTS; attempt++) {
+            Optional<Payment> created = insertPending(payment);
+            if (created.isPresent()) {
+                paymentCharger.submit(created.get());
+                return created.get();
+            }
+
+            Optional<Payment> existing = findExisting(payment);
+            if (existing.isPresent()) {
+                return resume(existing.get(), payment.getIdempotencyKey());
+            }
         }
 
+        throw new IllegalStateException("Payment for booking %s could not be created.".formatted(payment.getBookingId()));
+    }
+
+    private Optional<Payment> insertPending(Payment payment) {
+        payment.setId(null);
         payment.setStatus(PaymentStatus.PENDING);
         payment.setCreatedOn(LocalDateTime.now());
-        Payment saved = paymentRepository.save(payment);
+        payment.setCompletedOn(null);
+        payment.setChargeStartedOn(payment.getCreatedOn());
+        payment.setChargeAttempt(1);
 
         try {
-            boolean success = paymentGateway.charge(payment.getUserId(), payment.getAmount());
-
-            saved.setStatus(success ? PaymentStatus.SUCCESS : PaymentStatus.FAILED);
-            saved.setCompletedOn(LocalDateTime.now());
-            paymentRepository.save(saved);
-
-            Transaction transaction = new Transaction();
-            transaction.setPaymentId(saved.getId());
-            transaction.setAmount(payment.getAmount());
-            transaction.setType(TransactionType.PAYMENT);
-            transaction.setStatus(success ? TransactionStatus.SUCCESS : TransactionStatus.FAILED);
-            transaction.setMessage(success ? "Payment completed successfully" : "Payment failed");
-            transaction.setTimestamp(LocalDateTime.now());
-            transactionRepository.save(transaction);
-
-            log.info("Payment id [{}] - status [{}]", saved.getId(), saved.getStatus());
-
-            return saved;
-
-        } catch (Exception ex) {
-            log.error("Payment processing error: {}", ex.getMessage(), ex);
-            saved.setStatus(PaymentStatus.FAILED);
-            saved.setCompletedOn(LocalDateTime.now());
-            paymentRepository.save(saved);
-
-            Transaction tx = new Transaction();
-            tx.setPaymentId(saved.getId());
-            tx.setAmount(payment.getAmount());
-            tx.setType(TransactionType.PAYMENT);
-            tx.setStatus(TransactionStatus.FAILED);
-            tx.setMessage("Payment error: " + ex.getMessage());
-            tx.setTimestamp(LocalDateTime.now());
-            transactionRepository.save(tx);
-
-            return saved;
+            return Optional.of(paymentRepository.saveAndFlush(payment));
+        } catch (DataIntegrityViolationException e) {
+            log.info("Payment for booking [{}] already exists", payment.getBookingId());
+            return Optional.empty();
+        }
+    }
+
+    private Optional<Payment> findExisting(Payment payment) {
+        String idempotencyKey = payment.getIdempotencyKey();
+
+        if (idempotencyKey != null) {
+            Optional<Payment> byKey = paymentRepository.findByIdempotencyKey(idempotencyKey);
+
+            if (byKey.isPresent()) {
+                if (!byKey.get().getBookingId().equals(payment.getBookingId())) {
+                    throw new IdempotencyKeyConflictException(
+                            "Idempotency key [%s] was already used for another booking.".formatted(idempotencyKey));
+                }
+                return byKey;
+            }
         }
+
+        return paymentRepository.findByBookingId(payment.getBookingId());
     }
 
+    private Payment resume(Payment existing, String idempotencyKey) {
+        if (existing.getStatus() == PaymentStatus.PENDING && paymentCharger.reclaim(existing)) {
+            return existing;
+        }
+
+        boolean replay = idempotencyKey != null && idempotencyKey.equals(existing.getIdempotencyKey());
+
+        if (replay || existing.getStatus() != PaymentStatus.FAILED
+                || paymentRepository.claimForRetry(existing.getId(), idempotencyKey, PaymentStatus.FAILED, PaymentStatus.PENDING,
+                LocalDateTime.now()) == 0) {
+            log.info("Payment already exists for booking [{}] - status [{}]", existing.getBookingId(), existing.getStatus());
+            return existing;
+        }
+
+        log.info("Retrying failed payment id [{}]", existing.getId());
+        Payment claimed = getPaymentById(existing.getId());
+        paymentCharger.submit(claimed);
+
+        return claimed;
+    }
+
+    /**
+     * Refunds a successful payment. A payment that was already refunded is returned unchanged, so a caller can repeat
+     * the request after a lost response; a payment that is not (or not yet) successful cannot be refunded.
+     */
     @Transactional
     public Payment refundPayment(UUID paymentId, BigDecimal amount) {
         Payment payment = getPaymentById(paymentId);
 
+        if (payment.getStatus() == PaymentStatus.REFUNDED) {
+            log.info("Payment id [{}] was already refunded", paymentId);
+            return payment;
+        }
+
+        if (payment.getStatus() != PaymentStatus.SUCCESS) {
+            throw new PaymentNotRefundableException("Payment with ID [%s] is %s and cannot be refunded.".formatted(paymentId, payment.getStatus()));
+        }
+
+        if (amount.compareTo(payment.getAmount()) > 0) {
+            throw new PaymentNotRefundableException("Refund amount exceeds the payment amount.");
+        }
+
+        if (paymentRepository.transitionAll(List.of(paymentId), PaymentStatus.SUCCESS, PaymentStatus.REFUNDED) == 0) {
+            throw new PaymentNotRefundableException("Payment with ID [%s] changed while it was being refunded.".formatted(paymentId));
+        }
+
         payment.setStatus(PaymentStatus.REFUNDED);
-        paymentRepository.save(payment);
 
         Transaction refundTx = new Transaction();
         refundTx.setPaymentId(payment.getId());
@@ -111,6 +168,25 @@ public class PaymentService {
         return paymentRepository.findAllByUserId(userId);
     }
 
+    /**
+     * Ledger entries of a payment, oldest first. Entries in months that retention has already archived are not included.
+     */
+    public List<Transaction> getTransactions(UUID paymentId) {
+        Payment payment = getPaymentById(paymentId);
+
+        return transactionRepository.findTimeline(payment.getId(), payment.getCreatedOn());
+    }
+
+    /**
+     * Payments ordered by booking ID, starting after {@code afterBookingId}. Meant to be walked page by page, passing
+     * the last booking ID of a page to get the next one; a page shorter than {@code limit} is the last.
+     */
+    public List<Payment> getPaymentsAfterBooking(UUID afterBookingId, int limit) {
+        UUID after = afterBookingId == null ? new UUID(0, 0) : afterBookingId;
+
+        return paymentRepository.findPageAfterBooking(after, PageRequest.of(0, Math.min(Math.max(limit, 1), MAX_PAGE_SIZE)));
+    }
+
     public Payment getPaymentById(UUID paymentId) {
         return paymentRepository.findById(paymentId)
                 .orElseThrow(() -> new PaymentNotFoundException("Payment with ID [%s] was not found.".formatted(paymentId)));
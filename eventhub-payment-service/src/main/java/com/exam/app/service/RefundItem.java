@@ -0,0 +1,7 @@
+package com.exam.app.service;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public record RefundItem(UUID paymentId, BigDecimal amount) {
+}
@@ -0,0 +1,8 @@
+package com.exam.app.service;
+
+import com.exam.app.model.RefundOutcome;
+
+import java.util.UUID;
+
+public record RefundResult(UUID paymentId, RefundOutcome outcome, String message) {
+}
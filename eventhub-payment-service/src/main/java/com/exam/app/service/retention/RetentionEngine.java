@@ -0,0 +1,177 @@
+package com.exam.app.service.retention;
+
+import com.exam.app.model.RetentionCheckpoint;
+import com.exam.app.repository.RetentionCheckpointRepository;
+import com.exam.app.service.retention.RetentionRun.Outcome;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Purges expired rows of every {@link RetentionTarget} in small, key-ordered chunks. Each chunk is its own short
+ * transaction, chunks are spaced out by the target's pause, and a run gives up once its time budget is spent,
+ * leaving a checkpoint so the next run continues where this one stopped instead of rescanning the table.
+ */
+@Slf4j
+@Service
+public class RetentionEngine {
+
+    private static final Duration LOCK_MARGIN = Duration.ofMinutes(5);
+
+    private final List<RetentionTarget<?>> targets;
+    private final RetentionCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+
+    @Autowired
+    public RetentionEngine(List<RetentionTarget<?>> targets,
+                           RetentionCheckpointRepository checkpointRepository,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry) {
+        this(targets, checkpointRepository, transactionManager, meterRegistry, Clock.systemDefaultZone());
+    }
+
+    RetentionEngine(List<RetentionTarget<?>> targets,
+                    RetentionCheckpointRepository checkpointRepository,
+                    PlatformTransactionManager transactionManager,
+                    MeterRegistry meterRegistry,
+                    Clock clock) {
+        this.targets = targets;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+    }
+
+    public List<RetentionRun> runAll() {
+        return targets.stream()
+                .map(this::run)
+                .toList();
+    }
+
+    public <ID> RetentionRun run(RetentionTarget<ID> target) {
+        String name = target.name();
+        RetentionPolicy policy = target.policy();
+
+        if (!policy.enabled()) {
+            return RetentionRun.skipped(name, Outcome.DISABLED);
+        }
+
+        LocalDateTime now = LocalDateTime.now(clock);
+        RetentionCheckpoint checkpoint = lock(name, now, now.plus(policy.timeBudget()).plus(LOCK_MARGIN));
+
+        if (checkpoint == null) {
+            log.info("Retention of [{}] is already running elsewhere, skipping.", name);
+            return RetentionRun.skipped(name, Outcome.LOCKED);
+        }
+
+        LocalDateTime cutoff = now.minus(policy.retention());
+        long deadline = clock.millis() + policy.timeBudget().toMillis();
+        ID after = checkpoint.getLastId() == null ? target.start() : target.parseId(checkpoint.getLastId());
+        long purged = 0;
+        int chunks = 0;
+        Outcome outcome = Outcome.BUDGET_EXHAUSTED;
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        try {
+            while (clock.millis() < deadline) {
+                List<ID> ids = target.findExpiredIds(cutoff, after, policy.chunkSize());
+
+                if (!ids.isEmpty()) {
+                    Integer removed = transactionTemplate.execute(status -> target.purge(ids, cutoff));
+                    int count = removed == null ? 0 : removed;
+
+                    purged += count;
+                    chunks++;
+                    after = ids.get(ids.size() - 1);
+                    counter("eventhub.retention.purged", name).increment(count);
+                    counter("eventhub.retention.chunks", name).increment();
+                }
+
+                if (ids.size() < policy.chunkSize()) {
+                    outcome = Outcome.COMPLETED;
+                    break;
+                }
+
+                if (!pause(policy.pause())) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            outcome = Outcome.FAILED;
+            log.error("Retention of [{}] failed after {} rows, it will resume from the last chunk.", name, purged, e);
+        } finally {
+            if (outcome == Outcome.COMPLETED) {
+                checkpoint.setLastId(null);
+            } else if (chunks > 0) {
+                checkpoint.setLastId(String.valueOf(after));
+            }
+            checkpoint.setLockedUntil(null);
+            checkpoint.setLastRunOn(now);
+            checkpoint.setLastRunPurged(purged);
+            checkpoint.setLastRunCompleted(outcome == Outcome.COMPLETED);
+            checkpointRepository.save(checkpoint);
+
+            sample.stop(Timer.builder("eventhub.retention.run")
+                    .description("Duration of one retention run of a table")
+                    .tag("target", name)
+                    .tag("outcome", outcome.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+
+        if (purged > 0 || outcome != Outcome.COMPLETED) {
+            log.info("Retention of [{}]: {} rows older than {} removed in {} chunks ({}).",
+                    name, purged, cutoff, chunks, outcome);
+        }
+
+        return new RetentionRun(name, outcome, purged, chunks);
+    }
+
+    private RetentionCheckpoint lock(String name, LocalDateTime now, LocalDateTime until) {
+        if (!checkpointRepository.existsById(name)) {
+            try {
+                checkpointRepository.saveAndFlush(new RetentionCheckpoint(name));
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Checkpoint of [{}] was created concurrently.", name);
+            }
+        }
+
+        Integer locked = transactionTemplate.execute(status -> checkpointRepository.lock(name, now, until));
+
+        if (locked == null || locked == 0) {
+            return null;
+        }
+
+        return checkpointRepository.findById(name).orElse(null);
+    }
+
+    private static boolean pause(Duration pause) {
+        if (pause.isZero() || pause.isNegative()) {
+            return true;
+        }
+
+        try {
+            Thread.sleep(pause.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private Counter counter(String metric, String target) {
+        return meterRegistry.counter(metric, "target", target);
+    }
+}
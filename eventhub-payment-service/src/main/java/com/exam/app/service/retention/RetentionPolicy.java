@@ -0,0 +1,15 @@
+package com.exam.app.service.retention;
+
+import java.time.Duration;
+
+/**
+ * How one table is purged: rows older than {@code retention} go in chunks of {@code chunkSize} keys, with
+ * {@code pause} between chunks, until the table is done or {@code timeBudget} for the run is spent.
+ */
+public record RetentionPolicy(boolean enabled, Duration retention, int chunkSize, Duration pause, Duration timeBudget) {
+
+    public static RetentionPolicy of(boolean enabled, long retentionDays, int chunkSize, long pauseMs, long timeBudgetSeconds) {
+        return new RetentionPolicy(enabled, Duration.ofDays(retentionDays), Math.max(chunkSize, 1),
+                Duration.ofMillis(pauseMs), Duration.ofSeconds(timeBudgetSeconds));
+    }
+}
@@ -0,0 +1,16 @@
+package com.exam.app.service.retention;
+
+public record RetentionRun(String target, Outcome outcome, long purged, int chunks) {
+
+    public enum Outcome {
+        COMPLETED,
+        BUDGET_EXHAUSTED,
+        FAILED,
+        LOCKED,
+        DISABLED
+    }
+
+    static RetentionRun skipped(String target, Outcome outcome) {
+        return new RetentionRun(target, outcome, 0, 0);
+    }
+}
@@ -0,0 +1,263 @@
+package com.exam.app.service.retention;
+
+import com.exam.app.model.RetentionCheckpoint;
+import com.exam.app.repository.RetentionCheckpointRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the {@code transactions} ledger range-partitioned by month on MySQL. Converting the table is a one-time
+ * migration run by hand ({@code db/partition-transactions.sql}), since it rebuilds the whole ledger; this class never
+ * does it. Once the table is partitioned, every run adds the partitions for the coming months and retires months older
+ * than the retention period as a whole: the rows are copied into {@code transactions_archive} (unless archiving is
+ * off) and the partition is dropped, which deletes nothing row by row. A month is retired once all of it is past the
+ * cutoff. A run holds the {@link RetentionCheckpoint} lease of {@value #LEASE_NAME}, so only one instance alters the
+ * table at a time. While partitioning is off, the database is not MySQL or the migration has not been run, the ledger
+ * is a plain table and {@link TransactionRetention} purges it in chunks instead.
+ */
+@Slf4j
+@Component
+public class TransactionPartitions {
+
+    static final String FUTURE = "p_future";
+    static final String LEASE_NAME = "transaction-partitions";
+
+    private static final DateTimeFormatter NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+    private static final DateTimeFormatter BOUND = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RetentionCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int monthsAhead;
+    private final boolean archive;
+    private final Duration retention;
+    private final Duration lease;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+
+    private volatile Boolean supported;
+    private volatile boolean partitioned;
+
+    @Autowired
+    public TransactionPartitions(JdbcTemplate jdbcTemplate,
+                                 RetentionCheckpointRepository checkpointRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${eventhub.payment.ledger.partitioning.enabled:false}") boolean enabled,
+                                 @Value("${eventhub.payment.ledger.partitioning.months-ahead:3}") int monthsAhead,
+                                 @Value("${eventhub.payment.ledger.partitioning.archive:true}") boolean archive,
+                                 @Value("${eventhub.payment.ledger.partitioning.lease-seconds:1800}") long leaseSeconds,
+                                 @Value("${eventhub.retention.transactions.retention-days:365}") long retentionDays,
+                                 MeterRegistry meterRegistry) {
+        this(jdbcTemplate, checkpointRepository, transactionManager, enabled, monthsAhead, archive, leaseSeconds,
+                retentionDays, meterRegistry, Clock.systemDefaultZone());
+    }
+
+    TransactionPartitions(JdbcTemplate jdbcTemplate,
+                          RetentionCheckpointRepository checkpointRepository,
+                          PlatformTransactionManager transactionManager,
+                          boolean enabled,
+                          int monthsAhead,
+                          boolean archive,
+                          long leaseSeconds,
+                          long retentionDays,
+                          MeterRegistry meterRegistry,
+                          Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.monthsAhead = Math.max(monthsAhead, 1);
+        this.archive = archive;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.retention = Duration.ofDays(retentionDays);
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+    }
+
+    /**
+     * Whether the ledger is partitioned on this database. While it is, row-by-row retention of transactions stands down.
+     */
+    public boolean isActive() {
+        if (!enabled) {
+            return false;
+        }
+
+        if (supported == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            supported = "MySQL".equalsIgnoreCase(product);
+
+            if (!supported) {
+                log.info("Ledger partitioning needs MySQL, {} keeps the row-based transaction retention.", product);
+            }
+        }
+
+        if (supported && !partitioned) {
+            partitioned = !months().isEmpty();
+
+            if (!partitioned) {
+                log.warn("Ledger partitioning is enabled, but the transactions table is not partitioned yet. "
+                        + "Run db/partition-transactions.sql; until then the row-based transaction retention stays on.");
+            }
+        }
+
+        return supported && partitioned;
+    }
+
+    /**
+     * Creates the partitions for the coming months and retires expired ones, under the lease so that only one instance
+     * alters the table. A failed step is logged and picked up again by the next run.
+     *
+     * @return number of months retired
+     */
+    public int maintain() {
+        if (!isActive()) {
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now(clock);
+        RetentionCheckpoint checkpoint = lock(now, now.plus(lease));
+
+        if (checkpoint == null) {
+            log.info("Maintenance of the transaction partitions is already running elsewhere, skipping.");
+            return 0;
+        }
+
+        YearMonth horizon = YearMonth.from(now).plusMonths(monthsAhead);
+        int retired = 0;
+        boolean completed = false;
+
+        try {
+            List<YearMonth> months = extend(months(), horizon);
+
+            retired = retire(months, now.minus(retention));
+            completed = true;
+        } catch (DataAccessException e) {
+            log.error("Maintenance of the transaction partitions failed, it will be retried on the next run.", e);
+        } finally {
+            checkpoint.setLockedUntil(null);
+            checkpoint.setLastRunOn(now);
+            checkpoint.setLastRunPurged(retired);
+            checkpoint.setLastRunCompleted(completed);
+            checkpointRepository.save(checkpoint);
+        }
+
+        return retired;
+    }
+
+    private RetentionCheckpoint lock(LocalDateTime now, LocalDateTime until) {
+        if (!checkpointRepository.existsById(LEASE_NAME)) {
+            try {
+                checkpointRepository.saveAndFlush(new RetentionCheckpoint(LEASE_NAME));
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Checkpoint of [{}] was created concurrently.", LEASE_NAME);
+            }
+        }
+
+        Integer locked = transactionTemplate.execute(status -> checkpointRepository.lock(LEASE_NAME, now, until));
+
+        if (locked == null || locked == 0) {
+            return null;
+        }
+
+        return checkpointRepository.findById(LEASE_NAME).orElse(null);
+    }
+
+    private List<YearMonth> extend(List<YearMonth> months, YearMonth horizon) {
+        List<YearMonth> missing = range(months.get(months.size() - 1).plusMonths(1), horizon);
+
+        if (missing.isEmpty()) {
+            return months;
+        }
+
+        jdbcTemplate.execute("ALTER TABLE transactions REORGANIZE PARTITION " + FUTURE + " INTO (" + definitions(missing) + ")");
+        count("created", missing.size());
+        log.info("Added transaction partitions up to {}.", horizon);
+
+        List<YearMonth> extended = new ArrayList<>(months);
+        extended.addAll(missing);
+        return extended;
+    }
+
+    private int retire(List<YearMonth> months, LocalDateTime cutoff) {
+        int retired = 0;
+
+        for (YearMonth month : months) {
+            if (end(month).isAfter(cutoff)) {
+                break;
+            }
+
+            String partition = month.format(NAME);
+
+            if (archive) {
+                int archived = jdbcTemplate.update("""
+                        INSERT INTO transactions_archive (id, payment_id, amount, type, status, message, `timestamp`, archived_on)
+                        SELECT id, payment_id, amount, type, status, message, `timestamp`, ?
+                        FROM transactions PARTITION (%s)
+                        ON DUPLICATE KEY UPDATE archived_on = archived_on""".formatted(partition), LocalDateTime.now(clock));
+                meterRegistry.counter("eventhub.retention.purged", "target", "transactions").increment(archived);
+                log.info("Archived {} transactions of {}.", archived, month);
+            }
+
+            jdbcTemplate.execute("ALTER TABLE transactions DROP PARTITION " + partition);
+            count(archive ? "archived" : "dropped", 1);
+            retired++;
+        }
+
+        return retired;
+    }
+
+    private List<YearMonth> months() {
+        return jdbcTemplate.queryForList("""
+                        SELECT partition_name FROM information_schema.partitions
+                        WHERE table_schema = DATABASE() AND table_name = 'transactions' AND partition_name IS NOT NULL
+                        ORDER BY partition_ordinal_position""", String.class)
+                .stream()
+                .filter(name -> !FUTURE.equals(name))
+                .map(name -> YearMonth.parse(name, NAME))
+                .toList();
+    }
+
+    private static String definitions(List<YearMonth> months) {
+        return months.stream()
+                .map(month -> "PARTITION %s VALUES LESS THAN ('%s')".formatted(month.format(NAME), end(month).format(BOUND)))
+                .collect(Collectors.joining(", ", "", ", PARTITION " + FUTURE + " VALUES LESS THAN (MAXVALUE)"));
+    }
+
+    private static List<YearMonth> range(YearMonth from, YearMonth to) {
+        List<YearMonth> months = new ArrayList<>();
+
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            months.add(month);
+        }
+
+        return months;
+    }
+
+    private static LocalDateTime end(YearMonth month) {
+        return month.plusMonths(1).atDay(1).atStartOfDay();
+    }
+
+    private void count(String action, int partitions) {
+        meterRegistry.counter("eventhub.retention.partitions", "target", "transactions", "action", action).increment(partitions);
+    }
+}
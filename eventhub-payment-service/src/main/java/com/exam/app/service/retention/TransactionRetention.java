@@ -0,0 +1,70 @@
+package com.exam.app.service.retention;
+
+import com.exam.app.repository.TransactionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Gateway transactions past the retention period. They are financial records, so each chunk is copied into
+ * {@code transactions_archive} before it is deleted, in the same transaction. Where the ledger is partitioned, whole
+ * months are retired by {@link TransactionPartitions} instead and this target reports itself disabled.
+ */
+@Component
+public class TransactionRetention implements RetentionTarget<UUID> {
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionPartitions transactionPartitions;
+    private final RetentionPolicy policy;
+
+    public TransactionRetention(TransactionRepository transactionRepository,
+                                TransactionPartitions transactionPartitions,
+                                @Value("${eventhub.retention.transactions.enabled:true}") boolean enabled,
+                                @Value("${eventhub.retention.transactions.retention-days:365}") long retentionDays,
+                                @Value("${eventhub.retention.transactions.chunk-size:500}") int chunkSize,
+                                @Value("${eventhub.retention.transactions.pause-ms:200}") long pauseMs,
+                                @Value("${eventhub.retention.transactions.time-budget-seconds:120}") long timeBudgetSeconds) {
+        this.transactionRepository = transactionRepository;
+        this.transactionPartitions = transactionPartitions;
+        this.policy = RetentionPolicy.of(enabled, retentionDays, chunkSize, pauseMs, timeBudgetSeconds);
+    }
+
+    @Override
+    public String name() {
+        return "transactions";
+    }
+
+    @Override
+    public RetentionPolicy policy() {
+        if (policy.enabled() && transactionPartitions.isActive()) {
+            return new RetentionPolicy(false, policy.retention(), policy.chunkSize(), policy.pause(), policy.timeBudget());
+        }
+
+        return policy;
+    }
+
+    @Override
+    public UUID start() {
+        return new UUID(0, 0);
+    }
+
+    @Override
+    public UUID parseId(String value) {
+        return UUID.fromString(value);
+    }
+
+    @Override
+    public List<UUID> findExpiredIds(LocalDateTime cutoff, UUID after, int limit) {
+        return transactionRepository.findIdsCreatedBefore(cutoff, after, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public int purge(List<UUID> ids, LocalDateTime cutoff) {
+        transactionRepository.archiveCreatedBefore(ids, cutoff, LocalDateTime.now());
+        return transactionRepository.deleteCreatedBefore(ids, cutoff);
+    }
+}
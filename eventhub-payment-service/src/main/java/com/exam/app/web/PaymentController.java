@@ -1,10 +1,12 @@
 package com.exam.app.web;
 
+import com.exam.app.exception.InvalidIdempotencyKeyException;
 import com.exam.app.model.Payment;
+import com.exam.app.model.PaymentStatus;
+import com.exam.app.service.BatchRefundService;
 import com.exam.app.service.PaymentService;
-import com.exam.app.web.dto.PaymentRequest;
-import com.exam.app.web.dto.PaymentResponse;
-import com.exam.app.web.dto.RefundRequest;
+import com.exam.app.service.RefundResult;
+import com.exam.app.web.dto.*;
 import com.exam.app.web.mapper.DtoMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -16,6 +18,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.regex.Pattern;
 
 @RestController
 @RequestMapping(Paths.API_V1_BASE_PATH + "/payments")
@@ -23,17 +26,38 @@ import java.util.UUID;
 @Tag(name = "Payment Controller", description = "Payment Controller")
 public class PaymentController {
 
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    /**
+     * What fits {@code payments.idempotency_key}: up to 64 characters, letters, digits and the separators of UUIDs,
+     * ULIDs and base64 values.
+     */
+    private static final Pattern IDEMPOTENCY_KEY_FORMAT = Pattern.compile("[A-Za-z0-9._:+/=-]{1,64}");
+
     private final PaymentService paymentService;
+    private final BatchRefundService batchRefundService;
 
-    @Operation(summary = "Process payment", description = "Process payment")
+    @Operation(summary = "Process payment", description = "Process payment. The charge runs in the background: a PENDING payment is returned with 202 and "
+            + "its outcome is read from GET /{paymentId}. Repeating the request with the same Idempotency-Key or booking "
+            + "returns the existing payment.")
     @PostMapping
-    public ResponseEntity<PaymentResponse> processPayment(@RequestBody PaymentRequest paymentRequest) {
+    public ResponseEntity<PaymentResponse> processPayment(@RequestBody PaymentRequest paymentRequest,
+                                                          @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+
+        if (idempotencyKey != null && !IDEMPOTENCY_KEY_FORMAT.matcher(idempotencyKey).matches()) {
+            throw new InvalidIdempotencyKeyException(IDEMPOTENCY_KEY
+                    + " must be 1 to 64 characters long and contain only letters, digits and . _ : + / = -");
+        }
+
+        Payment payment = DtoMapper.mapToEntity(paymentRequest);
+        payment.setIdempotencyKey(idempotencyKey);
 
-        Payment saved = paymentService.processPayment(DtoMapper.mapToEntity(paymentRequest));
+        Payment saved = paymentService.processPayment(payment);
 
         PaymentResponse response = DtoMapper.mapToResponse(saved);
 
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        HttpStatus status = saved.getStatus() == PaymentStatus.PENDING ? HttpStatus.ACCEPTED : HttpStatus.CREATED;
+        return ResponseEntity.status(status).body(response);
     }
 
     @Operation(summary = "Refund payment", description = "Create a refund transaction for a payment")
@@ -47,6 +71,19 @@ public class PaymentController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @Operation(summary = "Refund payments in bulk", description = "Refund up to " + BatchRefundRequest.MAX_ITEMS
+            + " payments in chunked transactions. Returns one result per item; already refunded payments are reported "
+            + "as ALREADY_REFUNDED, so the request can be repeated safely.")
+    @PostMapping("/refunds")
+    public ResponseEntity<BatchRefundResponse> refundPayments(@RequestBody @Valid BatchRefundRequest batchRefundRequest) {
+
+        List<RefundResult> results = batchRefundService.refund(DtoMapper.mapToRefundItems(batchRefundRequest));
+
+        BatchRefundResponse response = DtoMapper.mapToResponse(results);
+
+        return ResponseEntity.ok(response);
+    }
+
     @Operation(summary = "Get payment status by booking ID", description = "Get payment status by booking ID")
     @GetMapping("/bookings/{bookingId}")
     public ResponseEntity<PaymentResponse> getPaymentByBookingId(@PathVariable UUID bookingId) {
@@ -70,6 +107,21 @@ public class PaymentController {
         return ResponseEntity.ok(responseList);
     }
 
+    @Operation(summary = "Get payments in booking order", description = "Get one page of payments sorted by booking ID, "
+            + "starting after the given booking ID. Pass the last booking ID of a page to get the next one; a page shorter "
+            + "than the limit (at most " + PaymentService.MAX_PAGE_SIZE + ") is the last.")
+    @GetMapping("/by-booking")
+    public ResponseEntity<List<PaymentResponse>> getPaymentsByBookingOrder(@RequestParam(required = false) UUID after,
+                                                                           @RequestParam(defaultValue = "1000") int limit) {
+
+        List<PaymentResponse> responseList = paymentService.getPaymentsAfterBooking(after, limit)
+                .stream()
+                .map(DtoMapper::mapToResponse)
+                .toList();
+
+        return ResponseEntity.ok(responseList);
+    }
+
     @Operation(summary = "Get payment by ID", description = "Get payment by ID")
     @GetMapping("/{paymentId}")
     public ResponseEntity<PaymentResponse> getPaymentById(@PathVariable UUID paymentId) {
@@ -81,6 +133,18 @@ public class PaymentController {
         return ResponseEntity.ok(response);
     }
 
+    @Operation(summary = "Get payment transactions", description = "Get the ledger entries of a payment, oldest first")
+    @GetMapping("/{paymentId}/transactions")
+    public ResponseEntity<List<TransactionResponse>> getPaymentTransactions(@PathVariable UUID paymentId) {
+
+        List<TransactionResponse> responseList = paymentService.getTransactions(paymentId)
+                .stream()
+                .map(DtoMapper::mapToResponse)
+                .toList();
+
+        return ResponseEntity.ok(responseList);
+    }
+
     @Operation(summary = "Get all payments", description = "Get all payments")
     @GetMapping
     public ResponseEntity<List<PaymentResponse>> getAllPayments() {
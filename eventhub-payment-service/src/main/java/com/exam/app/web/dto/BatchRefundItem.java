@@ -0,0 +1,23 @@
+package com.exam.app.web.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRefundItem {
+
+    @NotNull(message = "Payment ID is required")
+    private UUID paymentId;
+
+    @NotNull(message = "Refund amount is required")
+    @DecimalMin(value = "0.01", message = "Refund amount must be greater than 0")
+    private BigDecimal amount;
+}
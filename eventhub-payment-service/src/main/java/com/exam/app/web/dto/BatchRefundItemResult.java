@@ -0,0 +1,17 @@
+package com.exam.app.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRefundItemResult {
+
+    private UUID paymentId;
+    private String outcome;
+    private String message;
+}
@@ -0,0 +1,22 @@
+package com.exam.app.web.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRefundRequest {
+
+    public static final int MAX_ITEMS = 5000;
+
+    @NotEmpty(message = "At least one refund is required")
+    @Size(max = MAX_ITEMS, message = "At most " + MAX_ITEMS + " refunds per request")
+    private List<@Valid BatchRefundItem> items;
+}
@@ -0,0 +1,22 @@
+package com.exam.app.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionResponse {
+
+    private UUID transactionId;
+    private BigDecimal amount;
+    private String type;
+    private String status;
+    private String message;
+    private LocalDateTime timestamp;
+}
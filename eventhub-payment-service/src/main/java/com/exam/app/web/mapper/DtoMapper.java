@@ -1,10 +1,20 @@
 package com.exam.app.web.mapper;
 
 import com.exam.app.model.Payment;
-import com.exam.app.web.dto.PaymentRequest;
-import com.exam.app.web.dto.PaymentResponse;
+import com.exam.app.model.RefundOutcome;
+import com.exam.app.model.Transaction;
+import com.exam.app.service.RefundItem;
+import com.exam.app.service.RefundResult;
+import com.exam.app.web.dto.*;
 import lombok.experimental.UtilityClass;
 
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 @UtilityClass
 public class DtoMapper {
 
@@ -30,4 +40,39 @@ public class DtoMapper {
 
         return paymentResponse;
     }
+
+    public static TransactionResponse mapToResponse(Transaction transaction) {
+        TransactionResponse transactionResponse = new TransactionResponse();
+
+        transactionResponse.setTransactionId(transaction.getId());
+        transactionResponse.setAmount(transaction.getAmount());
+        transactionResponse.setType(transaction.getType().name());
+        transactionResponse.setStatus(transaction.getStatus().name());
+        transactionResponse.setMessage(transaction.getMessage());
+        transactionResponse.setTimestamp(transaction.getTimestamp());
+
+        return transactionResponse;
+    }
+
+    public static List<RefundItem> mapToRefundItems(BatchRefundRequest batchRefundRequest) {
+        return batchRefundRequest.getItems()
+                .stream()
+                .map(item -> new RefundItem(item.getPaymentId(), item.getAmount()))
+                .toList();
+    }
+
+    public static BatchRefundResponse mapToResponse(List<RefundResult> results) {
+        Set<RefundOutcome> done = EnumSet.of(RefundOutcome.REFUNDED, RefundOutcome.ALREADY_REFUNDED);
+
+        Map<String, Long> outcomes = results.stream()
+                .collect(Collectors.groupingBy(result -> result.outcome().name(), LinkedHashMap::new, Collectors.counting()));
+
+        List<BatchRefundItemResult> items = results.stream()
+                .map(result -> new BatchRefundItemResult(result.paymentId(), result.outcome().name(), result.message()))
+                .toList();
+
+        int completed = (int) results.stream().filter(result -> done.contains(result.outcome())).count();
+
+        return new BatchRefundResponse(results.size(), completed, outcomes, items);
+    }
 }
@@ -0,0 +1,33 @@
+-- One-time migration: partitions the transactions ledger by month (MySQL 8).
+--
+-- Rebuilds the whole table and holds a metadata lock on it while it runs, so run it in a maintenance window, with
+-- payment-service stopped or the ledger otherwise idle. The primary key moves to (`timestamp`, id), so new entries are
+-- appended at the end of the clustered index. Partitions are created from the month of the oldest entry up to three
+-- months ahead, plus p_future for everything later.
+--
+-- Afterwards set eventhub.payment.ledger.partitioning.enabled=true. payment-service then adds the coming months and
+-- retires expired ones on its own (see TransactionPartitions).
+
+SET SESSION group_concat_max_len = 1000000;
+SET SESSION cte_max_recursion_depth = 10000;
+
+SET @first = DATE(DATE_FORMAT(COALESCE((SELECT MIN(`timestamp`) FROM transactions), CURRENT_DATE), '%Y-%m-01'));
+SET @last = DATE(DATE_FORMAT(CURRENT_DATE + INTERVAL 3 MONTH, '%Y-%m-01'));
+
+SELECT GROUP_CONCAT(
+               CONCAT('PARTITION p', DATE_FORMAT(month, '%Y%m'),
+                      ' VALUES LESS THAN (''', month + INTERVAL 1 MONTH, ' 00:00:00'')')
+               ORDER BY month SEPARATOR ', ')
+INTO @partitions
+FROM (WITH RECURSIVE months (month) AS (SELECT @first
+                                        UNION ALL
+                                        SELECT month + INTERVAL 1 MONTH FROM months WHERE month < @last)
+      SELECT month FROM months) AS months;
+
+SET @ddl = CONCAT('ALTER TABLE transactions DROP PRIMARY KEY, ADD PRIMARY KEY (`timestamp`, id) ',
+                  'PARTITION BY RANGE COLUMNS(`timestamp`) (', @partitions,
+                  ', PARTITION p_future VALUES LESS THAN (MAXVALUE))');
+
+PREPARE partition_transactions FROM @ddl;
+EXECUTE partition_transactions;
+DEALLOCATE PREPARE partition_transactions;
@@ -0,0 +1,109 @@
+package com.exam.app.service;
+
+import com.exam.app.model.Payment;
+import com.exam.app.model.PaymentStatus;
+import com.exam.app.model.RefundOutcome;
+import com.exam.app.model.TransactionType;
+import com.exam.app.repository.PaymentRepository;
+import com.exam.app.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = "eventhub.payment.refund.chunk-size=10")
+class BatchRefundIntegrationTest {
+
+    @Autowired
+    private BatchRefundService batchRefundService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAll();
+        paymentRepository.deleteAll();
+    }
+
+    @Test
+    void refund_refundsEverySuccessfulPaymentAcrossChunks() {
+
+        List<Payment> payments = IntStream.range(0, 25).mapToObj(i -> save(PaymentStatus.SUCCESS)).toList();
+
+        List<RefundResult> results = batchRefundService.refund(payments.stream()
+                .map(payment -> new RefundItem(payment.getId(), payment.getAmount()))
+                .toList());
+
+        assertEquals(25, results.size());
+        assertTrue(results.stream().allMatch(result -> result.outcome() == RefundOutcome.REFUNDED));
+        assertEquals(payments.stream().map(Payment::getId).toList(), results.stream().map(RefundResult::paymentId).toList());
+        assertTrue(paymentRepository.findAll().stream().allMatch(payment -> payment.getStatus() == PaymentStatus.REFUNDED));
+        assertEquals(25, transactionRepository.findAll().stream()
+                .filter(transaction -> transaction.getType() == TransactionType.REFUND)
+                .count());
+    }
+
+    @Test
+    void refund_reportsEveryItemThatCannotBeRefunded() {
+
+        Payment success = save(PaymentStatus.SUCCESS);
+        Payment refunded = save(PaymentStatus.REFUNDED);
+        Payment pending = save(PaymentStatus.PENDING);
+        Payment overAmount = save(PaymentStatus.SUCCESS);
+        UUID missing = UUID.randomUUID();
+
+        List<RefundItem> items = new ArrayList<>();
+        items.add(new RefundItem(success.getId(), success.getAmount()));
+        items.add(new RefundItem(refunded.getId(), refunded.getAmount()));
+        items.add(new RefundItem(pending.getId(), pending.getAmount()));
+        items.add(new RefundItem(overAmount.getId(), overAmount.getAmount().add(BigDecimal.ONE)));
+        items.add(new RefundItem(missing, BigDecimal.TEN));
+        items.add(new RefundItem(success.getId(), success.getAmount()));
+
+        List<RefundOutcome> outcomes = batchRefundService.refund(items).stream().map(RefundResult::outcome).toList();
+
+        assertEquals(List.of(RefundOutcome.REFUNDED, RefundOutcome.ALREADY_REFUNDED, RefundOutcome.NOT_REFUNDABLE,
+                RefundOutcome.NOT_REFUNDABLE, RefundOutcome.NOT_FOUND, RefundOutcome.DUPLICATE), outcomes);
+        assertEquals(PaymentStatus.PENDING, paymentRepository.findById(pending.getId()).orElseThrow().getStatus());
+        assertEquals(PaymentStatus.SUCCESS, paymentRepository.findById(overAmount.getId()).orElseThrow().getStatus());
+        assertEquals(1, transactionRepository.count());
+    }
+
+    @Test
+    void refund_sentTwice_refundsOnlyOnce() {
+
+        List<RefundItem> items = IntStream.range(0, 12)
+                .mapToObj(i -> save(PaymentStatus.SUCCESS))
+                .map(payment -> new RefundItem(payment.getId(), payment.getAmount()))
+                .toList();
+
+        batchRefundService.refund(items);
+        List<RefundResult> again = batchRefundService.refund(items);
+
+        assertTrue(again.stream().allMatch(result -> result.outcome() == RefundOutcome.ALREADY_REFUNDED));
+        assertEquals(12, transactionRepository.count());
+    }
+
+    private Payment save(PaymentStatus status) {
+        Payment payment = new Payment();
+        payment.setBookingId(UUID.randomUUID());
+        payment.setUserId(UUID.randomUUID());
+        payment.setAmount(new BigDecimal("25.00"));
+        payment.setStatus(status);
+        return paymentRepository.save(payment);
+    }
+}
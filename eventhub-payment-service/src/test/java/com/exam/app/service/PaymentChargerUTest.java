@@ -0,0 +1,220 @@
+package com.exam.app.service;
+
+import com.exam.app.model.Payment;
+import com.exam.app.model.PaymentStatus;
+import com.exam.app.model.TransactionStatus;
+import com.exam.app.repository.PaymentRepository;
+import com.exam.app.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentChargerUTest {
+
+    @Mock
+    private PaymentGateway paymentGateway;
+    @Mock
+    private PaymentRepository paymentRepository;
+    @Mock
+    private TransactionRepository transactionRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PaymentCharger paymentCharger;
+    private Payment payment;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        paymentCharger = new PaymentCharger(paymentGateway, paymentRepository, transactionRepository,
+                transactionManager, 1, 1, 120, 10, meterRegistry);
+
+        payment = payment();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        paymentCharger.destroy();
+    }
+
+    @Test
+    void submit_whenGatewayAccepts_marksThePaymentSuccessful() {
+
+        when(paymentRepository.renewCharge(any(), anyInt(), eq(PaymentStatus.PENDING), any())).thenReturn(1);
+        when(paymentGateway.charge(payment.getUserId(), payment.getAmount())).thenReturn(true);
+        when(paymentRepository.complete(eq(payment.getId()), eq(1), eq(PaymentStatus.PENDING), eq(PaymentStatus.SUCCESS), any())).thenReturn(1);
+
+        paymentCharger.submit(payment);
+
+        verify(transactionRepository, timeout(2000)).save(argThat(tx ->
+                tx.getPaymentId().equals(payment.getId()) &&
+                        tx.getAmount().equals(payment.getAmount()) &&
+                        tx.getStatus() == TransactionStatus.SUCCESS));
+        assertThat(payment.getStatus()).isEqualTo(PaymentStatus.PENDING);
+    }
+
+    @Test
+    void submit_whenGatewayDeclines_marksThePaymentFailed() {
+
+        when(paymentRepository.renewCharge(any(), anyInt(), eq(PaymentStatus.PENDING), any())).thenReturn(1);
+        when(paymentGateway.charge(payment.getUserId(), payment.getAmount())).thenReturn(false);
+        when(paymentRepository.complete(eq(payment.getId()), eq(1), eq(PaymentStatus.PENDING), eq(PaymentStatus.FAILED), any())).thenReturn(1);
+
+        paymentCharger.submit(payment);
+
+        verify(transactionRepository, timeout(2000)).save(argThat(tx ->
+                tx.getStatus() == TransactionStatus.FAILED && tx.getMessage().equals("Payment failed")));
+    }
+
+    @Test
+    void submit_whenGatewayThrows_marksThePaymentFailed() {
+
+        when(paymentRepository.renewCharge(any(), anyInt(), eq(PaymentStatus.PENDING), any())).thenReturn(1);
+        when(paymentGateway.charge(any(), any())).thenThrow(new IllegalStateException("Gateway timeout"));
+        when(paymentRepository.complete(eq(payment.getId()), eq(1), eq(PaymentStatus.PENDING), eq(PaymentStatus.FAILED), any())).thenReturn(1);
+
+        paymentCharger.submit(payment);
+
+        verify(transactionRepository, timeout(2000)).save(argThat(tx ->
+                tx.getStatus() == TransactionStatus.FAILED && tx.getMessage().contains("Payment error")));
+    }
+
+    @Test
+    void submit_whenPaymentIsNoLongerPending_recordsNoTransaction() {
+
+        when(paymentRepository.renewCharge(any(), anyInt(), eq(PaymentStatus.PENDING), any())).thenReturn(1);
+        when(paymentGateway.charge(any(), any())).thenReturn(true);
+        when(paymentRepository.complete(any(), anyInt(), any(), any(), any())).thenReturn(0);
+
+        paymentCharger.submit(payment);
+
+        verify(paymentRepository, timeout(2000)).complete(eq(payment.getId()), eq(1), eq(PaymentStatus.PENDING), eq(PaymentStatus.SUCCESS), any());
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    void submit_whenQueueIsFull_failsThePaymentWithoutCharging() throws Exception {
+
+        when(paymentRepository.renewCharge(any(), anyInt(), eq(PaymentStatus.PENDING), any())).thenReturn(1);
+        CountDownLatch charging = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(paymentGateway.charge(any(), any())).thenAnswer(invocation -> {
+            charging.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return true;
+        });
+        when(paymentRepository.complete(any(), anyInt(), any(), any(), any())).thenReturn(1);
+
+        paymentCharger.submit(payment());
+        assertThat(charging.await(5, TimeUnit.SECONDS)).isTrue();
+        paymentCharger.submit(payment());
+        Payment rejected = payment();
+
+        paymentCharger.submit(rejected);
+
+        verify(paymentRepository).complete(eq(rejected.getId()), eq(1), eq(PaymentStatus.PENDING), eq(PaymentStatus.FAILED), any());
+        assertThat(meterRegistry.counter("eventhub.payment.charge", "result", "rejected").count()).isEqualTo(1.0);
+        release.countDown();
+        verify(paymentGateway, timeout(2000).times(2)).charge(any(), any());
+    }
+
+    @Test
+    void submit_whenAttemptWasTakenOver_doesNotCharge() {
+
+        when(paymentRepository.renewCharge(eq(payment.getId()), eq(1), eq(PaymentStatus.PENDING), any())).thenReturn(0);
+
+        paymentCharger.submit(payment);
+
+        verify(paymentRepository, timeout(2000)).renewCharge(eq(payment.getId()), eq(1), eq(PaymentStatus.PENDING), any());
+        assertThat(meterRegistry.counter("eventhub.payment.charge", "result", "superseded").count()).isEqualTo(1.0);
+        verifyNoInteractions(paymentGateway, transactionRepository);
+    }
+
+    @Test
+    void submit_whenChargeSucceedsAfterItWasGivenUp_countsALateCharge() {
+
+        when(paymentRepository.renewCharge(any(), anyInt(), eq(PaymentStatus.PENDING), any())).thenReturn(1);
+        when(paymentGateway.charge(any(), any())).thenReturn(true);
+        when(paymentRepository.complete(any(), anyInt(), any(), any(), any())).thenReturn(0);
+
+        paymentCharger.submit(payment);
+
+        verify(paymentRepository, timeout(2000)).complete(eq(payment.getId()), eq(1), eq(PaymentStatus.PENDING), eq(PaymentStatus.SUCCESS), any());
+        assertThat(meterRegistry.counter("eventhub.payment.charge", "result", "late").count()).isEqualTo(1.0);
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    void reclaim_whenAttemptOutlivedItsLease_startsANewAttempt() {
+
+        when(paymentRepository.reclaimStale(eq(payment.getId()), eq(PaymentStatus.PENDING), any(), any())).thenReturn(1);
+        when(paymentRepository.renewCharge(eq(payment.getId()), eq(2), eq(PaymentStatus.PENDING), any())).thenReturn(1);
+        when(paymentGateway.charge(any(), any())).thenReturn(true);
+        when(paymentRepository.complete(eq(payment.getId()), eq(2), eq(PaymentStatus.PENDING), eq(PaymentStatus.SUCCESS), any())).thenReturn(1);
+
+        assertThat(paymentCharger.reclaim(payment)).isTrue();
+
+        assertThat(payment.getChargeAttempt()).isEqualTo(2);
+        verify(transactionRepository, timeout(2000)).save(argThat(tx -> tx.getStatus() == TransactionStatus.SUCCESS));
+    }
+
+    @Test
+    void reclaim_whenAttemptIsWithinItsLease_leavesThePaymentAlone() {
+
+        when(paymentRepository.reclaimStale(eq(payment.getId()), eq(PaymentStatus.PENDING), any(), any())).thenReturn(0);
+
+        assertThat(paymentCharger.reclaim(payment)).isFalse();
+
+        verifyNoInteractions(paymentGateway);
+        verify(paymentRepository, never()).renewCharge(any(), anyInt(), any(), any());
+    }
+
+    @Test
+    void abandonStale_failsPaymentsWhoseAttemptOutlivedTheLease() {
+
+        Payment taken = payment();
+        when(paymentRepository.findStale(eq(PaymentStatus.PENDING), any(), any())).thenReturn(List.of(payment, taken));
+        when(paymentRepository.abandon(eq(payment.getId()), eq(1), eq(PaymentStatus.PENDING), eq(PaymentStatus.FAILED), any(), any())).thenReturn(1);
+        when(paymentRepository.abandon(eq(taken.getId()), eq(1), eq(PaymentStatus.PENDING), eq(PaymentStatus.FAILED), any(), any())).thenReturn(0);
+
+        int abandoned = paymentCharger.abandonStale();
+
+        assertThat(abandoned).isEqualTo(1);
+        verify(transactionRepository).save(argThat(tx ->
+                tx.getPaymentId().equals(payment.getId()) &&
+                        tx.getStatus() == TransactionStatus.FAILED &&
+                        tx.getMessage().equals("Payment error: charge did not finish")));
+        verify(transactionRepository, never()).save(argThat(tx -> tx.getPaymentId().equals(taken.getId())));
+        assertThat(meterRegistry.counter("eventhub.payment.charge", "result", "abandoned").count()).isEqualTo(1.0);
+    }
+
+    private static Payment payment() {
+        Payment payment = new Payment();
+        payment.setId(UUID.randomUUID());
+        payment.setBookingId(UUID.randomUUID());
+        payment.setUserId(UUID.randomUUID());
+        payment.setAmount(BigDecimal.valueOf(100.00));
+        payment.setStatus(PaymentStatus.PENDING);
+        payment.setChargeAttempt(1);
+        return payment;
+    }
+}
@@ -0,0 +1,168 @@
+package com.exam.app.service;
+
+import com.exam.app.model.Payment;
+import com.exam.app.model.PaymentStatus;
+import com.exam.app.model.TransactionType;
+import com.exam.app.repository.PaymentRepository;
+import com.exam.app.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@ActiveProfiles("test")
+@SpringBootTest
+class PaymentIdempotencyIntegrationTest {
+
+    private static final int REQUESTS = 32;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @MockitoBean
+    private PaymentGateway paymentGateway;
+
+    private final AtomicInteger charges = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAll();
+        paymentRepository.deleteAll();
+        charges.set(0);
+    }
+
+    @Test
+    void concurrentRequestsForOneBooking_chargeTheGatewayOnce() throws Exception {
+
+        chargeSlowly(true);
+        UUID bookingId = UUID.randomUUID();
+
+        List<Payment> results = hammer(i -> payment(bookingId, i % 2 == 0 ? "key-a" : null));
+
+        assertEquals(PaymentStatus.SUCCESS, awaitCompletion(bookingId).getStatus());
+        assertEquals(1, charges.get());
+        assertEquals(1, paymentRepository.count());
+        assertEquals(1, results.stream().map(Payment::getId).collect(Collectors.toSet()).size());
+        assertEquals(1, transactionRepository.findAll().stream()
+                .filter(transaction -> transaction.getType() == TransactionType.PAYMENT)
+                .count());
+    }
+
+    @Test
+    void concurrentRetriesOfAFailedPayment_chargeTheGatewayOnceMore() throws Exception {
+
+        UUID bookingId = UUID.randomUUID();
+        chargeSlowly(false);
+        Payment failed = paymentService.processPayment(payment(bookingId, "first-attempt"));
+        assertEquals(PaymentStatus.FAILED, awaitCompletion(bookingId).getStatus());
+
+        chargeSlowly(true);
+        List<Payment> results = hammer(i -> payment(bookingId, "retry-" + i));
+
+        Payment stored = awaitCompletion(bookingId);
+        assertEquals(2, charges.get());
+        assertEquals(1, paymentRepository.count());
+        assertEquals(failed.getId(), stored.getId());
+        assertEquals(PaymentStatus.SUCCESS, stored.getStatus());
+        Set<UUID> ids = results.stream().map(Payment::getId).collect(Collectors.toSet());
+        assertEquals(Set.of(failed.getId()), ids);
+    }
+
+    @Test
+    void replayingTheKeyAfterCompletion_returnsTheSamePayment() throws Exception {
+
+        chargeSlowly(true);
+        UUID bookingId = UUID.randomUUID();
+
+        Payment first = paymentService.processPayment(payment(bookingId, "key-b"));
+        assertEquals(PaymentStatus.PENDING, first.getStatus());
+        awaitCompletion(bookingId);
+        Payment replay = paymentService.processPayment(payment(bookingId, "key-b"));
+
+        assertEquals(first.getId(), replay.getId());
+        assertEquals(PaymentStatus.SUCCESS, replay.getStatus());
+        assertEquals(1, charges.get());
+    }
+
+    private List<Payment> hammer(RequestFactory factory) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(REQUESTS);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            List<Future<Payment>> futures = new ArrayList<>();
+            for (int i = 0; i < REQUESTS; i++) {
+                Payment payment = factory.create(i);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return paymentService.processPayment(payment);
+                }));
+            }
+            start.countDown();
+
+            List<Payment> results = new ArrayList<>();
+            for (Future<Payment> future : futures) {
+                results.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Payment awaitCompletion(UUID bookingId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        Payment payment = paymentRepository.findByBookingId(bookingId).orElseThrow();
+
+        while (payment.getStatus() == PaymentStatus.PENDING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            payment = paymentRepository.findByBookingId(bookingId).orElseThrow();
+        }
+        return payment;
+    }
+
+    private void chargeSlowly(boolean result) {
+        doAnswer(invocation -> {
+            charges.incrementAndGet();
+            Thread.sleep(50);
+            return result;
+        }).when(paymentGateway).charge(any(), any());
+    }
+
+    private static Payment payment(UUID bookingId, String idempotencyKey) {
+        Payment payment = new Payment();
+        payment.setBookingId(bookingId);
+        payment.setUserId(UUID.randomUUID());
+        payment.setAmount(new BigDecimal("49.99"));
+        payment.setIdempotencyKey(idempotencyKey);
+        return payment;
+    }
+
+    private interface RequestFactory {
+        Payment create(int index);
+    }
+}
@@ -1,6 +1,8 @@
 package com.exam.app.service;
 
+import com.exam.app.exception.IdempotencyKeyConflictException;
 import com.exam.app.exception.PaymentNotFoundException;
+import com.exam.app.exception.PaymentNotRefundableException;
 import com.exam.app.model.*;
 import com.exam.app.repository.PaymentRepository;
 import com.exam.app.repository.TransactionRepository;
@@ -10,8 +12,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -21,6 +26,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,7 +38,7 @@ public class PaymentServiceUTest {
     @Mock
     private TransactionRepository transactionRepository;
     @Mock
-    private PaymentGateway paymentGateway;
+    private PaymentCharger paymentCharger;
 
     @InjectMocks
     private PaymentService paymentService;
@@ -62,6 +69,7 @@ public class PaymentServiceUTest {
         existingPayment.setBookingId(bookingId);
         existingPayment.setStatus(PaymentStatus.SUCCESS);
 
+        when(paymentRepository.saveAndFlush(any(Payment.class))).thenThrow(new DataIntegrityViolationException("uk_payments_booking_id"));
         when(paymentRepository.findByBookingId(bookingId)).thenReturn(Optional.of(existingPayment));
 
         Payment result = paymentService.processPayment(testPayment);
@@ -70,120 +78,148 @@ public class PaymentServiceUTest {
         assertThat(result.getStatus()).isEqualTo(PaymentStatus.SUCCESS);
         verify(paymentRepository).findByBookingId(bookingId);
         verify(paymentRepository, never()).save(any(Payment.class));
+        verify(paymentCharger, never()).submit(any());
         verify(transactionRepository, never()).save(any(Transaction.class));
     }
 
     @Test
-    void processPayment_whenNewPayment_shouldProcessSuccessfully() {
+    void processPayment_whenNewPayment_shouldStorePendingAndQueueTheCharge() {
 
-        when(paymentRepository.findByBookingId(bookingId)).thenReturn(Optional.empty());
-        when(paymentRepository.save(any(Payment.class)))
+        when(paymentRepository.saveAndFlush(any(Payment.class)))
                 .thenAnswer(invocation -> {
                     Payment p = invocation.getArgument(0);
                     p.setId(paymentId);
                     return p;
                 });
-        when(transactionRepository.save(any(Transaction.class)))
-                .thenAnswer(invocation -> invocation.getArgument(0));
-        when(paymentGateway.charge(any(UUID.class), any(BigDecimal.class))).thenReturn(true);
 
         Payment result = paymentService.processPayment(testPayment);
 
         assertThat(result).isNotNull();
-        assertThat(result.getStatus()).isEqualTo(PaymentStatus.SUCCESS);
+        assertThat(result.getId()).isEqualTo(paymentId);
+        assertThat(result.getStatus()).isEqualTo(PaymentStatus.PENDING);
         assertThat(result.getCreatedOn()).isNotNull();
-        assertThat(result.getCompletedOn()).isNotNull();
+        assertThat(result.getCompletedOn()).isNull();
 
-        verify(paymentRepository).findByBookingId(bookingId);
-        verify(paymentRepository, times(2)).save(any(Payment.class));
-        verify(paymentGateway).charge(userId, testPayment.getAmount());
-        verify(transactionRepository).save(argThat(tx ->
-                tx.getPaymentId().equals(paymentId) &&
-                        tx.getAmount().equals(testPayment.getAmount()) &&
-                        tx.getType() == TransactionType.PAYMENT &&
-                        tx.getStatus() == TransactionStatus.SUCCESS
-        ));
+        verify(paymentRepository).saveAndFlush(testPayment);
+        verify(paymentRepository, never()).findByBookingId(any());
+        verify(paymentCharger).submit(result);
+        verify(transactionRepository, never()).save(any(Transaction.class));
     }
 
     @Test
-    void processPayment_whenExceptionOccurs_shouldHandleGracefully() {
+    void processPayment_whenExistingPaymentIsPending_shouldReturnItWithoutCharging() {
 
-        when(paymentRepository.findByBookingId(bookingId)).thenReturn(Optional.empty());
-        when(paymentRepository.save(any(Payment.class)))
-                .thenAnswer(invocation -> {
-                    Payment p = invocation.getArgument(0);
-                    p.setId(paymentId);
-                    return p;
-                })
-                .thenThrow(new RuntimeException("Database error"))
-                .thenAnswer(invocation -> invocation.getArgument(0));
+        Payment existingPayment = new Payment();
+        existingPayment.setId(UUID.randomUUID());
+        existingPayment.setBookingId(bookingId);
+        existingPayment.setStatus(PaymentStatus.PENDING);
+
+        when(paymentRepository.saveAndFlush(any(Payment.class))).thenThrow(new DataIntegrityViolationException("uk_payments_booking_id"));
+        when(paymentRepository.findByBookingId(bookingId)).thenReturn(Optional.of(existingPayment));
 
         Payment result = paymentService.processPayment(testPayment);
 
-        assertThat(result).isNotNull();
-        assertThat(result.getStatus()).isEqualTo(PaymentStatus.FAILED);
+        assertThat(result).isEqualTo(existingPayment);
+        verify(paymentCharger).reclaim(existingPayment);
+        verify(paymentCharger, never()).submit(any());
+        verify(paymentRepository, never()).claimForRetry(any(), any(), any(), any(), any());
+    }
 
-        verify(transactionRepository).save(argThat(tx ->
-                tx.getStatus() == TransactionStatus.FAILED &&
-                        tx.getMessage().contains("Payment error")
-        ));
+    @Test
+    void processPayment_whenExistingPendingPaymentOutlivedItsLease_shouldChargeItAgain() {
+
+        Payment existingPayment = new Payment();
+        existingPayment.setId(UUID.randomUUID());
+        existingPayment.setBookingId(bookingId);
+        existingPayment.setStatus(PaymentStatus.PENDING);
+
+        when(paymentRepository.saveAndFlush(any(Payment.class))).thenThrow(new DataIntegrityViolationException("uk_payments_booking_id"));
+        when(paymentRepository.findByBookingId(bookingId)).thenReturn(Optional.of(existingPayment));
+        when(paymentCharger.reclaim(existingPayment)).thenReturn(true);
+
+        Payment result = paymentService.processPayment(testPayment);
+
+        assertThat(result).isEqualTo(existingPayment);
+        verify(paymentRepository, never()).claimForRetry(any(), any(), any(), any(), any());
     }
 
     @Test
-    void processPayment_whenGatewayReturnsFalse_shouldSetPaymentStatusToFailed() {
+    void processPayment_whenExistingPaymentFailed_shouldRetryItWithTheNewKey() {
 
-        when(paymentRepository.findByBookingId(bookingId)).thenReturn(Optional.empty());
-        when(paymentRepository.save(any(Payment.class)))
-                .thenAnswer(invocation -> {
-                    Payment p = invocation.getArgument(0);
-                    p.setId(paymentId);
-                    return p;
-                });
-        when(transactionRepository.save(any(Transaction.class)))
-                .thenAnswer(invocation -> invocation.getArgument(0));
+        Payment failed = failedPayment("first-attempt");
+        testPayment.setIdempotencyKey("second-attempt");
 
-        when(paymentGateway.charge(any(UUID.class), any(BigDecimal.class))).thenReturn(false);
+        when(paymentRepository.saveAndFlush(any(Payment.class))).thenThrow(new DataIntegrityViolationException("uk_payments_booking_id"));
+        when(paymentRepository.findByIdempotencyKey("second-attempt")).thenReturn(Optional.empty());
+        when(paymentRepository.findByBookingId(bookingId)).thenReturn(Optional.of(failed));
+        when(paymentRepository.claimForRetry(eq(paymentId), eq("second-attempt"), eq(PaymentStatus.FAILED), eq(PaymentStatus.PENDING), any())).thenReturn(1);
+        Payment claimed = failedPayment("second-attempt");
+        claimed.setStatus(PaymentStatus.PENDING);
+        claimed.setChargeAttempt(2);
+        when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(claimed));
 
         Payment result = paymentService.processPayment(testPayment);
 
-        assertThat(result).isNotNull();
-        assertThat(result.getStatus()).isEqualTo(PaymentStatus.FAILED);
-        assertThat(result.getCompletedOn()).isNotNull();
+        assertThat(result.getId()).isEqualTo(paymentId);
+        assertThat(result.getStatus()).isEqualTo(PaymentStatus.PENDING);
+        assertThat(result.getIdempotencyKey()).isEqualTo("second-attempt");
+        verify(paymentCharger).submit(claimed);
+    }
+
+    @Test
+    void processPayment_whenAnotherRequestClaimedTheFailedPayment_shouldNotChargeAgain() {
 
-        verify(paymentGateway).charge(userId, testPayment.getAmount());
-        verify(paymentRepository, times(2)).save(any(Payment.class));
+        Payment failed = failedPayment("first-attempt");
+
+        when(paymentRepository.saveAndFlush(any(Payment.class))).thenThrow(new DataIntegrityViolationException("uk_payments_booking_id"));
+        when(paymentRepository.findByBookingId(bookingId)).thenReturn(Optional.of(failed));
+        when(paymentRepository.claimForRetry(eq(paymentId), isNull(), eq(PaymentStatus.FAILED), eq(PaymentStatus.PENDING), any())).thenReturn(0);
+
+        Payment result = paymentService.processPayment(testPayment);
+
+        assertThat(result).isEqualTo(failed);
+        verify(paymentCharger, never()).submit(any());
     }
 
     @Test
-    void processPayment_whenExistingPaymentIsPending_shouldProcessAnyway() {
+    void processPayment_whenKeyOfTheFailedAttemptIsReplayed_shouldReturnThatAttempt() {
 
-        Payment existingPayment = new Payment();
-        existingPayment.setId(UUID.randomUUID());
-        existingPayment.setBookingId(bookingId);
-        existingPayment.setStatus(PaymentStatus.PENDING);
+        Payment failed = failedPayment("first-attempt");
+        testPayment.setIdempotencyKey("first-attempt");
 
-        when(paymentRepository.findByBookingId(bookingId)).thenReturn(Optional.of(existingPayment));
-        when(paymentRepository.save(any(Payment.class)))
-                .thenAnswer(invocation -> {
-                    Payment p = invocation.getArgument(0);
-                    if (p.getId() == null) p.setId(paymentId);
-                    return p;
-                });
+        when(paymentRepository.saveAndFlush(any(Payment.class))).thenThrow(new DataIntegrityViolationException("uk_payments_idempotency_key"));
+        when(paymentRepository.findByIdempotencyKey("first-attempt")).thenReturn(Optional.of(failed));
 
         Payment result = paymentService.processPayment(testPayment);
 
-        assertThat(result).isNotNull();
-        verify(paymentRepository, times(2)).save(any(Payment.class));
+        assertThat(result).isEqualTo(failed);
+        assertThat(result.getStatus()).isEqualTo(PaymentStatus.FAILED);
+        verify(paymentRepository, never()).claimForRetry(any(), any(), any(), any(), any());
+        verify(paymentCharger, never()).submit(any());
     }
 
     @Test
-    void refundPayment_whenPaymentExists_shouldRefundSuccessfully() {
+    void processPayment_whenKeyBelongsToAnotherBooking_shouldThrowConflict() {
+
+        Payment other = failedPayment("shared-key");
+        other.setBookingId(UUID.randomUUID());
+        testPayment.setIdempotencyKey("shared-key");
+
+        when(paymentRepository.saveAndFlush(any(Payment.class))).thenThrow(new DataIntegrityViolationException("uk_payments_idempotency_key"));
+        when(paymentRepository.findByIdempotencyKey("shared-key")).thenReturn(Optional.of(other));
+
+        assertThrows(IdempotencyKeyConflictException.class, () -> paymentService.processPayment(testPayment));
+        verify(paymentCharger, never()).submit(any());
+    }
+
+    @Test
+    void refundPayment_whenPaymentSucceeded_shouldRefundSuccessfully() {
 
         testPayment.setStatus(PaymentStatus.SUCCESS);
         BigDecimal refundAmount = BigDecimal.valueOf(50.00);
 
         when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(testPayment));
-        when(paymentRepository.save(any(Payment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(paymentRepository.transitionAll(List.of(paymentId), PaymentStatus.SUCCESS, PaymentStatus.REFUNDED)).thenReturn(1);
         when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         Payment result = paymentService.refundPayment(paymentId, refundAmount);
@@ -192,7 +228,6 @@ public class PaymentServiceUTest {
         assertThat(result.getStatus()).isEqualTo(PaymentStatus.REFUNDED);
 
         verify(paymentRepository).findById(paymentId);
-        verify(paymentRepository).save(testPayment);
         verify(transactionRepository).save(argThat(tx ->
                 tx.getPaymentId().equals(paymentId) &&
                         tx.getAmount().equals(refundAmount) &&
@@ -201,6 +236,31 @@ public class PaymentServiceUTest {
         ));
     }
 
+    @Test
+    void refundPayment_whenPaymentIsStillPending_shouldNotRefund() {
+
+        testPayment.setStatus(PaymentStatus.PENDING);
+        when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(testPayment));
+
+        assertThrows(PaymentNotRefundableException.class, () -> paymentService.refundPayment(paymentId, BigDecimal.valueOf(50.00)));
+
+        verify(paymentRepository, never()).transitionAll(any(), any(), any());
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    void refundPayment_whenPaymentWasAlreadyRefunded_shouldReturnItWithoutANewTransaction() {
+
+        testPayment.setStatus(PaymentStatus.REFUNDED);
+        when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(testPayment));
+
+        Payment result = paymentService.refundPayment(paymentId, BigDecimal.valueOf(50.00));
+
+        assertThat(result.getStatus()).isEqualTo(PaymentStatus.REFUNDED);
+        verify(paymentRepository, never()).transitionAll(any(), any(), any());
+        verify(transactionRepository, never()).save(any());
+    }
+
     @Test
     void refundPayment_WhenPaymentNotFound_ShouldThrowException() {
 
@@ -303,6 +363,53 @@ public class PaymentServiceUTest {
         verify(paymentRepository).findById(paymentId);
     }
 
+    @Test
+    void getTransactions_readsTheLedgerFromThePaymentCreationOnwards() {
+
+        LocalDateTime createdOn = LocalDateTime.now().minusDays(3);
+        testPayment.setCreatedOn(createdOn);
+        Transaction transaction = new Transaction();
+        when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(testPayment));
+        when(transactionRepository.findTimeline(paymentId, createdOn)).thenReturn(List.of(transaction));
+
+        List<Transaction> result = paymentService.getTransactions(paymentId);
+
+        assertThat(result).containsExactly(transaction);
+        verify(transactionRepository).findTimeline(paymentId, createdOn);
+    }
+
+    @Test
+    void getTransactions_whenPaymentNotFound_shouldThrowException() {
+
+        when(paymentRepository.findById(paymentId)).thenReturn(Optional.empty());
+
+        assertThrows(PaymentNotFoundException.class, () -> paymentService.getTransactions(paymentId));
+
+        verify(transactionRepository, never()).findTimeline(any(), any());
+    }
+
+    @Test
+    void getPaymentsAfterBooking_startsFromTheLowestKeyAndCapsThePageSize() {
+
+        when(paymentRepository.findPageAfterBooking(any(), any())).thenReturn(List.of(testPayment));
+
+        List<Payment> result = paymentService.getPaymentsAfterBooking(null, 100_000);
+
+        assertThat(result).containsExactly(testPayment);
+        verify(paymentRepository).findPageAfterBooking(new UUID(0, 0), PageRequest.of(0, PaymentService.MAX_PAGE_SIZE));
+    }
+
+    private Payment failedPayment(String idempotencyKey) {
+        Payment payment = new Payment();
+        payment.setId(paymentId);
+        payment.setBookingId(bookingId);
+        payment.setUserId(userId);
+        payment.setAmount(testPayment.getAmount());
+        payment.setIdempotencyKey(idempotencyKey);
+        payment.setStatus(PaymentStatus.FAILED);
+        return payment;
+    }
+
     @Test
     void charge_shouldReturnTrue() {
 
@@ -0,0 +1,121 @@
+package com.exam.app.service.retention;
+
+import com.exam.app.model.RetentionCheckpoint;
+import com.exam.app.repository.RetentionCheckpointRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionPartitionsUTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private RetentionCheckpointRepository checkpointRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TransactionPartitions transactionPartitions;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        Clock clock = Clock.fixed(LocalDateTime.of(2026, 10, 19, 12, 0).toInstant(ZoneOffset.UTC), ZoneId.of("UTC"));
+        transactionPartitions = new TransactionPartitions(jdbcTemplate, checkpointRepository, transactionManager,
+                true, 3, true, 1800, 365, meterRegistry, clock);
+    }
+
+    @Test
+    void maintain_onAnotherDatabase_leavesTheTableAlone() {
+
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("H2");
+
+        assertThat(transactionPartitions.maintain()).isZero();
+        assertThat(transactionPartitions.isActive()).isFalse();
+        verify(jdbcTemplate, never()).execute(anyString());
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(String.class));
+    }
+
+    @Test
+    void maintain_onATableThatWasNotMigrated_leavesItAlone() {
+
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("MySQL");
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of());
+
+        assertThat(transactionPartitions.maintain()).isZero();
+        assertThat(transactionPartitions.isActive()).isFalse();
+        verify(jdbcTemplate, never()).execute(anyString());
+        verifyNoInteractions(checkpointRepository);
+    }
+
+    @Test
+    void maintain_whenAnotherInstanceHoldsTheLease_leavesThePartitionsAlone() {
+
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("MySQL");
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of("p202509", "p_future"));
+        when(checkpointRepository.existsById(TransactionPartitions.LEASE_NAME)).thenReturn(true);
+        when(checkpointRepository.lock(eq(TransactionPartitions.LEASE_NAME), any(), any())).thenReturn(0);
+
+        assertThat(transactionPartitions.maintain()).isZero();
+
+        verify(jdbcTemplate, never()).execute(anyString());
+        verify(jdbcTemplate, never()).update(anyString(), any(LocalDateTime.class));
+    }
+
+    @Test
+    void maintain_onAPartitionedTable_archivesAndDropsExpiredMonthsAndAddsTheNextOne() {
+
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("MySQL");
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of(
+                "p202509", "p202510", "p202511", "p202612", "p_future"));
+        when(jdbcTemplate.update(contains("FROM transactions PARTITION (p202509)"), any(LocalDateTime.class))).thenReturn(42);
+        RetentionCheckpoint checkpoint = new RetentionCheckpoint(TransactionPartitions.LEASE_NAME);
+        when(checkpointRepository.existsById(TransactionPartitions.LEASE_NAME)).thenReturn(true);
+        when(checkpointRepository.lock(eq(TransactionPartitions.LEASE_NAME), any(), any())).thenReturn(1);
+        when(checkpointRepository.findById(TransactionPartitions.LEASE_NAME)).thenReturn(Optional.of(checkpoint));
+
+        assertThat(transactionPartitions.maintain()).isEqualTo(1);
+
+        ArgumentCaptor<String> ddl = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, times(2)).execute(ddl.capture());
+        assertThat(ddl.getAllValues()).containsExactly(
+                "ALTER TABLE transactions REORGANIZE PARTITION p_future INTO (PARTITION p202701 VALUES LESS THAN "
+                        + "('2027-02-01 00:00:00'), PARTITION p_future VALUES LESS THAN (MAXVALUE))",
+                "ALTER TABLE transactions DROP PARTITION p202509");
+        verify(jdbcTemplate, times(1)).update(anyString(), any(LocalDateTime.class));
+        assertThat(meterRegistry.counter("eventhub.retention.purged", "target", "transactions").count()).isEqualTo(42.0);
+        assertThat(checkpoint.getLockedUntil()).isNull();
+        assertThat(checkpoint.isLastRunCompleted()).isTrue();
+        verify(checkpointRepository).save(checkpoint);
+    }
+
+    @Test
+    void maintain_whenPartitioningIsDisabled_doesNotTouchTheDatabase() {
+
+        transactionPartitions = new TransactionPartitions(jdbcTemplate, checkpointRepository, transactionManager,
+                false, 3, true, 1800, 365, meterRegistry, Clock.systemUTC());
+
+        assertThat(transactionPartitions.maintain()).isZero();
+        verifyNoInteractions(jdbcTemplate, checkpointRepository);
+    }
+}
@@ -0,0 +1,86 @@
+package com.exam.app.service.retention;
+
+import com.exam.app.model.Transaction;
+import com.exam.app.model.TransactionStatus;
+import com.exam.app.model.TransactionType;
+import com.exam.app.repository.RetentionCheckpointRepository;
+import com.exam.app.repository.TransactionRepository;
+import com.exam.app.service.retention.RetentionRun.Outcome;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "eventhub.retention.transactions.chunk-size=4",
+        "eventhub.retention.transactions.pause-ms=0"
+})
+class TransactionRetentionIntegrationTest {
+
+    @Autowired
+    private RetentionEngine retentionEngine;
+
+    @Autowired
+    private TransactionRetention transactionRetention;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private RetentionCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM transactions_archive");
+        checkpointRepository.deleteAll();
+    }
+
+    @Test
+    void run_movesExpiredTransactionsToTheArchiveInChunks() {
+
+        UUID paymentId = UUID.randomUUID();
+        List<UUID> expired = IntStream.range(0, 10).mapToObj(i -> save(paymentId, 400)).toList();
+        UUID recent = save(paymentId, 30);
+
+        RetentionRun run = retentionEngine.run(transactionRetention);
+
+        assertEquals(Outcome.COMPLETED, run.outcome());
+        assertEquals(10, run.purged());
+        assertEquals(3, run.chunks());
+        assertTrue(expired.stream().noneMatch(transactionRepository::existsById));
+        assertTrue(transactionRepository.existsById(recent));
+
+        List<UUID> archived = jdbcTemplate.queryForList(
+                "SELECT id FROM transactions_archive WHERE payment_id = ? AND archived_on IS NOT NULL", UUID.class, paymentId);
+        assertEquals(10, archived.size());
+        assertTrue(archived.containsAll(expired));
+    }
+
+    private UUID save(UUID paymentId, int daysOld) {
+        Transaction transaction = new Transaction();
+        transaction.setPaymentId(paymentId);
+        transaction.setAmount(BigDecimal.TEN);
+        transaction.setType(TransactionType.PAYMENT);
+        transaction.setStatus(TransactionStatus.SUCCESS);
+        transaction.setMessage("Payment processed");
+        UUID id = transactionRepository.save(transaction).getId();
+
+        jdbcTemplate.update("UPDATE transactions SET timestamp = ? WHERE id = ?", LocalDateTime.now().minusDays(daysOld), id);
+        return id;
+    }
+}
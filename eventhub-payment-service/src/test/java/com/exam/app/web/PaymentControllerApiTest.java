@@ -1,8 +1,21 @@
 package com.exam.app.web;
 
+import com.exam.app.config.CborMessageConverter;
+import com.exam.app.exception.IdempotencyKeyConflictException;
 import com.exam.app.model.Payment;
 import com.exam.app.model.PaymentStatus;
+import com.exam.app.model.RefundOutcome;
+import com.exam.app.model.Transaction;
+import com.exam.app.model.TransactionStatus;
+import com.exam.app.model.TransactionType;
+import com.exam.app.service.BatchRefundService;
 import com.exam.app.service.PaymentService;
+import com.exam.app.service.RefundItem;
+import com.exam.app.service.RefundResult;
+import com.exam.app.web.dto.BatchRefundItem;
+import com.exam.app.web.dto.BatchRefundRequest;
+import com.exam.app.web.dto.PaymentRequest;
+import com.exam.app.web.dto.PaymentResponse;
 import com.exam.app.web.dto.RefundRequest;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -16,15 +29,18 @@ import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
 import static com.exam.app.util.TestBuilder.createMockPayment;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -35,12 +51,18 @@ public class PaymentControllerApiTest {
     @MockitoBean
     private PaymentService paymentService;
 
+    @MockitoBean
+    private BatchRefundService batchRefundService;
+
     @Autowired
     private MockMvc mockMvc;
 
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private CborMessageConverter cborMessageConverter;
+
     @Test
     void processPayment_happyPath() throws Exception {
 
@@ -69,6 +91,113 @@ public class PaymentControllerApiTest {
         verify(paymentService, times(1)).processPayment(any(Payment.class));
     }
 
+    @Test
+    void processPayment_whenChargeIsStillPending_returnsAcceptedWithTheIdempotencyKeyPassedOn() throws Exception {
+
+        Payment pending = createMockPayment();
+        pending.setStatus(PaymentStatus.PENDING);
+        when(paymentService.processPayment(any(Payment.class))).thenReturn(pending);
+        PaymentRequest paymentRequest = new PaymentRequest(UUID.randomUUID(), UUID.randomUUID(), new BigDecimal("150.00"));
+
+        MockHttpServletRequestBuilder request = post("/api/v1/payments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Idempotency-Key", "booking-attempt-1")
+                .content(objectMapper.writeValueAsBytes(paymentRequest));
+
+        mockMvc.perform(request)
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.status").value("PENDING"));
+
+        verify(paymentService).processPayment(argThat(payment -> "booking-attempt-1".equals(payment.getIdempotencyKey())));
+    }
+
+    @Test
+    void processPayment_whenKeyWasUsedForAnotherBooking_returnsConflict() throws Exception {
+
+        when(paymentService.processPayment(any(Payment.class)))
+                .thenThrow(new IdempotencyKeyConflictException("Idempotency key [k] was already used for another booking."));
+        PaymentRequest paymentRequest = new PaymentRequest(UUID.randomUUID(), UUID.randomUUID(), new BigDecimal("150.00"));
+
+        MockHttpServletRequestBuilder request = post("/api/v1/payments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Idempotency-Key", "k")
+                .content(objectMapper.writeValueAsBytes(paymentRequest));
+
+        mockMvc.perform(request)
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value(409));
+    }
+
+    @Test
+    void processPayment_whenKeyIsLongerThanTheColumn_returnsBadRequestWithoutCharging() throws Exception {
+
+        PaymentRequest paymentRequest = new PaymentRequest(UUID.randomUUID(), UUID.randomUUID(), new BigDecimal("150.00"));
+
+        MockHttpServletRequestBuilder request = post("/api/v1/payments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Idempotency-Key", "k".repeat(65))
+                .content(objectMapper.writeValueAsBytes(paymentRequest));
+
+        mockMvc.perform(request)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400));
+        verifyNoInteractions(paymentService);
+    }
+
+    @Test
+    void processPayment_whenKeyHasUnsupportedCharacters_returnsBadRequest() throws Exception {
+
+        PaymentRequest paymentRequest = new PaymentRequest(UUID.randomUUID(), UUID.randomUUID(), new BigDecimal("150.00"));
+
+        MockHttpServletRequestBuilder request = post("/api/v1/payments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Idempotency-Key", "booking attempt #1")
+                .content(objectMapper.writeValueAsBytes(paymentRequest));
+
+        mockMvc.perform(request)
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(paymentService);
+    }
+
+    @Test
+    void refundPayments_returnsOneResultPerItemAndTheTotals() throws Exception {
+
+        UUID refunded = UUID.randomUUID();
+        UUID missing = UUID.randomUUID();
+        when(batchRefundService.refund(List.of(new RefundItem(refunded, new BigDecimal("10.00")), new RefundItem(missing, new BigDecimal("5.00")))))
+                .thenReturn(List.of(new RefundResult(refunded, RefundOutcome.REFUNDED, "Refund processed successfully"),
+                        new RefundResult(missing, RefundOutcome.NOT_FOUND, "Payment was not found.")));
+        BatchRefundRequest batchRefundRequest = new BatchRefundRequest(List.of(
+                new BatchRefundItem(refunded, new BigDecimal("10.00")), new BatchRefundItem(missing, new BigDecimal("5.00"))));
+
+        MockHttpServletRequestBuilder request = post("/api/v1/payments/refunds")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsBytes(batchRefundRequest));
+
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested").value(2))
+                .andExpect(jsonPath("$.completed").value(1))
+                .andExpect(jsonPath("$.outcomes.NOT_FOUND").value(1))
+                .andExpect(jsonPath("$.results[0].paymentId").value(refunded.toString()))
+                .andExpect(jsonPath("$.results[0].outcome").value("REFUNDED"))
+                .andExpect(jsonPath("$.results[1].outcome").value("NOT_FOUND"));
+    }
+
+    @Test
+    void refundPayments_withoutItems_returnsBadRequest() throws Exception {
+
+        MockHttpServletRequestBuilder request = post("/api/v1/payments/refunds")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsBytes(new BatchRefundRequest(List.of())));
+
+        mockMvc.perform(request)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("At least one refund is required"));
+
+        verifyNoInteractions(batchRefundService);
+    }
+
     @Test
     void refundPayment_happyPath() throws Exception {
 
@@ -181,6 +310,46 @@ public class PaymentControllerApiTest {
         verify(paymentService, times(1)).getPaymentsByUser(userId);
     }
 
+    @Test
+    void getPaymentsByUser_whenCborIsAccepted_respondsInCbor() throws Exception {
+
+        UUID userId = UUID.randomUUID();
+        Payment payment = createMockPayment();
+        when(paymentService.getPaymentsByUser(userId)).thenReturn(List.of(payment));
+
+        MockHttpServletRequestBuilder request = get("/api/v1/payments/users/{userId}", userId)
+                .accept(MediaType.APPLICATION_CBOR, MediaType.APPLICATION_JSON);
+
+        byte[] body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        PaymentResponse[] payments = cborMessageConverter.getObjectMapper().readValue(body, PaymentResponse[].class);
+        assertEquals(1, payments.length);
+        assertEquals(payment.getBookingId(), payments[0].getBookingId());
+    }
+
+    @Test
+    void processPayment_whenBodyIsCbor_isReadLikeJson() throws Exception {
+
+        when(paymentService.processPayment(any(Payment.class))).thenReturn(createMockPayment());
+        PaymentRequest paymentRequest = new PaymentRequest();
+        paymentRequest.setBookingId(UUID.randomUUID());
+        paymentRequest.setUserId(UUID.randomUUID());
+        paymentRequest.setAmount(new BigDecimal("150.00"));
+
+        MockHttpServletRequestBuilder request = post("/api/v1/payments")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .content(cborMessageConverter.getObjectMapper().writeValueAsBytes(paymentRequest));
+
+        mockMvc.perform(request)
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.paymentId").isNotEmpty());
+        verify(paymentService).processPayment(argThat(payment -> payment.getBookingId().equals(paymentRequest.getBookingId())));
+    }
+
     @Test
     void getPaymentsByUser_emptyList() throws Exception {
 
@@ -218,4 +387,50 @@ public class PaymentControllerApiTest {
 
         verify(paymentService, times(1)).getPaymentById(paymentId);
     }
+
+    @Test
+    void getPaymentTransactions_happyPath() throws Exception {
+
+        UUID paymentId = UUID.randomUUID();
+        Transaction payment = new Transaction(UUID.randomUUID(), paymentId, new BigDecimal("150.00"), TransactionType.PAYMENT,
+                TransactionStatus.SUCCESS, "Payment completed successfully", LocalDateTime.now().minusMinutes(5));
+        Transaction refund = new Transaction(UUID.randomUUID(), paymentId, new BigDecimal("150.00"), TransactionType.REFUND,
+                TransactionStatus.SUCCESS, "Refund processed successfully", LocalDateTime.now());
+
+        when(paymentService.getTransactions(paymentId)).thenReturn(List.of(payment, refund));
+
+        MockHttpServletRequestBuilder request = get("/api/v1/payments/{paymentId}/transactions", paymentId);
+
+        ResultActions response = mockMvc.perform(request);
+
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].transactionId").value(payment.getId().toString()))
+                .andExpect(jsonPath("$[0].type").value("PAYMENT"))
+                .andExpect(jsonPath("$[1].type").value("REFUND"))
+                .andExpect(jsonPath("$[1].status").value("SUCCESS"));
+
+        verify(paymentService, times(1)).getTransactions(paymentId);
+    }
+
+    @Test
+    void getPaymentsByBookingOrder_passesTheCursorAndLimit() throws Exception {
+
+        UUID after = UUID.randomUUID();
+        Payment mockPayment = createMockPayment();
+
+        when(paymentService.getPaymentsAfterBooking(after, 2)).thenReturn(List.of(mockPayment));
+
+        MockHttpServletRequestBuilder request = get("/api/v1/payments/by-booking")
+                .param("after", after.toString())
+                .param("limit", "2");
+
+        ResultActions response = mockMvc.perform(request);
+
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].bookingId").value(mockPayment.getBookingId().toString()));
+
+        verify(paymentService, times(1)).getPaymentsAfterBooking(after, 2);
+    }
 }
@@ -5,6 +5,7 @@ import com.exam.app.repository.PaymentRepository;
 import com.exam.app.web.dto.PaymentRequest;
 import com.exam.app.web.dto.PaymentResponse;
 import com.exam.app.web.dto.RefundRequest;
+import com.exam.app.web.dto.TransactionResponse;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,6 +17,10 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
 import java.util.UUID;
 
 @ActiveProfiles("test")
@@ -36,7 +41,7 @@ public class PaymentControllerIntegrationTest {
     }
 
     @Test
-    void testFullPaymentFlow_process_get_refund() {
+    void testFullPaymentFlow_process_get_refund() throws InterruptedException {
 
         UUID bookingId = UUID.randomUUID();
         UUID userId = UUID.randomUUID();
@@ -45,18 +50,20 @@ public class PaymentControllerIntegrationTest {
 
         ResponseEntity<PaymentResponse> createResponse = rest.postForEntity(url(""), paymentRequest, PaymentResponse.class);
 
-        Assertions.assertEquals(HttpStatus.CREATED, createResponse.getStatusCode());
+        Assertions.assertEquals(HttpStatus.ACCEPTED, createResponse.getStatusCode());
         Assertions.assertNotNull(createResponse.getBody());
         Assertions.assertNotNull(createResponse.getBody().getPaymentId());
+        Assertions.assertEquals("PENDING", createResponse.getBody().getStatus());
 
         UUID paymentId = createResponse.getBody().getPaymentId();
 
 
-        ResponseEntity<PaymentResponse> getResponse = rest.getForEntity(url("/" + paymentId), PaymentResponse.class);
+        ResponseEntity<PaymentResponse> getResponse = pollUntilCompleted(paymentId);
 
         Assertions.assertEquals(HttpStatus.OK, getResponse.getStatusCode());
         Assertions.assertNotNull(getResponse.getBody());
         Assertions.assertEquals(BigDecimal.valueOf(49.99), getResponse.getBody().getAmount());
+        Assertions.assertEquals("SUCCESS", getResponse.getBody().getStatus());
 
 
         RefundRequest refundRequest = new RefundRequest(BigDecimal.valueOf(49.99));
@@ -71,4 +78,71 @@ public class PaymentControllerIntegrationTest {
         Payment dbPayment = paymentRepository.findById(paymentId).orElseThrow();
         Assertions.assertEquals("REFUNDED", dbPayment.getStatus().name());
     }
+
+    @Test
+    void processPayment_repeatedForTheSameBooking_returnsTheExistingPayment() throws InterruptedException {
+
+        PaymentRequest paymentRequest = new PaymentRequest(UUID.randomUUID(), UUID.randomUUID(), BigDecimal.valueOf(20));
+
+        ResponseEntity<PaymentResponse> first = rest.postForEntity(url(""), paymentRequest, PaymentResponse.class);
+        UUID paymentId = first.getBody().getPaymentId();
+        pollUntilCompleted(paymentId);
+
+        ResponseEntity<PaymentResponse> second = rest.postForEntity(url(""), paymentRequest, PaymentResponse.class);
+
+        Assertions.assertEquals(HttpStatus.CREATED, second.getStatusCode());
+        Assertions.assertEquals(paymentId, second.getBody().getPaymentId());
+        Assertions.assertEquals("SUCCESS", second.getBody().getStatus());
+    }
+
+    @Test
+    void getPaymentTransactions_returnsTheLedgerOfThePaymentInOrder() throws InterruptedException {
+
+        PaymentRequest paymentRequest = new PaymentRequest(UUID.randomUUID(), UUID.randomUUID(), BigDecimal.valueOf(30));
+        UUID paymentId = rest.postForEntity(url(""), paymentRequest, PaymentResponse.class).getBody().getPaymentId();
+        pollUntilCompleted(paymentId);
+        rest.postForEntity(url("/" + paymentId + "/refunds"), new RefundRequest(BigDecimal.valueOf(30)), PaymentResponse.class);
+
+        ResponseEntity<TransactionResponse[]> response = rest.getForEntity(url("/" + paymentId + "/transactions"), TransactionResponse[].class);
+
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assertions.assertEquals(2, response.getBody().length);
+        Assertions.assertEquals("PAYMENT", response.getBody()[0].getType());
+        Assertions.assertEquals("SUCCESS", response.getBody()[0].getStatus());
+        Assertions.assertEquals("REFUND", response.getBody()[1].getType());
+        Assertions.assertFalse(response.getBody()[1].getTimestamp().isBefore(response.getBody()[0].getTimestamp()));
+    }
+
+    @Test
+    void getPaymentsByBookingOrder_walksEveryPaymentOnceInBookingOrder() {
+
+        for (int i = 0; i < 5; i++) {
+            rest.postForEntity(url(""), new PaymentRequest(UUID.randomUUID(), UUID.randomUUID(), BigDecimal.TEN), PaymentResponse.class);
+        }
+
+        List<UUID> walked = new ArrayList<>();
+        UUID after = new UUID(0, 0);
+        PaymentResponse[] page;
+        do {
+            page = rest.getForObject(url("/by-booking?limit=2&after=" + after), PaymentResponse[].class);
+            Arrays.stream(page).map(PaymentResponse::getBookingId).forEach(walked::add);
+            after = page.length > 0 ? page[page.length - 1].getBookingId() : after;
+        } while (page.length == 2);
+
+        Comparator<UUID> unsigned = Comparator.comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+                .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+        Assertions.assertEquals(paymentRepository.count(), walked.size());
+        Assertions.assertEquals(walked.stream().sorted(unsigned).toList(), walked);
+    }
+
+    private ResponseEntity<PaymentResponse> pollUntilCompleted(UUID paymentId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        ResponseEntity<PaymentResponse> response = rest.getForEntity(url("/" + paymentId), PaymentResponse.class);
+
+        while ("PENDING".equals(response.getBody().getStatus()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            response = rest.getForEntity(url("/" + paymentId), PaymentResponse.class);
+        }
+        return response;
+    }
 }